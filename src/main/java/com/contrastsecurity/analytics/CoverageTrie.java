@@ -0,0 +1,324 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Coverage;
+import com.contrastsecurity.models.URLEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Path trie over getCoverage results for route-level queries such as "which /api/admin routes
+ * were exercised, in how many applications" without scanning every application's URL list.
+ * <p>
+ * URLs are split into path segments; the query string is ignored. Segments are dictionary
+ * encoded and nodes live in parallel int and long arrays, with children found through one
+ * open-addressing table keyed by parent and segment, so a node costs a few dozen bytes. Each
+ * node counts the routes that end at it and, for its whole subtree, the routes and the
+ * vulnerable routes; a route is counted once per application it was seen in. Tries built for
+ * different applications or organizations can be merged.
+ * <p>
+ * The trie is not thread-safe.
+ */
+public class CoverageTrie {
+
+    private static final int ROOT = 0;
+
+    private final Dictionary segments = new Dictionary();
+
+    private int nodeCount = 1;
+    private int[] segment = new int[64];
+    private int[] parent = new int[64];
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private int[] routeCounts = new int[64];
+    private int[] vulnerableCounts = new int[64];
+    private int[] subtreeRoutes = new int[64];
+    private int[] subtreeVulnerable = new int[64];
+    private long[] lastSeen = new long[64];
+
+    private long[] childKeys = new long[128];
+    private int[] childNodes = new int[128];
+    private int childCount;
+
+    public CoverageTrie() {
+        segment[ROOT] = Dictionary.NO_CODE;
+        parent[ROOT] = -1;
+        firstChild[ROOT] = -1;
+        nextSibling[ROOT] = -1;
+        Arrays.fill(childNodes, -1);
+    }
+
+    /**
+     * Add the coverage of one application.
+     *
+     * @param coverage the result of getCoverage, may be null
+     */
+    public void add(Coverage coverage) {
+        if (coverage != null && coverage.getUrls() != null) {
+            add(coverage.getUrls());
+        }
+    }
+
+    /**
+     * Add the URLs of one application. A URL listed twice is counted once.
+     *
+     * @param urls the URLs observed in the application
+     */
+    public void add(Collection<URLEntry> urls) {
+        Set<String> seen = new LinkedHashSet<>();
+        for (URLEntry entry : urls) {
+            if (entry.getUrl() == null) {
+                continue;
+            }
+            String path = normalize(entry.getUrl());
+            if (seen.add(path)) {
+                Long time = entry.getLastTimeSeen();
+                addRoute(node(split(path), true), 1, entry.getVulnerable() ? 1 : 0, time == null ? 0 : time);
+            }
+        }
+    }
+
+    /**
+     * Add the counts of another trie to this one.
+     *
+     * @param other the trie to merge in
+     */
+    public void merge(CoverageTrie other) {
+        int[] mapped = new int[other.nodeCount];
+        mapped[ROOT] = ROOT;
+        if (other.routeCounts[ROOT] > 0) {
+            addRoute(ROOT, other.routeCounts[ROOT], other.vulnerableCounts[ROOT], other.lastSeen[ROOT]);
+        }
+        for (int node = 1; node < other.nodeCount; node++) {
+            // parents are always created before their children
+            int code = segments.encode(other.segments.decode(other.segment[node]));
+            mapped[node] = child(mapped[other.parent[node]], code, true);
+            if (other.routeCounts[node] > 0) {
+                addRoute(mapped[node], other.routeCounts[node], other.vulnerableCounts[node], other.lastSeen[node]);
+            }
+        }
+    }
+
+    /**
+     * @param prefix a path prefix such as "/api/admin" or "/api/admin/*"
+     * @return the number of routes, counted per application, at or below the prefix
+     */
+    public int countUnder(String prefix) {
+        int node = find(prefix);
+        return node < 0 ? 0 : subtreeRoutes[node];
+    }
+
+    /**
+     * @param prefix a path prefix
+     * @return the number of vulnerable routes, counted per application, at or below the prefix
+     */
+    public int countVulnerableUnder(String prefix) {
+        int node = find(prefix);
+        return node < 0 ? 0 : subtreeVulnerable[node];
+    }
+
+    /**
+     * @param path a route
+     * @return the number of applications the route was seen in
+     */
+    public int getRouteCount(String path) {
+        int node = find(path);
+        return node < 0 ? 0 : routeCounts[node];
+    }
+
+    /**
+     * @param path a route
+     * @return the latest last-time-seen of the route in any application, or 0 if unknown
+     */
+    public long getLastTimeSeen(String path) {
+        int node = find(path);
+        return node < 0 ? 0 : lastSeen[node];
+    }
+
+    /**
+     * List the distinct routes at or below a prefix, depth first.
+     *
+     * @param prefix a path prefix
+     * @param limit  the maximum number of routes
+     * @return the routes, each starting with '/'
+     */
+    public List<String> routesUnder(String prefix, int limit) {
+        List<String> routes = new ArrayList<>();
+        int start = find(prefix);
+        if (start < 0 || limit <= 0) {
+            return routes;
+        }
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = start;
+        while (depth > 0 && routes.size() < limit) {
+            int node = stack[--depth];
+            if (routeCounts[node] > 0) {
+                routes.add(path(node));
+            }
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = child;
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * @return the number of trie nodes, including the root
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return an estimate of the heap used by the node arrays and child table, in bytes
+     */
+    public long sizeInBytes() {
+        return segment.length * (8L * 4 + 8) + childKeys.length * (8L + 4);
+    }
+
+    private void addRoute(int node, int routes, int vulnerable, long time) {
+        routeCounts[node] += routes;
+        vulnerableCounts[node] += vulnerable;
+        lastSeen[node] = Math.max(lastSeen[node], time);
+        for (int n = node; n >= 0; n = parent[n]) {
+            subtreeRoutes[n] += routes;
+            subtreeVulnerable[n] += vulnerable;
+        }
+    }
+
+    private int find(String prefix) {
+        if (prefix == null) {
+            return -1;
+        }
+        String path = normalize(prefix);
+        if (path.endsWith("*")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return node(split(path), false);
+    }
+
+    private int node(List<String> parts, boolean create) {
+        int node = ROOT;
+        for (String part : parts) {
+            int code = create ? segments.encode(part) : segments.lookup(part);
+            if (code == Dictionary.NO_CODE) {
+                return -1;
+            }
+            node = child(node, code, create);
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private int child(int node, int code, boolean create) {
+        long key = ((long) node << 32) | (code & 0xFFFFFFFFL);
+        int mask = childKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (childNodes[slot] >= 0) {
+            if (childKeys[slot] == key) {
+                return childNodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        int child = newNode(node, code);
+        childKeys[slot] = key;
+        childNodes[slot] = child;
+        if (++childCount * 2 > childKeys.length) {
+            rehash();
+        }
+        return child;
+    }
+
+    private int newNode(int parentNode, int code) {
+        if (nodeCount == segment.length) {
+            int capacity = nodeCount * 2;
+            segment = Arrays.copyOf(segment, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            routeCounts = Arrays.copyOf(routeCounts, capacity);
+            vulnerableCounts = Arrays.copyOf(vulnerableCounts, capacity);
+            subtreeRoutes = Arrays.copyOf(subtreeRoutes, capacity);
+            subtreeVulnerable = Arrays.copyOf(subtreeVulnerable, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+        }
+        int node = nodeCount++;
+        segment[node] = code;
+        parent[node] = parentNode;
+        firstChild[node] = -1;
+        nextSibling[node] = firstChild[parentNode];
+        firstChild[parentNode] = node;
+        return node;
+    }
+
+    private void rehash() {
+        long[] oldKeys = childKeys;
+        int[] oldNodes = childNodes;
+        childKeys = new long[oldKeys.length * 2];
+        childNodes = new int[oldNodes.length * 2];
+        Arrays.fill(childNodes, -1);
+        int mask = childKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldNodes[i] >= 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (childNodes[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                childKeys[slot] = oldKeys[i];
+                childNodes[slot] = oldNodes[i];
+            }
+        }
+    }
+
+    private String path(int node) {
+        if (node == ROOT) {
+            return "/";
+        }
+        List<String> parts = new ArrayList<>();
+        for (int n = node; n != ROOT; n = parent[n]) {
+            parts.add(segments.decode(segment[n]));
+        }
+        StringBuilder path = new StringBuilder();
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            path.append('/').append(parts.get(i));
+        }
+        return path.toString();
+    }
+
+    private static String normalize(String url) {
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    private static List<String> split(String path) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    parts.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return parts;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,82 @@
+package com.contrastsecurity.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps distinct string values to dense int codes, starting at zero, so that
+ * columns and counters can be stored in primitive arrays indexed by code.
+ * <p>
+ * Dictionaries are not thread-safe; callers that share one across threads must
+ * synchronize externally.
+ */
+public class Dictionary {
+
+    private final Map<String, Integer> codes;
+    private final List<String> values;
+
+    public Dictionary() {
+        this.codes = new HashMap<>();
+        this.values = new ArrayList<>();
+    }
+
+    /**
+     * Return the code for a value, assigning the next free code if the value is new.
+     *
+     * @param value the value to encode
+     * @return the code for the value, or {@link #NO_CODE} if the value is null
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Return the code for a value without assigning a new one.
+     *
+     * @param value the value to look up
+     * @return the code for the value, or {@link #NO_CODE} if the value is null or unknown
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * @param code a code previously returned by {@link #encode(String)}
+     * @return the value for the code, or null for {@link #NO_CODE}
+     */
+    public String decode(int code) {
+        return code == NO_CODE ? null : values.get(code);
+    }
+
+    /**
+     * @return the number of distinct values, which is also the next code to be assigned
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return the values in code order
+     */
+    public List<String> values() {
+        return Collections.unmodifiableList(values);
+    }
+
+    public static final int NO_CODE = -1;
+}
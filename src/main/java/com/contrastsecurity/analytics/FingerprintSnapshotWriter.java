@@ -0,0 +1,260 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Writes a trace snapshot as a file of {@link TraceFingerprint}s sorted by uuid, for
+ * {@link TraceSetDiff}. Traces can be added in any order, e.g. page by page from
+ * getTracesInOrg. Fingerprints are buffered up to a fixed count, sorted and spilled to
+ * temporary run files, and the runs are merged when the snapshot is finished, so memory use
+ * does not grow with the size of the snapshot. A uuid added twice keeps its last state.
+ */
+public class FingerprintSnapshotWriter implements Closeable {
+
+    private final File target;
+    private final File directory;
+    private final TraceFingerprint[] buffer;
+    private final long[] sequences;
+    private final List<File> runs = new ArrayList<>();
+    private int buffered;
+    private long sequence;
+    private boolean finished;
+
+    /**
+     * @param target the snapshot file to write
+     */
+    public FingerprintSnapshotWriter(File target) {
+        this(target, DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * @param target  the snapshot file to write
+     * @param runSize the number of fingerprints held in memory before a run is spilled
+     */
+    public FingerprintSnapshotWriter(File target, int runSize) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive");
+        }
+        this.target = target;
+        this.directory = target.getAbsoluteFile().getParentFile();
+        this.buffer = new TraceFingerprint[runSize];
+        this.sequences = new long[runSize];
+    }
+
+    public void add(Traces page) throws IOException {
+        if (page != null && page.getTraces() != null) {
+            for (Trace trace : page.getTraces()) {
+                add(TraceFingerprint.of(trace));
+            }
+        }
+    }
+
+    public void add(Trace trace) throws IOException {
+        add(TraceFingerprint.of(trace));
+    }
+
+    public void add(TraceFingerprint fingerprint) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Snapshot already finished");
+        }
+        if (buffered == buffer.length) {
+            spill();
+        }
+        buffer[buffered] = fingerprint;
+        sequences[buffered] = sequence++;
+        buffered++;
+    }
+
+    /**
+     * Merge the runs into a temporary file, move it onto the target and delete the runs. The
+     * target is only replaced once the snapshot is complete.
+     *
+     * @return the target file
+     * @throws IOException if a run or the target could not be read or written
+     */
+    public File finish() throws IOException {
+        if (finished) {
+            return target;
+        }
+        finished = true;
+        File temporary = File.createTempFile("snapshot-", ".tmp", directory);
+        boolean moved = false;
+        try {
+            if (runs.isEmpty()) {
+                try (DataOutputStream out = open(temporary)) {
+                    for (Entry entry : sortedBuffer()) {
+                        entry.fingerprint.write(out);
+                    }
+                }
+            } else {
+                merge(temporary);
+            }
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temporary.toPath());
+            }
+        }
+        return target;
+    }
+
+    private void merge(File file) throws IOException {
+        spill();
+        PriorityQueue<RunReader> readers = new PriorityQueue<>();
+        try (DataOutputStream out = open(file)) {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(runs.get(i), i);
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            TraceFingerprint pending = null;
+            while (!readers.isEmpty()) {
+                RunReader reader = readers.poll();
+                // runs are spilled in insertion order, so a later run holds the later state of a uuid
+                if (pending != null && !pending.getUuid().equals(reader.current.getUuid())) {
+                    pending.write(out);
+                }
+                pending = reader.current;
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            if (pending != null) {
+                pending.write(out);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            deleteRuns();
+        }
+    }
+
+    /**
+     * Delete any temporary runs. The target file is left in place.
+     */
+    @Override
+    public void close() {
+        deleteRuns();
+    }
+
+    private void spill() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        File run = File.createTempFile("traces-", ".run", directory);
+        runs.add(run);
+        try (DataOutputStream out = open(run)) {
+            for (Entry entry : sortedBuffer()) {
+                entry.fingerprint.write(out);
+            }
+        }
+        Arrays.fill(buffer, 0, buffered, null);
+        buffered = 0;
+    }
+
+    /**
+     * Sort the buffer by uuid, keeping only the last fingerprint added for each uuid.
+     */
+    private List<Entry> sortedBuffer() {
+        Entry[] entries = new Entry[buffered];
+        for (int i = 0; i < buffered; i++) {
+            entries[i] = new Entry(buffer[i], sequences[i]);
+        }
+        Arrays.sort(entries);
+        List<Entry> distinct = new ArrayList<>(entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            if (i + 1 < entries.length && entries[i + 1].fingerprint.getUuid().equals(entries[i].fingerprint.getUuid())) {
+                continue;
+            }
+            distinct.add(entries[i]);
+        }
+        return distinct;
+    }
+
+    private void deleteRuns() {
+        for (File run : runs) {
+            if (run.exists() && !run.delete()) {
+                run.deleteOnExit();
+            }
+        }
+        runs.clear();
+    }
+
+    private static DataOutputStream open(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER_SIZE));
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final TraceFingerprint fingerprint;
+        private final long sequence;
+
+        Entry(TraceFingerprint fingerprint, long sequence) {
+            this.fingerprint = fingerprint;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byUuid = fingerprint.compareTo(other.fingerprint);
+            return byUuid != 0 ? byUuid : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        private final int index;
+        private TraceFingerprint current;
+
+        RunReader(File run, int index) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), IO_BUFFER_SIZE));
+            this.index = index;
+        }
+
+        boolean advance() throws IOException {
+            current = TraceFingerprint.readNext(in);
+            return current != null;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            int byUuid = current.compareTo(other.current);
+            return byUuid != 0 ? byUuid : Integer.compare(index, other.index);
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_RUN_SIZE = 256 * 1024;
+}
@@ -0,0 +1,256 @@
+package com.contrastsecurity.analytics;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative ints, such as dictionary codes, that picks the smaller of two layouts:
+ * a sorted int array while the set is sparse and a bitmap once it holds more than one value
+ * per 32 possible values. Contains is a binary search or a single bit test, and intersections
+ * of two bitmaps are word-wise ANDs.
+ * <p>
+ * Sets are not thread-safe.
+ */
+public class IntBitmap {
+
+    private int[] values = new int[4];
+    private long[] words;
+    private int size;
+
+    /**
+     * @param value the value to add, not negative
+     * @return true if the value was not already present
+     */
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if (words != null) {
+            int word = value >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+            long bit = 1L << value;
+            if ((words[word] & bit) != 0) {
+                return false;
+            }
+            words[word] |= bit;
+            size++;
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        if (size > 32 && (long) size * 32 > values[size - 1]) {
+            toBitmap();
+        }
+        return true;
+    }
+
+    /**
+     * @param value the value to remove
+     * @return true if the value was present
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        if (words != null) {
+            int word = value >>> 6;
+            long bit = 1L << value;
+            if (word >= words.length || (words[word] & bit) == 0) {
+                return false;
+            }
+            words[word] &= ~bit;
+            size--;
+            if (size * 2 < words.length) {
+                toArray(size);
+            }
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        if (words != null) {
+            int word = value >>> 6;
+            return word < words.length && (words[word] & (1L << value)) != 0;
+        }
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the values in ascending order
+     */
+    public int[] toArray() {
+        if (words == null) {
+            return Arrays.copyOf(values, size);
+        }
+        int[] result = new int[size];
+        int n = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                result[n++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other another set
+     * @return a new set with the values present in both
+     */
+    public IntBitmap and(IntBitmap other) {
+        IntBitmap result = new IntBitmap();
+        if (words != null && other.words != null) {
+            int length = Math.min(words.length, other.words.length);
+            long[] and = new long[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                and[i] = words[i] & other.words[i];
+                count += Long.bitCount(and[i]);
+            }
+            result.words = and;
+            result.size = count;
+            if (count * 2 < length) {
+                result.toArray(count);
+            }
+            return result;
+        }
+        IntBitmap small = size <= other.size ? this : other;
+        IntBitmap large = small == this ? other : this;
+        for (int value : small.toArray()) {
+            if (large.contains(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other another set
+     * @return a new set with the values of this set that are not in the other
+     */
+    public IntBitmap andNot(IntBitmap other) {
+        IntBitmap result = new IntBitmap();
+        if (words != null && other.words != null) {
+            long[] difference = words.clone();
+            int count = 0;
+            for (int i = 0; i < difference.length; i++) {
+                if (i < other.words.length) {
+                    difference[i] &= ~other.words[i];
+                }
+                count += Long.bitCount(difference[i]);
+            }
+            result.words = difference;
+            result.size = count;
+            if (count * 2 < difference.length) {
+                result.toArray(count);
+            }
+            return result;
+        }
+        for (int value : toArray()) {
+            if (!other.contains(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other another set
+     * @return a new set with the values present in either
+     */
+    public IntBitmap or(IntBitmap other) {
+        IntBitmap result = new IntBitmap();
+        result.addAll(this);
+        result.addAll(other);
+        return result;
+    }
+
+    /**
+     * Add every value of another set to this one.
+     *
+     * @param other another set
+     */
+    public void addAll(IntBitmap other) {
+        if (words != null && other.words != null) {
+            if (other.words.length > words.length) {
+                words = Arrays.copyOf(words, other.words.length);
+            }
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                if (i < other.words.length) {
+                    words[i] |= other.words[i];
+                }
+                count += Long.bitCount(words[i]);
+            }
+            size = count;
+            return;
+        }
+        for (int value : other.toArray()) {
+            add(value);
+        }
+    }
+
+    /**
+     * @return an estimate of the heap used by the values, in bytes
+     */
+    public long sizeInBytes() {
+        return words != null ? words.length * 8L : values.length * 4L;
+    }
+
+    private void toBitmap() {
+        long[] bitmap = new long[(values[size - 1] >>> 6) + 1];
+        for (int i = 0; i < size; i++) {
+            bitmap[values[i] >>> 6] |= 1L << values[i];
+        }
+        words = bitmap;
+        values = null;
+    }
+
+    private void toArray(int count) {
+        int[] array = new int[Math.max(count, 4)];
+        int n = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                array[n++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        values = array;
+        words = null;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,294 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.http.RuleSeverity;
+import com.contrastsecurity.models.JobOutcomePolicy;
+import com.contrastsecurity.models.SecurityCheck;
+import com.contrastsecurity.models.Trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the job outcome policies of an application to local trace data, so most security
+ * checks can be decided without a makeSecurityCheck round trip.
+ * <p>
+ * A policy fails when more traces than a threshold match it: all traces for
+ * {@code all_rules_threshold}, the traces of one rule for an entry of {@code rules} and the
+ * traces of one severity for an entry of {@code severities}. Only traces whose status is in
+ * {@code status_filter} are counted; an empty filter counts every status. Policies are checked
+ * in order and the first one that fails decides the check, as on TeamServer.
+ * <p>
+ * Evaluating a list of traces is always exact. Evaluating the per-dimension counts of a
+ * {@link VulnerabilityAggregator} is exact when the policy has no status filter; otherwise the
+ * rule and severity counts are only known within bounds and a threshold that falls inside them
+ * leaves the check {@link Verdict#UNDECIDED}, to be made on the server.
+ */
+public class JobOutcomePolicyEvaluator {
+
+    public enum Verdict {
+        PASS, FAIL, UNDECIDED
+    }
+
+    public static class Result {
+        private final Verdict verdict;
+        private final JobOutcomePolicy policy;
+        private final boolean local;
+
+        public Result(Verdict verdict, JobOutcomePolicy policy, boolean local) {
+            this.verdict = verdict;
+            this.policy = policy;
+            this.local = local;
+        }
+
+        /**
+         * Convert the result of a server-side security check.
+         *
+         * @param check the check made by TeamServer
+         * @return the equivalent result
+         */
+        public static Result of(SecurityCheck check) {
+            boolean failed = check.getResult() != null && !check.getResult();
+            return new Result(failed ? Verdict.FAIL : Verdict.PASS, check.getJobOutcomePolicy(), false);
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        /**
+         * @return the policy that failed, or null if the check passed or is undecided
+         */
+        public JobOutcomePolicy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * @return the outcome of the failed policy, or SUCCESS if no policy failed
+         */
+        public JobOutcomePolicy.Outcome getOutcome() {
+            return policy == null || policy.getOutcome() == null ? JobOutcomePolicy.Outcome.SUCCESS : policy.getOutcome();
+        }
+
+        /**
+         * @return true if the result was decided in-process, false if it came from the server
+         */
+        public boolean isLocal() {
+            return local;
+        }
+    }
+
+    private final List<CompiledPolicy> policies;
+
+    /**
+     * @param policies the enabled policies of one application, e.g. from getEnabledJoboutcomePoliciesByApplication;
+     *                 null or empty passes every check
+     */
+    public JobOutcomePolicyEvaluator(List<JobOutcomePolicy> policies) {
+        List<CompiledPolicy> compiled = new ArrayList<>();
+        if (policies != null) {
+            for (JobOutcomePolicy policy : policies) {
+                compiled.add(new CompiledPolicy(policy));
+            }
+        }
+        this.policies = Collections.unmodifiableList(compiled);
+    }
+
+    /**
+     * Evaluate the policies against every trace of the application.
+     *
+     * @param traces the traces of the application
+     * @return a PASS or FAIL result
+     */
+    public Result evaluate(Iterable<Trace> traces) {
+        Counts[] counts = new Counts[policies.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new Counts();
+        }
+        for (Trace trace : traces) {
+            String status = normalize(trace.getStatus());
+            for (int i = 0; i < counts.length; i++) {
+                if (policies.get(i).matchesStatus(status)) {
+                    counts[i].add(trace.getRule(), normalize(trace.getSeverity()));
+                }
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            CompiledPolicy policy = policies.get(i);
+            Counts policyCounts = counts[i];
+            Verdict verdict = policy.check(policyCounts.total, policyCounts.total, policyCounts.byRule, policyCounts.byRule,
+                    policyCounts.bySeverity, policyCounts.bySeverity);
+            if (verdict == Verdict.FAIL) {
+                return new Result(Verdict.FAIL, policy.policy, true);
+            }
+        }
+        return new Result(Verdict.PASS, null, true);
+    }
+
+    /**
+     * Evaluate the policies against the counts of an aggregator.
+     *
+     * @param aggregator the aggregator holding the application's traces
+     * @param appId      the application
+     * @return the result, UNDECIDED if a threshold cannot be decided from per-dimension counts
+     */
+    public Result evaluate(VulnerabilityAggregator aggregator, String appId) {
+        Map<String, Integer> statuses = aggregator.countBy(appId, VulnerabilityAggregator.Dimension.STATUS);
+        Map<String, Integer> rules = aggregator.countBy(appId, VulnerabilityAggregator.Dimension.RULE);
+        Map<String, Integer> severities = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : aggregator.countBy(appId, VulnerabilityAggregator.Dimension.SEVERITY).entrySet()) {
+            String severity = normalize(entry.getKey());
+            severities.put(severity, entry.getValue() + (severities.containsKey(severity) ? severities.get(severity) : 0));
+        }
+        int total = aggregator.getTraceCount(appId);
+
+        boolean undecided = false;
+        for (CompiledPolicy policy : policies) {
+            int matching = 0;
+            for (Map.Entry<String, Integer> status : statuses.entrySet()) {
+                if (policy.matchesStatus(normalize(status.getKey()))) {
+                    matching += status.getValue();
+                }
+            }
+            int excluded = total - matching;
+            Map<String, Integer> rulesLow = rules;
+            Map<String, Integer> rulesHigh = rules;
+            Map<String, Integer> severitiesLow = severities;
+            Map<String, Integer> severitiesHigh = severities;
+            if (excluded > 0) {
+                rulesLow = lowerBounds(rules, excluded);
+                rulesHigh = upperBounds(rules, matching);
+                severitiesLow = lowerBounds(severities, excluded);
+                severitiesHigh = upperBounds(severities, matching);
+            }
+            Verdict verdict = policy.check(matching, matching, rulesLow, rulesHigh, severitiesLow, severitiesHigh);
+            if (verdict == Verdict.FAIL) {
+                return undecided ? new Result(Verdict.UNDECIDED, null, true) : new Result(Verdict.FAIL, policy.policy, true);
+            }
+            undecided |= verdict == Verdict.UNDECIDED;
+        }
+        return new Result(undecided ? Verdict.UNDECIDED : Verdict.PASS, null, true);
+    }
+
+    private static Map<String, Integer> lowerBounds(Map<String, Integer> counts, int excluded) {
+        Map<String, Integer> bounds = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            bounds.put(entry.getKey(), Math.max(0, entry.getValue() - excluded));
+        }
+        return bounds;
+    }
+
+    private static Map<String, Integer> upperBounds(Map<String, Integer> counts, int matching) {
+        Map<String, Integer> bounds = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            bounds.put(entry.getKey(), Math.min(matching, entry.getValue()));
+        }
+        return bounds;
+    }
+
+    /**
+     * Upper-case a status or severity and drop everything but letters, so "Not a Problem",
+     * "NotAProblem" and "NOT_A_PROBLEM" compare equal.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetter(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Counts {
+        private int total;
+        private final Map<String, Integer> byRule = new HashMap<>();
+        private final Map<String, Integer> bySeverity = new HashMap<>();
+
+        void add(String rule, String severity) {
+            total++;
+            increment(byRule, rule);
+            increment(bySeverity, severity);
+        }
+
+        private static void increment(Map<String, Integer> counts, String key) {
+            if (key != null) {
+                Integer count = counts.get(key);
+                counts.put(key, count == null ? 1 : count + 1);
+            }
+        }
+    }
+
+    private static final class CompiledPolicy {
+        private final JobOutcomePolicy policy;
+        private final Set<String> statuses;
+        private final long allRulesThreshold;
+        private final Map<String, Long> ruleThresholds;
+        private final Map<String, Long> severityThresholds;
+
+        CompiledPolicy(JobOutcomePolicy policy) {
+            this.policy = policy;
+            this.statuses = new HashSet<>();
+            if (policy.getStatusFilter() != null) {
+                for (String status : policy.getStatusFilter()) {
+                    statuses.add(normalize(status));
+                }
+            }
+            this.allRulesThreshold = policy.isAllRules() ? policy.getAllRulesThreshold() : -1;
+            this.ruleThresholds = policy.getRules() == null ? Collections.<String, Long>emptyMap() : policy.getRules();
+            this.severityThresholds = new HashMap<>();
+            if (policy.getSeverities() != null) {
+                for (Map.Entry<RuleSeverity, Long> entry : policy.getSeverities().entrySet()) {
+                    if (entry.getKey() != null && entry.getValue() != null) {
+                        severityThresholds.put(normalize(entry.getKey().getLabel()), entry.getValue());
+                    }
+                }
+            }
+        }
+
+        boolean matchesStatus(String status) {
+            return statuses.isEmpty() || statuses.contains(status);
+        }
+
+        /**
+         * Decide the policy from lower and upper bounds of the matching counts.
+         */
+        Verdict check(int totalLow, int totalHigh, Map<String, Integer> rulesLow, Map<String, Integer> rulesHigh,
+                      Map<String, Integer> severitiesLow, Map<String, Integer> severitiesHigh) {
+            Verdict verdict = Verdict.PASS;
+            if (allRulesThreshold >= 0) {
+                verdict = combine(verdict, totalLow, totalHigh, allRulesThreshold);
+            }
+            for (Map.Entry<String, Long> rule : ruleThresholds.entrySet()) {
+                if (rule.getValue() != null) {
+                    verdict = combine(verdict, get(rulesLow, rule.getKey()), get(rulesHigh, rule.getKey()), rule.getValue());
+                }
+            }
+            for (Map.Entry<String, Long> severity : severityThresholds.entrySet()) {
+                verdict = combine(verdict, get(severitiesLow, severity.getKey()), get(severitiesHigh, severity.getKey()), severity.getValue());
+            }
+            return verdict;
+        }
+
+        private static Verdict combine(Verdict verdict, int low, int high, long threshold) {
+            if (verdict == Verdict.FAIL || low > threshold) {
+                return Verdict.FAIL;
+            }
+            return high > threshold ? Verdict.UNDECIDED : verdict;
+        }
+
+        private static int get(Map<String, Integer> counts, String key) {
+            Integer count = counts.get(key);
+            return count == null ? 0 : count;
+        }
+    }
+}
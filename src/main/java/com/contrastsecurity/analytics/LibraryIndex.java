@@ -0,0 +1,191 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Libraries;
+import com.contrastsecurity.models.Library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from libraries to the applications that use them, built from getLibraries
+ * results, to answer "which applications use this jar?" without scanning every application.
+ * <p>
+ * Libraries are indexed by hash, by file name and by file name and version. Application IDs are
+ * dictionary encoded and every postings list is an {@link IntBitmap}. Indexing an application
+ * again replaces its previous libraries, so the index can be refreshed one application at a time.
+ * <p>
+ * The index is thread-safe. Updates take a write lock and lookups a read lock.
+ */
+public class LibraryIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary applications = new Dictionary();
+    private final Map<String, IntBitmap> byHash = new HashMap<>();
+    private final Map<String, IntBitmap> byFileName = new HashMap<>();
+    private final Map<String, IntBitmap> byFileNameAndVersion = new HashMap<>();
+
+    /**
+     * The keys each application was indexed under, so an update can remove them again.
+     */
+    private final Map<Integer, List<String[]>> indexed = new HashMap<>();
+
+    /**
+     * Index the libraries of an application, replacing the ones indexed for it before.
+     *
+     * @param appId     the application
+     * @param libraries the result of getLibraries for the application, may be null
+     */
+    public void update(String appId, Libraries libraries) {
+        update(appId, libraries == null || libraries.getLibraries() == null
+                ? Collections.<Library>emptyList() : libraries.getLibraries());
+    }
+
+    public void update(String appId, List<Library> libraries) {
+        lock.writeLock().lock();
+        try {
+            int app = applications.encode(appId);
+            removeLocked(app);
+            List<String[]> keys = new ArrayList<>(libraries.size());
+            for (Library library : libraries) {
+                String fileName = library.getFileName();
+                String[] key = {library.getHash(), fileName, fileName == null ? null : versionKey(fileName, version(library))};
+                post(byHash, key[0], app);
+                post(byFileName, key[1], app);
+                post(byFileNameAndVersion, key[2], app);
+                keys.add(key);
+            }
+            indexed.put(app, keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an application from the index.
+     *
+     * @param appId the application
+     * @return true if the application was indexed
+     */
+    public boolean remove(String appId) {
+        lock.writeLock().lock();
+        try {
+            int app = applications.lookup(appId);
+            return app != Dictionary.NO_CODE && removeLocked(app);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param hash the hash of a library
+     * @return the IDs of the applications using the library
+     */
+    public Set<String> findByHash(String hash) {
+        return find(byHash, hash);
+    }
+
+    /**
+     * @param fileName a library file name, e.g. "commons-collections-3.2.1.jar"
+     * @return the IDs of the applications using any version of the library
+     */
+    public Set<String> findByFileName(String fileName) {
+        return find(byFileName, fileName);
+    }
+
+    /**
+     * @param fileName a library file name
+     * @param version  the library version
+     * @return the IDs of the applications using that version of the library
+     */
+    public Set<String> findByFileNameAndVersion(String fileName, String version) {
+        return find(byFileNameAndVersion, fileName == null ? null : versionKey(fileName, version));
+    }
+
+    /**
+     * @return the number of indexed applications
+     */
+    public int getApplicationCount() {
+        lock.readLock().lock();
+        try {
+            return indexed.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct library hashes
+     */
+    public int getLibraryCount() {
+        lock.readLock().lock();
+        try {
+            return byHash.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> find(Map<String, IntBitmap> postings, String key) {
+        lock.readLock().lock();
+        try {
+            IntBitmap apps = key == null ? null : postings.get(key);
+            if (apps == null) {
+                return Collections.emptySet();
+            }
+            Set<String> result = new LinkedHashSet<>();
+            for (int app : apps.toArray()) {
+                result.add(applications.decode(app));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(int app) {
+        List<String[]> keys = indexed.remove(app);
+        if (keys == null) {
+            return false;
+        }
+        for (String[] key : keys) {
+            unpost(byHash, key[0], app);
+            unpost(byFileName, key[1], app);
+            unpost(byFileNameAndVersion, key[2], app);
+        }
+        return true;
+    }
+
+    private static void post(Map<String, IntBitmap> postings, String key, int app) {
+        if (key == null) {
+            return;
+        }
+        IntBitmap apps = postings.get(key);
+        if (apps == null) {
+            apps = new IntBitmap();
+            postings.put(key, apps);
+        }
+        apps.add(app);
+    }
+
+    private static void unpost(Map<String, IntBitmap> postings, String key, int app) {
+        IntBitmap apps = key == null ? null : postings.get(key);
+        if (apps != null && apps.remove(app) && apps.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static String version(Library library) {
+        return library.getVersion() != null ? library.getVersion() : library.getFileVersion();
+    }
+
+    private static String versionKey(String fileName, String version) {
+        return fileName + '\u0000' + version;
+    }
+}
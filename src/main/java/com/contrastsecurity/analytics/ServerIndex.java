@@ -0,0 +1,316 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Server;
+import com.contrastsecurity.models.Servers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over a server fleet for dashboards that filter tens of thousands of servers on
+ * any combination of attributes.
+ * <p>
+ * Every server gets a row. For every attribute value there is an {@link IntBitmap} of the rows
+ * that have it, so a {@link ServerQuery} built from {@link ServerQuery#eq},
+ * {@link ServerQuery#and}, {@link ServerQuery#or} and {@link ServerQuery#not} is answered with
+ * set operations on bitmaps and counts are bitmap cardinalities; the Server objects are not
+ * kept. Boolean attributes are indexed as "true" and "false". Ingesting a server that is
+ * already indexed replaces its row.
+ * <p>
+ * The index is thread-safe. Updates take a write lock and queries a read lock.
+ */
+public class ServerIndex {
+
+    public enum Attribute {
+        ENVIRONMENT, STATUS, AGENT_VERSION, ASSESS, DEFEND, LOG_LEVEL, CONTAINER, TYPE
+    }
+
+    /**
+     * A boolean combination of attribute values.
+     */
+    public abstract static class ServerQuery {
+
+        abstract IntBitmap evaluate(ServerIndex index);
+
+        /**
+         * @return servers whose attribute has the value
+         */
+        public static ServerQuery eq(final Attribute attribute, final Object value) {
+            return new ServerQuery() {
+                @Override
+                IntBitmap evaluate(ServerIndex index) {
+                    return index.rows(attribute, value == null ? null : value.toString());
+                }
+            };
+        }
+
+        /**
+         * @return servers whose attribute has any of the values
+         */
+        public static ServerQuery in(Attribute attribute, Object... values) {
+            ServerQuery[] queries = new ServerQuery[values.length];
+            for (int i = 0; i < values.length; i++) {
+                queries[i] = eq(attribute, values[i]);
+            }
+            return or(queries);
+        }
+
+        public static ServerQuery and(final ServerQuery... queries) {
+            return new ServerQuery() {
+                @Override
+                IntBitmap evaluate(ServerIndex index) {
+                    IntBitmap result = index.live;
+                    for (ServerQuery query : queries) {
+                        result = result.and(query.evaluate(index));
+                        if (result.isEmpty()) {
+                            break;
+                        }
+                    }
+                    return result;
+                }
+            };
+        }
+
+        public static ServerQuery or(final ServerQuery... queries) {
+            return new ServerQuery() {
+                @Override
+                IntBitmap evaluate(ServerIndex index) {
+                    IntBitmap result = new IntBitmap();
+                    for (ServerQuery query : queries) {
+                        result.addAll(query.evaluate(index));
+                    }
+                    return result;
+                }
+            };
+        }
+
+        public static ServerQuery not(final ServerQuery query) {
+            return new ServerQuery() {
+                @Override
+                IntBitmap evaluate(ServerIndex index) {
+                    return index.live.andNot(query.evaluate(index));
+                }
+            };
+        }
+
+        /**
+         * @return every server
+         */
+        public static ServerQuery all() {
+            return new ServerQuery() {
+                @Override
+                IntBitmap evaluate(ServerIndex index) {
+                    return index.live;
+                }
+            };
+        }
+    }
+
+    private static final int ATTRIBUTES = Attribute.values().length;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary[] dictionaries = new Dictionary[ATTRIBUTES];
+    private final List<List<IntBitmap>> bitmaps = new ArrayList<>(ATTRIBUTES);
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final IntBitmap live = new IntBitmap();
+    private final List<Integer> freeRows = new ArrayList<>();
+    private long[] serverIds = new long[64];
+    private int[][] codes = new int[64][];
+    private int rowCount;
+
+    public ServerIndex() {
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            dictionaries[i] = new Dictionary();
+            bitmaps.add(new ArrayList<IntBitmap>());
+        }
+    }
+
+    /**
+     * Index every server of a page, as returned by getServers.
+     *
+     * @param page the page, may be null or empty
+     */
+    public void update(Servers page) {
+        if (page != null && page.getServers() != null) {
+            lock.writeLock().lock();
+            try {
+                for (Server server : page.getServers()) {
+                    updateLocked(server);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Index a server, replacing its previous row.
+     *
+     * @param server the server
+     */
+    public void update(Server server) {
+        lock.writeLock().lock();
+        try {
+            updateLocked(server);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param serverId the server to remove
+     * @return true if the server was indexed
+     */
+    public boolean remove(long serverId) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.remove(serverId);
+            if (row == null) {
+                return false;
+            }
+            clear(row);
+            live.remove(row);
+            freeRows.add(row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed servers
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(ServerQuery query) {
+        lock.readLock().lock();
+        try {
+            return query.evaluate(this).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query the query
+     * @return the IDs of the matching servers, ordered by row
+     */
+    public long[] select(ServerQuery query) {
+        lock.readLock().lock();
+        try {
+            int[] rows = query.evaluate(this).toArray();
+            long[] ids = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                ids[i] = serverIds[rows[i]];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the servers that match a query, grouped by the values of an attribute.
+     *
+     * @param attribute the attribute to group by
+     * @param query     the query, or {@link ServerQuery#all()}
+     * @return the non-zero count of each value, in the order values were first seen
+     */
+    public Map<String, Integer> countBy(Attribute attribute, ServerQuery query) {
+        lock.readLock().lock();
+        try {
+            IntBitmap matches = query.evaluate(this);
+            Map<String, Integer> result = new LinkedHashMap<>();
+            List<IntBitmap> valueBitmaps = bitmaps.get(attribute.ordinal());
+            for (int code = 0; code < valueBitmaps.size(); code++) {
+                int count = valueBitmaps.get(code).and(matches).size();
+                if (count > 0) {
+                    result.put(dictionaries[attribute.ordinal()].decode(code), count);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntBitmap rows(Attribute attribute, String value) {
+        int code = dictionaries[attribute.ordinal()].lookup(value);
+        return code == Dictionary.NO_CODE ? new IntBitmap() : bitmaps.get(attribute.ordinal()).get(code);
+    }
+
+    private void updateLocked(Server server) {
+        Integer existing = rowsById.get(server.getServerId());
+        int row;
+        if (existing != null) {
+            row = existing;
+            clear(row);
+        } else {
+            row = freeRows.isEmpty() ? rowCount++ : freeRows.remove(freeRows.size() - 1);
+            if (row >= serverIds.length) {
+                serverIds = Arrays.copyOf(serverIds, serverIds.length * 2);
+                codes = Arrays.copyOf(codes, codes.length * 2);
+            }
+            serverIds[row] = server.getServerId();
+            rowsById.put(server.getServerId(), row);
+            live.add(row);
+        }
+        int[] rowCodes = new int[ATTRIBUTES];
+        for (Attribute attribute : Attribute.values()) {
+            int code = dictionaries[attribute.ordinal()].encode(value(server, attribute));
+            rowCodes[attribute.ordinal()] = code;
+            if (code != Dictionary.NO_CODE) {
+                List<IntBitmap> valueBitmaps = bitmaps.get(attribute.ordinal());
+                if (code == valueBitmaps.size()) {
+                    valueBitmaps.add(new IntBitmap());
+                }
+                valueBitmaps.get(code).add(row);
+            }
+        }
+        codes[row] = rowCodes;
+    }
+
+    private void clear(int row) {
+        int[] rowCodes = codes[row];
+        for (int attribute = 0; attribute < ATTRIBUTES; attribute++) {
+            if (rowCodes[attribute] != Dictionary.NO_CODE) {
+                bitmaps.get(attribute).get(rowCodes[attribute]).remove(row);
+            }
+        }
+        codes[row] = null;
+    }
+
+    private static String value(Server server, Attribute attribute) {
+        switch (attribute) {
+            case ENVIRONMENT:
+                return server.getEnvironment();
+            case STATUS:
+                return server.getStatus();
+            case AGENT_VERSION:
+                return server.getAgentVersion();
+            case ASSESS:
+                return String.valueOf(server.getAssess());
+            case DEFEND:
+                return String.valueOf(server.getDefend());
+            case LOG_LEVEL:
+                return server.getLogLevel();
+            case CONTAINER:
+                return server.getContainer();
+            default:
+                return server.getType();
+        }
+    }
+}
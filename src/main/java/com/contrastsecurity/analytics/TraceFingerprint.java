@@ -0,0 +1,137 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Trace;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * The identity and mutable state of a trace, small enough to write millions of them to a
+ * snapshot file: the uuid, the status, the severity, whether the trace is closed and a 64-bit
+ * FNV-1a digest of those fields so unchanged traces compare with a single long comparison.
+ */
+public final class TraceFingerprint implements Comparable<TraceFingerprint> {
+
+    private final String uuid;
+    private final long digest;
+    private final String status;
+    private final String severity;
+    private final boolean closed;
+
+    public TraceFingerprint(String uuid, String status, String severity, boolean closed) {
+        if (uuid == null) {
+            throw new IllegalArgumentException("Trace has no uuid");
+        }
+        this.uuid = uuid;
+        this.status = status;
+        this.severity = severity;
+        this.closed = closed;
+        this.digest = digest(status, severity, closed);
+    }
+
+    public static TraceFingerprint of(Trace trace) {
+        return new TraceFingerprint(trace.getUuid(), trace.getStatus(), trace.getSeverity(), trace.getClosedTime() != null);
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public long getDigest() {
+        return digest;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int compareTo(TraceFingerprint other) {
+        return uuid.compareTo(other.uuid);
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeUTF(uuid);
+        out.writeLong(digest);
+        writeNullable(out, status);
+        writeNullable(out, severity);
+        out.writeBoolean(closed);
+    }
+
+    static TraceFingerprint read(DataInput in) throws IOException {
+        String uuid = in.readUTF();
+        long digest = in.readLong();
+        TraceFingerprint fingerprint = new TraceFingerprint(uuid, readNullable(in), readNullable(in), in.readBoolean());
+        if (fingerprint.digest != digest) {
+            throw new IOException("Corrupt snapshot record for " + uuid);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Read the next fingerprint of a snapshot. The end of the stream is only accepted between
+     * records, so a snapshot truncated inside a record fails instead of ending early.
+     *
+     * @param in a stream that supports mark and reset
+     * @return the fingerprint, or null at the end of the stream
+     * @throws IOException if the stream ends inside a record or the record is corrupt
+     */
+    static TraceFingerprint readNext(DataInputStream in) throws IOException {
+        in.mark(1);
+        if (in.read() < 0) {
+            return null;
+        }
+        in.reset();
+        try {
+            return read(in);
+        } catch (EOFException e) {
+            throw new IOException("Snapshot is truncated inside a record", e);
+        }
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static long digest(String status, String severity, boolean closed) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, status);
+        hash = mix(hash, severity);
+        hash ^= closed ? 1 : 2;
+        return hash * 0x100000001b3L;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        hash ^= value == null ? 0xFFFF : 0xFFFE;
+        return hash * 0x100000001b3L;
+    }
+
+    @Override
+    public String toString() {
+        return uuid + "[" + status + ", " + severity + (closed ? ", closed]" : "]");
+    }
+}
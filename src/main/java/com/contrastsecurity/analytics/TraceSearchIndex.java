@@ -0,0 +1,236 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded full-text index over trace titles, evidence and request URIs, for search-as-you-type
+ * without a getTracesInOrg round trip per keystroke.
+ * <p>
+ * Text is lower-cased and split into runs of letters and digits, so "/api/users?id=1" yields
+ * "api", "users", "id" and "1". Each field keeps a sorted term dictionary whose postings are
+ * {@link IntBitmap}s of trace codes. A query matches traces containing every query token; the
+ * last token also matches as a prefix, since it may still be being typed. Indexing a trace again
+ * replaces its previous terms, so the index follows a delta sync.
+ * <p>
+ * The index is thread-safe. Updates take a write lock and searches a read lock.
+ */
+public class TraceSearchIndex {
+
+    public enum Field {
+        TITLE, EVIDENCE, URI
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary traces = new Dictionary();
+    private final List<TreeMap<String, IntBitmap>> postings = new ArrayList<>();
+
+    /**
+     * The distinct terms each indexed trace was added under, per field.
+     */
+    private final Map<Integer, String[][]> documents = new HashMap<>();
+
+    public TraceSearchIndex() {
+        for (int i = 0; i < Field.values().length; i++) {
+            postings.add(new TreeMap<String, IntBitmap>());
+        }
+    }
+
+    /**
+     * Index every trace of a listing page.
+     *
+     * @param page the page, may be null or empty
+     */
+    public void update(Traces page) {
+        if (page != null && page.getTraces() != null) {
+            for (Trace trace : page.getTraces()) {
+                update(trace);
+            }
+        }
+    }
+
+    /**
+     * Index a trace, replacing the terms it was indexed under before.
+     *
+     * @param trace the trace; the URI is taken from its request, if it was expanded
+     */
+    public void update(Trace trace) {
+        if (trace.getUuid() == null) {
+            throw new IllegalArgumentException("Trace has no uuid");
+        }
+        String[][] terms = new String[Field.values().length][];
+        terms[Field.TITLE.ordinal()] = distinctTokens(trace.getTitle());
+        terms[Field.EVIDENCE.ordinal()] = distinctTokens(trace.getEvidence());
+        terms[Field.URI.ordinal()] = distinctTokens(trace.getRequest() == null ? null : trace.getRequest().getUri());
+
+        lock.writeLock().lock();
+        try {
+            int document = traces.encode(trace.getUuid());
+            removeLocked(document);
+            for (int field = 0; field < terms.length; field++) {
+                TreeMap<String, IntBitmap> fieldPostings = postings.get(field);
+                for (String term : terms[field]) {
+                    IntBitmap matching = fieldPostings.get(term);
+                    if (matching == null) {
+                        matching = new IntBitmap();
+                        fieldPostings.put(term, matching);
+                    }
+                    matching.add(document);
+                }
+            }
+            documents.put(document, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a trace from the index.
+     *
+     * @param uuid the uuid of the trace
+     * @return true if the trace was indexed
+     */
+    public boolean remove(String uuid) {
+        lock.writeLock().lock();
+        try {
+            int document = traces.lookup(uuid);
+            return document != Dictionary.NO_CODE && removeLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed traces
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search every field.
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of results
+     * @return the uuids of the matching traces, in the order they were first indexed
+     */
+    public List<String> search(String query, int limit) {
+        return search(query, EnumSet.allOf(Field.class), limit);
+    }
+
+    /**
+     * @param query  the text typed so far
+     * @param fields the fields to search; a token may match in any of them
+     * @param limit  the maximum number of results
+     * @return the uuids of the matching traces, in the order they were first indexed
+     */
+    public List<String> search(String query, EnumSet<Field> fields, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            IntBitmap matches = null;
+            for (int i = 0; i < tokens.size() && (matches == null || !matches.isEmpty()); i++) {
+                IntBitmap tokenMatches = match(tokens.get(i), i == tokens.size() - 1, fields);
+                matches = matches == null ? tokenMatches : matches.and(tokenMatches);
+            }
+            int[] codes = matches.toArray();
+            List<String> result = new ArrayList<>(Math.min(limit, codes.length));
+            for (int i = 0; i < codes.length && result.size() < limit; i++) {
+                result.add(traces.decode(codes[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntBitmap match(String token, boolean prefix, EnumSet<Field> fields) {
+        IntBitmap result = new IntBitmap();
+        for (Field field : fields) {
+            TreeMap<String, IntBitmap> fieldPostings = postings.get(field.ordinal());
+            if (prefix) {
+                SortedMap<String, IntBitmap> range = fieldPostings.subMap(token, token + Character.MAX_VALUE);
+                for (IntBitmap matching : range.values()) {
+                    result.addAll(matching);
+                }
+            } else {
+                IntBitmap matching = fieldPostings.get(token);
+                if (matching != null) {
+                    result.addAll(matching);
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean removeLocked(int document) {
+        String[][] terms = documents.remove(document);
+        if (terms == null) {
+            return false;
+        }
+        for (int field = 0; field < terms.length; field++) {
+            TreeMap<String, IntBitmap> fieldPostings = postings.get(field);
+            for (String term : terms[field]) {
+                IntBitmap matching = fieldPostings.get(term);
+                if (matching != null && matching.remove(document) && matching.isEmpty()) {
+                    fieldPostings.remove(term);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String[] distinctTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(text));
+        return tokens.toArray(new String[tokens.size()]);
+    }
+
+    /**
+     * Split text into lower-case runs of letters and digits, truncated to {@link #MAX_TOKEN_LENGTH}.
+     *
+     * @param text the text, may be null
+     * @return the tokens in order
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH));
+                tokens.add(token.toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static final int MAX_TOKEN_LENGTH = 64;
+}
@@ -0,0 +1,165 @@
+package com.contrastsecurity.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Compares two trace snapshots written by {@link FingerprintSnapshotWriter} with a single streaming
+ * merge over their sorted fingerprints. Only the current record of each file is in memory, so
+ * snapshots of millions of traces are diffed in constant memory at the speed of reading the
+ * two files. Unchanged traces cost one uuid and one digest comparison.
+ */
+public class TraceSetDiff {
+
+    public enum Change {
+        /** The trace is only in the newer snapshot. */
+        ADDED,
+        /** The trace is only in the older snapshot. */
+        REMOVED,
+        /** The trace was open and is now closed. */
+        CLOSED,
+        /** The trace was closed and is open again. */
+        REOPENED,
+        STATUS_CHANGED,
+        SEVERITY_CHANGED
+    }
+
+    /**
+     * A trace that differs between the snapshots.
+     */
+    public static class Difference {
+        private final TraceFingerprint before;
+        private final TraceFingerprint after;
+        private final EnumSet<Change> changes;
+
+        Difference(TraceFingerprint before, TraceFingerprint after, EnumSet<Change> changes) {
+            this.before = before;
+            this.after = after;
+            this.changes = changes;
+        }
+
+        public String getUuid() {
+            return before != null ? before.getUuid() : after.getUuid();
+        }
+
+        /**
+         * @return the trace in the older snapshot, or null if it was added
+         */
+        public TraceFingerprint getBefore() {
+            return before;
+        }
+
+        /**
+         * @return the trace in the newer snapshot, or null if it was removed
+         */
+        public TraceFingerprint getAfter() {
+            return after;
+        }
+
+        public EnumSet<Change> getChanges() {
+            return changes;
+        }
+    }
+
+    public interface Listener {
+        void onDifference(Difference difference);
+    }
+
+    /**
+     * @param before   the older snapshot
+     * @param after    the newer snapshot
+     * @param listener receives every difference in uuid order, or null to only count them
+     * @return the number of traces with each change; a trace can have several changes
+     * @throws IOException if a snapshot could not be read or is not sorted
+     */
+    public static Map<Change, Long> diff(File before, File after, Listener listener) throws IOException {
+        Map<Change, Long> counts = new EnumMap<>(Change.class);
+        for (Change change : Change.values()) {
+            counts.put(change, 0L);
+        }
+        try (Reader older = new Reader(before); Reader newer = new Reader(after)) {
+            TraceFingerprint a = older.next();
+            TraceFingerprint b = newer.next();
+            while (a != null || b != null) {
+                int order = a == null ? 1 : b == null ? -1 : a.getUuid().compareTo(b.getUuid());
+                if (order < 0) {
+                    report(a, null, EnumSet.of(Change.REMOVED), counts, listener);
+                    a = older.next();
+                } else if (order > 0) {
+                    report(null, b, EnumSet.of(Change.ADDED), counts, listener);
+                    b = newer.next();
+                } else {
+                    if (a.getDigest() != b.getDigest()) {
+                        EnumSet<Change> changes = EnumSet.noneOf(Change.class);
+                        if (a.isClosed() != b.isClosed()) {
+                            changes.add(b.isClosed() ? Change.CLOSED : Change.REOPENED);
+                        }
+                        if (!equal(a.getStatus(), b.getStatus())) {
+                            changes.add(Change.STATUS_CHANGED);
+                        }
+                        if (!equal(a.getSeverity(), b.getSeverity())) {
+                            changes.add(Change.SEVERITY_CHANGED);
+                        }
+                        if (!changes.isEmpty()) {
+                            report(a, b, changes, counts, listener);
+                        }
+                    }
+                    a = older.next();
+                    b = newer.next();
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static void report(TraceFingerprint before, TraceFingerprint after, EnumSet<Change> changes,
+                               Map<Change, Long> counts, Listener listener) {
+        for (Change change : changes) {
+            counts.put(change, counts.get(change) + 1);
+        }
+        if (listener != null) {
+            listener.onDifference(new Difference(before, after, changes));
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Reads a snapshot and checks that it is sorted.
+     */
+    private static final class Reader implements AutoCloseable {
+        private final File file;
+        private final DataInputStream in;
+        private String previous;
+
+        Reader(File file) throws IOException {
+            this.file = file;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), FingerprintSnapshotWriter.IO_BUFFER_SIZE));
+        }
+
+        TraceFingerprint next() throws IOException {
+            TraceFingerprint fingerprint = TraceFingerprint.readNext(in);
+            if (fingerprint == null) {
+                return null;
+            }
+            if (previous != null && previous.compareTo(fingerprint.getUuid()) >= 0) {
+                throw new IOException("Snapshot " + file + " is not sorted at " + fingerprint.getUuid());
+            }
+            previous = fingerprint.getUuid();
+            return fingerprint;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
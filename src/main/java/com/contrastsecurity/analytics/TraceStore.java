@@ -0,0 +1,480 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented, in-memory store of traces for analytics over large organizations.
+ * <p>
+ * Rule, severity, status and application are dictionary encoded into int columns,
+ * timestamps are kept in long columns and uuids are packed as UTF-8 bytes behind an
+ * open-addressing index, so a row costs a few dozen bytes instead of a full {@link Trace}
+ * object graph. Ingesting a trace whose uuid is already present updates the row in place.
+ * <p>
+ * The store is not thread-safe. Ingest pages from a single thread, or synchronize externally.
+ */
+public class TraceStore {
+
+    public enum Column {
+        RULE, SEVERITY, STATUS, APPLICATION
+    }
+
+    private final Dictionary rules = new Dictionary();
+    private final Dictionary severities = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary applications = new Dictionary();
+
+    private int size;
+    private int[] ruleCodes;
+    private int[] severityCodes;
+    private int[] statusCodes;
+    private int[] applicationCodes;
+    private long[] firstTimeSeen;
+    private long[] lastTimeSeen;
+    private long[] closedTime;
+
+    private byte[] uuidBytes;
+    private int uuidBytesLength;
+    private int[] uuidOffsets;
+    private int[] uuidSlots;
+
+    public TraceStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TraceStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.ruleCodes = new int[capacity];
+        this.severityCodes = new int[capacity];
+        this.statusCodes = new int[capacity];
+        this.applicationCodes = new int[capacity];
+        this.firstTimeSeen = new long[capacity];
+        this.lastTimeSeen = new long[capacity];
+        this.closedTime = new long[capacity];
+        this.uuidOffsets = new int[capacity + 1];
+        this.uuidBytes = new byte[capacity * 20];
+        this.uuidSlots = new int[tableSizeFor(capacity * 2)];
+    }
+
+    /**
+     * Ingest one page of traces, as returned by any of the trace listing calls.
+     *
+     * @param page the page to ingest, may be null or empty
+     */
+    public void ingest(Traces page) {
+        if (page != null && page.getTraces() != null) {
+            ingest(page.getTraces());
+        }
+    }
+
+    public void ingest(Iterable<Trace> traces) {
+        if (traces instanceof Collection) {
+            ensureCapacity(size + ((Collection<Trace>) traces).size());
+        }
+        for (Trace trace : traces) {
+            ingest(trace);
+        }
+    }
+
+    /**
+     * Ingest a single trace, updating the existing row if its uuid is already stored.
+     *
+     * @param trace the trace to ingest
+     * @return the row of the trace
+     */
+    public int ingest(Trace trace) {
+        if (trace.getUuid() == null) {
+            throw new IllegalArgumentException("Trace has no uuid");
+        }
+        byte[] uuid = trace.getUuid().getBytes(StandardCharsets.UTF_8);
+        int hash = hash(uuid);
+        int row = find(uuid, hash);
+        if (row < 0) {
+            row = append(uuid, hash);
+        }
+        ruleCodes[row] = rules.encode(trace.getRule());
+        severityCodes[row] = severities.encode(trace.getSeverity());
+        statusCodes[row] = statuses.encode(trace.getStatus());
+        applicationCodes[row] = applications.encode(trace.getApplication() == null ? null : trace.getApplication().getId());
+        firstTimeSeen[row] = toTime(trace.getFirstTimeSeen());
+        lastTimeSeen[row] = toTime(trace.getLastTimeSeen());
+        closedTime[row] = toTime(trace.getClosedTime());
+        return row;
+    }
+
+    /**
+     * @param uuid the uuid of a trace
+     * @return the row of the trace, or -1 if it is not stored
+     */
+    public int rowOf(String uuid) {
+        byte[] bytes = uuid.getBytes(StandardCharsets.UTF_8);
+        return find(bytes, hash(bytes));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getUuid(int row) {
+        checkRow(row);
+        return new String(uuidBytes, uuidOffsets[row], uuidOffsets[row + 1] - uuidOffsets[row], StandardCharsets.UTF_8);
+    }
+
+    public String getRule(int row) {
+        checkRow(row);
+        return rules.decode(ruleCodes[row]);
+    }
+
+    public String getSeverity(int row) {
+        checkRow(row);
+        return severities.decode(severityCodes[row]);
+    }
+
+    public String getStatus(int row) {
+        checkRow(row);
+        return statuses.decode(statusCodes[row]);
+    }
+
+    public String getApplicationId(int row) {
+        checkRow(row);
+        return applications.decode(applicationCodes[row]);
+    }
+
+    /**
+     * @return the first time seen of the row, or {@link #NO_TIME} if unknown
+     */
+    public long getFirstTimeSeen(int row) {
+        checkRow(row);
+        return firstTimeSeen[row];
+    }
+
+    /**
+     * @return the last time seen of the row, or {@link #NO_TIME} if unknown
+     */
+    public long getLastTimeSeen(int row) {
+        checkRow(row);
+        return lastTimeSeen[row];
+    }
+
+    /**
+     * @return the closed time of the row, or {@link #NO_TIME} if the trace is not closed
+     */
+    public long getClosedTime(int row) {
+        checkRow(row);
+        return closedTime[row];
+    }
+
+    /**
+     * Return the dictionary used to encode a column, e.g. to list its distinct values.
+     *
+     * @param column the column
+     * @return the column dictionary
+     */
+    public Dictionary getDictionary(Column column) {
+        switch (column) {
+            case RULE:
+                return rules;
+            case SEVERITY:
+                return severities;
+            case STATUS:
+                return statuses;
+            default:
+                return applications;
+        }
+    }
+
+    /**
+     * Count the rows that match a filter.
+     *
+     * @param filter the filter to apply, or null to count every row
+     * @return the number of matching rows
+     */
+    public int count(Filter filter) {
+        CompiledFilter compiled = compile(filter);
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (compiled.matches(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return the rows that match a filter, in row order.
+     *
+     * @param filter the filter to apply, or null to select every row
+     * @return the matching rows
+     */
+    public int[] select(Filter filter) {
+        CompiledFilter compiled = compile(filter);
+        int[] rows = new int[16];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (compiled.matches(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Count the rows that match a filter, grouped by the values of a column. Rows with no
+     * value for the column are not counted.
+     *
+     * @param column the column to group by
+     * @param filter the filter to apply, or null to include every row
+     * @return the count for each distinct value, in dictionary order
+     */
+    public Map<String, Integer> countBy(Column column, Filter filter) {
+        CompiledFilter compiled = compile(filter);
+        int[] codes = codes(column);
+        Dictionary dictionary = getDictionary(column);
+        int[] counts = new int[dictionary.size()];
+        for (int row = 0; row < size; row++) {
+            int code = codes[row];
+            if (code != Dictionary.NO_CODE && compiled.matches(row)) {
+                counts[code]++;
+            }
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(dictionary.decode(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A conjunction of column predicates. Values that were never ingested simply match nothing.
+     */
+    public static class Filter {
+        private final String[][] values = new String[Column.values().length][];
+        private long lastSeenFrom = Long.MIN_VALUE;
+        private long lastSeenTo = Long.MAX_VALUE;
+        private Boolean closed;
+
+        public Filter withRules(String... rules) {
+            values[Column.RULE.ordinal()] = rules;
+            return this;
+        }
+
+        public Filter withSeverities(String... severities) {
+            values[Column.SEVERITY.ordinal()] = severities;
+            return this;
+        }
+
+        public Filter withStatuses(String... statuses) {
+            values[Column.STATUS.ordinal()] = statuses;
+            return this;
+        }
+
+        public Filter withApplications(String... applicationIds) {
+            values[Column.APPLICATION.ordinal()] = applicationIds;
+            return this;
+        }
+
+        /**
+         * Restrict to traces last seen in the given range, bounds inclusive.
+         */
+        public Filter withLastSeenBetween(long from, long to) {
+            this.lastSeenFrom = from;
+            this.lastSeenTo = to;
+            return this;
+        }
+
+        public Filter withClosed(boolean closed) {
+            this.closed = closed;
+            return this;
+        }
+    }
+
+    private CompiledFilter compile(Filter filter) {
+        CompiledFilter compiled = new CompiledFilter();
+        if (filter == null) {
+            return compiled;
+        }
+        for (Column column : Column.values()) {
+            String[] wanted = filter.values[column.ordinal()];
+            if (wanted != null) {
+                Dictionary dictionary = getDictionary(column);
+                boolean[] allowed = new boolean[dictionary.size()];
+                for (String value : wanted) {
+                    int code = dictionary.lookup(value);
+                    if (code != Dictionary.NO_CODE) {
+                        allowed[code] = true;
+                    }
+                }
+                compiled.masks[column.ordinal()] = allowed;
+                compiled.columns[column.ordinal()] = codes(column);
+            }
+        }
+        compiled.lastSeenFrom = filter.lastSeenFrom;
+        compiled.lastSeenTo = filter.lastSeenTo;
+        compiled.closed = filter.closed;
+        return compiled;
+    }
+
+    private class CompiledFilter {
+        final boolean[][] masks = new boolean[Column.values().length][];
+        final int[][] columns = new int[Column.values().length][];
+        long lastSeenFrom = Long.MIN_VALUE;
+        long lastSeenTo = Long.MAX_VALUE;
+        Boolean closed;
+
+        boolean matches(int row) {
+            for (int i = 0; i < masks.length; i++) {
+                boolean[] mask = masks[i];
+                if (mask != null) {
+                    int code = columns[i][row];
+                    if (code == Dictionary.NO_CODE || !mask[code]) {
+                        return false;
+                    }
+                }
+            }
+            if (lastSeenFrom != Long.MIN_VALUE || lastSeenTo != Long.MAX_VALUE) {
+                long time = lastTimeSeen[row];
+                if (time == NO_TIME || time < lastSeenFrom || time > lastSeenTo) {
+                    return false;
+                }
+            }
+            return closed == null || closed == (closedTime[row] != NO_TIME);
+        }
+    }
+
+    private int[] codes(Column column) {
+        switch (column) {
+            case RULE:
+                return ruleCodes;
+            case SEVERITY:
+                return severityCodes;
+            case STATUS:
+                return statusCodes;
+            default:
+                return applicationCodes;
+        }
+    }
+
+    private int find(byte[] uuid, int hash) {
+        int mask = uuidSlots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = uuidSlots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (uuidEquals(row, uuid)) {
+                return row;
+            }
+        }
+    }
+
+    private int append(byte[] uuid, int hash) {
+        ensureCapacity(size + 1);
+        if (uuidBytesLength + uuid.length > uuidBytes.length) {
+            uuidBytes = Arrays.copyOf(uuidBytes, Math.max(uuidBytes.length * 3 / 2, uuidBytesLength + uuid.length));
+        }
+        int row = size++;
+        System.arraycopy(uuid, 0, uuidBytes, uuidBytesLength, uuid.length);
+        uuidOffsets[row] = uuidBytesLength;
+        uuidBytesLength += uuid.length;
+        uuidOffsets[row + 1] = uuidBytesLength;
+        if (size * 2 > uuidSlots.length) {
+            rehash(uuidSlots.length * 2);
+        }
+        insertSlot(row, hash);
+        return row;
+    }
+
+    private void insertSlot(int row, int hash) {
+        int mask = uuidSlots.length - 1;
+        int slot = hash & mask;
+        while (uuidSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        uuidSlots[slot] = row + 1;
+    }
+
+    private void rehash(int capacity) {
+        uuidSlots = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            insertSlot(row, hash(uuidBytes, uuidOffsets[row], uuidOffsets[row + 1]));
+        }
+    }
+
+    private boolean uuidEquals(int row, byte[] uuid) {
+        int start = uuidOffsets[row];
+        if (uuidOffsets[row + 1] - start != uuid.length) {
+            return false;
+        }
+        for (int i = 0; i < uuid.length; i++) {
+            if (uuidBytes[start + i] != uuid[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ruleCodes.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ruleCodes.length * 3 / 2);
+        ruleCodes = Arrays.copyOf(ruleCodes, newCapacity);
+        severityCodes = Arrays.copyOf(severityCodes, newCapacity);
+        statusCodes = Arrays.copyOf(statusCodes, newCapacity);
+        applicationCodes = Arrays.copyOf(applicationCodes, newCapacity);
+        firstTimeSeen = Arrays.copyOf(firstTimeSeen, newCapacity);
+        lastTimeSeen = Arrays.copyOf(lastTimeSeen, newCapacity);
+        closedTime = Arrays.copyOf(closedTime, newCapacity);
+        uuidOffsets = Arrays.copyOf(uuidOffsets, newCapacity + 1);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+
+    private static long toTime(Long time) {
+        return time == null ? NO_TIME : time;
+    }
+
+    private static int hash(byte[] bytes) {
+        return hash(bytes, 0, bytes.length);
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            hash ^= bytes[i];
+            hash *= 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = 16;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Marker for a missing timestamp.
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+}
@@ -0,0 +1,244 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.VulnerabilityTrend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable vulnerability trend held in primitive arrays: sorted step timestamps, the total count
+ * of each step and one int column per status. Trends of many applications are summed column by
+ * column, and when they share the same steps, as yearly trends do, the sum is a plain loop over
+ * int arrays.
+ */
+public final class TrendSeries {
+
+    public static final TrendSeries EMPTY = new TrendSeries(new long[0], new int[0], new String[0], new int[0][]);
+
+    private final long[] timestamps;
+    private final int[] counts;
+    private final String[] statuses;
+    private final int[][] statusCounts;
+
+    private TrendSeries(long[] timestamps, int[] counts, String[] statuses, int[][] statusCounts) {
+        this.timestamps = timestamps;
+        this.counts = counts;
+        this.statuses = statuses;
+        this.statusCounts = statusCounts;
+    }
+
+    /**
+     * Convert the open or closed steps of a {@link VulnerabilityTrend}. Steps with the same
+     * timestamp are added together.
+     *
+     * @param steps the steps, may be null
+     * @return the series
+     */
+    public static TrendSeries of(List<VulnerabilityTrend.TrendStep> steps) {
+        if (steps == null || steps.isEmpty()) {
+            return EMPTY;
+        }
+        long[] sorted = new long[steps.size()];
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < sorted.length; i++) {
+            VulnerabilityTrend.TrendStep step = steps.get(i);
+            sorted[i] = step.getTimestamp();
+            if (step.getBreakdown() != null) {
+                for (VulnerabilityTrend.TrendStep.StatusBreakdown status : step.getBreakdown()) {
+                    if (status.getName() != null && !columns.containsKey(status.getName())) {
+                        columns.put(status.getName(), columns.size());
+                    }
+                }
+            }
+        }
+        long[] timestamps = distinctSorted(sorted);
+        int[] counts = new int[timestamps.length];
+        int[][] statusCounts = new int[columns.size()][timestamps.length];
+        for (VulnerabilityTrend.TrendStep step : steps) {
+            int index = Arrays.binarySearch(timestamps, step.getTimestamp());
+            counts[index] += step.getCount();
+            if (step.getBreakdown() != null) {
+                for (VulnerabilityTrend.TrendStep.StatusBreakdown status : step.getBreakdown()) {
+                    if (status.getName() != null) {
+                        statusCounts[columns.get(status.getName())][index] += status.getValue();
+                    }
+                }
+            }
+        }
+        return new TrendSeries(timestamps, counts, columns.keySet().toArray(new String[columns.size()]), statusCounts);
+    }
+
+    /**
+     * Sum many series. The result has the union of their steps and statuses.
+     *
+     * @param series the series to sum
+     * @return the sum
+     */
+    public static TrendSeries sum(Collection<TrendSeries> series) {
+        if (series.isEmpty()) {
+            return EMPTY;
+        }
+        long[] timestamps = null;
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (TrendSeries s : series) {
+            timestamps = timestamps == null ? s.timestamps : union(timestamps, s.timestamps);
+            for (String status : s.statuses) {
+                if (!columns.containsKey(status)) {
+                    columns.put(status, columns.size());
+                }
+            }
+        }
+        int[] counts = new int[timestamps.length];
+        int[][] statusCounts = new int[columns.size()][timestamps.length];
+        for (TrendSeries s : series) {
+            if (Arrays.equals(s.timestamps, timestamps)) {
+                add(counts, s.counts);
+                for (int column = 0; column < s.statuses.length; column++) {
+                    add(statusCounts[columns.get(s.statuses[column])], s.statusCounts[column]);
+                }
+            } else {
+                int[] positions = positions(s.timestamps, timestamps);
+                scatterAdd(counts, s.counts, positions);
+                for (int column = 0; column < s.statuses.length; column++) {
+                    scatterAdd(statusCounts[columns.get(s.statuses[column])], s.statusCounts[column], positions);
+                }
+            }
+        }
+        return new TrendSeries(timestamps, counts, columns.keySet().toArray(new String[columns.size()]), statusCounts);
+    }
+
+    /**
+     * @param other the series to add
+     * @return the sum of this series and the other
+     */
+    public TrendSeries plus(TrendSeries other) {
+        List<TrendSeries> both = new ArrayList<>(2);
+        both.add(this);
+        both.add(other);
+        return sum(both);
+    }
+
+    /**
+     * @return the number of steps
+     */
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long getTimestamp(int step) {
+        return timestamps[step];
+    }
+
+    public long[] getTimestamps() {
+        return timestamps.clone();
+    }
+
+    public int getCount(int step) {
+        return counts[step];
+    }
+
+    public int[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * @return the statuses that have a column, in the order they were first seen
+     */
+    public List<String> getStatuses() {
+        return Collections.unmodifiableList(Arrays.asList(statuses));
+    }
+
+    /**
+     * @param status the status name
+     * @param step   the step
+     * @return the count of the status at the step, 0 if the status has no column
+     */
+    public int getStatusCount(String status, int step) {
+        int column = column(status);
+        return column < 0 ? 0 : statusCounts[column][step];
+    }
+
+    /**
+     * @param status the status name
+     * @return the counts of the status at every step
+     */
+    public int[] getStatusCounts(String status) {
+        int column = column(status);
+        return column < 0 ? new int[timestamps.length] : statusCounts[column].clone();
+    }
+
+    private int column(String status) {
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i].equals(status)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void add(int[] target, int[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    private static void scatterAdd(int[] target, int[] source, int[] positions) {
+        for (int i = 0; i < source.length; i++) {
+            target[positions[i]] += source[i];
+        }
+    }
+
+    /**
+     * Map every timestamp of a sorted subset to its index in the sorted superset.
+     */
+    private static int[] positions(long[] subset, long[] superset) {
+        int[] positions = new int[subset.length];
+        int j = 0;
+        for (int i = 0; i < subset.length; i++) {
+            while (superset[j] != subset[i]) {
+                j++;
+            }
+            positions[i] = j;
+        }
+        return positions;
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        if (Arrays.equals(a, b)) {
+            return a;
+        }
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j >= b.length || i < a.length && a[i] <= b[j]) {
+                next = a[i++];
+                if (j < b.length && b[j] == next) {
+                    j++;
+                }
+            } else {
+                next = b[j++];
+            }
+            merged[n++] = next;
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    private static long[] distinctSorted(long[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || values[i] != values[n - 1]) {
+                values[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+}
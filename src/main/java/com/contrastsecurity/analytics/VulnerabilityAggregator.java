@@ -0,0 +1,327 @@
+package com.contrastsecurity.analytics;
+
+import com.contrastsecurity.models.Server;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.TraceBreakdown;
+import com.contrastsecurity.models.Traces;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains vulnerability counts per application and for the whole organization, broken down
+ * by severity, status, rule and environment, so breakdowns like {@link TraceBreakdown} can be
+ * answered locally instead of re-fetching and re-walking every trace.
+ * <p>
+ * Traces are fed in from listings and later from delta feeds: updating a trace that is already
+ * known first subtracts its previous contribution, and removed traces are subtracted entirely.
+ * Values are dictionary encoded and counters are int arrays indexed by code, so a query is a
+ * few array reads. Environments come from the servers a trace was seen on; a trace seen in
+ * several environments counts once in each. Traces without an application count only towards
+ * the organization.
+ * <p>
+ * The aggregator is thread-safe. Updates take a write lock and queries a read lock.
+ */
+public class VulnerabilityAggregator {
+
+    public enum Dimension {
+        SEVERITY, STATUS, RULE, ENVIRONMENT
+    }
+
+    private static final int APPLICATION = 0;
+    private static final int FIRST_ENVIRONMENT = 1 + Dimension.ENVIRONMENT.ordinal();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary applications = new Dictionary();
+    private final Dictionary[] dictionaries = new Dictionary[Dimension.values().length];
+
+    /**
+     * The encoded contribution of every known trace: application, severity, status and rule
+     * codes followed by the distinct environment codes.
+     */
+    private final Map<String, int[]> traces = new HashMap<>();
+
+    private int[][][] applicationCounts = new int[Dimension.values().length][][];
+    private int[][] organizationCounts = new int[Dimension.values().length][];
+    private int[] applicationTraceCounts = new int[16];
+    private int organizationTraceCount;
+
+    public VulnerabilityAggregator() {
+        for (Dimension dimension : Dimension.values()) {
+            dictionaries[dimension.ordinal()] = new Dictionary();
+            applicationCounts[dimension.ordinal()] = new int[16][];
+            organizationCounts[dimension.ordinal()] = new int[8];
+        }
+    }
+
+    /**
+     * Add or update every trace of a listing page.
+     *
+     * @param page the page, may be null or empty
+     */
+    public void update(Traces page) {
+        if (page != null && page.getTraces() != null) {
+            applyDelta(page.getTraces(), Collections.<String>emptyList());
+        }
+    }
+
+    /**
+     * Add a trace, or replace the contribution of a trace with the same uuid.
+     *
+     * @param trace the new state of the trace
+     */
+    public void update(Trace trace) {
+        applyDelta(Collections.singletonList(trace), Collections.<String>emptyList());
+    }
+
+    /**
+     * Subtract a trace that was deleted or no longer matches the tracked scope.
+     *
+     * @param uuid the uuid of the trace
+     * @return true if the trace was known
+     */
+    public boolean remove(String uuid) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(uuid);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply one batch of a delta feed atomically; queries see either none or all of it. The
+     * batch is validated before anything is applied, so a rejected batch leaves the counts unchanged.
+     *
+     * @param changed the new or changed traces
+     * @param removed the uuids of removed traces
+     * @throws IllegalArgumentException if a changed trace has no uuid
+     */
+    public void applyDelta(Iterable<Trace> changed, Iterable<String> removed) {
+        lock.writeLock().lock();
+        try {
+            List<Trace> batch = new ArrayList<>();
+            List<int[]> records = new ArrayList<>();
+            for (Trace trace : changed) {
+                if (trace.getUuid() == null) {
+                    throw new IllegalArgumentException("Trace has no uuid");
+                }
+                batch.add(trace);
+                records.add(encode(trace));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                int[] record = records.get(i);
+                int[] previous = traces.put(batch.get(i).getUuid(), record);
+                if (previous != null) {
+                    add(previous, -1);
+                }
+                add(record, 1);
+            }
+            for (String uuid : removed) {
+                removeLocked(uuid);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of traces known to the aggregator
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return traces.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param appId the application, or null for the whole organization
+     * @return the number of traces
+     */
+    public int getTraceCount(String appId) {
+        lock.readLock().lock();
+        try {
+            return traceCountLocked(appId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param appId     the application, or null for the whole organization
+     * @param dimension the dimension of the value
+     * @param value     e.g. "High" for {@link Dimension#SEVERITY}
+     * @return the number of traces with the value
+     */
+    public int count(String appId, Dimension dimension, String value) {
+        lock.readLock().lock();
+        try {
+            return countLocked(appId, dimension, value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param appId     the application, or null for the whole organization
+     * @param dimension the dimension to group by
+     * @return the non-zero count of each value, in the order values were first seen
+     */
+    public Map<String, Integer> countBy(String appId, Dimension dimension) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> result = new LinkedHashMap<>();
+            int[] counts = counts(appId, dimension);
+            if (counts != null) {
+                Dictionary dictionary = dictionaries[dimension.ordinal()];
+                for (int code = 0; code < Math.min(counts.length, dictionary.size()); code++) {
+                    if (counts[code] > 0) {
+                        result.put(dictionary.decode(code), counts[code]);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Build the breakdown TeamServer reports for an application. Triaged counts the traces
+     * that were confirmed or marked not a problem; safes are not part of trace listings
+     * and are always zero.
+     *
+     * @param appId the application, or null for the whole organization
+     * @return the breakdown
+     */
+    public TraceBreakdown getBreakdown(String appId) {
+        lock.readLock().lock();
+        try {
+            int confirmed = countLocked(appId, Dimension.STATUS, "Confirmed");
+            int notProblem = countLocked(appId, Dimension.STATUS, "NotAProblem")
+                    + countLocked(appId, Dimension.STATUS, "Not a Problem");
+            int remediated = countLocked(appId, Dimension.STATUS, "Remediated")
+                    + countLocked(appId, Dimension.STATUS, "Fixed");
+            return new TraceBreakdown(
+                    traceCountLocked(appId),
+                    countLocked(appId, Dimension.SEVERITY, "Critical"),
+                    countLocked(appId, Dimension.SEVERITY, "High"),
+                    countLocked(appId, Dimension.SEVERITY, "Medium"),
+                    countLocked(appId, Dimension.SEVERITY, "Low"),
+                    countLocked(appId, Dimension.SEVERITY, "Note"),
+                    0,
+                    countLocked(appId, Dimension.STATUS, "Reported"),
+                    countLocked(appId, Dimension.STATUS, "Suspicious"),
+                    confirmed,
+                    notProblem,
+                    remediated,
+                    confirmed + notProblem);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String uuid) {
+        int[] previous = traces.remove(uuid);
+        if (previous == null) {
+            return false;
+        }
+        add(previous, -1);
+        return true;
+    }
+
+    private int traceCountLocked(String appId) {
+        if (appId == null) {
+            return organizationTraceCount;
+        }
+        int app = applications.lookup(appId);
+        return app == Dictionary.NO_CODE ? 0 : applicationTraceCounts[app];
+    }
+
+    private int countLocked(String appId, Dimension dimension, String value) {
+        int code = dictionaries[dimension.ordinal()].lookup(value);
+        int[] counts = counts(appId, dimension);
+        return code == Dictionary.NO_CODE || counts == null || code >= counts.length ? 0 : counts[code];
+    }
+
+    private int[] counts(String appId, Dimension dimension) {
+        if (appId == null) {
+            return organizationCounts[dimension.ordinal()];
+        }
+        int app = applications.lookup(appId);
+        return app == Dictionary.NO_CODE ? null : applicationCounts[dimension.ordinal()][app];
+    }
+
+    private int[] encode(Trace trace) {
+        String appId = trace.getApplication() != null ? trace.getApplication().getId() : trace.getParentApplicationId();
+        int[] record = new int[FIRST_ENVIRONMENT + (trace.getServers() == null ? 0 : trace.getServers().size())];
+        record[APPLICATION] = applications.encode(appId);
+        record[1 + Dimension.SEVERITY.ordinal()] = dictionaries[Dimension.SEVERITY.ordinal()].encode(trace.getSeverity());
+        record[1 + Dimension.STATUS.ordinal()] = dictionaries[Dimension.STATUS.ordinal()].encode(trace.getStatus());
+        record[1 + Dimension.RULE.ordinal()] = dictionaries[Dimension.RULE.ordinal()].encode(trace.getRule());
+        int length = FIRST_ENVIRONMENT;
+        if (trace.getServers() != null) {
+            Dictionary environments = dictionaries[Dimension.ENVIRONMENT.ordinal()];
+            for (Server server : trace.getServers()) {
+                int code = environments.encode(server.getEnvironment());
+                if (code != Dictionary.NO_CODE && !contains(record, FIRST_ENVIRONMENT, length, code)) {
+                    record[length++] = code;
+                }
+            }
+        }
+        return length == record.length ? record : Arrays.copyOf(record, length);
+    }
+
+    private void add(int[] record, int delta) {
+        int app = record[APPLICATION];
+        organizationTraceCount += delta;
+        if (app != Dictionary.NO_CODE) {
+            if (app >= applicationTraceCounts.length) {
+                applicationTraceCounts = Arrays.copyOf(applicationTraceCounts, Math.max(app + 1, applicationTraceCounts.length * 2));
+            }
+            applicationTraceCounts[app] += delta;
+        }
+        for (int i = 1; i < record.length; i++) {
+            int dimension = Math.min(i - 1, Dimension.ENVIRONMENT.ordinal());
+            int code = record[i];
+            if (code != Dictionary.NO_CODE) {
+                organizationCounts[dimension] = increment(organizationCounts[dimension], code, delta);
+                if (app != Dictionary.NO_CODE) {
+                    int[][] perApplication = applicationCounts[dimension];
+                    if (app >= perApplication.length) {
+                        perApplication = Arrays.copyOf(perApplication, Math.max(app + 1, perApplication.length * 2));
+                        applicationCounts[dimension] = perApplication;
+                    }
+                    perApplication[app] = increment(perApplication[app] == null ? new int[8] : perApplication[app], code, delta);
+                }
+            }
+        }
+    }
+
+    private static int[] increment(int[] counts, int code, int delta) {
+        if (code >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(code + 1, counts.length * 2));
+        }
+        counts[code] += delta;
+        return counts;
+    }
+
+    private static boolean contains(int[] values, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
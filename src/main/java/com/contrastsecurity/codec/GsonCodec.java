@@ -0,0 +1,79 @@
+package com.contrastsecurity.codec;
+
+import com.contrastsecurity.utils.ByteArrayPool;
+import com.contrastsecurity.utils.CanonicalizingTypeAdapterFactory;
+import com.contrastsecurity.utils.MetadataEntityTypeAdapter;
+import com.contrastsecurity.utils.StringPool;
+import com.contrastsecurity.utils.Utf8Reader;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+
+/**
+ * Default codec. Decodes through Gson over a {@link Utf8Reader} backed by a pooled buffer.
+ * Invalid JSON fails with a {@link com.google.gson.JsonSyntaxException}.
+ */
+public class GsonCodec implements JsonCodec {
+
+    private final Gson gson;
+    private final ByteArrayPool bufferPool;
+
+    public GsonCodec() {
+        this((StringPool) null);
+    }
+
+    /**
+     * @param stringPool pool used to canonicalize low-cardinality fields, or null
+     */
+    public GsonCodec(StringPool stringPool) {
+        this(newGsonBuilder(stringPool).create());
+    }
+
+    /**
+     * @param gson a Gson instance, typically created from {@link #newGsonBuilder(StringPool)}
+     */
+    public GsonCodec(Gson gson) {
+        this.gson = gson;
+        this.bufferPool = new ByteArrayPool(ByteArrayPool.DEFAULT_BUFFER_SIZE, ByteArrayPool.DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * Create a GsonBuilder with the type adapters the SDK models need, so every codec decodes
+     * the same way.
+     *
+     * @param stringPool pool used to canonicalize low-cardinality fields, or null
+     * @return a configured GsonBuilder
+     */
+    public static GsonBuilder newGsonBuilder(StringPool stringPool) {
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapterFactory(MetadataEntityTypeAdapter.FACTORY);
+        if (stringPool != null) {
+            builder.registerTypeAdapterFactory(new CanonicalizingTypeAdapterFactory(stringPool));
+        }
+        return builder;
+    }
+
+    @Override
+    public <T> T decode(InputStream in, Type type) throws IOException {
+        Reader reader = new Utf8Reader(in, bufferPool);
+        try {
+            return gson.fromJson(reader, type);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    @Override
+    public String encode(Object value) {
+        return gson.toJson(value);
+    }
+
+    public Gson getGson() {
+        return gson;
+    }
+}
@@ -0,0 +1,76 @@
+package com.contrastsecurity.codec;
+
+import com.contrastsecurity.utils.StringPool;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Codec that tokenizes responses with Jackson's streaming parser, which decodes UTF-8 straight
+ * from the byte stream, and binds the tokens to the SDK models with the same Gson type adapters
+ * as {@link GsonCodec}. Requires the optional com.fasterxml.jackson.core:jackson-core dependency.
+ * Invalid JSON fails with a {@link JsonSyntaxException}, as with {@link GsonCodec}.
+ */
+public class JacksonCodec implements JsonCodec {
+
+    private final Gson gson;
+    private final JsonFactory jsonFactory;
+
+    public JacksonCodec() {
+        this((StringPool) null);
+    }
+
+    /**
+     * @param stringPool pool used to canonicalize low-cardinality fields, or null
+     */
+    public JacksonCodec(StringPool stringPool) {
+        this(GsonCodec.newGsonBuilder(stringPool));
+    }
+
+    /**
+     * Note that this registers a Map adapter that reads Jackson's tokens on the given builder,
+     * since Gson 2.6 cannot copy a builder. Pass a builder that is not used for anything else.
+     *
+     * @param gsonBuilder builder supplying the type adapters used to bind decoded tokens
+     */
+    public JacksonCodec(GsonBuilder gsonBuilder) {
+        this.gson = gsonBuilder.registerTypeAdapterFactory(new NamedKeyMapTypeAdapterFactory()).create();
+        this.jsonFactory = new JsonFactory()
+                .enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES)
+                .enable(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(InputStream in, Type type) throws IOException {
+        JacksonJsonReader reader = new JacksonJsonReader(jsonFactory.createParser(in));
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return null;
+            }
+            T value = (T) gson.getAdapter(TypeToken.get(type)).read(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("JSON document was not fully consumed.");
+            }
+            return value;
+        } catch (JsonProcessingException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Override
+    public String encode(Object value) {
+        return gson.toJson(value);
+    }
+}
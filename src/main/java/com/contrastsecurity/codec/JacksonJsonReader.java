@@ -0,0 +1,206 @@
+package com.contrastsecurity.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gson JsonReader that pulls its tokens from a Jackson JsonParser, so Gson type adapters can
+ * bind documents tokenized by Jackson. Map adapters must not rely on Gson's internal
+ * promoteNameToValue hook, which is why {@link JacksonCodec} registers
+ * {@link NamedKeyMapTypeAdapterFactory}.
+ */
+class JacksonJsonReader extends JsonReader {
+
+    private final JsonParser parser;
+    private com.fasterxml.jackson.core.JsonToken current;
+    private boolean advanced;
+
+    JacksonJsonReader(JsonParser parser) {
+        super(new StringReader(""));
+        this.parser = parser;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (!advanced) {
+            current = parser.nextToken();
+            advanced = true;
+        }
+        if (current == null) {
+            return JsonToken.END_DOCUMENT;
+        }
+        switch (current) {
+            case START_OBJECT:
+                return JsonToken.BEGIN_OBJECT;
+            case END_OBJECT:
+                return JsonToken.END_OBJECT;
+            case START_ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case END_ARRAY:
+                return JsonToken.END_ARRAY;
+            case FIELD_NAME:
+                return JsonToken.NAME;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return JsonToken.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return JsonToken.BOOLEAN;
+            case VALUE_NULL:
+                return JsonToken.NULL;
+            default:
+                return JsonToken.STRING;
+        }
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        return parser.getCurrentName();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected(JsonToken.STRING, token);
+        }
+        advanced = false;
+        return parser.getText();
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        return current == com.fasterxml.jackson.core.JsonToken.VALUE_TRUE;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JsonToken token = peek();
+        if (token == JsonToken.NUMBER) {
+            advanced = false;
+            return parser.getDoubleValue();
+        }
+        return Double.parseDouble(nextString());
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JsonToken token = peek();
+        if (current == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            advanced = false;
+            return parser.getLongValue();
+        }
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            throw unexpected(JsonToken.NUMBER, token);
+        }
+        String text = nextString();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            double value = Double.parseDouble(text);
+            long result = (long) value;
+            if (result != value) {
+                throw new NumberFormatException("Expected a long but was " + text + " at path " + getPath());
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if ((int) value != value) {
+            throw new NumberFormatException("Expected an int but was " + value + " at path " + getPath());
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        JsonToken token = peek();
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            parser.skipChildren();
+        }
+        advanced = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    @Override
+    public String getPath() {
+        List<JsonStreamContext> contexts = new ArrayList<>();
+        for (JsonStreamContext context = parser.getParsingContext(); context != null; context = context.getParent()) {
+            contexts.add(context);
+        }
+        StringBuilder path = new StringBuilder("$");
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            JsonStreamContext context = contexts.get(i);
+            if (context.inArray()) {
+                path.append('[').append(Math.max(context.getCurrentIndex(), 0)).append(']');
+            } else if (context.inObject() && context.getCurrentName() != null) {
+                path.append('.').append(context.getCurrentName());
+            }
+        }
+        return path.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at path " + getPath();
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw unexpected(expected, token);
+        }
+        advanced = false;
+    }
+
+    private IllegalStateException unexpected(JsonToken expected, JsonToken actual) {
+        return new IllegalStateException("Expected " + expected + " but was " + actual + " at path " + getPath());
+    }
+}
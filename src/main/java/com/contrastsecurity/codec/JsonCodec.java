@@ -0,0 +1,34 @@
+package com.contrastsecurity.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Encodes request bodies and decodes response bodies for the SDK. {@link GsonCodec} is the
+ * default; {@link JacksonCodec} tokenizes with Jackson's streaming parser when jackson-core is
+ * on the classpath.
+ */
+public interface JsonCodec {
+
+    /**
+     * Decode a JSON document read from a UTF-8 encoded stream. The stream is closed once the
+     * document has been read.
+     *
+     * @param in   the JSON bytes
+     * @param type the type to decode, e.g. Traces.class
+     * @return the decoded value, or null if the stream was empty
+     * @throws IOException       if reading the stream fails
+     * @throws RuntimeException  if the stream is not valid JSON for the type; the exception type
+     *                           depends on the implementation
+     */
+    <T> T decode(InputStream in, Type type) throws IOException;
+
+    /**
+     * Encode a value as a JSON string.
+     *
+     * @param value the value to encode
+     * @return the JSON representation of the value
+     */
+    String encode(Object value);
+}
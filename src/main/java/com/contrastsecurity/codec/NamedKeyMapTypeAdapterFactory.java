@@ -0,0 +1,184 @@
+package com.contrastsecurity.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads JSON objects into Maps by converting each property name with the key type's adapter.
+ * Gson's built-in Map adapter instead promotes names to values through a hook that only works
+ * on Gson's own JsonReader. Writing is delegated to Gson's adapter.
+ */
+class NamedKeyMapTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        Class<? super T> rawType = typeToken.getRawType();
+        if (!Map.class.isAssignableFrom(rawType)) {
+            return null;
+        }
+        Type[] keyAndValueTypes = keyAndValueTypes(typeToken.getType());
+        TypeAdapter<?> keyAdapter = gson.getAdapter(TypeToken.get(keyAndValueTypes[0]));
+        TypeAdapter<?> valueAdapter = gson.getAdapter(TypeToken.get(keyAndValueTypes[1]));
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, typeToken);
+        return new Adapter<>(rawType, keyAdapter, valueAdapter, delegate);
+    }
+
+    /**
+     * Resolve the key and value types of a Map type, e.g. {@code [String, Integer]} for a class
+     * extending {@code HashMap<String, Integer>}. Unresolved type variables become Object.
+     */
+    static Type[] keyAndValueTypes(Type type) {
+        if (type == Properties.class) {
+            // Properties is declared as a Map<Object, Object> but only holds strings
+            return new Type[]{String.class, String.class};
+        }
+        Type[] resolved = resolve(type, Map.class, new HashMap<TypeVariable<?>, Type>());
+        return resolved != null ? resolved : new Type[]{Object.class, Object.class};
+    }
+
+    private static Type[] resolve(Type type, Class<?> target, Map<TypeVariable<?>, Type> bindings) {
+        Class<?> raw = rawType(type);
+        if (raw == null || !target.isAssignableFrom(raw)) {
+            return null;
+        }
+        Map<TypeVariable<?>, Type> scope = new HashMap<>();
+        TypeVariable<?>[] variables = raw.getTypeParameters();
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            for (int i = 0; i < variables.length && i < arguments.length; i++) {
+                scope.put(variables[i], substitute(arguments[i], bindings));
+            }
+        }
+        if (raw == target) {
+            Type[] resolved = new Type[variables.length];
+            for (int i = 0; i < variables.length; i++) {
+                Type argument = scope.get(variables[i]);
+                resolved[i] = argument != null ? argument : Object.class;
+            }
+            return resolved;
+        }
+        for (Type supertype : raw.getGenericInterfaces()) {
+            Type[] resolved = resolve(supertype, target, scope);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return resolve(raw.getGenericSuperclass(), target, scope);
+    }
+
+    private static Type substitute(Type type, Map<TypeVariable<?>, Type> bindings) {
+        if (type instanceof TypeVariable) {
+            Type bound = bindings.get(type);
+            return bound != null ? bound : Object.class;
+        }
+        if (type instanceof WildcardType) {
+            return substitute(((WildcardType) type).getUpperBounds()[0], bindings);
+        }
+        return type;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
+    }
+
+    private static class Adapter<T> extends TypeAdapter<T> {
+
+        private final Class<? super T> rawType;
+        private final TypeAdapter<?> keyAdapter;
+        private final TypeAdapter<?> valueAdapter;
+        private final TypeAdapter<T> delegate;
+
+        Adapter(Class<? super T> rawType, TypeAdapter<?> keyAdapter, TypeAdapter<?> valueAdapter, TypeAdapter<T> delegate) {
+            this.rawType = rawType;
+            this.keyAdapter = keyAdapter;
+            this.valueAdapter = valueAdapter;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Map<Object, Object> map = newMap();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    in.beginArray();
+                    put(map, keyAdapter.read(in), valueAdapter.read(in));
+                    in.endArray();
+                }
+                in.endArray();
+            } else {
+                in.beginObject();
+                while (in.hasNext()) {
+                    Object key = keyAdapter.fromJsonTree(new JsonPrimitive(in.nextName()));
+                    put(map, key, valueAdapter.read(in));
+                }
+                in.endObject();
+            }
+            return (T) map;
+        }
+
+        private static void put(Map<Object, Object> map, Object key, Object value) {
+            if (map.put(key, value) != null) {
+                throw new JsonSyntaxException("duplicate key: " + key);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<Object, Object> newMap() {
+            if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+                if (SortedMap.class.isAssignableFrom(rawType)) {
+                    return new TreeMap<>();
+                }
+                if (ConcurrentMap.class.isAssignableFrom(rawType)) {
+                    return new ConcurrentHashMap<>();
+                }
+                return new LinkedHashMap<>();
+            }
+            try {
+                return (Map<Object, Object>) rawType.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new JsonIOException("Unable to create " + rawType.getName(), e);
+            }
+        }
+    }
+}
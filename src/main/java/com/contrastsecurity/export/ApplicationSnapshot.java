@@ -0,0 +1,123 @@
+package com.contrastsecurity.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Memory-mapped snapshot of applications written by an {@link ApplicationSnapshotWriter}.
+ */
+public class ApplicationSnapshot extends Snapshot {
+
+    public ApplicationSnapshot(Path file) throws IOException {
+        super(file, KIND_APPLICATION);
+    }
+
+    /**
+     * @return a new flyweight view, positioned on the first record
+     */
+    public ApplicationView view() {
+        return new ApplicationView();
+    }
+
+    /**
+     * Flyweight over one application record. Views are not thread-safe.
+     */
+    public class ApplicationView {
+        private int base;
+        private int index;
+
+        public ApplicationView moveTo(int index) {
+            this.base = recordOffset(index);
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the application id as a new String
+         */
+        public String getId() {
+            return getString(base + ID);
+        }
+
+        public boolean appendId(StringBuilder builder) {
+            return appendString(base + ID, builder);
+        }
+
+        public boolean idEquals(CharSequence id) {
+            return stringEquals(base + ID, id);
+        }
+
+        /**
+         * @return the name as a new String
+         */
+        public String getName() {
+            return getString(base + NAME);
+        }
+
+        public boolean appendName(StringBuilder builder) {
+            return appendString(base + NAME, builder);
+        }
+
+        /**
+         * @return the path as a new String
+         */
+        public String getPath() {
+            return getString(base + PATH);
+        }
+
+        public String getLanguage() {
+            return getCode(LANGUAGES, base + LANGUAGE);
+        }
+
+        public String getStatus() {
+            return getCode(STATUSES, base + STATUS);
+        }
+
+        public int getImportance() {
+            return getInt(base + IMPORTANCE);
+        }
+
+        public boolean getArchived() {
+            return (getInt(base + FLAGS) & ARCHIVED) != 0;
+        }
+
+        public boolean getMaster() {
+            return (getInt(base + FLAGS) & MASTER) != 0;
+        }
+
+        public boolean getDefend() {
+            return (getInt(base + FLAGS) & DEFEND) != 0;
+        }
+
+        public long getCreated() {
+            return getLong(base + CREATED);
+        }
+
+        public long getLastSeen() {
+            return getLong(base + LAST_SEEN);
+        }
+    }
+
+    static final int ID = 0;
+    static final int NAME = 8;
+    static final int PATH = 16;
+    static final int LANGUAGE = 24;
+    static final int STATUS = 28;
+    static final int IMPORTANCE = 32;
+    static final int FLAGS = 36;
+    static final int CREATED = 40;
+    static final int LAST_SEEN = 48;
+    static final int RECORD_SIZE = 56;
+
+    static final int ARCHIVED = 1;
+    static final int MASTER = 2;
+    static final int DEFEND = 4;
+
+    static final int LANGUAGES = 0;
+    static final int STATUSES = 1;
+    static final int DICTIONARY_COUNT = 2;
+}
@@ -0,0 +1,46 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.models.Application;
+import com.contrastsecurity.models.Applications;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.contrastsecurity.export.ApplicationSnapshot.*;
+
+/**
+ * Writes applications to the binary snapshot format read by {@link ApplicationSnapshot}.
+ */
+public class ApplicationSnapshotWriter extends SnapshotWriter<Application> {
+
+    public ApplicationSnapshotWriter(Path target) throws IOException {
+        super(target, KIND_APPLICATION, RECORD_SIZE, DICTIONARY_COUNT);
+    }
+
+    /**
+     * Append every application of a response.
+     *
+     * @param applications the applications to write, may be null or empty
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(Applications applications) throws IOException {
+        if (applications != null && applications.getApplications() != null) {
+            write(applications.getApplications());
+        }
+    }
+
+    @Override
+    protected void encode(Application application) throws IOException {
+        putString(ID, application.getId());
+        putString(NAME, application.getName());
+        putString(PATH, application.getPath());
+        putCode(LANGUAGE, LANGUAGES, application.getLanguage());
+        putCode(STATUS, STATUSES, application.getStatus());
+        putInt(IMPORTANCE, application.getImportance());
+        putInt(FLAGS, (application.getArchived() ? ARCHIVED : 0)
+                | (application.getMaster() ? MASTER : 0)
+                | (application.getDefend() ? DEFEND : 0));
+        putLong(CREATED, application.getCreated());
+        putLong(LAST_SEEN, application.getLastSeen());
+    }
+}
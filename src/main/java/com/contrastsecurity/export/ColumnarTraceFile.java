@@ -0,0 +1,532 @@
+package com.contrastsecurity.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reader of the columnar trace files written by a {@link ColumnarTraceWriter}.
+ * <p>
+ * The file is self-describing: a footer at the end lists the columns and their encodings,
+ * the dictionaries and, for every row group, the position of each column chunk with its
+ * statistics. A scan decodes only the requested columns, and row groups whose statistics
+ * rule out a {@link Filter} are skipped without being read.
+ * <pre>
+ * try (ColumnarTraceFile file = new ColumnarTraceFile(path)) {
+ *     file.scan(EnumSet.of(Column.UUID), Filter.eq(Column.SEVERITY, "Critical"), new Visitor() {
+ *         public void visit(Row row) { ... row.getString(Column.UUID) ... }
+ *     });
+ * }
+ * </pre>
+ * A file is not thread-safe; open one per thread to scan in parallel.
+ */
+public class ColumnarTraceFile implements Closeable {
+
+    public enum Column {
+        UUID(STRING),
+        TITLE(STRING),
+        APPLICATION(DICTIONARY),
+        RULE(DICTIONARY),
+        SEVERITY(DICTIONARY),
+        STATUS(DICTIONARY),
+        SUB_STATUS(DICTIONARY),
+        LANGUAGE(DICTIONARY),
+        CATEGORY(DICTIONARY),
+        FIRST_TIME_SEEN(DELTA),
+        LAST_TIME_SEEN(DELTA),
+        CLOSED_TIME(DELTA),
+        TOTAL_TRACES_RECEIVED(DELTA);
+
+        final int encoding;
+
+        Column(int encoding) {
+            this.encoding = encoding;
+        }
+
+        /**
+         * @return true for columns read with {@link Row#getLong(Column)}
+         */
+        public boolean isNumeric() {
+            return encoding == DELTA;
+        }
+    }
+
+    /**
+     * Receives the rows matched by a scan.
+     */
+    public interface Visitor {
+        void visit(Row row);
+    }
+
+    /**
+     * The statistics of one row group.
+     */
+    public final class RowGroup {
+        private final int rowCount;
+        private final long[] offsets;
+        private final int[] lengths;
+        private final long[] min;
+        private final long[] max;
+        private final long[][] present;
+        private final boolean[] nulls;
+
+        private RowGroup(int rowCount, int columnCount) {
+            this.rowCount = rowCount;
+            this.offsets = new long[columnCount];
+            this.lengths = new int[columnCount];
+            this.min = new long[columnCount];
+            this.max = new long[columnCount];
+            this.present = new long[columnCount][];
+            this.nulls = new boolean[columnCount];
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @param column a numeric column
+         * @return the smallest value in the group, or {@link TraceSnapshot#NO_TIME} if it has none
+         */
+        public long getMin(Column column) {
+            int c = fileColumn(column);
+            return c < 0 || min[c] > max[c] ? TraceSnapshot.NO_TIME : min[c];
+        }
+
+        /**
+         * @param column a numeric column
+         * @return the largest value in the group, or {@link TraceSnapshot#NO_TIME} if it has none
+         */
+        public long getMax(Column column) {
+            int c = fileColumn(column);
+            return c < 0 || min[c] > max[c] ? TraceSnapshot.NO_TIME : max[c];
+        }
+
+        /**
+         * @param column a dictionary-encoded column
+         * @param value  the value to look for, or null to look for rows without a value
+         * @return false if no row of the group has the value
+         */
+        public boolean mayContain(Column column, String value) {
+            int c = fileColumn(column);
+            if (c < 0 || present[c] == null) {
+                return c >= 0 || value == null;
+            }
+            if (value == null) {
+                return nulls[c];
+            }
+            Integer code = codes.get(c).get(value);
+            if (code == null) {
+                return false;
+            }
+            int word = code >>> 6;
+            return word < present[c].length && (present[c][word] & (1L << code)) != 0;
+        }
+    }
+
+    /**
+     * Flyweight over the current row of a scan. Values of columns that were not requested
+     * read as null or {@link TraceSnapshot#NO_TIME}.
+     */
+    public final class Row {
+        private int index;
+
+        public String getString(Column column) {
+            int c = fileColumn(column);
+            return c < 0 || strings[c] == null ? null : strings[c][index];
+        }
+
+        /**
+         * @return the value, or {@link TraceSnapshot#NO_TIME} if it is null
+         */
+        public long getLong(Column column) {
+            int c = fileColumn(column);
+            return c < 0 || longs[c] == null ? TraceSnapshot.NO_TIME : longs[c][index];
+        }
+    }
+
+    /**
+     * A predicate over rows that can rule out whole row groups from their statistics.
+     */
+    public abstract static class Filter {
+
+        /**
+         * @return false if no row of the group can match
+         */
+        public abstract boolean mayMatch(RowGroup group);
+
+        public abstract boolean matches(Row row);
+
+        abstract void addColumns(Set<Column> columns);
+
+        public static final Filter ALL = new Filter() {
+            @Override
+            public boolean mayMatch(RowGroup group) {
+                return true;
+            }
+
+            @Override
+            public boolean matches(Row row) {
+                return true;
+            }
+
+            @Override
+            void addColumns(Set<Column> columns) {
+            }
+        };
+
+        /**
+         * @param column a string or dictionary-encoded column
+         * @param value  the value to match
+         * @return a filter matching rows whose column equals the value
+         */
+        public static Filter eq(final Column column, final String value) {
+            if (column.isNumeric()) {
+                throw new IllegalArgumentException(column + " is numeric");
+            }
+            return new Filter() {
+                @Override
+                public boolean mayMatch(RowGroup group) {
+                    return column.encoding != DICTIONARY || group.mayContain(column, value);
+                }
+
+                @Override
+                public boolean matches(Row row) {
+                    String actual = row.getString(column);
+                    return actual == null ? value == null : actual.equals(value);
+                }
+
+                @Override
+                void addColumns(Set<Column> columns) {
+                    columns.add(column);
+                }
+            };
+        }
+
+        /**
+         * @param column a numeric column
+         * @param from   the smallest matching value
+         * @param to     the largest matching value
+         * @return a filter matching rows whose column is within the inclusive range
+         */
+        public static Filter between(final Column column, final long from, final long to) {
+            if (!column.isNumeric()) {
+                throw new IllegalArgumentException(column + " is not numeric");
+            }
+            return new Filter() {
+                @Override
+                public boolean mayMatch(RowGroup group) {
+                    long min = group.getMin(column);
+                    return min != TraceSnapshot.NO_TIME && min <= to && group.getMax(column) >= from;
+                }
+
+                @Override
+                public boolean matches(Row row) {
+                    long value = row.getLong(column);
+                    return value != TraceSnapshot.NO_TIME && value >= from && value <= to;
+                }
+
+                @Override
+                void addColumns(Set<Column> columns) {
+                    columns.add(column);
+                }
+            };
+        }
+
+        public static Filter and(final Filter... filters) {
+            return new Filter() {
+                @Override
+                public boolean mayMatch(RowGroup group) {
+                    for (Filter filter : filters) {
+                        if (!filter.mayMatch(group)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean matches(Row row) {
+                    for (Filter filter : filters) {
+                        if (!filter.matches(row)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                void addColumns(Set<Column> columns) {
+                    for (Filter filter : filters) {
+                        filter.addColumns(columns);
+                    }
+                }
+            };
+        }
+    }
+
+    private final FileChannel channel;
+    private final int[] columnMap = new int[Column.values().length];
+    private final int[] encodings;
+    private final String[][] dictionaries;
+    private final List<Map<String, Integer>> codes;
+    private final List<RowGroup> groups;
+    private final long rowCount;
+    private final String[][] strings;
+    private final long[][] longs;
+    private ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+
+    public ColumnarTraceFile(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Not a columnar trace file: " + file);
+            }
+            ByteBuffer header = read(0, HEADER_SIZE);
+            if (header.getLong() != MAGIC) {
+                throw new IOException("Not a columnar trace file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported columnar trace file version " + version + ": " + file);
+            }
+            ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            int footerLength = trailer.getInt();
+            if (trailer.getLong() != MAGIC || footerOffset + footerLength != size - TRAILER_SIZE) {
+                throw new IOException("Truncated columnar trace file: " + file);
+            }
+            ByteBuffer footer = read(footerOffset, footerLength);
+
+            int columnCount = (int) getVarint(footer);
+            Arrays.fill(columnMap, -1);
+            this.encodings = new int[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                String name = getString(footer);
+                encodings[c] = footer.get();
+                for (Column column : Column.values()) {
+                    if (column.name().equals(name) && column.encoding == encodings[c]) {
+                        columnMap[column.ordinal()] = c;
+                    }
+                }
+            }
+            this.dictionaries = new String[columnCount][];
+            this.codes = new ArrayList<>();
+            for (int c = 0; c < columnCount; c++) {
+                Map<String, Integer> lookup = new HashMap<>();
+                if (encodings[c] == DICTIONARY) {
+                    String[] values = new String[(int) getVarint(footer)];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = getString(footer);
+                        lookup.put(values[i], i);
+                    }
+                    dictionaries[c] = values;
+                }
+                codes.add(lookup);
+            }
+            int groupCount = (int) getVarint(footer);
+            List<RowGroup> rowGroups = new ArrayList<>(groupCount);
+            long rows = 0;
+            for (int g = 0; g < groupCount; g++) {
+                RowGroup group = new RowGroup((int) getVarint(footer), columnCount);
+                for (int c = 0; c < columnCount; c++) {
+                    group.offsets[c] = footer.getLong();
+                    group.lengths[c] = (int) getVarint(footer);
+                    group.min[c] = Long.MAX_VALUE;
+                    group.max[c] = Long.MIN_VALUE;
+                    if (encodings[c] == DELTA && footer.get() != 0) {
+                        group.min[c] = unzigzag(getVarint(footer));
+                        group.max[c] = unzigzag(getVarint(footer));
+                    } else if (encodings[c] == DICTIONARY) {
+                        group.nulls[c] = footer.get() != 0;
+                        group.present[c] = new long[(int) getVarint(footer)];
+                        for (int w = 0; w < group.present[c].length; w++) {
+                            group.present[c][w] = footer.getLong();
+                        }
+                    }
+                }
+                rows += group.rowCount;
+                rowGroups.add(group);
+            }
+            this.groups = Collections.unmodifiableList(rowGroups);
+            this.rowCount = rows;
+            this.strings = new String[columnCount][];
+            this.longs = new long[columnCount][];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of traces in the file
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public List<RowGroup> getRowGroups() {
+        return groups;
+    }
+
+    /**
+     * Visit the rows that match a filter.
+     *
+     * @param columns the columns to decode, in addition to those the filter reads
+     * @param filter  the filter, e.g. {@link Filter#ALL}
+     * @param visitor receives each matching row; the row is only valid during the call
+     * @return the number of rows visited
+     * @throws IOException if the file could not be read
+     */
+    public long scan(Set<Column> columns, Filter filter, Visitor visitor) throws IOException {
+        Set<Column> needed = columns.isEmpty() ? EnumSet.noneOf(Column.class) : EnumSet.copyOf(columns);
+        filter.addColumns(needed);
+        Row row = new Row();
+        long visited = 0;
+        for (RowGroup group : groups) {
+            if (!filter.mayMatch(group)) {
+                continue;
+            }
+            Arrays.fill(strings, null);
+            Arrays.fill(longs, null);
+            for (Column column : needed) {
+                int c = fileColumn(column);
+                if (c >= 0) {
+                    decode(group, c);
+                }
+            }
+            for (row.index = 0; row.index < group.rowCount; row.index++) {
+                if (filter.matches(row)) {
+                    visitor.visit(row);
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int fileColumn(Column column) {
+        return columnMap[column.ordinal()];
+    }
+
+    private void decode(RowGroup group, int c) throws IOException {
+        ByteBuffer buffer = readChunk(group.offsets[c], group.lengths[c]);
+        int rows = group.rowCount;
+        switch (encodings[c]) {
+            case STRING: {
+                String[] values = new String[rows];
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < rows; i++) {
+                    int length = (int) getVarint(buffer) - 1;
+                    if (length >= 0) {
+                        values[i] = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+                        buffer.position(buffer.position() + length);
+                    }
+                }
+                strings[c] = values;
+                break;
+            }
+            case DICTIONARY: {
+                String[] values = new String[rows];
+                String[] dictionary = dictionaries[c];
+                for (int i = 0; i < rows; i++) {
+                    int code = (int) getVarint(buffer) - 1;
+                    values[i] = code < 0 ? null : dictionary[code];
+                }
+                strings[c] = values;
+                break;
+            }
+            default: {
+                long[] values = new long[rows];
+                long previous = 0;
+                for (int i = 0; i < rows; i++) {
+                    long encoded = getVarint(buffer);
+                    if (encoded == 0) {
+                        values[i] = TraceSnapshot.NO_TIME;
+                    } else {
+                        previous += unzigzag(encoded - 1);
+                        values[i] = previous;
+                    }
+                }
+                longs[c] = values;
+                break;
+            }
+        }
+    }
+
+    private ByteBuffer readChunk(long offset, int length) throws IOException {
+        if (chunk.capacity() < length) {
+            chunk = ByteBuffer.allocate(Math.max(length, chunk.capacity() * 2));
+        }
+        chunk.clear().limit(length);
+        readFully(offset, chunk);
+        return chunk;
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(offset, buffer);
+        return buffer;
+    }
+
+    private void readFully(long offset, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar trace file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = (int) getVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static final long MAGIC = 0x4354434f4c563031L;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 12;
+    static final int TRAILER_SIZE = 20;
+
+    static final int STRING = 0;
+    static final int DICTIONARY = 1;
+    static final int DELTA = 2;
+}
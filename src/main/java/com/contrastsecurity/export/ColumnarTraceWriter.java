@@ -0,0 +1,382 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.analytics.Dictionary;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.contrastsecurity.export.ColumnarTraceFile.*;
+
+/**
+ * Writes traces to the columnar file format read by {@link ColumnarTraceFile}.
+ * <p>
+ * Traces are buffered column by column until a row group is full and the group is then
+ * written as one chunk per column. Rule, severity, status and the other low-cardinality
+ * columns are dictionary encoded, timestamps are stored as variable-length deltas from the
+ * previous row, and each chunk records min/max or value-presence statistics so readers can
+ * skip whole row groups. Only the current row group, the dictionaries and the row group
+ * directory are held in memory. The file is written to a temporary file and moved into
+ * place on {@link #close()}. Call {@link #abort()} instead when the export fails, e.g. when
+ * fetching a page throws; if a write fails, close() discards the file as well.
+ */
+public class ColumnarTraceWriter implements Closeable {
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final int rowGroupSize;
+    private final Buffer[] chunks = new Buffer[COLUMNS.length];
+    private final Dictionary[] dictionaries = new Dictionary[COLUMNS.length];
+    private final long[] previous = new long[COLUMNS.length];
+    private final long[] min = new long[COLUMNS.length];
+    private final long[] max = new long[COLUMNS.length];
+    private final long[][] present = new long[COLUMNS.length][];
+    private final boolean[] nulls = new boolean[COLUMNS.length];
+    private final Buffer directory = new Buffer();
+    private int groupRows;
+    private int groupCount;
+    private long count;
+    private long position;
+    private boolean closed;
+    private boolean failed;
+
+    public ColumnarTraceWriter(Path target) throws IOException {
+        this(target, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    /**
+     * @param target       the file to write
+     * @param rowGroupSize the number of traces per row group
+     * @throws IOException if the temporary file could not be created
+     */
+    public ColumnarTraceWriter(Path target, int rowGroupSize) throws IOException {
+        if (rowGroupSize < 1) {
+            throw new IllegalArgumentException("Row group size must be at least 1");
+        }
+        this.target = target;
+        this.rowGroupSize = rowGroupSize;
+        this.temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        for (Column column : COLUMNS) {
+            chunks[column.ordinal()] = new Buffer();
+            if (column.encoding == DICTIONARY) {
+                dictionaries[column.ordinal()] = new Dictionary();
+                present[column.ordinal()] = new long[1];
+            }
+        }
+        startGroup();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(MAGIC).putInt(VERSION).flip();
+        writeFully(header);
+    }
+
+    /**
+     * Append one trace.
+     *
+     * @param trace the trace to write
+     * @throws IOException if the file could not be written
+     */
+    public void write(Trace trace) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Columnar writer is closed");
+        }
+        boolean written = false;
+        try {
+            putString(Column.UUID, trace.getUuid());
+            putString(Column.TITLE, trace.getTitle());
+            putCode(Column.APPLICATION, trace.getApplication() == null ? null : trace.getApplication().getId());
+            putCode(Column.RULE, trace.getRule());
+            putCode(Column.SEVERITY, trace.getSeverity());
+            putCode(Column.STATUS, trace.getStatus());
+            putCode(Column.SUB_STATUS, trace.getSubStatus());
+            putCode(Column.LANGUAGE, trace.getLanguage());
+            putCode(Column.CATEGORY, trace.getCategory());
+            putLong(Column.FIRST_TIME_SEEN, trace.getFirstTimeSeen());
+            putLong(Column.LAST_TIME_SEEN, trace.getLastTimeSeen());
+            putLong(Column.CLOSED_TIME, trace.getClosedTime());
+            putLong(Column.TOTAL_TRACES_RECEIVED, trace.getTotalTracesReceived());
+            count++;
+            if (++groupRows == rowGroupSize) {
+                flushGroup();
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                // a partly written row or row group leaves the columns out of step
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Append every trace of a page.
+     *
+     * @param page the page to write, may be null or empty
+     * @throws IOException if the file could not be written
+     */
+    public void write(Traces page) throws IOException {
+        if (page != null && page.getTraces() != null) {
+            write(page.getTraces());
+        }
+    }
+
+    public void write(Iterable<? extends Trace> traces) throws IOException {
+        for (Trace trace : traces) {
+            write(trace);
+        }
+    }
+
+    /**
+     * @return the number of traces written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Write the last row group and the footer, and move the file into place. If an earlier
+     * write failed, the file is discarded instead.
+     *
+     * @throws IOException if the file could not be completed, or an earlier write failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (failed) {
+            abort();
+            throw new IOException("Columnar file " + target + " was not written because a write failed");
+        }
+        closed = true;
+        boolean moved = false;
+        try {
+            if (groupRows > 0) {
+                flushGroup();
+            }
+            Buffer footer = new Buffer();
+            footer.putVarint(COLUMNS.length);
+            for (Column column : COLUMNS) {
+                footer.putString(column.name());
+                footer.putByte(column.encoding);
+            }
+            for (Column column : COLUMNS) {
+                if (column.encoding == DICTIONARY) {
+                    List<String> values = dictionaries[column.ordinal()].values();
+                    footer.putVarint(values.size());
+                    for (String value : values) {
+                        footer.putString(value);
+                    }
+                }
+            }
+            footer.putVarint(groupCount);
+            footer.put(directory);
+            long footerOffset = position;
+            writeFully(footer.toByteBuffer());
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putLong(footerOffset).putInt(footer.size()).putLong(MAGIC).flip();
+            writeFully(trailer);
+            channel.force(true);
+            channel.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            channel.close();
+            if (!moved) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Discard the file without moving it into place. Closing the writer afterwards has no effect.
+     *
+     * @throws IOException if the temporary file could not be deleted
+     */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void putString(Column column, String value) {
+        chunks[column.ordinal()].putString(value);
+    }
+
+    private void putCode(Column column, String value) {
+        int i = column.ordinal();
+        if (value == null) {
+            chunks[i].putVarint(0);
+            nulls[i] = true;
+            return;
+        }
+        int code = dictionaries[i].encode(value);
+        chunks[i].putVarint(code + 1L);
+        int word = code >>> 6;
+        if (word >= present[i].length) {
+            present[i] = Arrays.copyOf(present[i], Math.max(word + 1, present[i].length * 2));
+        }
+        present[i][word] |= 1L << code;
+    }
+
+    private void putLong(Column column, Long value) {
+        int i = column.ordinal();
+        if (value == null) {
+            chunks[i].putVarint(0);
+            return;
+        }
+        long v = value;
+        chunks[i].putVarint(zigzag(v - previous[i]) + 1);
+        previous[i] = v;
+        min[i] = Math.min(min[i], v);
+        max[i] = Math.max(max[i], v);
+    }
+
+    private void flushGroup() throws IOException {
+        directory.putVarint(groupRows);
+        for (Column column : COLUMNS) {
+            int i = column.ordinal();
+            directory.putLong(position);
+            directory.putVarint(chunks[i].size());
+            writeFully(chunks[i].toByteBuffer());
+            if (column.encoding == DELTA) {
+                boolean hasValues = min[i] <= max[i];
+                directory.putByte(hasValues ? 1 : 0);
+                if (hasValues) {
+                    directory.putVarint(zigzag(min[i]));
+                    directory.putVarint(zigzag(max[i]));
+                }
+            } else if (column.encoding == DICTIONARY) {
+                int words = present[i].length;
+                while (words > 0 && present[i][words - 1] == 0) {
+                    words--;
+                }
+                directory.putByte(nulls[i] ? 1 : 0);
+                directory.putVarint(words);
+                for (int w = 0; w < words; w++) {
+                    directory.putLong(present[i][w]);
+                }
+            }
+        }
+        groupCount++;
+        startGroup();
+    }
+
+    private void startGroup() {
+        groupRows = 0;
+        for (Column column : COLUMNS) {
+            int i = column.ordinal();
+            chunks[i].reset();
+            previous[i] = 0;
+            min[i] = Long.MAX_VALUE;
+            max[i] = Long.MIN_VALUE;
+            nulls[i] = false;
+            if (present[i] != null) {
+                Arrays.fill(present[i], 0);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        position += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Growable byte array with variable-length integer encoding.
+     */
+    static final class Buffer {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void putByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        /**
+         * Write an unsigned LEB128 varint.
+         */
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        /**
+         * Write a string as its UTF-8 length plus one followed by the bytes, or 0 for null.
+         */
+        void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void put(Buffer other) {
+            ensure(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensure(int count) {
+            if (size + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + count, bytes.length * 2));
+            }
+        }
+    }
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+}
@@ -0,0 +1,100 @@
+package com.contrastsecurity.export;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV format with a header row. Formats are immutable: {@link #withColumn(String, Column)}
+ * returns a new format with the column appended, so a shared format can be extended safely.
+ * Values containing a comma, quote or line break are quoted and null values are written as
+ * empty fields.
+ *
+ * @param <T> the type of the records
+ */
+public class CsvFormat<T> extends RecordFormat<T> {
+
+    /**
+     * Extracts the value of one column from a record.
+     */
+    public abstract static class Column<T> {
+        public abstract Object value(T item);
+    }
+
+    private final List<String> names;
+    private final List<Column<T>> columns;
+
+    public CsvFormat() {
+        this(Collections.<String>emptyList(), Collections.<Column<T>>emptyList());
+    }
+
+    private CsvFormat(List<String> names, List<Column<T>> columns) {
+        this.names = names;
+        this.columns = columns;
+    }
+
+    /**
+     * @param name   the header of the column
+     * @param column the extractor of the column's values
+     * @return a new format with the column appended
+     */
+    public CsvFormat<T> withColumn(String name, Column<T> column) {
+        List<String> newNames = new ArrayList<>(names);
+        newNames.add(name);
+        List<Column<T>> newColumns = new ArrayList<>(columns);
+        newColumns.add(column);
+        return new CsvFormat<>(Collections.unmodifiableList(newNames), Collections.unmodifiableList(newColumns));
+    }
+
+    @Override
+    public String getExtension() {
+        return "csv";
+    }
+
+    @Override
+    public String getHeader() {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                header.append(',');
+            }
+            appendField(names.get(i), header);
+        }
+        return header.append("\r\n").toString();
+    }
+
+    @Override
+    public void format(T item, StringBuilder out) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object value = columns.get(i).value(item);
+            if (value != null) {
+                appendField(value.toString(), out);
+            }
+        }
+        out.append("\r\n");
+    }
+
+    private static void appendField(String value, StringBuilder out) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,272 @@
+package com.contrastsecurity.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams records as UTF-8 text to files through a FileChannel, optionally gzip compressed
+ * and rotated once a file reaches a size limit. Records are encoded one at a time into a
+ * fixed buffer, so memory use does not depend on the number of records.
+ * <p>
+ * Files are named {@code <prefix>-00000.<extension>[.gz]} and numbered from zero. Each is
+ * written to a temporary file and moved into place when it is complete, so a reader of the
+ * directory never sees a partial file. The writer is not thread-safe.
+ *
+ * @param <T> the type of the records
+ */
+public class ExportWriter<T> implements Closeable {
+
+    public static class Builder<T> {
+
+        private final Path directory;
+        private final String prefix;
+        private final RecordFormat<T> format;
+        private boolean gzip;
+        private long maxFileSize;
+
+        /**
+         * @param directory the directory to write files to
+         * @param prefix    the file name prefix, e.g. "traces"
+         * @param format    the record format
+         */
+        public Builder(Path directory, String prefix, RecordFormat<T> format) {
+            this.directory = directory;
+            this.prefix = prefix;
+            this.format = format;
+        }
+
+        /**
+         * @param gzip whether to gzip compress each file
+         * @return this builder
+         */
+        public Builder<T> withGzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * Start a new file once the current one holds at least this many bytes. The size is
+         * measured before compression and files end on a record boundary.
+         * @param maxFileSize the rotation threshold in bytes, or 0 for a single file
+         * @return this builder
+         */
+        public Builder<T> withMaxFileSize(long maxFileSize) {
+            if (maxFileSize < 0) {
+                throw new IllegalArgumentException("Maximum file size must not be negative");
+            }
+            this.maxFileSize = maxFileSize;
+            return this;
+        }
+
+        public ExportWriter<T> build() throws IOException {
+            Files.createDirectories(directory);
+            return new ExportWriter<>(this);
+        }
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final RecordFormat<T> format;
+    private final boolean gzip;
+    private final long maxFileSize;
+    private final StringBuilder record = new StringBuilder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final List<Path> files = new ArrayList<>();
+
+    private Path file;
+    private Path temporary;
+    private FileChannel channel;
+    private GZIPOutputStream compressed;
+    private long fileSize;
+    private long count;
+    private boolean closed;
+
+    private ExportWriter(Builder<T> builder) {
+        this.directory = builder.directory;
+        this.prefix = builder.prefix;
+        this.format = builder.format;
+        this.gzip = builder.gzip;
+        this.maxFileSize = builder.maxFileSize;
+    }
+
+    /**
+     * Append one record.
+     *
+     * @param item the record to write
+     * @throws IOException if the file could not be written
+     */
+    public void write(T item) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Export writer is closed");
+        }
+        if (channel == null) {
+            open();
+        }
+        record.setLength(0);
+        format.format(item, record);
+        append(record);
+        count++;
+        if (maxFileSize > 0 && fileSize + buffer.position() >= maxFileSize) {
+            finish();
+        }
+        if (record.capacity() > MAX_RETAINED_RECORD) {
+            record.setLength(0);
+            record.trimToSize();
+        }
+    }
+
+    public void write(Iterable<? extends T> items) throws IOException {
+        for (T item : items) {
+            write(item);
+        }
+    }
+
+    /**
+     * @return the number of records written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the completed files, in the order they were written
+     */
+    public List<Path> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Complete the current file and move it into place.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            finish();
+        }
+    }
+
+    /**
+     * Discard the current file instead of moving it into place, e.g. when an export fails part way.
+     * Files that were already completed are kept. Closing the writer afterwards has no effect.
+     *
+     * @throws IOException if the temporary file could not be deleted
+     */
+    public void abort() throws IOException {
+        closed = true;
+        if (channel == null) {
+            return;
+        }
+        try {
+            closeFile();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void open() throws IOException {
+        String name = String.format("%s-%05d.%s%s", prefix, files.size(), format.getExtension(), gzip ? ".gz" : "");
+        file = directory.resolve(name);
+        temporary = Files.createTempFile(directory, name, ".tmp");
+        channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (gzip) {
+            compressed = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        }
+        fileSize = 0;
+        String header = format.getHeader();
+        if (header != null) {
+            append(header);
+        }
+    }
+
+    private void append(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                break;
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        fileSize += buffer.remaining();
+        if (compressed != null) {
+            compressed.write(buffer.array(), buffer.position(), buffer.remaining());
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    private void finish() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        boolean moved = false;
+        try {
+            flush();
+            if (compressed != null) {
+                compressed.finish();
+                compressed.flush();
+            }
+            channel.force(true);
+            closeFile();
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            closeFile();
+            if (!moved) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        files.add(file);
+    }
+
+    private void closeFile() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (compressed != null) {
+                // releases the deflater's native memory and closes the channel
+                compressed.close();
+            }
+        } finally {
+            channel.close();
+            channel = null;
+            compressed = null;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RETAINED_RECORD = 1024 * 1024;
+}
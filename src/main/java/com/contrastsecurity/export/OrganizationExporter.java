@@ -0,0 +1,489 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.ApplicationFilterForm;
+import com.contrastsecurity.http.ServerFilterForm;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.models.Application;
+import com.contrastsecurity.models.Libraries;
+import com.contrastsecurity.models.Library;
+import com.contrastsecurity.models.Server;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.Pager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Exports the traces, applications, servers and libraries of an organization to NDJSON or
+ * CSV files. Listings are read one page at a time with a {@link Pager} and each page is
+ * written out before the next one is requested, so memory use is bounded by the page size
+ * rather than by the size of the organization. Libraries are listed per application.
+ */
+public class OrganizationExporter {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    public static class Builder {
+
+        private final ContrastSDK sdk;
+        private final String organizationId;
+        private final Path directory;
+        private Format format = Format.NDJSON;
+        private boolean gzip;
+        private long maxFileSize;
+        private int pageSize = Pager.DEFAULT_PAGE_SIZE;
+
+        /**
+         * @param sdk            the SDK to fetch with
+         * @param organizationId the ID of the organization to export
+         * @param directory      the directory to write files to
+         */
+        public Builder(ContrastSDK sdk, String organizationId, Path directory) {
+            this.sdk = sdk;
+            this.organizationId = organizationId;
+            this.directory = directory;
+        }
+
+        public Builder withFormat(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        public Builder withGzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * @param maxFileSize the size in bytes, before compression, at which to start a new file, or 0 for one file per export
+         * @return this builder
+         */
+        public Builder withMaxFileSize(long maxFileSize) {
+            this.maxFileSize = maxFileSize;
+            return this;
+        }
+
+        public Builder withPageSize(int pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        public OrganizationExporter build() {
+            return new OrganizationExporter(this);
+        }
+    }
+
+    /**
+     * The outcome of one export.
+     */
+    public static class Result {
+
+        private final long recordCount;
+        private final List<Path> files;
+
+        Result(long recordCount, List<Path> files) {
+            this.recordCount = recordCount;
+            this.files = files;
+        }
+
+        public long getRecordCount() {
+            return recordCount;
+        }
+
+        /**
+         * @return the files written, in order
+         */
+        public List<Path> getFiles() {
+            return files;
+        }
+    }
+
+    /**
+     * A library together with the application it was listed for.
+     */
+    public static class ApplicationLibrary {
+
+        private final String appId;
+        private final String appName;
+        private final Library library;
+
+        public ApplicationLibrary(String appId, String appName, Library library) {
+            this.appId = appId;
+            this.appName = appName;
+            this.library = library;
+        }
+
+        public String getAppId() {
+            return appId;
+        }
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public Library getLibrary() {
+            return library;
+        }
+    }
+
+    private final ContrastSDK sdk;
+    private final String organizationId;
+    private final Path directory;
+    private final Format format;
+    private final boolean gzip;
+    private final long maxFileSize;
+    private final int pageSize;
+
+    private OrganizationExporter(Builder builder) {
+        this.sdk = builder.sdk;
+        this.organizationId = builder.organizationId;
+        this.directory = builder.directory;
+        this.format = builder.format;
+        this.gzip = builder.gzip;
+        this.maxFileSize = builder.maxFileSize;
+        this.pageSize = builder.pageSize;
+    }
+
+    /**
+     * Export the vulnerabilities of the organization to files named "traces-NNNNN".
+     *
+     * @param form the filter, or null for all vulnerabilities; its limit and offset are overwritten
+     * @return the number of traces and the files written
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem or a file could not be written
+     */
+    public Result exportTraces(TraceFilterForm form) throws IOException, UnauthorizedException {
+        return export(Pager.traces(sdk, organizationId, form, pageSize), writer("traces", TRACES));
+    }
+
+    /**
+     * Export the applications of the organization to files named "applications-NNNNN".
+     *
+     * @param form the filter, or null for all applications; its limit and offset are overwritten
+     * @return the number of applications and the files written
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem or a file could not be written
+     */
+    public Result exportApplications(ApplicationFilterForm form) throws IOException, UnauthorizedException {
+        return export(Pager.applications(sdk, organizationId, form, pageSize), writer("applications", APPLICATIONS));
+    }
+
+    /**
+     * Export the servers of the organization to files named "servers-NNNNN".
+     *
+     * @param form the filter, or null for all servers; its limit and offset are overwritten
+     * @return the number of servers and the files written
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem or a file could not be written
+     */
+    public Result exportServers(ServerFilterForm form) throws IOException, UnauthorizedException {
+        return export(Pager.servers(sdk, organizationId, form, pageSize), writer("servers", SERVERS));
+    }
+
+    /**
+     * Export the libraries of every application matching the filter to files named
+     * "libraries-NNNNN", one record per application and library.
+     *
+     * @param form the application filter, or null for all applications; its limit and offset are overwritten
+     * @return the number of records and the files written
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem or a file could not be written
+     */
+    public Result exportLibraries(ApplicationFilterForm form) throws IOException, UnauthorizedException {
+        Pager<Application> applications = Pager.applications(sdk, organizationId, form, pageSize);
+        ExportWriter<ApplicationLibrary> writer = writer("libraries", LIBRARIES);
+        try {
+            List<Application> page;
+            while ((page = applications.next()) != null) {
+                for (Application application : page) {
+                    Libraries libraries = sdk.getLibraries(organizationId, application.getId());
+                    if (libraries == null || libraries.getLibraries() == null) {
+                        continue;
+                    }
+                    for (Library library : libraries.getLibraries()) {
+                        writer.write(new ApplicationLibrary(application.getId(), application.getName(), library));
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            abort(writer, t);
+            throw t;
+        }
+        writer.close();
+        return new Result(writer.getCount(), writer.getFiles());
+    }
+
+    private static <T> Result export(Pager<T> pager, ExportWriter<T> writer) throws IOException, UnauthorizedException {
+        try {
+            List<T> page;
+            while ((page = pager.next()) != null) {
+                writer.write(page);
+            }
+        } catch (Throwable t) {
+            abort(writer, t);
+            throw t;
+        }
+        writer.close();
+        return new Result(writer.getCount(), writer.getFiles());
+    }
+
+    /**
+     * Discard the file being written so a failed export does not publish a partial file.
+     */
+    private static void abort(ExportWriter<?> writer, Throwable failure) {
+        try {
+            writer.abort();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private <T> ExportWriter<T> writer(String prefix, CsvFormat<T> csv) throws IOException {
+        RecordFormat<T> recordFormat = format == Format.CSV ? csv : RecordFormat.<T>ndjson(sdk.getCodec());
+        return new ExportWriter.Builder<>(directory, prefix, recordFormat)
+                .withGzip(gzip)
+                .withMaxFileSize(maxFileSize)
+                .build();
+    }
+
+    public static final CsvFormat<Trace> TRACES = new CsvFormat<Trace>()
+            .withColumn("uuid", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getUuid();
+                }
+            })
+            .withColumn("app_id", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getApplication() == null ? null : trace.getApplication().getId();
+                }
+            })
+            .withColumn("title", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getTitle();
+                }
+            })
+            .withColumn("rule", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getRule();
+                }
+            })
+            .withColumn("severity", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getSeverity();
+                }
+            })
+            .withColumn("status", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getStatus();
+                }
+            })
+            .withColumn("sub_status", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getSubStatus();
+                }
+            })
+            .withColumn("language", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getLanguage();
+                }
+            })
+            .withColumn("category", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getCategory();
+                }
+            })
+            .withColumn("first_time_seen", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getFirstTimeSeen();
+                }
+            })
+            .withColumn("last_time_seen", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getLastTimeSeen();
+                }
+            })
+            .withColumn("closed_time", new CsvFormat.Column<Trace>() {
+                @Override
+                public Object value(Trace trace) {
+                    return trace.getClosedTime();
+                }
+            });
+
+    public static final CsvFormat<Application> APPLICATIONS = new CsvFormat<Application>()
+            .withColumn("app_id", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getId();
+                }
+            })
+            .withColumn("name", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getName();
+                }
+            })
+            .withColumn("language", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getLanguage();
+                }
+            })
+            .withColumn("status", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getStatus();
+                }
+            })
+            .withColumn("importance", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getImportance();
+                }
+            })
+            .withColumn("archived", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getArchived();
+                }
+            })
+            .withColumn("created", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getCreated();
+                }
+            })
+            .withColumn("last_seen", new CsvFormat.Column<Application>() {
+                @Override
+                public Object value(Application application) {
+                    return application.getLastSeen();
+                }
+            });
+
+    public static final CsvFormat<Server> SERVERS = new CsvFormat<Server>()
+            .withColumn("server_id", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getServerId();
+                }
+            })
+            .withColumn("name", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getName();
+                }
+            })
+            .withColumn("hostname", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getHostname();
+                }
+            })
+            .withColumn("environment", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getEnvironment();
+                }
+            })
+            .withColumn("status", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getStatus();
+                }
+            })
+            .withColumn("agent_version", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getAgentVersion();
+                }
+            })
+            .withColumn("assess", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getAssess();
+                }
+            })
+            .withColumn("defend", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getDefend();
+                }
+            })
+            .withColumn("last_activity", new CsvFormat.Column<Server>() {
+                @Override
+                public Object value(Server server) {
+                    return server.getLastActivity();
+                }
+            });
+
+    public static final CsvFormat<ApplicationLibrary> LIBRARIES = new CsvFormat<ApplicationLibrary>()
+            .withColumn("app_id", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getAppId();
+                }
+            })
+            .withColumn("app_name", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getAppName();
+                }
+            })
+            .withColumn("hash", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getHash();
+                }
+            })
+            .withColumn("file_name", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getFileName();
+                }
+            })
+            .withColumn("file_version", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getFileVersion();
+                }
+            })
+            .withColumn("latest_version", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getLatestVersion();
+                }
+            })
+            .withColumn("grade", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getGrade();
+                }
+            })
+            .withColumn("total_vulnerabilities", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getTotalVulnerabilities();
+                }
+            })
+            .withColumn("months_outdated", new CsvFormat.Column<ApplicationLibrary>() {
+                @Override
+                public Object value(ApplicationLibrary row) {
+                    return row.getLibrary().getMonthsOutdated();
+                }
+            });
+}
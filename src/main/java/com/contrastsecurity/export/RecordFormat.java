@@ -0,0 +1,49 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.codec.JsonCodec;
+
+/**
+ * Text format of the records written by an {@link ExportWriter}.
+ *
+ * @param <T> the type of the records
+ */
+public abstract class RecordFormat<T> {
+
+    /**
+     * @return the file name extension, without a leading dot
+     */
+    public abstract String getExtension();
+
+    /**
+     * @return the text written at the start of every file, including its line terminator, or null
+     */
+    public String getHeader() {
+        return null;
+    }
+
+    /**
+     * Append one record, including its line terminator.
+     *
+     * @param item the record
+     * @param out  the builder to append to
+     */
+    public abstract void format(T item, StringBuilder out);
+
+    /**
+     * @param codec the codec used to encode each record, e.g. {@code sdk.getCodec()}
+     * @return a format that writes one JSON document per line
+     */
+    public static <T> RecordFormat<T> ndjson(final JsonCodec codec) {
+        return new RecordFormat<T>() {
+            @Override
+            public String getExtension() {
+                return "ndjson";
+            }
+
+            @Override
+            public void format(T item, StringBuilder out) {
+                out.append(codec.encode(item)).append('\n');
+            }
+        };
+    }
+}
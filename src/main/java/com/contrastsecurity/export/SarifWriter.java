@@ -0,0 +1,302 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.HttpRequest;
+import com.contrastsecurity.models.Rules;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.TraceEvent;
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.sdk.EnrichedTrace;
+import com.contrastsecurity.sdk.Pager;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes vulnerabilities as a SARIF 2.1.0 log with a single run, one result at a time.
+ * <p>
+ * Each result is streamed to the output as soon as it is written. The run's rules table is
+ * written on {@link #close()}, after the results; JSON object members are unordered, so
+ * SARIF consumers read it as usual. Results refer to their rule by index. Rule metadata
+ * comes from {@code getRules} and is written once per rule that has results, so the heap
+ * holds only the rules table, however many results are written.
+ * <pre>
+ * TraceFilterForm form = new TraceFilterForm();
+ * form.setExpand(EnumSet.of(TraceExpandValue.EVENTS, TraceExpandValue.REQUEST));
+ * try (SarifWriter sarif = new SarifWriter(out, sdk.getRules(orgId))) {
+ *     sarif.write(Pager.traces(sdk, orgId, form, 500));
+ * }
+ * </pre>
+ * The writer is not thread-safe.
+ */
+public class SarifWriter implements Closeable {
+
+    private final JsonWriter json;
+    private final Map<String, Rules.Rule> metadata = new HashMap<>();
+    private final Map<String, Integer> ruleIndexes = new LinkedHashMap<>();
+    private long count;
+    private boolean closed;
+
+    /**
+     * Start a SARIF log on a stream. The stream is closed by {@link #close()}.
+     *
+     * @param out   the stream to write UTF-8 JSON to
+     * @param rules the organization's rules from getRules, or null to describe rules by name only
+     * @throws IOException if the log header could not be written
+     */
+    public SarifWriter(OutputStream out, Rules rules) throws IOException {
+        this.json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        if (rules != null && rules.getRules() != null) {
+            for (Rules.Rule rule : rules.getRules()) {
+                if (rule.getName() != null) {
+                    metadata.put(rule.getName(), rule);
+                }
+            }
+        }
+        json.beginObject();
+        json.name("version").value(SARIF_VERSION);
+        json.name("$schema").value(SARIF_SCHEMA);
+        json.name("runs").beginArray();
+        json.beginObject();
+        json.name("results").beginArray();
+    }
+
+    /**
+     * Write one result. Events and the request are included when the trace was fetched with
+     * them expanded.
+     *
+     * @param trace the vulnerability
+     * @throws IOException if the result could not be written
+     */
+    public void write(Trace trace) throws IOException {
+        writeResult(trace, trace.getEvents(), trace.getRequest());
+    }
+
+    /**
+     * Write one result from a trace enriched with its events and request.
+     *
+     * @param trace the enriched vulnerability
+     * @throws IOException if the result could not be written
+     */
+    public void write(EnrichedTrace trace) throws IOException {
+        if (trace.getTrace() != null) {
+            writeResult(trace.getTrace(), trace.getEvents(), trace.getRequest());
+        }
+    }
+
+    /**
+     * Write every trace of a page.
+     *
+     * @param page the page to write, may be null or empty
+     * @throws IOException if a result could not be written
+     */
+    public void write(Traces page) throws IOException {
+        if (page != null && page.getTraces() != null) {
+            for (Trace trace : page.getTraces()) {
+                write(trace);
+            }
+        }
+    }
+
+    /**
+     * Write every trace of a listing, fetching one page at a time.
+     *
+     * @param pager the listing, e.g. {@link Pager#traces}
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem or a result could not be written
+     */
+    public void write(Pager<Trace> pager) throws IOException, UnauthorizedException {
+        List<Trace> page;
+        while ((page = pager.next()) != null) {
+            for (Trace trace : page) {
+                write(trace);
+            }
+        }
+    }
+
+    /**
+     * @return the number of results written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Write the rules table and the tool description, complete the log and close the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            json.endArray();
+            json.name("tool").beginObject();
+            json.name("driver").beginObject();
+            json.name("name").value(TOOL_NAME);
+            json.name("informationUri").value(TOOL_URI);
+            json.name("rules").beginArray();
+            for (String name : ruleIndexes.keySet()) {
+                writeRule(name, metadata.get(name));
+            }
+            json.endArray();
+            json.endObject();
+            json.endObject();
+            json.endObject();
+            json.endArray();
+            json.endObject();
+        } finally {
+            json.close();
+        }
+    }
+
+    private void writeResult(Trace trace, List<TraceEvent> events, HttpRequest request) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("SARIF writer is closed");
+        }
+        String rule = trace.getRule() == null ? UNKNOWN_RULE : trace.getRule();
+        Integer index = ruleIndexes.get(rule);
+        if (index == null) {
+            index = ruleIndexes.size();
+            ruleIndexes.put(rule, index);
+        }
+        json.beginObject();
+        json.name("ruleId").value(rule);
+        json.name("ruleIndex").value(index);
+        json.name("level").value(level(trace.getSeverity()));
+        json.name("message").beginObject().name("text").value(trace.getTitle() == null ? rule : trace.getTitle()).endObject();
+
+        json.name("locations").beginArray().beginObject();
+        json.name("logicalLocations").beginArray().beginObject();
+        if (request != null && request.getUri() != null) {
+            json.name("name").value(request.getUri());
+            json.name("kind").value("resource");
+        } else {
+            json.name("name").value(trace.getApplication() == null ? "application" : trace.getApplication().getName());
+            json.name("kind").value("module");
+        }
+        json.endObject().endArray();
+        json.endObject().endArray();
+
+        if (events != null && !events.isEmpty()) {
+            json.name("codeFlows").beginArray().beginObject();
+            json.name("threadFlows").beginArray().beginObject();
+            json.name("locations").beginArray();
+            for (TraceEvent event : events) {
+                json.beginObject();
+                json.name("location").beginObject();
+                json.name("message").beginObject().name("text").value(event.getCodeContext() == null ? event.getType() : event.getCodeContext()).endObject();
+                json.endObject();
+                if (event.getType() != null) {
+                    json.name("kinds").beginArray().value(event.getType().toLowerCase(Locale.ENGLISH)).endArray();
+                }
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject().endArray();
+            json.endObject().endArray();
+        }
+
+        json.name("partialFingerprints").beginObject();
+        json.name("contrastTraceUuid").value(trace.getUuid());
+        if (trace.getHash() != null) {
+            json.name("contrastHash").value(trace.getHash());
+        }
+        json.endObject();
+
+        json.name("properties").beginObject();
+        json.name("severity").value(trace.getSeverity());
+        json.name("status").value(trace.getStatus());
+        if (trace.getApplication() != null) {
+            json.name("applicationId").value(trace.getApplication().getId());
+            json.name("applicationName").value(trace.getApplication().getName());
+        }
+        if (request != null) {
+            json.name("requestMethod").value(request.getMethod());
+            json.name("requestUri").value(request.getUri());
+        }
+        json.endObject();
+        json.endObject();
+        count++;
+    }
+
+    private void writeRule(String name, Rules.Rule rule) throws IOException {
+        json.beginObject();
+        json.name("id").value(name);
+        if (rule == null) {
+            json.endObject();
+            return;
+        }
+        if (rule.getTitle() != null) {
+            json.name("name").value(rule.getTitle());
+            json.name("shortDescription").beginObject().name("text").value(rule.getTitle()).endObject();
+        }
+        if (rule.getDescription() != null) {
+            json.name("fullDescription").beginObject().name("text").value(rule.getDescription()).endObject();
+        }
+        if (rule.getReferences() != null && !rule.getReferences().isEmpty()) {
+            json.name("helpUri").value(rule.getReferences().get(0));
+        }
+        json.name("defaultConfiguration").beginObject().name("level").value(level(rule.getSeverity())).endObject();
+        json.name("properties").beginObject();
+        List<String> tags = new ArrayList<>();
+        if (rule.getCategory() != null) {
+            tags.add(rule.getCategory());
+        }
+        if (rule.getCwe() != null) {
+            tags.add(rule.getCwe());
+            json.name("cwe").value(rule.getCwe());
+        }
+        if (rule.getOwasp() != null) {
+            json.name("owasp").value(rule.getOwasp());
+        }
+        if (rule.getSeverity() != null) {
+            json.name("severity").value(rule.getSeverity());
+        }
+        json.name("tags").beginArray();
+        for (String tag : tags) {
+            json.value(tag);
+        }
+        json.endArray();
+        json.endObject();
+        json.endObject();
+    }
+
+    /**
+     * Map a Contrast severity to a SARIF level.
+     */
+    static String level(String severity) {
+        if (severity == null) {
+            return "warning";
+        }
+        switch (severity.toUpperCase(Locale.ENGLISH)) {
+            case "CRITICAL":
+            case "HIGH":
+                return "error";
+            case "MEDIUM":
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+
+    static final String SARIF_VERSION = "2.1.0";
+    static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    static final String TOOL_NAME = "Contrast Assess";
+    static final String TOOL_URI = "https://www.contrastsecurity.com";
+    static final String UNKNOWN_RULE = "unknown";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+}
@@ -0,0 +1,201 @@
+package com.contrastsecurity.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped view of a snapshot written by a {@link SnapshotWriter}.
+ * <p>
+ * The record and string sections are mapped straight from the file, so several JVMs that
+ * open the same snapshot share one copy through the operating system page cache. Only the
+ * dictionaries are materialized on the heap. Record views are flyweights that are moved
+ * from record to record; their accessors read from the mapping without allocating, except
+ * for the methods documented to return a new String.
+ * <p>
+ * A snapshot may be read from several threads, each with its own view. The mapping is
+ * released when the snapshot becomes unreachable.
+ */
+public abstract class Snapshot implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer records;
+    private final ByteBuffer heap;
+    private final String[][] dictionaries;
+    private final int count;
+    private final int recordSize;
+
+    protected Snapshot(Path file, int expectedKind) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated snapshot header: " + file);
+                }
+            }
+            header.flip();
+            if (header.getLong() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int kind = header.getInt();
+            if (kind != expectedKind) {
+                throw new IOException("Snapshot " + file + " holds record kind " + kind + ", expected " + expectedKind);
+            }
+            this.count = header.getInt();
+            this.recordSize = header.getInt();
+            long heapOffset = header.getLong();
+            long heapLength = header.getLong();
+            long dictionaryOffset = header.getLong();
+            long dictionaryLength = header.getLong();
+
+            this.records = map((long) count * recordSize, HEADER_SIZE);
+            this.heap = map(heapLength, heapOffset);
+            this.dictionaries = readDictionaries(map(dictionaryLength, dictionaryOffset));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of records in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    protected int recordOffset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + count);
+        }
+        return index * recordSize;
+    }
+
+    protected int getInt(int position) {
+        return records.getInt(position);
+    }
+
+    protected long getLong(int position) {
+        return records.getLong(position);
+    }
+
+    protected String getCode(int dictionary, int position) {
+        int code = records.getInt(position);
+        return code < 0 ? null : dictionaries[dictionary][code];
+    }
+
+    /**
+     * Decode the string referenced at a position into a new String.
+     */
+    protected String getString(int position) {
+        int length = records.getInt(position + 4);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer slice = heap.duplicate();
+        slice.position(records.getInt(position));
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode the string referenced at a position into the given builder, without allocating.
+     *
+     * @return false if the string is null
+     */
+    protected boolean appendString(int position, StringBuilder builder) {
+        int length = records.getInt(position + 4);
+        if (length == NULL_LENGTH) {
+            return false;
+        }
+        int index = records.getInt(position);
+        int end = index + length;
+        while (index < end) {
+            int b = heap.get(index++) & 0xFF;
+            if (b < 0x80) {
+                builder.append((char) b);
+            } else if (b < 0xE0) {
+                builder.append((char) (((b & 0x1F) << 6) | (heap.get(index++) & 0x3F)));
+            } else if (b < 0xF0) {
+                builder.append((char) (((b & 0x0F) << 12) | ((heap.get(index++) & 0x3F) << 6) | (heap.get(index++) & 0x3F)));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((heap.get(index++) & 0x3F) << 12)
+                        | ((heap.get(index++) & 0x3F) << 6) | (heap.get(index++) & 0x3F);
+                builder.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compare the string referenced at a position with an ASCII or UTF-8 value, without allocating.
+     */
+    protected boolean stringEquals(int position, CharSequence value) {
+        int length = records.getInt(position + 4);
+        if (length == NULL_LENGTH || value == null) {
+            return length == NULL_LENGTH && value == null;
+        }
+        int index = records.getInt(position);
+        int end = index + length;
+        int i = 0;
+        while (index < end && i < value.length()) {
+            int b = heap.get(index) & 0xFF;
+            char c = value.charAt(i);
+            if (b >= 0x80 || c >= 0x80) {
+                return getString(position).contentEquals(value);
+            }
+            if (b != c) {
+                return false;
+            }
+            index++;
+            i++;
+        }
+        return index == end && i == value.length();
+    }
+
+    private ByteBuffer map(long length, long offset) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section exceeds 2 GB");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return buffer;
+    }
+
+    private static String[][] readDictionaries(ByteBuffer buffer) {
+        String[][] dictionaries = new String[buffer.getInt()][];
+        for (int i = 0; i < dictionaries.length; i++) {
+            String[] values = new String[buffer.getInt()];
+            for (int j = 0; j < values.length; j++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                values[j] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            dictionaries[i] = values;
+        }
+        return dictionaries;
+    }
+
+    static final long MAGIC = 0x4354534e41503031L;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int NULL_LENGTH = -1;
+
+    static final int KIND_TRACE = 1;
+    static final int KIND_APPLICATION = 2;
+}
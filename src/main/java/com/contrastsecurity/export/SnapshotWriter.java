@@ -0,0 +1,241 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.analytics.Dictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base class for writers of the binary snapshot format read by {@link Snapshot}.
+ * <p>
+ * Records are fixed-size slots written straight to the file; variable-length strings go to
+ * a separate heap section and low-cardinality strings are replaced by dictionary codes, so
+ * the writer only keeps the dictionaries in memory. The snapshot is written to a temporary
+ * file and moved into place on {@link #close()}, so readers never observe a partial file.
+ *
+ * @param <T> the type of the records written
+ */
+public abstract class SnapshotWriter<T> implements Closeable {
+
+    private final Path target;
+    private final Path recordFile;
+    private final Path heapFile;
+    private final FileChannel records;
+    private final FileChannel heap;
+    private final ByteBuffer recordBuffer;
+    private final ByteBuffer heapBuffer;
+    private final Dictionary[] dictionaries;
+    private final int kind;
+    private final int recordSize;
+    private long heapLength;
+    private int count;
+    private int recordStart;
+    private boolean closed;
+
+    protected SnapshotWriter(Path target, int kind, int recordSize, int dictionaryCount) throws IOException {
+        if (recordSize <= 0 || recordSize > EMPTY_RECORD.length) {
+            throw new IllegalArgumentException("Unsupported record size " + recordSize);
+        }
+        this.target = target;
+        this.kind = kind;
+        this.recordSize = recordSize;
+        Path directory = target.toAbsolutePath().getParent();
+        this.recordFile = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        this.heapFile = Files.createTempFile(directory, target.getFileName().toString(), ".heap");
+        this.records = FileChannel.open(recordFile, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        this.heap = FileChannel.open(heapFile, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        this.records.position(Snapshot.HEADER_SIZE);
+        this.recordBuffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE / recordSize, 1) * recordSize);
+        this.heapBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.dictionaries = new Dictionary[dictionaryCount];
+        for (int i = 0; i < dictionaryCount; i++) {
+            dictionaries[i] = new Dictionary();
+        }
+    }
+
+    /**
+     * Append one record to the snapshot.
+     *
+     * @param item the record to write
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(T item) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Snapshot writer is closed");
+        }
+        if (count == Integer.MAX_VALUE) {
+            throw new IOException("Snapshot record limit reached");
+        }
+        if (recordBuffer.remaining() < recordSize) {
+            flush(recordBuffer, records);
+        }
+        recordStart = recordBuffer.position();
+        recordBuffer.put(EMPTY_RECORD, 0, recordSize);
+        encode(item);
+        count++;
+    }
+
+    public void write(Iterable<? extends T> items) throws IOException {
+        for (T item : items) {
+            write(item);
+        }
+    }
+
+    /**
+     * @return the number of records written so far
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Fill in the fields of the current record using the put methods.
+     *
+     * @param item the record being written
+     * @throws IOException if a string could not be written to the heap
+     */
+    protected abstract void encode(T item) throws IOException;
+
+    protected void putInt(int fieldOffset, int value) {
+        recordBuffer.putInt(recordStart + fieldOffset, value);
+    }
+
+    protected void putLong(int fieldOffset, long value) {
+        recordBuffer.putLong(recordStart + fieldOffset, value);
+    }
+
+    /**
+     * Store a dictionary code for a low-cardinality value in an int field.
+     */
+    protected void putCode(int fieldOffset, int dictionary, String value) {
+        putInt(fieldOffset, dictionaries[dictionary].encode(value));
+    }
+
+    /**
+     * Store a string in the heap and its (offset, length) reference in an 8-byte field.
+     */
+    protected void putString(int fieldOffset, String value) throws IOException {
+        if (value == null) {
+            putInt(fieldOffset, 0);
+            putInt(fieldOffset + 4, Snapshot.NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long offset = heapLength + heapBuffer.position();
+        if (offset + bytes.length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot string heap exceeds 2 GB");
+        }
+        putInt(fieldOffset, (int) offset);
+        putInt(fieldOffset + 4, bytes.length);
+        if (bytes.length > heapBuffer.remaining()) {
+            heapLength += heapBuffer.position();
+            flush(heapBuffer, heap);
+            if (bytes.length > heapBuffer.capacity()) {
+                writeFully(heap, ByteBuffer.wrap(bytes));
+                heapLength += bytes.length;
+                return;
+            }
+        }
+        heapBuffer.put(bytes);
+    }
+
+    /**
+     * Complete the snapshot and move it into place. If that fails the temporary files are deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean moved = false;
+        try {
+            flush(recordBuffer, records);
+            heapLength += heapBuffer.position();
+            flush(heapBuffer, heap);
+
+            long heapOffset = records.position();
+            long transferred = 0;
+            while (transferred < heapLength) {
+                transferred += heap.transferTo(transferred, heapLength - transferred, records);
+            }
+            records.position(heapOffset + heapLength);
+
+            long dictionaryOffset = records.position();
+            writeDictionaries();
+            long dictionaryLength = records.position() - dictionaryOffset;
+
+            ByteBuffer header = ByteBuffer.allocate(Snapshot.HEADER_SIZE);
+            header.putLong(Snapshot.MAGIC)
+                    .putInt(Snapshot.VERSION)
+                    .putInt(kind)
+                    .putInt(count)
+                    .putInt(recordSize)
+                    .putLong(heapOffset)
+                    .putLong(heapLength)
+                    .putLong(dictionaryOffset)
+                    .putLong(dictionaryLength);
+            header.clear();
+            records.position(0);
+            writeFully(records, header);
+            records.force(true);
+            records.close();
+            Files.move(recordFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            records.close();
+            heap.close();
+            Files.deleteIfExists(heapFile);
+            if (!moved) {
+                Files.deleteIfExists(recordFile);
+            }
+        }
+    }
+
+    private void writeDictionaries() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.putInt(dictionaries.length);
+        for (Dictionary dictionary : dictionaries) {
+            if (buffer.remaining() < 4) {
+                flush(buffer, records);
+            }
+            buffer.putInt(dictionary.size());
+            for (String value : dictionary.values()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 4 + bytes.length) {
+                    flush(buffer, records);
+                }
+                buffer.putInt(bytes.length);
+                if (bytes.length > buffer.remaining()) {
+                    flush(buffer, records);
+                    writeFully(records, ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+            }
+        }
+        flush(buffer, records);
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] EMPTY_RECORD = new byte[256];
+}
@@ -0,0 +1,163 @@
+package com.contrastsecurity.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Memory-mapped snapshot of traces written by a {@link TraceSnapshotWriter}.
+ * <pre>
+ * try (TraceSnapshot snapshot = new TraceSnapshot(path)) {
+ *     TraceSnapshot.TraceView view = snapshot.view();
+ *     for (int i = 0; i &lt; snapshot.size(); i++) {
+ *         view.moveTo(i);
+ *         if ("Critical".equals(view.getSeverity())) { ... }
+ *     }
+ * }
+ * </pre>
+ */
+public class TraceSnapshot extends Snapshot {
+
+    public TraceSnapshot(Path file) throws IOException {
+        super(file, KIND_TRACE);
+    }
+
+    /**
+     * @return a new flyweight view, positioned on the first record
+     */
+    public TraceView view() {
+        return new TraceView();
+    }
+
+    /**
+     * Flyweight over one trace record. Low-cardinality values are returned as shared
+     * dictionary instances and numbers as primitives, so moving the view and reading
+     * those fields never allocates. Views are not thread-safe.
+     */
+    public class TraceView {
+        private int base;
+        private int index;
+
+        public TraceView moveTo(int index) {
+            this.base = recordOffset(index);
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the uuid as a new String
+         */
+        public String getUuid() {
+            return getString(base + UUID);
+        }
+
+        public boolean appendUuid(StringBuilder builder) {
+            return appendString(base + UUID, builder);
+        }
+
+        public boolean uuidEquals(CharSequence uuid) {
+            return stringEquals(base + UUID, uuid);
+        }
+
+        /**
+         * @return the title as a new String
+         */
+        public String getTitle() {
+            return getString(base + TITLE);
+        }
+
+        public boolean appendTitle(StringBuilder builder) {
+            return appendString(base + TITLE, builder);
+        }
+
+        public String getRule() {
+            return getCode(RULES, base + RULE);
+        }
+
+        public String getSeverity() {
+            return getCode(SEVERITIES, base + SEVERITY);
+        }
+
+        public String getStatus() {
+            return getCode(STATUSES, base + STATUS);
+        }
+
+        public String getSubStatus() {
+            return getCode(SUB_STATUSES, base + SUB_STATUS);
+        }
+
+        public String getLanguage() {
+            return getCode(LANGUAGES, base + LANGUAGE);
+        }
+
+        public String getCategory() {
+            return getCode(CATEGORIES, base + CATEGORY);
+        }
+
+        public String getApplicationId() {
+            return getCode(APPLICATIONS, base + APPLICATION);
+        }
+
+        public boolean getVisible() {
+            return getInt(base + VISIBLE) != 0;
+        }
+
+        /**
+         * @return the first time seen, or {@link #NO_TIME} if unknown
+         */
+        public long getFirstTimeSeen() {
+            return getLong(base + FIRST_TIME_SEEN);
+        }
+
+        /**
+         * @return the last time seen, or {@link #NO_TIME} if unknown
+         */
+        public long getLastTimeSeen() {
+            return getLong(base + LAST_TIME_SEEN);
+        }
+
+        /**
+         * @return the closed time, or {@link #NO_TIME} if the trace is not closed
+         */
+        public long getClosedTime() {
+            return getLong(base + CLOSED_TIME);
+        }
+
+        public long getTotalTracesReceived() {
+            return getLong(base + TOTAL_TRACES_RECEIVED);
+        }
+    }
+
+    /**
+     * Marker for a missing timestamp.
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    static final int UUID = 0;
+    static final int TITLE = 8;
+    static final int RULE = 16;
+    static final int SEVERITY = 20;
+    static final int STATUS = 24;
+    static final int SUB_STATUS = 28;
+    static final int LANGUAGE = 32;
+    static final int CATEGORY = 36;
+    static final int APPLICATION = 40;
+    static final int VISIBLE = 44;
+    static final int FIRST_TIME_SEEN = 48;
+    static final int LAST_TIME_SEEN = 56;
+    static final int CLOSED_TIME = 64;
+    static final int TOTAL_TRACES_RECEIVED = 72;
+    static final int RECORD_SIZE = 80;
+
+    static final int RULES = 0;
+    static final int SEVERITIES = 1;
+    static final int STATUSES = 2;
+    static final int SUB_STATUSES = 3;
+    static final int LANGUAGES = 4;
+    static final int CATEGORIES = 5;
+    static final int APPLICATIONS = 6;
+    static final int DICTIONARY_COUNT = 7;
+}
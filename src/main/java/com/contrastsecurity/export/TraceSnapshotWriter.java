@@ -0,0 +1,54 @@
+package com.contrastsecurity.export;
+
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.contrastsecurity.export.TraceSnapshot.*;
+
+/**
+ * Writes traces to the binary snapshot format read by {@link TraceSnapshot}.
+ * Pages can be written as they are fetched; only the dictionaries are held in memory.
+ */
+public class TraceSnapshotWriter extends SnapshotWriter<Trace> {
+
+    public TraceSnapshotWriter(Path target) throws IOException {
+        super(target, KIND_TRACE, RECORD_SIZE, DICTIONARY_COUNT);
+    }
+
+    /**
+     * Append every trace of a page.
+     *
+     * @param page the page to write, may be null or empty
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(Traces page) throws IOException {
+        if (page != null && page.getTraces() != null) {
+            write(page.getTraces());
+        }
+    }
+
+    @Override
+    protected void encode(Trace trace) throws IOException {
+        putString(UUID, trace.getUuid());
+        putString(TITLE, trace.getTitle());
+        putCode(RULE, RULES, trace.getRule());
+        putCode(SEVERITY, SEVERITIES, trace.getSeverity());
+        putCode(STATUS, STATUSES, trace.getStatus());
+        putCode(SUB_STATUS, SUB_STATUSES, trace.getSubStatus());
+        putCode(LANGUAGE, LANGUAGES, trace.getLanguage());
+        putCode(CATEGORY, CATEGORIES, trace.getCategory());
+        putCode(APPLICATION, APPLICATIONS, trace.getApplication() == null ? null : trace.getApplication().getId());
+        putInt(VISIBLE, trace.getVisible() ? 1 : 0);
+        putLong(FIRST_TIME_SEEN, toTime(trace.getFirstTimeSeen()));
+        putLong(LAST_TIME_SEEN, toTime(trace.getLastTimeSeen()));
+        putLong(CLOSED_TIME, toTime(trace.getClosedTime()));
+        putLong(TOTAL_TRACES_RECEIVED, trace.getTotalTracesReceived() == null ? 0 : trace.getTotalTracesReceived());
+    }
+
+    private static long toTime(Long time) {
+        return time == null ? NO_TIME : time;
+    }
+}
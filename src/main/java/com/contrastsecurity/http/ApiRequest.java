@@ -0,0 +1,105 @@
+package com.contrastsecurity.http;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A request as seen by a {@link RequestInterceptor}. Headers set here are added to the
+ * connection after the SDK's authorization headers, and attributes carry per-call state
+ * such as a tracing span between interceptors.
+ */
+public class ApiRequest {
+
+    private final HttpMethod method;
+    private final String baseUrl;
+    private final String path;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private String body;
+    private MediaType mediaType;
+
+    public ApiRequest(HttpMethod method, String baseUrl, String path, String body, MediaType mediaType) {
+        this.method = method;
+        this.baseUrl = baseUrl;
+        this.path = path;
+        this.body = body;
+        this.mediaType = mediaType;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the path relative to the API URL, including the query, e.g. "/ng/{orgId}/servers?limit=10"
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getUrl() {
+        return baseUrl + path;
+    }
+
+    /**
+     * @return the headers added by interceptors, in the order they were set
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public ApiRequest setHeader(String name, String value) {
+        if (value == null) {
+            headers.remove(name);
+        } else {
+            headers.put(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * @return the request body, or null if there is none
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Replace the request body. The body is only sent with PUT and POST requests.
+     * @param body the new body, or null to send none
+     * @param mediaType the type of the new body
+     * @return this request
+     */
+    public ApiRequest setBody(String body, MediaType mediaType) {
+        this.body = body;
+        this.mediaType = mediaType;
+        return this;
+    }
+
+    public boolean hasBody() {
+        return body != null && mediaType != null && (method == HttpMethod.PUT || method == HttpMethod.POST);
+    }
+
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public ApiRequest setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+        return this;
+    }
+}
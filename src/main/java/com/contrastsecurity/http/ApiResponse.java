@@ -0,0 +1,65 @@
+package com.contrastsecurity.http;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response as seen by a {@link RequestInterceptor}. The body is the unread stream from the
+ * connection; interceptors may wrap it but should not consume it. For statuses of 400 and above
+ * the body is the error stream, which may be null.
+ */
+public class ApiResponse {
+
+    private final ApiRequest request;
+    private final int status;
+    private final Map<String, List<String>> headerFields;
+    private InputStream body;
+
+    public ApiResponse(ApiRequest request, int status, Map<String, List<String>> headerFields, InputStream body) {
+        this.request = request;
+        this.status = status;
+        this.headerFields = headerFields == null ? Collections.<String, List<String>>emptyMap() : headerFields;
+        this.body = body;
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, List<String>> getHeaderFields() {
+        return headerFields;
+    }
+
+    /**
+     * @param name the header name, matched case-insensitively
+     * @return the last value of the header, or null if it is not present
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, List<String>> header : headerFields.entrySet()) {
+            if (header.getKey() != null && header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return header.getValue().get(header.getValue().size() - 1);
+            }
+        }
+        return null;
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Replace the body, typically with a stream that wraps the current one.
+     * @param body the new body
+     * @return this response
+     */
+    public ApiResponse setBody(InputStream body) {
+        this.body = body;
+        return this;
+    }
+}
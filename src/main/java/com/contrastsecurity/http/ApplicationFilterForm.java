@@ -176,6 +176,44 @@ public class ApplicationFilterForm extends FilterForm {
         this.includeMerged = includeMerged;
     }
 
+    @Override
+    protected void appendTo(Query.Builder builder) {
+        super.appendTo(builder);
+        if (StringUtils.isNotEmpty(filterText)) {
+            builder.add("filterText", filterText);
+        }
+        if (StringUtils.isNotEmpty(filterAppCode)) {
+            builder.add("filterAppCode", filterAppCode);
+        }
+        if (filterServers != null && !filterServers.isEmpty()) {
+            builder.addAll("filterServers", filterServers);
+        }
+        if (filterTechs != null && !filterTechs.isEmpty()) {
+            builder.addAll("filterTechs", filterTechs);
+        }
+        if (filterTags != null && !filterTags.isEmpty()) {
+            builder.addAll("filterTags", filterTags);
+        }
+        if (filterCompliance != null && !filterCompliance.isEmpty()) {
+            builder.addAll("filterCompliance", filterCompliance);
+        }
+        if (filterLanguages != null && !filterLanguages.isEmpty()) {
+            builder.addAll("filterLanguages", filterLanguages);
+        }
+        if (environment != null && !environment.isEmpty()) {
+            builder.addAll("environments", environment);
+        }
+        if (filterVulnSeverities != null && !filterVulnSeverities.isEmpty()) {
+            builder.addAll("filterVulnSeverities", filterVulnSeverities);
+        }
+        builder.add("includeArchived", includeArchived);
+        builder.add("includeOnlyLicensed", includeOnlyLicensed);
+        builder.add("includeMerged", includeMerged);
+        if (quickFilter != null) {
+            builder.add("quickFilter", quickFilter);
+        }
+    }
+
     @Override
     public String toString() {
         String formString = super.toString();
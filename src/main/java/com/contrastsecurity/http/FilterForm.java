@@ -121,6 +121,45 @@ public class FilterForm {
         this.sort = sort;
     }
 
+    /**
+     * Create an immutable, canonically encoded snapshot of this form. Later changes to the
+     * form do not affect the returned query.
+     *
+     * @return the query parameters of this form
+     */
+    public Query freeze() {
+        Query.Builder builder = Query.builder();
+        appendTo(builder);
+        return builder.build();
+    }
+
+    protected void appendTo(Query.Builder builder) {
+        if (expand != null && !expand.isEmpty()) {
+            builder.addAll("expand", expand);
+        }
+        if (limit > 0) {
+            builder.add("limit", limit);
+        }
+        if (offset > 0) {
+            builder.add("offset", offset);
+        }
+        if (startDate != null) {
+            builder.add("startDate", startDate.getTime());
+        }
+        if (endDate != null) {
+            builder.add("endDate", endDate.getTime());
+        }
+        if (severities != null && !severities.isEmpty()) {
+            builder.addAll("severities", severities);
+        }
+        if (!StringUtils.isEmpty(sort)) {
+            builder.add("sort", sort);
+        }
+        if (!StringUtils.isEmpty(status)) {
+            builder.add("status", status);
+        }
+    }
+
     public String toString() {
         List<String> filters = new ArrayList<>();
 
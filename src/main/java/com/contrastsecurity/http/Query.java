@@ -0,0 +1,225 @@
+package com.contrastsecurity.http;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable set of URL query parameters with a canonical encoding. Parameters are sorted by
+ * name and the values of each parameter are sorted and de-duplicated, so two queries built
+ * from the same filters in a different order encode identically. The encoding and a stable
+ * 64-bit key are computed once, which makes a Query usable as a cache or request-coalescing key.
+ * <p>
+ * Build one with {@link #builder()} or freeze a form with e.g. {@link FilterForm#freeze()}.
+ * A Query is a caller-side key: the SDK still sends each form's own encoding, which keeps the
+ * order and duplicates of the filters, so a frozen form identifies a request without changing it.
+ */
+public final class Query {
+
+    public static final Query EMPTY = new Builder().build();
+
+    private static final SortedSet<String> NO_VALUES = Collections.unmodifiableSortedSet(new TreeSet<String>());
+
+    private final SortedMap<String, SortedSet<String>> parameters;
+    private final String encoded;
+    private final long key;
+
+    private Query(SortedMap<String, SortedSet<String>> parameters) {
+        SortedMap<String, SortedSet<String>> copy = new TreeMap<>();
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, SortedSet<String>> parameter : parameters.entrySet()) {
+            copy.put(parameter.getKey(), Collections.unmodifiableSortedSet(new TreeSet<>(parameter.getValue())));
+            builder.append(builder.length() == 0 ? '?' : '&').append(parameter.getKey());
+            if (!parameter.getValue().isEmpty()) {
+                builder.append('=');
+            }
+            boolean first = true;
+            for (String value : parameter.getValue()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                builder.append(value);
+                first = false;
+            }
+        }
+        this.parameters = Collections.unmodifiableSortedMap(copy);
+        this.encoded = builder.toString();
+        this.key = fnv1a64(encoded);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a builder initialized with the parameters of this query
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (Map.Entry<String, SortedSet<String>> parameter : parameters.entrySet()) {
+            builder.parameter(parameter.getKey()).addAll(parameter.getValue());
+        }
+        return builder;
+    }
+
+    /**
+     * @return the canonical query string, starting with '?', or an empty string if there are no parameters
+     */
+    public String encode() {
+        return encoded;
+    }
+
+    /**
+     * @return a 64-bit FNV-1a hash of the canonical encoding, stable across JVMs
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public Set<String> getNames() {
+        return parameters.keySet();
+    }
+
+    /**
+     * @param name the parameter name
+     * @return the URL-encoded values of the parameter, empty if it is not present
+     */
+    public SortedSet<String> getValues(String name) {
+        SortedSet<String> values = parameters.get(name);
+        return values == null ? NO_VALUES : values;
+    }
+
+    public boolean isEmpty() {
+        return parameters.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Query && key == ((Query) o).key && encoded.equals(((Query) o).encoded);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return encoded;
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public static class Builder {
+
+        private final SortedMap<String, SortedSet<String>> parameters = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add a value to a parameter. The value is URL-encoded; null values are ignored.
+         * @param name the parameter name
+         * @param value the value, converted with toString()
+         * @return this builder
+         */
+        public Builder add(String name, Object value) {
+            if (value != null) {
+                parameter(name).add(encode(value.toString()));
+            }
+            return this;
+        }
+
+        /**
+         * Add values to a parameter. The parameter is present even if there are no values.
+         * @param name the parameter name
+         * @param values the values, converted with toString()
+         * @return this builder
+         */
+        public Builder addAll(String name, Iterable<?> values) {
+            SortedSet<String> parameter = parameter(name);
+            if (values != null) {
+                for (Object value : values) {
+                    if (value != null) {
+                        parameter.add(encode(value.toString()));
+                    }
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Add the parameters of an already URL-encoded query fragment such as "a=1,2&amp;b=3". Each
+         * value is kept as written, since its order may matter to the server, e.g. "sort=title,-severity".
+         * A parameter without '=' has no values and encodes differently from one with an empty value.
+         * @param fragment the encoded fragment, with or without a leading '?'
+         * @return this builder
+         */
+        public Builder addEncoded(String fragment) {
+            if (fragment == null) {
+                return this;
+            }
+            for (String pair : fragment.startsWith("?") ? fragment.substring(1).split("&") : fragment.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                SortedSet<String> parameter = parameter(equals < 0 ? pair : pair.substring(0, equals));
+                if (equals >= 0) {
+                    parameter.add(pair.substring(equals + 1));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Replace all values of a parameter with one value, e.g. to page through results.
+         * @param name the parameter name
+         * @param value the new value, or null to remove the parameter
+         * @return this builder
+         */
+        public Builder set(String name, Object value) {
+            parameters.remove(name);
+            return add(name, value);
+        }
+
+        public Builder remove(String name) {
+            parameters.remove(name);
+            return this;
+        }
+
+        public Query build() {
+            return new Query(parameters);
+        }
+
+        private SortedSet<String> parameter(String name) {
+            SortedSet<String> values = parameters.get(name);
+            if (values == null) {
+                values = new TreeSet<>();
+                parameters.put(name, values);
+            }
+            return values;
+        }
+
+        private static String encode(String value) {
+            try {
+                return URLEncoder.encode(value, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.contrastsecurity.http;
+
+import java.io.IOException;
+
+/**
+ * Observes or modifies every request the SDK makes, e.g. to add distributed tracing headers
+ * or to time each call. Interceptors run in the order they were registered on the
+ * {@link com.contrastsecurity.sdk.ContrastSDK.Builder}; each one calls {@link Chain#proceed()}
+ * to hand the request to the next interceptor and finally to the connection.
+ * <p>
+ * An interceptor may change the request's headers and body before proceeding, and may wrap
+ * the response body with {@link ApiResponse#setBody(java.io.InputStream)} to observe it as
+ * the caller reads it. Response bodies are streamed, never buffered by the chain; a span
+ * that should cover the whole call ends when the wrapped body is closed.
+ */
+public interface RequestInterceptor {
+
+    /**
+     * @param chain the rest of the chain for this request
+     * @return the response, usually the one returned by {@code chain.proceed()}
+     * @throws IOException if there was a communication problem
+     */
+    ApiResponse intercept(Chain chain) throws IOException;
+
+    interface Chain {
+
+        ApiRequest request();
+
+        /**
+         * Pass the request to the next interceptor, or send it if this is the last one.
+         * Every call sends the request again, so an interceptor may proceed more than once to retry.
+         * @return the response
+         * @throws IOException if there was a communication problem
+         */
+        ApiResponse proceed() throws IOException;
+    }
+}
@@ -72,6 +72,24 @@ public class ServerFilterForm extends FilterForm {
         this.tags = tags;
     }
 
+    @Override
+    protected void appendTo(Query.Builder builder) {
+        super.appendTo(builder);
+        if (!StringUtils.isEmpty(q)) {
+            builder.add("q", q);
+        }
+        builder.add("includeArchived", includeArchived);
+        if (!applicationIds.isEmpty()) {
+            builder.addAll("applicationsIds", applicationIds);
+        }
+        if (!logLevels.isEmpty()) {
+            builder.addAll("logLevels", logLevels);
+        }
+        if (!tags.isEmpty()) {
+            builder.addAll("tags", tags);
+        }
+    }
+
     @Override
     public String toString() {
         String formString = super.toString();
@@ -162,6 +162,66 @@ public class TraceFilterForm {
         }
     }
 
+    /**
+     * Create an immutable, canonically encoded snapshot of this form. Later changes to the
+     * form do not affect the returned query. The filter text is treated as an already encoded
+     * query fragment, as in {@link #toQuery()}.
+     *
+     * @return the query parameters of this form
+     */
+    public Query freeze() {
+        Query.Builder builder = Query.builder();
+        if (StringUtils.isNotEmpty(filterText)) {
+            builder.addEncoded(filterText);
+        }
+        if (expand != null && !expand.isEmpty()) {
+            builder.addAll("expand", expand);
+        }
+        if (startDate != null) {
+            builder.add("startDate", startDate.getTime());
+        }
+        if (endDate != null) {
+            builder.add("endDate", endDate.getTime());
+        }
+        if (filterTags != null && !filterTags.isEmpty()) {
+            builder.addAll("filterTags", filterTags);
+        }
+        if (severities != null && !severities.isEmpty()) {
+            builder.addAll("severities", severities);
+        }
+        if (status != null) {
+            builder.addAll("status", status);
+        }
+        if (vulnTypes != null && !vulnTypes.isEmpty()) {
+            builder.addAll("vulnTypes", vulnTypes);
+        }
+        if (appVersionTags != null && !appVersionTags.isEmpty()) {
+            builder.addAll("appVersionTags", appVersionTags);
+        }
+        if (environments != null && !environments.isEmpty()) {
+            builder.addAll("environments", environments);
+        }
+        if (serverIds != null && !serverIds.isEmpty()) {
+            builder.addAll("servers", serverIds);
+        }
+        if (urls != null && !urls.isEmpty()) {
+            builder.addAll("urls", urls);
+        }
+        if (modules != null && !modules.isEmpty()) {
+            builder.addAll("modules", modules);
+        }
+        if (StringUtils.isNotEmpty(sort)) {
+            builder.add("sort", sort);
+        }
+        if (limit > -1) {
+            builder.add("limit", limit);
+        }
+        if (offset > -1) {
+            builder.add("offset", offset);
+        }
+        return builder.build();
+    }
+
     @Override
     public String toString() {
         try{
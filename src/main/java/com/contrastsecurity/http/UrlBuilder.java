@@ -39,6 +39,10 @@ public class UrlBuilder {
         return String.format("/ng/%s/applications/filter%s", organizationId, applicationFilterForm.toString());
     }
 
+    public String getApplicationFilterUrl(String organizationId, Query query) {
+        return String.format("/ng/%s/applications/filter%s", organizationId, encode(query));
+    }
+
     public String getCreateApplicationUrl(String organizationId) {
         return String.format("/ng/integrations/organizations/%s/applications", organizationId);
     }
@@ -84,6 +88,14 @@ public class UrlBuilder {
         return String.format("/ng/%s/servers/filter%s", organizationId, formString);
     }
 
+    public String getServersUrl(String organizationId, Query query) {
+        return String.format("/ng/%s/servers%s", organizationId, encode(query));
+    }
+
+    public String getServersFilterUrl(String organizationId, Query query) {
+        return String.format("/ng/%s/servers/filter%s", organizationId, encode(query));
+    }
+
     public String getTracesByOrganizationUrl(String organizationId, TraceFilterForm form) throws UnsupportedEncodingException {
         String formString = form == null ? "" : form.toQuery();
         return String.format("/ng/%s/orgtraces/filter/%s", organizationId, formString);
@@ -94,6 +106,18 @@ public class UrlBuilder {
         return String.format("/ng/%s/traces/%s/filter/%s", organizationId, appId, formString);
     }
 
+    public String getTracesByOrganizationUrl(String organizationId, Query query) {
+        return String.format("/ng/%s/orgtraces/filter/%s", organizationId, encode(query));
+    }
+
+    public String getTracesByApplicationUrl(String organizationId, String appId, Query query) {
+        return String.format("/ng/%s/traces/%s/filter/%s", organizationId, appId, encode(query));
+    }
+
+    public String getTraceUrl(String organizationId, String appId, String traceId, EnumSet<TraceFilterForm.TraceExpandValue> expandValues) {
+        return String.format("/ng/%s/traces/%s/trace/%s%s", organizationId, appId, traceId, buildExpand(expandValues));
+    }
+
     public String getNotesByApplicationUrl(String organizationId, String appId, String traceId, TraceFilterForm form) throws UnsupportedEncodingException {
         String formString = form == null ? "" : form.toQuery();
         return String.format("/ng/%s/applications/%s/traces/%s/notes?expand=skip_links", organizationId, appId, traceId, formString);
@@ -126,6 +150,10 @@ public class UrlBuilder {
         return String.format("/ng/%s/traces/%s/filter/%s/%s/search%s", organizationId, appId, traceFilterType.toString(), traceFilterKeycode.toString(), formString);
     }
 
+    public String getTracesWithFilterUrl(String organizationId, String appId, TraceFilterType traceFilterType, TraceFilterKeycode traceFilterKeycode, Query query) {
+        return String.format("/ng/%s/traces/%s/filter/%s/%s/search%s", organizationId, appId, traceFilterType.toString(), traceFilterKeycode.toString(), encode(query));
+    }
+
     public String getRules(String organizationId) {
         return String.format("/ng/%s/rules", organizationId);
     }
@@ -186,4 +214,8 @@ public class UrlBuilder {
 
         return url;
     }
+
+    private static String encode(Query query) {
+        return query == null ? "" : query.encode();
+    }
 }
@@ -0,0 +1,14 @@
+package com.contrastsecurity.metrics;
+
+/**
+ * Notified when an SDK call has been recorded, e.g. to log slow calls.
+ */
+public interface CallListener {
+
+    /**
+     * Called on the thread that completed the call; implementations should return quickly.
+     *
+     * @param call the completed call
+     */
+    void completed(CallTimer call);
+}
@@ -0,0 +1,103 @@
+package com.contrastsecurity.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs diagnostics of SDK calls through SLF4J. Attach it to the metrics of an SDK with
+ * {@link SdkMetrics#addListener(CallListener)}.
+ * <p>
+ * Calls slower than the slow-call threshold and responses larger than the response-size
+ * threshold are logged as warnings with the endpoint, organization, status, byte count and
+ * phase timings. One in every {@code debugSampleRate} calls is logged at debug level; when
+ * debug logging is disabled this costs a single {@code isDebugEnabled()} check per call, so
+ * the logger can be left attached in production.
+ */
+public class CallLogger implements CallListener {
+
+    private final Logger logger;
+    private final long slowCallNanos;
+    private final long largeResponseBytes;
+    private final int debugSampleRate;
+    private final AtomicLong calls = new AtomicLong();
+
+    public CallLogger() {
+        this(DEFAULT_SLOW_CALL_MILLIS, DEFAULT_LARGE_RESPONSE_BYTES, DEFAULT_DEBUG_SAMPLE_RATE);
+    }
+
+    /**
+     * @param slowCallMillis     log calls that take longer than this, or 0 to disable
+     * @param largeResponseBytes log responses larger than this, or 0 to disable
+     * @param debugSampleRate    log one in this many calls at debug level, 1 to log every call
+     */
+    public CallLogger(long slowCallMillis, long largeResponseBytes, int debugSampleRate) {
+        this(LoggerFactory.getLogger(CallLogger.class), slowCallMillis, largeResponseBytes, debugSampleRate);
+    }
+
+    public CallLogger(Logger logger, long slowCallMillis, long largeResponseBytes, int debugSampleRate) {
+        if (slowCallMillis < 0 || largeResponseBytes < 0 || debugSampleRate < 1) {
+            throw new IllegalArgumentException("Invalid call logging thresholds");
+        }
+        this.logger = logger;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.largeResponseBytes = largeResponseBytes;
+        this.debugSampleRate = debugSampleRate;
+    }
+
+    @Override
+    public void completed(CallTimer call) {
+        if (slowCallNanos > 0 && call.getTotalNanos() > slowCallNanos && logger.isWarnEnabled()) {
+            logger.warn("Slow Contrast API call: endpoint=\"{}\" org={} status={} totalMs={} connectMs={} firstByteMs={} downloadMs={} decodeMs={} bytes={}",
+                    call.getEndpoint(), organization(call.getPath()), call.getStatus(), millis(call.getTotalNanos()),
+                    millis(call.getConnectNanos()), millis(call.getFirstByteNanos()), millis(call.getDownloadNanos()),
+                    millis(call.getDecodeNanos()), call.getBytesIn());
+        }
+        if (largeResponseBytes > 0 && call.getBytesIn() > largeResponseBytes && logger.isWarnEnabled()) {
+            logger.warn("Large Contrast API response: endpoint=\"{}\" org={} status={} bytes={} decodeMs={} totalMs={}",
+                    call.getEndpoint(), organization(call.getPath()), call.getStatus(), call.getBytesIn(),
+                    millis(call.getDecodeNanos()), millis(call.getTotalNanos()));
+        }
+        if (logger.isDebugEnabled() && calls.getAndIncrement() % debugSampleRate == 0) {
+            logger.debug("Contrast API call: {} {} status={} failed={} totalMs={} bytesIn={} bytesOut={}",
+                    call.getMethod(), call.getPath(), call.getStatus(), call.isFailed(), millis(call.getTotalNanos()),
+                    call.getBytesIn(), call.getBytesOut());
+        }
+    }
+
+    /**
+     * @param path a request path such as "/ng/{orgId}/applications/{appId}"
+     * @return the first identifier in the path, which the API uses for the organization, or "-"
+     */
+    static String organization(String path) {
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        int start = 0;
+        while (start < end) {
+            int slash = path.indexOf('/', start);
+            int segmentEnd = slash < 0 || slash > end ? end : slash;
+            if (SdkMetrics.isIdentifier(path, start, segmentEnd)) {
+                return path.substring(start, segmentEnd);
+            }
+            start = segmentEnd + 1;
+        }
+        return NO_ORGANIZATION;
+    }
+
+    /**
+     * @return the duration in milliseconds with one decimal, or -1 for a phase that was not reached
+     */
+    private static double millis(long nanos) {
+        return nanos < 0 ? -1 : Math.round(nanos / 1e5) / 10.0;
+    }
+
+    public static final long DEFAULT_SLOW_CALL_MILLIS = 10000;
+    public static final long DEFAULT_LARGE_RESPONSE_BYTES = 32 * 1024 * 1024;
+    public static final int DEFAULT_DEBUG_SAMPLE_RATE = 100;
+
+    private static final String NO_ORGANIZATION = "-";
+}
@@ -0,0 +1,253 @@
+package com.contrastsecurity.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times one SDK call through its phases. The caller marks the end of the connect and
+ * first-byte phases; the response body is metered by wrapping its stream with
+ * {@link #wrap(InputStream)}, and the call is recorded when that stream is closed, or by
+ * {@link #finish()} if the call ends without a body. Phases that were not reached are
+ * reported as -1.
+ */
+public class CallTimer {
+
+    private final SdkMetrics metrics;
+    private final EndpointMetrics endpoint;
+    private final String method;
+    private final String path;
+    private final long start;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private long connected = -1;
+    private long responded = -1;
+    private long decodeStart = -1;
+    private boolean decoding;
+    private boolean closed;
+    private long readAtDecodeStart;
+    private long readNanos;
+    private long connectNanos = -1;
+    private long firstByteNanos = -1;
+    private long decodeNanos = -1;
+    private long totalNanos;
+    private long bytesIn;
+    private long bytesOut;
+    private int status;
+    private boolean failed;
+
+    CallTimer(SdkMetrics metrics, EndpointMetrics endpoint, String method, String path) {
+        this.metrics = metrics;
+        this.endpoint = endpoint;
+        this.method = method;
+        this.path = path;
+        this.start = System.nanoTime();
+        endpoint.started();
+    }
+
+    /**
+     * Mark the connection as open.
+     */
+    public void connected() {
+        connected = System.nanoTime();
+        connectNanos = connected - start;
+    }
+
+    /**
+     * Mark the arrival of the status line. Statuses of 400 and above count as errors.
+     *
+     * @param status the HTTP status code
+     */
+    public void responded(int status) {
+        responded = System.nanoTime();
+        firstByteNanos = responded - (connected < 0 ? start : connected);
+        this.status = status;
+        if (status >= 400) {
+            failed = true;
+        }
+    }
+
+    /**
+     * @param bytes the size of the request body
+     */
+    public void sent(long bytes) {
+        bytesOut += bytes;
+    }
+
+    /**
+     * Mark the call as failed, e.g. because an exception was thrown.
+     */
+    public void failed() {
+        failed = true;
+    }
+
+    /**
+     * Meter a response body. Bytes and the time spent in reads are counted, and the call is
+     * recorded when the stream is closed.
+     *
+     * @param in the response body
+     * @return the metered stream
+     */
+    public InputStream wrap(InputStream in) {
+        return new MeteredInputStream(in, this);
+    }
+
+    /**
+     * Mark the start of decoding a body obtained from {@link #wrap(InputStream)}.
+     */
+    public void beginDecode() {
+        decoding = true;
+        decodeStart = System.nanoTime();
+        readAtDecodeStart = readNanos;
+    }
+
+    /**
+     * Mark the end of decoding. Time spent reading from the stream is not counted as decoding.
+     * If the decoder closed the stream, the call is recorded now.
+     */
+    public void endDecode() {
+        if (decodeStart >= 0) {
+            decodeNanos = Math.max(0, System.nanoTime() - decodeStart - (readNanos - readAtDecodeStart));
+        }
+        decoding = false;
+        if (closed) {
+            finish();
+        }
+    }
+
+    /**
+     * Record the call. Only the first call has an effect.
+     */
+    public void finish() {
+        if (finished.compareAndSet(false, true)) {
+            totalNanos = System.nanoTime() - start;
+            endpoint.completed(this);
+            metrics.completed(this);
+        }
+    }
+
+    /**
+     * @param in a stream
+     * @return the timer of a stream returned by {@link #wrap(InputStream)}, or null
+     */
+    public static CallTimer of(InputStream in) {
+        return in instanceof MeteredInputStream ? ((MeteredInputStream) in).timer : null;
+    }
+
+    public String getEndpoint() {
+        return endpoint.getEndpoint();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the request path, including the query string
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    /**
+     * @return the time spent reading the response body
+     */
+    public long getDownloadNanos() {
+        return readNanos;
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * @return the time from the start of the call until it was recorded, or 0 before then
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * @return the HTTP status code, or 0 if no response was received
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    private static class MeteredInputStream extends FilterInputStream {
+
+        private final CallTimer timer;
+
+        MeteredInputStream(InputStream in, CallTimer timer) {
+            super(in);
+            this.timer = timer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long begin = System.nanoTime();
+            int b = super.read();
+            timer.readNanos += System.nanoTime() - begin;
+            if (b >= 0) {
+                timer.bytesIn++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            long begin = System.nanoTime();
+            int n;
+            try {
+                n = super.read(bytes, offset, length);
+            } catch (IOException e) {
+                timer.failed();
+                throw e;
+            }
+            timer.readNanos += System.nanoTime() - begin;
+            if (n > 0) {
+                timer.bytesIn += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            timer.bytesIn += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                timer.closed = true;
+                if (!timer.decoding) {
+                    timer.finish();
+                }
+            }
+        }
+    }
+}
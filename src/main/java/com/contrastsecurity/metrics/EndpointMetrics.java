@@ -0,0 +1,184 @@
+package com.contrastsecurity.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms, byte counts, status codes and the in-flight gauge of one endpoint.
+ * A call is split into four phases: connect (opening the connection), first byte (sending
+ * the request until the status line arrives), download (time spent reading the body) and
+ * decode (time spent decoding the body, excluding reads). The total covers the whole call.
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+
+    private final String endpoint;
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram firstByte = new LatencyHistogram();
+    private final LatencyHistogram download = new LatencyHistogram();
+    private final LatencyHistogram decode = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentMap<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getConnect() {
+        return connect;
+    }
+
+    public LatencyHistogram getFirstByte() {
+        return firstByte;
+    }
+
+    public LatencyHistogram getDownload() {
+        return download;
+    }
+
+    public LatencyHistogram getDecode() {
+        return decode;
+    }
+
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of completed calls, including failed ones
+     */
+    @Override
+    public long getRequestCount() {
+        return total.getCount();
+    }
+
+    /**
+     * @return the number of calls that failed with an exception or an error status
+     */
+    @Override
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    /**
+     * @return the number of responses per HTTP status code
+     */
+    @Override
+    public Map<String, Long> getStatusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<Integer, AtomicLong> entry : statusCounts.entrySet()) {
+            counts.put(String.valueOf(entry.getKey()), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    public long getStatusCount(int status) {
+        AtomicLong count = statusCounts.get(status);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return total.getMean() / MILLIS;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return total.getValueAtPercentile(50, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return total.getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return total.getMax() / MILLIS;
+    }
+
+    @Override
+    public double getConnectP99Millis() {
+        return connect.getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public double getFirstByteP99Millis() {
+        return firstByte.getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public double getDownloadP99Millis() {
+        return download.getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public double getDecodeP99Millis() {
+        return decode.getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed(CallTimer call) {
+        inFlight.decrementAndGet();
+        if (call.getConnectNanos() >= 0) {
+            connect.record(call.getConnectNanos());
+        }
+        if (call.getFirstByteNanos() >= 0) {
+            firstByte.record(call.getFirstByteNanos());
+            download.record(call.getDownloadNanos());
+        }
+        if (call.getDecodeNanos() >= 0) {
+            decode.record(call.getDecodeNanos());
+        }
+        total.record(call.getTotalNanos());
+        bytesIn.addAndGet(call.getBytesIn());
+        bytesOut.addAndGet(call.getBytesOut());
+        if (call.getStatus() > 0) {
+            AtomicLong count = statusCounts.get(call.getStatus());
+            if (count == null) {
+                AtomicLong created = new AtomicLong();
+                count = statusCounts.putIfAbsent(call.getStatus(), created);
+                if (count == null) {
+                    count = created;
+                }
+            }
+            count.incrementAndGet();
+        }
+        if (call.isFailed()) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static final double MILLIS = 1e6;
+}
@@ -0,0 +1,39 @@
+package com.contrastsecurity.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics of one endpoint. Latencies are in milliseconds.
+ */
+public interface EndpointMetricsMXBean {
+
+    String getEndpoint();
+
+    long getRequestCount();
+
+    long getErrorCount();
+
+    int getInFlight();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    Map<String, Long> getStatusCounts();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    double getConnectP99Millis();
+
+    double getFirstByteP99Millis();
+
+    double getDownloadP99Millis();
+
+    double getDecodeP99Millis();
+}
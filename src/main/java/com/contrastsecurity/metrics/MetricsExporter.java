@@ -0,0 +1,19 @@
+package com.contrastsecurity.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Publishes SDK metrics to a monitoring system, e.g. a Prometheus or StatsD adapter.
+ * Implementations can be passed to {@link SdkMetrics#export(MetricsExporter)} or listed in
+ * {@code META-INF/services/com.contrastsecurity.metrics.MetricsExporter} and found with
+ * {@link SdkMetrics#loadExporters()}.
+ */
+public interface MetricsExporter {
+
+    /**
+     * @param endpoints the metrics of every endpoint called so far, by endpoint name
+     * @throws IOException if the metrics could not be published
+     */
+    void export(Map<String, EndpointMetrics> endpoints) throws IOException;
+}
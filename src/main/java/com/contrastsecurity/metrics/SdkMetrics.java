@@ -0,0 +1,244 @@
+package com.contrastsecurity.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Per-endpoint metrics of the calls made by one or more SDK instances, attached with
+ * {@link com.contrastsecurity.sdk.ContrastSDK.Builder#withMetrics(SdkMetrics)}.
+ * <p>
+ * Calls are grouped by method and path template: the query string is dropped and path
+ * segments that look like identifiers (containing a digit and at least 8 characters long,
+ * or all digits) are replaced with {@code {id}}, so "GET /ng/{id}/traces/{id}/filter/"
+ * covers every application's trace listing. At most {@link #DEFAULT_MAX_ENDPOINTS}
+ * endpoints are tracked; further calls are grouped under {@link #OTHER}.
+ * <p>
+ * Metrics can be pulled with {@link #getEndpoints()}, pushed to a {@link MetricsExporter},
+ * observed call by call with a {@link CallListener} such as a {@link CallLogger}, or
+ * published as JMX MXBeans with {@link #registerMBeans(String)}.
+ */
+public class SdkMetrics {
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final List<CallListener> listeners = new CopyOnWriteArrayList<>();
+    private final int maxEndpoints;
+    private volatile String jmxName;
+
+    public SdkMetrics() {
+        this(DEFAULT_MAX_ENDPOINTS);
+    }
+
+    /**
+     * @param maxEndpoints the number of distinct endpoints to track before grouping calls under {@link #OTHER}
+     */
+    public SdkMetrics(int maxEndpoints) {
+        if (maxEndpoints < 1) {
+            throw new IllegalArgumentException("At least one endpoint must be tracked");
+        }
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    /**
+     * Start timing a call. The endpoint's in-flight gauge is incremented until the call is recorded.
+     *
+     * @param method the HTTP method
+     * @param path   the request path relative to the API URL
+     * @return the timer of the call
+     */
+    public CallTimer start(String method, String path) {
+        return new CallTimer(this, endpoint(endpoint(method, path)), method, path);
+    }
+
+    /**
+     * @param endpoint an endpoint name such as "GET /ng/{id}/servers"
+     * @return its metrics, or null if it has not been called
+     */
+    public EndpointMetrics getEndpoint(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    /**
+     * @return the metrics of every endpoint called so far, sorted by name
+     */
+    public SortedMap<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(endpoints));
+    }
+
+    public void addListener(CallListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CallListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param exporter the exporter to publish the current metrics to
+     * @throws IOException if the exporter failed
+     */
+    public void export(MetricsExporter exporter) throws IOException {
+        exporter.export(getEndpoints());
+    }
+
+    /**
+     * @return the exporters registered through {@code META-INF/services}
+     */
+    public static List<MetricsExporter> loadExporters() {
+        List<MetricsExporter> exporters = new ArrayList<>();
+        for (MetricsExporter exporter : ServiceLoader.load(MetricsExporter.class)) {
+            exporters.add(exporter);
+        }
+        return exporters;
+    }
+
+    /**
+     * Register an {@link EndpointMetricsMXBean} for every endpoint, now and as endpoints are
+     * first called, under {@code com.contrastsecurity.sdk:type=Endpoint,name=<name>,endpoint=<endpoint>}.
+     *
+     * @param name distinguishes these metrics from those of other SDK instances in the JVM
+     * @throws JMException if an MXBean could not be registered
+     */
+    public synchronized void registerMBeans(String name) throws JMException {
+        if (jmxName != null) {
+            throw new IllegalStateException("MBeans are already registered as " + jmxName);
+        }
+        jmxName = name;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            register(metrics);
+        }
+    }
+
+    /**
+     * Unregister the MXBeans registered by {@link #registerMBeans(String)}.
+     *
+     * @throws JMException if an MXBean could not be unregistered
+     */
+    public synchronized void unregisterMBeans() throws JMException {
+        if (jmxName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (EndpointMetrics metrics : endpoints.values()) {
+            ObjectName objectName = objectName(jmxName, metrics.getEndpoint());
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        }
+        jmxName = null;
+    }
+
+    /**
+     * @param name     the name passed to {@link #registerMBeans(String)}
+     * @param endpoint the endpoint name
+     * @return the JMX name of the endpoint's MXBean
+     */
+    public static ObjectName objectName(String name, String endpoint) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=Endpoint,name=" + ObjectName.quote(name) + ",endpoint=" + ObjectName.quote(endpoint));
+    }
+
+    /**
+     * @param method the HTTP method
+     * @param path   the request path
+     * @return the endpoint name the call is grouped under
+     */
+    public static String endpoint(String method, String path) {
+        StringBuilder endpoint = new StringBuilder(method).append(' ');
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        int start = 0;
+        while (start <= end) {
+            int slash = path.indexOf('/', start);
+            int segmentEnd = slash < 0 || slash > end ? end : slash;
+            if (isIdentifier(path, start, segmentEnd)) {
+                endpoint.append(ID);
+            } else {
+                endpoint.append(path, start, segmentEnd);
+            }
+            if (segmentEnd < end) {
+                endpoint.append('/');
+            }
+            start = segmentEnd + 1;
+        }
+        return endpoint.toString();
+    }
+
+    void completed(CallTimer call) {
+        for (CallListener listener : listeners) {
+            listener.completed(call);
+        }
+    }
+
+    private EndpointMetrics endpoint(String name) {
+        EndpointMetrics metrics = endpoints.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (endpoints.size() >= maxEndpoints) {
+            name = OTHER;
+            metrics = endpoints.get(name);
+            if (metrics != null) {
+                return metrics;
+            }
+        }
+        EndpointMetrics created = new EndpointMetrics(name);
+        metrics = endpoints.putIfAbsent(name, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (jmxName != null) {
+            synchronized (this) {
+                if (jmxName != null) {
+                    try {
+                        register(created);
+                    } catch (JMException e) {
+                        // the metrics are still available through getEndpoints()
+                    }
+                }
+            }
+        }
+        return created;
+    }
+
+    private void register(EndpointMetrics metrics) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = objectName(jmxName, metrics.getEndpoint());
+        if (!server.isRegistered(objectName)) {
+            server.registerMBean(metrics, objectName);
+        }
+    }
+
+    static boolean isIdentifier(String path, int start, int end) {
+        if (end == start) {
+            return false;
+        }
+        boolean digit = false;
+        boolean allDigits = true;
+        for (int i = start; i < end; i++) {
+            boolean d = Character.isDigit(path.charAt(i));
+            digit |= d;
+            allDigits &= d;
+        }
+        return allDigits || digit && end - start >= 8;
+    }
+
+    public static final int DEFAULT_MAX_ENDPOINTS = 256;
+    public static final String OTHER = "other";
+    public static final String JMX_DOMAIN = "com.contrastsecurity.sdk";
+
+    private static final String ID = "{id}";
+}
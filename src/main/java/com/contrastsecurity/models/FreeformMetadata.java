@@ -12,4 +12,6 @@ public class FreeformMetadata extends MetadataEntity {
     protected String fieldValue;
 
     public String getFieldValue() { return  fieldValue;};
+
+    public void setFieldValue(String fieldValue) { this.fieldValue = fieldValue; }
 }
@@ -29,6 +29,8 @@ public abstract class MetadataEntity {
 
     public String getFieldName() {return fieldName;}
 
+    public void setFieldName(String fieldName) { this.fieldName = fieldName; }
+
     public FreeformMetadata getAsFreeformMetadata() throws InvalidConversionException{
         if(type == MetadataType.STRING) {
             return (FreeformMetadata) this;
@@ -13,4 +13,6 @@ public class NumericMetadata extends MetadataEntity{
     private Long fieldValue;
 
     public Long getFieldValue() { return  fieldValue;};
+
+    public void setFieldValue(Long fieldValue) { this.fieldValue = fieldValue; }
 }
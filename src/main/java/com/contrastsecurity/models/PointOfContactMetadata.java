@@ -6,8 +6,6 @@ public class PointOfContactMetadata extends MetadataEntity{
         type = MetadataType.POINT_OF_CONTACT;
     }
 
-    public void setFieldName(String fieldName) { this.fieldName = fieldName; }
-
     private String contactName;
 
     public String getContactName() {
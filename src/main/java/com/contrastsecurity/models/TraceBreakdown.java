@@ -2,6 +2,29 @@ package com.contrastsecurity.models;
 
 public class TraceBreakdown {
 
+    public TraceBreakdown() {
+    }
+
+    /**
+     * Create a breakdown computed locally, e.g. by a {@link com.contrastsecurity.analytics.VulnerabilityAggregator}.
+     */
+    public TraceBreakdown(int traceCount, int criticals, int highs, int meds, int lows, int notes, int safes,
+                          int reported, int suspicious, int confirmed, int notProblem, int remediated, int triaged) {
+        this.traceCount = traceCount;
+        this.criticals = criticals;
+        this.highs = highs;
+        this.meds = meds;
+        this.lows = lows;
+        this.notes = notes;
+        this.safes = safes;
+        this.reported = reported;
+        this.suspicious = suspicious;
+        this.confirmed = confirmed;
+        this.notProblem = notProblem;
+        this.remediated = remediated;
+        this.triaged = triaged;
+    }
+
     public int getSafes() {
         return safes;
     }
@@ -55,5 +55,15 @@ public class Traces {
     }
     private List<Trace> traces;
 
+    /**
+     * Return the trace of a single-trace response
+     *
+     * @return the trace, or null for list responses
+     */
+    public Trace getTrace() {
+        return trace;
+    }
+    private Trace trace;
+
 }
 
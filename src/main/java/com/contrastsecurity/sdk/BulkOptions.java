@@ -0,0 +1,75 @@
+package com.contrastsecurity.sdk;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for bulk requests that fan out into many single-item requests.
+ */
+public class BulkOptions {
+
+    private int parallelism = DEFAULT_PARALLELISM;
+    private long callTimeoutMillis;
+    private ExecutorService executor;
+
+    /**
+     * @param parallelism maximum number of requests in flight at once
+     * @return these options
+     */
+    public BulkOptions withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Give up on a single request once it has run for longer than the timeout. The item is
+     * reported with a {@link java.util.concurrent.TimeoutException} and its worker is
+     * interrupted; set a read timeout on the SDK as well so blocked sockets are released.
+     * @param timeout the per-request deadline, or 0 for none
+     * @param unit the unit of the timeout
+     * @return these options
+     */
+    public BulkOptions withCallTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        this.callTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Run requests on the given executor instead of the SDK runtime's executor or a pool
+     * created for each bulk call. The executor is not shut down.
+     * @param executor the executor to run requests on
+     * @return these options
+     */
+    public BulkOptions withExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    BulkOptions copy() {
+        BulkOptions copy = new BulkOptions();
+        copy.parallelism = parallelism;
+        copy.callTimeoutMillis = callTimeoutMillis;
+        copy.executor = executor;
+        return copy;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getCallTimeoutMillis() {
+        return callTimeoutMillis;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public static final int DEFAULT_PARALLELISM = 8;
+}
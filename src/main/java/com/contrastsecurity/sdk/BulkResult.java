@@ -0,0 +1,34 @@
+package com.contrastsecurity.sdk;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk request: the value for every item that succeeded and the exception for
+ * every item that failed, both in the order the items were requested.
+ *
+ * @param <K> the item key, e.g. an application ID
+ * @param <V> the value fetched for an item
+ */
+public class BulkResult<K, V> {
+
+    private final Map<K, V> results;
+    private final Map<K, Exception> errors;
+
+    public BulkResult(Map<K, V> results, Map<K, Exception> errors) {
+        this.results = Collections.unmodifiableMap(results);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public Map<K, V> getResults() {
+        return results;
+    }
+
+    public Map<K, Exception> getErrors() {
+        return errors;
+    }
+
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+}
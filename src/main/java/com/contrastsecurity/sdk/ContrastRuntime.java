@@ -0,0 +1,169 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.codec.JsonCodec;
+import com.contrastsecurity.utils.StringPool;
+
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resources shared by many ContrastSDK instances in one JVM, e.g. one SDK per customer tenant.
+ * <p>
+ * SDKs attached with {@link ContrastSDK.Builder#withRuntime(ContrastRuntime)} share the codec
+ * (and with it the string pool and read buffers) and run bulk requests on the runtime's executor
+ * unless a call supplies its own. Credentials stay with each SDK, and every tenant, identified
+ * by API URL, user and API key, gets its own rate limiter. HTTP connections are kept alive by
+ * the JVM-wide HttpURLConnection cache, which is already shared between all instances.
+ * <p>
+ * The executor is bounded, so a bulk task must not start another bulk call on the same runtime
+ * and wait for it.
+ */
+public class ContrastRuntime implements Closeable {
+
+    public static class Builder {
+        private StringPool stringPool;
+        private JsonCodec codec;
+        private ExecutorService executor;
+        private int threads = DEFAULT_THREADS;
+        private double permitsPerSecond;
+        private int burst = 1;
+
+        public Builder withStringPool(StringPool stringPool) {
+            this.stringPool = stringPool;
+            return this;
+        }
+
+        /**
+         * @param codec the codec shared by every attached SDK; takes precedence over {@link #withStringPool(StringPool)}
+         * @return this builder
+         */
+        public Builder withCodec(JsonCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * @param threads the size of the executor created by the runtime
+         * @return this builder
+         */
+        public Builder withThreads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Threads must be at least 1");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Use the given executor for bulk requests. It is not shut down when the runtime is closed.
+         * @param executor the executor to share
+         * @return this builder
+         */
+        public Builder withExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Limit every tenant to the given request rate. Limits are not shared between tenants.
+         * @param permitsPerSecond the sustained requests per second of a tenant
+         * @param burst            the number of requests a tenant may make back to back
+         * @return this builder
+         */
+        public Builder withRateLimit(double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate and burst must be positive");
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        public ContrastRuntime build() {
+            return new ContrastRuntime(this);
+        }
+    }
+
+    private final StringPool stringPool;
+    private final JsonCodec codec;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    private ContrastRuntime(Builder builder) {
+        this.stringPool = builder.stringPool != null ? builder.stringPool : new StringPool();
+        this.codec = builder.codec != null ? builder.codec : new GsonCodec(stringPool);
+        this.ownExecutor = builder.executor == null;
+        this.executor = ownExecutor ? Executors.newFixedThreadPool(builder.threads, new RuntimeThreadFactory()) : builder.executor;
+        this.permitsPerSecond = builder.permitsPerSecond;
+        this.burst = builder.burst;
+    }
+
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    public JsonCodec getCodec() {
+        return codec;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Return the rate limiter of a tenant, creating it on first use.
+     *
+     * @param apiUrl the API URL of the tenant
+     * @param user   the user name
+     * @param apiKey the API key
+     * @return the tenant's limiter, or null if the runtime has no rate limit
+     */
+    public RateLimiter getRateLimiter(String apiUrl, String user, String apiKey) {
+        if (permitsPerSecond <= 0) {
+            return null;
+        }
+        String tenant = apiUrl + '\n' + user + '\n' + apiKey;
+        RateLimiter limiter = rateLimiters.get(tenant);
+        if (limiter == null) {
+            RateLimiter created = new RateLimiter(permitsPerSecond, burst);
+            limiter = rateLimiters.putIfAbsent(tenant, created);
+            if (limiter == null) {
+                limiter = created;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Shut down the executor if the runtime created it. Attached SDKs can still make single
+     * requests but bulk calls must then supply their own executor.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private static final class RuntimeThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "contrast-runtime-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    public static final int DEFAULT_THREADS = 32;
+}
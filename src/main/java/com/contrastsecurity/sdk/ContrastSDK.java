@@ -28,30 +28,38 @@
  */
 package com.contrastsecurity.sdk;
 
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.codec.JsonCodec;
 import com.contrastsecurity.exceptions.ApplicationCreateException;
 import com.contrastsecurity.exceptions.UnauthorizedException;
 import com.contrastsecurity.http.*;
+import com.contrastsecurity.metrics.CallTimer;
+import com.contrastsecurity.metrics.SdkMetrics;
 import com.contrastsecurity.models.*;
 import com.contrastsecurity.models.dtm.ApplicationCreateRequest;
 import com.contrastsecurity.models.dtm.AttestationCreateRequest;
 import com.contrastsecurity.utils.ContrastSDKUtils;
-import com.contrastsecurity.utils.MetadataDeserializer;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.contrastsecurity.utils.StringPool;
 import com.google.gson.JsonObject;
 import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Entry point for using the Contrast REST API. Make an instance of this class
@@ -64,7 +72,11 @@ public class ContrastSDK {
     private String user;
     private String restApiURL;
     private UrlBuilder urlBuilder;
-    private Gson gson;
+    private JsonCodec codec;
+    private ContrastRuntime runtime;
+    private RateLimiter rateLimiter;
+    private SdkMetrics metrics;
+    private List<RequestInterceptor> interceptors = Collections.emptyList();
     Proxy proxy;
     
     private int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
@@ -76,6 +88,12 @@ public class ContrastSDK {
         private String apiKey;
         private Proxy proxy;
         private String restApiURL;
+        private StringPool stringPool;
+        private JsonCodec codec;
+        private ContrastRuntime runtime;
+        private RateLimiter rateLimiter;
+        private SdkMetrics metrics;
+        private final List<RequestInterceptor> interceptors = new ArrayList<>();
 
         public Builder(String user, String serviceKey, String apiKey) {
             this.user = user;
@@ -97,10 +115,95 @@ public class ContrastSDK {
             return this;
         }
 
+        /**
+         * Canonicalize low-cardinality model fields (severity, status, rule, environment, ...)
+         * through the given pool while decoding, so large result sets retain one instance per
+         * distinct value. A pool may be shared between several SDK instances.
+         * @param stringPool the pool used to canonicalize decoded values
+         * @return this builder
+         */
+        public Builder withStringPool(StringPool stringPool) {
+            this.stringPool = stringPool;
+            return this;
+        }
+
+        /**
+         * Use the given codec to encode request bodies and decode responses, e.g. a
+         * {@link com.contrastsecurity.codec.JacksonCodec}. Takes precedence over
+         * {@link #withStringPool(StringPool)}; pass the pool to the codec instead.
+         * @param codec the codec used for every request
+         * @return this builder
+         */
+        public Builder withCodec(JsonCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * Attach the SDK to a runtime shared with other SDK instances. The SDK uses the runtime's
+         * codec unless one is set on this builder, runs bulk requests on the runtime's executor and
+         * is limited by the runtime's rate limiter for this tenant.
+         * @param runtime the shared runtime
+         * @return this builder
+         */
+        public Builder withRuntime(ContrastRuntime runtime) {
+            this.runtime = runtime;
+            return this;
+        }
+
+        /**
+         * Wait on the given limiter before every request. Takes precedence over the runtime's limiter.
+         * @param rateLimiter the limiter for this SDK
+         * @return this builder
+         */
+        public Builder withRateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Record latency, byte and status metrics for every request. Metrics may be shared
+         * between several SDK instances.
+         * @param metrics the metrics to record to
+         * @return this builder
+         */
+        public Builder withMetrics(SdkMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Run every request through the given interceptor, e.g. to add tracing headers. Interceptors
+         * run in the order they are added, the first one outermost.
+         * @param interceptor the interceptor to add
+         * @return this builder
+         */
+        public Builder withInterceptor(RequestInterceptor interceptor) {
+            this.interceptors.add(interceptor);
+            return this;
+        }
+
         public ContrastSDK build() {
             ContrastSDK sdk = new ContrastSDK(this.user, this.serviceKey, this.apiKey);
             sdk.restApiURL = this.restApiURL;
             sdk.proxy = this.proxy;
+            sdk.runtime = this.runtime;
+            sdk.metrics = this.metrics;
+            if (!this.interceptors.isEmpty()) {
+                sdk.interceptors = Collections.unmodifiableList(new ArrayList<>(this.interceptors));
+            }
+            if (this.codec != null) {
+                sdk.codec = this.codec;
+            } else if (this.stringPool != null) {
+                sdk.codec = new GsonCodec(this.stringPool);
+            } else if (this.runtime != null) {
+                sdk.codec = this.runtime.getCodec();
+            }
+            if (this.rateLimiter != null) {
+                sdk.rateLimiter = this.rateLimiter;
+            } else if (this.runtime != null) {
+                sdk.rateLimiter = this.runtime.getRateLimiter(this.restApiURL, this.user, this.apiKey);
+            }
             return sdk;
         }
     }
@@ -132,8 +235,7 @@ public class ContrastSDK {
         ContrastSDKUtils.validateUrl(this.restApiURL);
         this.restApiURL = ContrastSDKUtils.ensureApi(this.restApiURL);
         this.urlBuilder = UrlBuilder.getInstance();
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(MetadataEntity.class, new MetadataDeserializer()).create();
+        this.codec = new GsonCodec();
         this.proxy = Proxy.NO_PROXY;
     }
 
@@ -158,7 +260,7 @@ public class ContrastSDK {
         this.restApiURL = ContrastSDKUtils.ensureApi(this.restApiURL);
 
         this.urlBuilder = UrlBuilder.getInstance();
-        this.gson = new Gson();
+        this.codec = new GsonCodec();
         this.proxy = proxy;
     }
 
@@ -179,7 +281,7 @@ public class ContrastSDK {
         this.restApiURL = DEFAULT_API_URL;
         ContrastSDKUtils.validateUrl(this.restApiURL);
         this.urlBuilder = UrlBuilder.getInstance();
-        this.gson = new Gson();
+        this.codec = new GsonCodec();
         this.proxy = Proxy.NO_PROXY;
     }
 
@@ -191,17 +293,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public AssessLicenseOverview getAssessLicensing(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getAssessLicensingUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, AssessLicenseOverview.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getAssessLicensingUrl(organizationId)), AssessLicenseOverview.class);
     }
     /**
      * Get Total (Total Open and Total Closed each month) Vulnerability Trend for an Organizations.
@@ -211,17 +303,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public VulnerabilityTrend getYearlyVulnTrend(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getYearlyVulnTrendUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, VulnerabilityTrend.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getYearlyVulnTrendUrl(organizationId)), VulnerabilityTrend.class);
     }
 
     /**
@@ -232,17 +314,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public VulnerabilityTrend getYearlyNewVulnTrend(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getYearlyNewVulnTrendUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, VulnerabilityTrend.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getYearlyNewVulnTrendUrl(organizationId)), VulnerabilityTrend.class);
     }
 
     /**
@@ -254,17 +326,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public VulnerabilityTrend getYearlyVulnTrendForApplication(String organizationId, String appId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getYearlyVulnTrendForApplicationUrl(organizationId, appId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, VulnerabilityTrend.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getYearlyVulnTrendForApplicationUrl(organizationId, appId)), VulnerabilityTrend.class);
     }
 
     /**
@@ -275,17 +337,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Organizations getProfileOrganizations() throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getProfileOrganizationsUrl());
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Organizations.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getProfileOrganizationsUrl()), Organizations.class);
     }
 
     /**
@@ -296,17 +348,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Users getOrganizationUsers(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getOrganizationUsersUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Users.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getOrganizationUsersUrl(organizationId)), Users.class);
     }
 
     /**
@@ -317,17 +359,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Organizations getProfileDefaultOrganizations() throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getProfileDefaultOrganizationUrl());
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Organizations.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, this.urlBuilder.getProfileDefaultOrganizationUrl()), Organizations.class);
     }
 
     /**
@@ -340,11 +372,8 @@ public class ContrastSDK {
      */
     public Application createApplication(String organizationId, ApplicationCreateRequest request)
             throws IOException, UnauthorizedException, ApplicationCreateException {
-        try (InputStream is = makeCreateRequest(HttpMethod.POST, urlBuilder.getCreateApplicationUrl(organizationId), this.gson.toJson(request), MediaType.JSON);
-            InputStreamReader reader = new InputStreamReader(is)){
-            Applications response = this.gson.fromJson(reader, Applications.class);
-            return response.getApplication();
-        }
+        Applications response = decode(makeCreateRequest(HttpMethod.POST, urlBuilder.getCreateApplicationUrl(organizationId), this.codec.encode(request), MediaType.JSON), Applications.class);
+        return response.getApplication();
     }
 
     /**
@@ -357,11 +386,8 @@ public class ContrastSDK {
      * @throws UnauthorizedException
      */
     public Application getApplicationByNameAndLanguage(String orgId, String appName, AgentType language) throws IOException, UnauthorizedException{
-        try (InputStream is = makeRequest(HttpMethod.GET, urlBuilder.getApplicationByNameAndLanguageUrl(orgId, appName, language.name()));
-             InputStreamReader reader = new InputStreamReader(is)) {
-            Applications response = this.gson.fromJson(reader, Applications.class);
-            return response.getApplication();
-        }
+        Applications response = decode(call(HttpMethod.GET, urlBuilder.getApplicationByNameAndLanguageUrl(orgId, appName, language.name())), Applications.class);
+        return response.getApplication();
     }
 
     /**
@@ -375,28 +401,20 @@ public class ContrastSDK {
      * @throws UnauthorizedException
      * @throws ApplicationCreateException
      */
-    private InputStream makeCreateRequest(HttpMethod method, String path, String body, MediaType mediaType) throws IOException, UnauthorizedException, ApplicationCreateException {
-        String url = restApiURL + path;
-
-        HttpURLConnection connection = makeConnection(url, method.toString());
-        if(mediaType != null && body != null && (method.equals(HttpMethod.PUT) || method.equals(HttpMethod.POST))) {
-            connection.setDoOutput(true);
-            connection.setRequestProperty("Content-Type",mediaType.getType());
-            OutputStream os = connection.getOutputStream();
-            byte[] bodyByte = body.getBytes("utf-8");
-            os.write(bodyByte, 0, bodyByte.length);
-        }
-        int rc = connection.getResponseCode();
-        InputStream is;
+    private ApiResponse makeCreateRequest(HttpMethod method, String path, String body, MediaType mediaType) throws IOException, UnauthorizedException, ApplicationCreateException {
+        ApiResponse response = execute(new ApiRequest(method, restApiURL, path, body, mediaType));
+        int rc = response.getStatus();
         if (CREATE_APPLICATION_ERROR_RESPONSE.contains(rc)) {
-            is = connection.getErrorStream();
-            String message = getErrorMessage(is);
-            throw new ApplicationCreateException(rc, message);
-        } else if(rc >= BAD_REQUEST && rc < SERVER_ERROR) {
+            try {
+                throw new ApplicationCreateException(rc, getErrorMessage(response.getBody()));
+            } finally {
+                IOUtils.closeQuietly(response.getBody());
+            }
+        } else if (rc >= BAD_REQUEST && rc < SERVER_ERROR) {
+            IOUtils.closeQuietly(response.getBody());
             throw new UnauthorizedException(rc);
         }
-        is = connection.getInputStream();
-        return is;
+        return checkStatus(response);
     }
 
     /**
@@ -406,15 +424,7 @@ public class ContrastSDK {
      * @throws IOException
      */
     private String getErrorMessage(InputStream errorStream) throws IOException {
-        InputStreamReader streamReader = new InputStreamReader(errorStream);
-        StringBuilder builder = new StringBuilder();
-        try( BufferedReader bufferedReader = new BufferedReader(streamReader)) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                builder.append(line);
-            }
-        }
-        JsonObject json = this.gson.fromJson(builder.toString(), JsonObject.class);
+        JsonObject json = this.codec.decode(errorStream, JsonObject.class);
         return json.get("messages").getAsString();
 
     }
@@ -443,17 +453,31 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Applications getApplication(String organizationId, String appId, EnumSet<FilterForm.ApplicationExpandValues> expandValues) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, this.urlBuilder.getApplicationUrl(organizationId, appId, expandValues));
-            reader = new InputStreamReader(is);
+        return decode(call(HttpMethod.GET, this.urlBuilder.getApplicationUrl(organizationId, appId, expandValues)), Applications.class);
+    }
 
-            return this.gson.fromJson(reader, Applications.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+    /**
+     * Get summary information about many apps, running the single-app requests concurrently.
+     * Each response is decoded and closed by the request that made it.
+     *
+     * @param organizationId the ID of the organization
+     * @param appIds         the IDs of the applications; duplicates are fetched once
+     * @param expandValues   values to expand, or null
+     * @param options        parallelism, per-request deadline and executor
+     * @return the Application of every app that was fetched and the failure of every app that was not,
+     *         keyed by app ID in request order
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public BulkResult<String, Application> getApplications(final String organizationId, Collection<String> appIds,
+                                                           final EnumSet<FilterForm.ApplicationExpandValues> expandValues,
+                                                           BulkOptions options) throws InterruptedException {
+        return FanOut.execute(appIds, new FanOut.Task<String, Application>() {
+            @Override
+            public Application call(String appId) throws Exception {
+                Applications applications = getApplication(organizationId, appId, expandValues);
+                return applications == null ? null : applications.getApplication();
+            }
+        }, bulkOptions(options));
     }
 
     /**
@@ -465,16 +489,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Applications getApplications(String organizationId) throws UnauthorizedException, IOException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getApplicationsUrl(organizationId));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, Applications.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getApplicationsUrl(organizationId)), Applications.class);
     }
 
     /**
@@ -487,16 +502,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Applications getFilteredApplications(String organizationId, ApplicationFilterForm applicationFilterForm) throws UnauthorizedException, IOException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getApplicationFilterUrl(organizationId, applicationFilterForm));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, Applications.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getApplicationFilterUrl(organizationId, applicationFilterForm)), Applications.class);
     }
 
     /**
@@ -508,29 +514,11 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Applications getLicensedApplications(String organizationId) throws UnauthorizedException, IOException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getLicensedApplicationsUrl(organizationId));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, Applications.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getLicensedApplicationsUrl(organizationId)), Applications.class);
     }
 
     public Applications getApplicationsNames(String organizationId) throws UnauthorizedException, IOException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getApplicationsNameUrl(organizationId));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, Applications.class);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(is);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getApplicationsNameUrl(organizationId)), Applications.class);
     }
 
     /**
@@ -543,17 +531,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Coverage getCoverage(String organizationId, String appId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getCoverageUrl(organizationId, appId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Coverage.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getCoverageUrl(organizationId, appId)), Coverage.class);
     }
 
     public Libraries getLibraries(String organizationId, String appId) throws IOException, UnauthorizedException {
@@ -571,17 +549,30 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Libraries getLibraries(String organizationId, String appId, EnumSet<FilterForm.LibrariesExpandValues> expandValues) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getLibrariesUrl(organizationId, appId, expandValues));
-            reader = new InputStreamReader(is);
+        return decode(call(HttpMethod.GET, urlBuilder.getLibrariesUrl(organizationId, appId, expandValues)), Libraries.class);
+    }
 
-            return this.gson.fromJson(reader, Libraries.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+    /**
+     * Return the libraries of many applications, running the single-app requests concurrently,
+     * e.g. to fill a {@link com.contrastsecurity.analytics.LibraryIndex}.
+     *
+     * @param organizationId the ID of the organization
+     * @param appIds         the IDs of the applications; duplicates are fetched once
+     * @param expandValues   Query params to add more info to response, or null
+     * @param options        parallelism, per-request deadline and executor
+     * @return the Libraries of every app that was fetched and the failure of every app that was not,
+     *         keyed by app ID in request order
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public BulkResult<String, Libraries> getLibraries(final String organizationId, Collection<String> appIds,
+                                                      final EnumSet<FilterForm.LibrariesExpandValues> expandValues,
+                                                      BulkOptions options) throws InterruptedException {
+        return FanOut.execute(appIds, new FanOut.Task<String, Libraries>() {
+            @Override
+            public Libraries call(String appId) throws Exception {
+                return getLibraries(organizationId, appId, expandValues);
+            }
+        }, bulkOptions(options));
     }
 
     /**
@@ -593,17 +584,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public LibraryScores getLibraryScores(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getLibraryScoresUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, LibraryScores.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getLibraryScoresUrl(organizationId)), LibraryScores.class);
     }
     /**
      * Return the library Stats for an Organization.
@@ -614,17 +595,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public LibraryStats getLibraryStats(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getLibraryStatsUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, LibraryStats.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getLibraryStatsUrl(organizationId)), LibraryStats.class);
     }
 
     /**
@@ -637,17 +608,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Servers getServers(String organizationId, ServerFilterForm filterForm) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getServersUrl(organizationId, filterForm));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Servers.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getServersUrl(organizationId, filterForm)), Servers.class);
     }
 
     /**
@@ -660,17 +621,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Servers getServersWithFilter(String organizationId, ServerFilterForm filterForm) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getServersFilterUrl(organizationId, filterForm));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Servers.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getServersFilterUrl(organizationId, filterForm)), Servers.class);
     }
 
     /**
@@ -684,16 +635,23 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Traces getTraces(String organizationId, String appId, TraceFilterForm form) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getTracesByApplicationUrl(organizationId, appId, form));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, Traces.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getTracesByApplicationUrl(organizationId, appId, form)), Traces.class);
+    }
+
+    /**
+     * Get a single vulnerability in the application whose ID is passed in.
+     *
+     * @param organizationId the ID of the organization
+     * @param appId          the ID of the application
+     * @param traceId        the ID of the vulnerability
+     * @param expandValues   values to expand, e.g. events and request, or null
+     * @return the Trace, or null if the response did not contain one
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem
+     */
+    public Trace getTrace(String organizationId, String appId, String traceId, EnumSet<TraceFilterForm.TraceExpandValue> expandValues) throws IOException, UnauthorizedException {
+        Traces response = decode(call(HttpMethod.GET, urlBuilder.getTraceUrl(organizationId, appId, traceId, expandValues)), Traces.class);
+        return response == null ? null : response.getTrace();
     }
 
     /**
@@ -708,16 +666,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public TraceNotesResponse getNotes(String organizationId, String appId, String traceId, TraceFilterForm form) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getNotesByApplicationUrl(organizationId, appId, traceId, form));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, TraceNotesResponse.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getNotesByApplicationUrl(organizationId, appId, traceId, form)), TraceNotesResponse.class);
     }
 
 
@@ -731,16 +680,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public TagsResponse getVulnTagsByApplication(String organizationId, String appId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getVulnTagsByApplicationUrl(organizationId, appId));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, TagsResponse.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getVulnTagsByApplicationUrl(organizationId, appId)), TagsResponse.class);
     }
 
     /**
@@ -754,16 +694,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public MetadataFilterResponse getSessionMetadataForApplication(String organizationId, String appId, TraceFilterForm form) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getSessionMetadataForApplicationUrl(organizationId, appId, form));
-            reader = new InputStreamReader(is);
-            return this.gson.fromJson(reader, MetadataFilterResponse.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getSessionMetadataForApplicationUrl(organizationId, appId, form)), MetadataFilterResponse.class);
     }
 
     /**
@@ -776,9 +707,11 @@ public class ContrastSDK {
      */
     public void generateAttestationReport(String organizationId, String appId, AttestationCreateRequest request)
             throws IOException, UnauthorizedException, ApplicationCreateException {
-        System.out.println(this.gson.toJson(request));
-        try (InputStream is = makeCreateRequest(HttpMethod.POST, urlBuilder.getAttestationReportByApplicationUrl(organizationId, appId), this.gson.toJson(request), MediaType.JSON);
-             InputStreamReader reader = new InputStreamReader(is)){
+        String body = this.codec.encode(request);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Generating attestation report for application {}: {}", appId, body);
+        }
+        try (InputStream is = makeCreateRequest(HttpMethod.POST, urlBuilder.getAttestationReportByApplicationUrl(organizationId, appId), body, MediaType.JSON).getBody()) {
         }
     }
 
@@ -793,17 +726,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Traces getTracesInOrg(String organizationId, TraceFilterForm form) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getTracesByOrganizationUrl(organizationId, form));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Traces.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getTracesByOrganizationUrl(organizationId, form)), Traces.class);
     }
 
     /**
@@ -816,17 +739,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public TraceListing getTraceFilters(String organizationId, String appId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getTraceListingUrl(organizationId, appId, TraceFilterType.VULNTYPE));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, TraceListing.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getTraceListingUrl(organizationId, appId, TraceFilterType.VULNTYPE)), TraceListing.class);
     }
 
 
@@ -843,18 +756,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Traces getTracesWithFilter(String organizationId, String appId, TraceFilterType traceFilterType, TraceFilterKeycode keycode, TraceFilterForm form) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getTracesWithFilterUrl(organizationId, appId, traceFilterType, keycode, form));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Traces.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getTracesWithFilterUrl(organizationId, appId, traceFilterType, keycode, form)), Traces.class);
     }
 
     /**
@@ -869,21 +771,10 @@ public class ContrastSDK {
      */
     @Deprecated
     public Traces getTraceFilterByRule(String organizationId, String appId, List<String> ruleNames) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-
         TraceFilterForm ruleNameForm = new TraceFilterForm();
         ruleNameForm.setVulnTypes(ruleNames);
 
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getTracesByApplicationUrl(organizationId, appId, ruleNameForm));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Traces.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getTracesByApplicationUrl(organizationId, appId, ruleNameForm)), Traces.class);
     }
 
     /**
@@ -896,18 +787,8 @@ public class ContrastSDK {
      * @throws UnauthorizedException
      */
     public SecurityCheck makeSecurityCheck(String organizationId, SecurityCheckForm securityCheckForm) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequestWithBody(HttpMethod.POST, urlBuilder.getSecurityCheckUrl(organizationId), this.gson.toJson(securityCheckForm), MediaType.JSON);
-            reader = new InputStreamReader(is);
-
-            SecurityCheckResponse response = this.gson.fromJson(reader, SecurityCheckResponse.class);
-            return response.getSecurityCheck();
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        SecurityCheckResponse response = decode(call(HttpMethod.POST, urlBuilder.getSecurityCheckUrl(organizationId), this.codec.encode(securityCheckForm), MediaType.JSON), SecurityCheckResponse.class);
+        return response.getSecurityCheck();
     }
 
     /**
@@ -918,18 +799,8 @@ public class ContrastSDK {
      * @throws UnauthorizedException
      */
     public List<JobOutcomePolicy> getEnabledJobOutcomePolicies(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getEnabledJobOutcomePolicyListUrl(organizationId));
-            reader = new InputStreamReader(is);
-
-            JobOutcomePolicyListResponse response = this.gson.fromJson(reader, JobOutcomePolicyListResponse.class);
-            return response.getPolicies();
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        JobOutcomePolicyListResponse response = decode(call(HttpMethod.GET, urlBuilder.getEnabledJobOutcomePolicyListUrl(organizationId)), JobOutcomePolicyListResponse.class);
+        return response.getPolicies();
     }
 
     /**
@@ -939,18 +810,8 @@ public class ContrastSDK {
      * @return the list of enabled Job Outcome Policies that apply to the application
      */
     public List<JobOutcomePolicy> getEnabledJoboutcomePoliciesByApplication(String organizationId, String appId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getEnabledJobOutcomePolicyListUrlByApplication(organizationId, appId));
-            reader = new InputStreamReader(is);
-
-            JobOutcomePolicyListResponse response = this.gson.fromJson(reader, JobOutcomePolicyListResponse.class);
-            return response.getPolicies();
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        JobOutcomePolicyListResponse response = decode(call(HttpMethod.GET, urlBuilder.getEnabledJobOutcomePolicyListUrlByApplication(organizationId, appId)), JobOutcomePolicyListResponse.class);
+        return response.getPolicies();
     }
 
     /**
@@ -962,18 +823,7 @@ public class ContrastSDK {
      * @throws IOException           if there was a communication problem
      */
     public Rules getRules(String organizationId) throws IOException, UnauthorizedException {
-        InputStream is = null;
-        InputStreamReader reader = null;
-
-        try {
-            is = makeRequest(HttpMethod.GET, urlBuilder.getRules(organizationId));
-            reader = new InputStreamReader(is);
-
-            return this.gson.fromJson(reader, Rules.class);
-        } finally {
-            IOUtils.closeQuietly(is);
-            IOUtils.closeQuietly(reader);
-        }
+        return decode(call(HttpMethod.GET, urlBuilder.getRules(organizationId)), Rules.class);
     }
 
     /**
@@ -1016,43 +866,208 @@ public class ContrastSDK {
         return getAgent(type, organizationId, DEFAULT_AGENT_PROFILE);
     }
 
-    public InputStream makeRequestWithBody(HttpMethod method, String path, String body, MediaType mediaType) throws IOException, UnauthorizedException {
-        String url = restApiURL + path;
-        OutputStream os = null;
-        HttpURLConnection connection = makeConnection(url, method.toString());
-        if(mediaType != null && body != null && (method.equals(HttpMethod.PUT) || method.equals(HttpMethod.POST))) {
-            connection.setDoOutput(true);
-            connection.setRequestProperty("Content-Type",mediaType.getType());
-            os = connection.getOutputStream();
-            byte[] bodyByte = body.getBytes("utf-8");
-            os.write(bodyByte, 0, bodyByte.length);
+    /**
+     * Decode a JSON response body with the configured codec and close the stream.
+     * @param response the response, whose call timer records the decode phase
+     * @param type the type to decode
+     * @return the decoded object
+     * @throws IOException if there was a communication problem
+     */
+    private <T> T decode(ApiResponse response, Class<T> type) throws IOException {
+        CallTimer timer = (CallTimer) response.getRequest().getAttribute(CALL_TIMER);
+        InputStream is = response.getBody();
+        if (timer != null) {
+            timer.beginDecode();
         }
-        int rc = connection.getResponseCode();
-        InputStream is = connection.getInputStream();
-        if (rc >= BAD_REQUEST && rc < SERVER_ERROR) {
-            IOUtils.closeQuietly(is);
-            if(os != null) {
-                IOUtils.closeQuietly(os);
+        try {
+            return this.codec.decode(is, type);
+        } finally {
+            if (timer != null) {
+                timer.endDecode();
             }
-            throw new UnauthorizedException(rc);
+            IOUtils.closeQuietly(is);
         }
-        return is;
+    }
+
+    public InputStream makeRequestWithBody(HttpMethod method, String path, String body, MediaType mediaType) throws IOException, UnauthorizedException {
+        return call(method, path, body, mediaType).getBody();
     }
 
     public InputStream makeRequest(HttpMethod method, String path) throws IOException, UnauthorizedException {
-        String url = restApiURL + path;
+        return call(method, path).getBody();
+    }
 
-        HttpURLConnection connection = makeConnection(url, method.toString());
-        InputStream is = connection.getInputStream();
-        int rc = connection.getResponseCode();
-        if (rc >= BAD_REQUEST && rc < SERVER_ERROR) {
-            IOUtils.closeQuietly(is);
-            throw new UnauthorizedException(rc);
+    private ApiResponse call(HttpMethod method, String path) throws IOException {
+        return call(method, path, null, null);
+    }
+
+    private ApiResponse call(HttpMethod method, String path, String body, MediaType mediaType) throws IOException {
+        return checkStatus(execute(new ApiRequest(method, restApiURL, path, body, mediaType)));
+    }
+
+    /**
+     * Run the request through the interceptors, the last of which hands it to {@link #send(ApiRequest)}.
+     */
+    private ApiResponse execute(ApiRequest request) throws IOException {
+        return new InterceptorChain(0, request).proceed();
+    }
+
+    /**
+     * Send a request and return the unread response, without interpreting the status.
+     */
+    private ApiResponse send(ApiRequest request) throws IOException {
+        HttpURLConnection connection = makeConnection(request.getUrl(), request.getMethod().toString());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        CallTimer timer = metrics == null ? null : metrics.start(request.getMethod().toString(), request.getPath());
+        request.setAttribute(CALL_TIMER, timer);
+        boolean completed = false;
+        try {
+            byte[] body = null;
+            if (request.hasBody()) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", request.getMediaType().getType());
+                body = request.getBody().getBytes("utf-8");
+            }
+            connected(timer, connection);
+            if (body != null) {
+                try (OutputStream os = connection.getOutputStream()) {
+                    os.write(body, 0, body.length);
+                }
+                if (timer != null) {
+                    timer.sent(body.length);
+                }
+            }
+            int rc = connection.getResponseCode();
+            if (timer != null) {
+                timer.responded(rc);
+            }
+            InputStream is = rc >= BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+            if (timer != null) {
+                if (is == null) {
+                    timer.finish();
+                } else {
+                    is = timer.wrap(is);
+                }
+            }
+            completed = true;
+            return new ApiResponse(request, rc, connection.getHeaderFields(), is);
+        } finally {
+            if (!completed) {
+                abort(timer, connection);
+            }
+        }
+    }
+
+    /**
+     * Fail the way HttpURLConnection.getInputStream does for statuses of 400 and above.
+     */
+    private static ApiResponse checkStatus(ApiResponse response) throws IOException {
+        int rc = response.getStatus();
+        if (rc < BAD_REQUEST) {
+            return response;
+        }
+        IOUtils.closeQuietly(response.getBody());
+        String url = response.getRequest().getUrl();
+        if (rc == HttpURLConnection.HTTP_NOT_FOUND || rc == HttpURLConnection.HTTP_GONE) {
+            throw new FileNotFoundException(url);
+        }
+        throw new IOException("Server returned HTTP response code: " + rc + " for URL: " + url);
+    }
+
+    private class InterceptorChain implements RequestInterceptor.Chain {
+
+        private final int index;
+        private final ApiRequest request;
+
+        InterceptorChain(int index, ApiRequest request) {
+            this.index = index;
+            this.request = request;
         }
-        return is;
+
+        @Override
+        public ApiRequest request() {
+            return request;
+        }
+
+        @Override
+        public ApiResponse proceed() throws IOException {
+            if (index < interceptors.size()) {
+                return interceptors.get(index).intercept(new InterceptorChain(index + 1, request));
+            }
+            return send(request);
+        }
+    }
+
+    /**
+     * Open the connection explicitly when timing, so connect time is measured separately.
+     */
+    private static void connected(CallTimer timer, HttpURLConnection connection) throws IOException {
+        if (timer != null) {
+            connection.connect();
+            timer.connected();
+        }
+    }
+
+    /**
+     * Record a call that ended without returning a response body.
+     */
+    private static void abort(CallTimer timer, HttpURLConnection connection) {
+        if (timer == null) {
+            return;
+        }
+        if (timer.getStatus() == 0 && timer.getConnectNanos() >= 0) {
+            try {
+                timer.responded(connection.getResponseCode());
+            } catch (IOException e) {
+                // no response was received
+            }
+        }
+        timer.failed();
+        timer.finish();
+    }
+
+    /**
+     * @return the codec used to encode request bodies and decode responses
+     */
+    public JsonCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * @return the metrics this SDK records to, or null
+     */
+    public SdkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the runtime this SDK is attached to, or null
+     */
+    public ContrastRuntime getRuntime() {
+        return runtime;
+    }
+
+    /**
+     * Fill in the runtime's executor if the options do not name one.
+     */
+    BulkOptions bulkOptions(BulkOptions options) {
+        if (options.getExecutor() != null || runtime == null) {
+            return options;
+        }
+        return options.copy().withExecutor(runtime.getExecutor());
     }
 
     public HttpURLConnection makeConnection(String url, String method) throws IOException {
+        if (rateLimiter != null) {
+            try {
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rate limiter");
+            }
+        }
         HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection(this.proxy);
         connection.setRequestMethod(method);
         connection.setRequestProperty(RequestConstants.AUTHORIZATION, ContrastSDKUtils.makeAuthorizationToken(user, serviceKey));
@@ -1101,4 +1116,8 @@ public class ContrastSDK {
     private static final String DEFAULT_API_URL = "https://app.contrastsecurity.com/Contrast/api";
     private static final String LOCALHOST_API_URL = "http://localhost:19080/Contrast/api";
     private static final String DEFAULT_AGENT_PROFILE = "default";
+
+    private static final String CALL_TIMER = CallTimer.class.getName();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContrastSDK.class);
 }
@@ -0,0 +1,48 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.models.HttpRequest;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.TraceEvent;
+import com.contrastsecurity.models.TraceNoteResource;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A vulnerability with the details fetched by a {@link TraceEnrichmentPipeline}.
+ */
+public class EnrichedTrace {
+
+    private final TraceKey key;
+    private final Trace trace;
+    private final List<TraceNoteResource> notes;
+
+    public EnrichedTrace(TraceKey key, Trace trace, List<TraceNoteResource> notes) {
+        this.key = key;
+        this.trace = trace;
+        this.notes = notes == null ? Collections.<TraceNoteResource>emptyList() : notes;
+    }
+
+    public TraceKey getKey() {
+        return key;
+    }
+
+    /**
+     * @return the trace with the expanded details, or null if only notes were requested
+     */
+    public Trace getTrace() {
+        return trace;
+    }
+
+    public List<TraceEvent> getEvents() {
+        return trace == null || trace.getEvents() == null ? Collections.<TraceEvent>emptyList() : trace.getEvents();
+    }
+
+    public HttpRequest getRequest() {
+        return trace == null ? null : trace.getRequest();
+    }
+
+    public List<TraceNoteResource> getNotes() {
+        return notes;
+    }
+}
@@ -0,0 +1,261 @@
+package com.contrastsecurity.sdk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one task per key with bounded concurrency and an optional per-task deadline, collecting
+ * values and failures per key. Each task should read and close its own response before returning,
+ * so no response stream outlives the task that opened it.
+ */
+public final class FanOut {
+
+    /**
+     * A unit of work for one key.
+     */
+    public interface Task<K, V> {
+        V call(K key) throws Exception;
+    }
+
+    /**
+     * Receives each outcome as soon as its task completes, from the thread that completed it.
+     * Calls for different keys may be concurrent, so implementations must be thread-safe.
+     */
+    public interface Listener<K, V> {
+        void onResult(K key, V value);
+
+        void onError(K key, Exception error);
+    }
+
+    private FanOut() {
+    }
+
+    /**
+     * Run the task for every distinct key and wait until each one has completed, failed or timed out.
+     *
+     * @param keys    the keys to run the task for
+     * @param task    the task
+     * @param options parallelism, per-call deadline and executor
+     * @return the value or failure of every key
+     * @throws InterruptedException if the calling thread is interrupted while waiting; outstanding tasks are cancelled
+     */
+    public static <K, V> BulkResult<K, V> execute(Collection<? extends K> keys, Task<K, V> task, BulkOptions options)
+            throws InterruptedException {
+        return execute(keys, task, options, null);
+    }
+
+    /**
+     * Run the task for every distinct key, reporting each outcome to the listener as it arrives,
+     * and wait until each one has completed, failed or timed out. All listener calls have returned
+     * by the time this method returns.
+     *
+     * @param keys     the keys to run the task for
+     * @param task     the task
+     * @param options  parallelism, per-call deadline and executor
+     * @param listener receives outcomes in completion order, or null
+     * @return the value or failure of every key
+     * @throws InterruptedException if the calling thread is interrupted while waiting; outstanding tasks are cancelled
+     */
+    public static <K, V> BulkResult<K, V> execute(Collection<? extends K> keys, Task<K, V> task, BulkOptions options,
+                                                  Listener<K, V> listener) throws InterruptedException {
+        Set<K> distinctKeys = new LinkedHashSet<>(keys);
+        Batch<K, V> batch = new Batch<>(task, listener, options.getParallelism(), distinctKeys.size(), options.getCallTimeoutMillis());
+
+        ExecutorService executor = options.getExecutor();
+        boolean ownExecutor = executor == null;
+        if (ownExecutor) {
+            executor = Executors.newFixedThreadPool(Math.min(options.getParallelism(), Math.max(distinctKeys.size(), 1)), THREAD_FACTORY);
+        }
+        List<Future<?>> futures = new ArrayList<>(distinctKeys.size());
+        try {
+            for (K key : distinctKeys) {
+                batch.permits.acquire();
+                Batch<K, V>.Call call = batch.new Call(key);
+                try {
+                    futures.add(executor.submit(call));
+                } catch (RejectedExecutionException e) {
+                    batch.permits.release();
+                    call.reject(e);
+                }
+            }
+            batch.remaining.await();
+        } catch (InterruptedException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        } finally {
+            if (ownExecutor) {
+                executor.shutdownNow();
+            }
+            if (batch.timer != null) {
+                batch.timer.shutdownNow();
+            }
+        }
+
+        Map<K, V> results = new LinkedHashMap<>();
+        Map<K, Exception> errors = new LinkedHashMap<>();
+        for (K key : distinctKeys) {
+            Object outcome = batch.outcomes.get(key);
+            if (outcome instanceof Failure) {
+                errors.put(key, ((Failure) outcome).exception);
+            } else {
+                @SuppressWarnings("unchecked")
+                V value = outcome == NULL ? null : (V) outcome;
+                results.put(key, value);
+            }
+        }
+        return new BulkResult<>(results, errors);
+    }
+
+    /**
+     * Shared state of one execute() call.
+     */
+    private static final class Batch<K, V> {
+
+        private final Task<K, V> task;
+        private final Listener<K, V> listener;
+        private final Semaphore permits;
+        private final CountDownLatch remaining;
+        private final Map<K, Object> outcomes = new ConcurrentHashMap<>();
+        private final long timeoutMillis;
+        private final ScheduledExecutorService timer;
+
+        Batch(Task<K, V> task, Listener<K, V> listener, int parallelism, int size, long timeoutMillis) {
+            this.task = task;
+            this.listener = listener;
+            this.permits = new Semaphore(parallelism);
+            this.remaining = new CountDownLatch(size);
+            this.timeoutMillis = timeoutMillis;
+            this.timer = timeoutMillis > 0 ? Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY) : null;
+        }
+
+        /**
+         * Runs the task for one key. The first of the task and its deadline to finish records the
+         * outcome; the lock keeps a late deadline from interrupting the worker after it moved on.
+         * The permit is held until the task actually returns, even if its deadline passed first,
+         * so a task stuck in I/O still counts against the parallelism.
+         */
+        private final class Call implements Runnable {
+
+            private final K key;
+            private boolean done;
+
+            Call(K key) {
+                this.key = key;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    runTask();
+                } finally {
+                    permits.release();
+                }
+            }
+
+            synchronized void reject(RejectedExecutionException e) {
+                complete(new Failure(e));
+            }
+
+            private void runTask() {
+                final Thread worker = Thread.currentThread();
+                ScheduledFuture<?> deadline = null;
+                if (timer != null) {
+                    deadline = timer.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (Call.this) {
+                                if (complete(new Failure(new TimeoutException("Request for " + key + " exceeded " + timeoutMillis + " ms")))) {
+                                    worker.interrupt();
+                                }
+                            }
+                        }
+                    }, timeoutMillis, TimeUnit.MILLISECONDS);
+                }
+                Object outcome;
+                try {
+                    V value = task.call(key);
+                    outcome = value == null ? NULL : value;
+                } catch (Exception e) {
+                    outcome = new Failure(e);
+                } catch (Throwable t) {
+                    outcome = new Failure(new ExecutionException(t));
+                }
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+                synchronized (this) {
+                    if (!complete(outcome)) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+
+            private boolean complete(Object outcome) {
+                if (done) {
+                    return false;
+                }
+                done = true;
+                outcomes.put(key, outcome);
+                try {
+                    if (listener != null) {
+                        notify(outcome);
+                    }
+                } finally {
+                    remaining.countDown();
+                }
+                return true;
+            }
+
+            @SuppressWarnings("unchecked")
+            private void notify(Object outcome) {
+                if (outcome instanceof Failure) {
+                    listener.onError(key, ((Failure) outcome).exception);
+                } else {
+                    listener.onResult(key, outcome == NULL ? null : (V) outcome);
+                }
+            }
+        }
+    }
+
+    private static final class Failure {
+        private final Exception exception;
+
+        Failure(Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    private static final Object NULL = new Object();
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "contrast-sdk-bulk-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+}
@@ -0,0 +1,105 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.AssessLicenseOverview;
+import com.contrastsecurity.models.LibraryStats;
+import com.contrastsecurity.models.Organization;
+import com.contrastsecurity.models.Organizations;
+import com.contrastsecurity.models.VulnerabilityTrend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the same per-organization call against every organization of the user in parallel, e.g.
+ * to build an org-wide dashboard from getLibraryStats or getYearlyVulnTrend. Results are handed
+ * to a {@link FanOut.Listener} as each organization answers, so a slow organization does not
+ * hold back the others.
+ */
+public class OrganizationScatterGather {
+
+    /**
+     * A call made once per organization.
+     */
+    public interface OrganizationCall<V> {
+        V call(ContrastSDK sdk, Organization organization) throws Exception;
+    }
+
+    public static final OrganizationCall<LibraryStats> LIBRARY_STATS = new OrganizationCall<LibraryStats>() {
+        @Override
+        public LibraryStats call(ContrastSDK sdk, Organization organization) throws Exception {
+            return sdk.getLibraryStats(organization.getOrgUuid());
+        }
+    };
+
+    public static final OrganizationCall<VulnerabilityTrend> YEARLY_VULN_TREND = new OrganizationCall<VulnerabilityTrend>() {
+        @Override
+        public VulnerabilityTrend call(ContrastSDK sdk, Organization organization) throws Exception {
+            return sdk.getYearlyVulnTrend(organization.getOrgUuid());
+        }
+    };
+
+    public static final OrganizationCall<AssessLicenseOverview> ASSESS_LICENSING = new OrganizationCall<AssessLicenseOverview>() {
+        @Override
+        public AssessLicenseOverview call(ContrastSDK sdk, Organization organization) throws Exception {
+            return sdk.getAssessLicensing(organization.getOrgUuid());
+        }
+    };
+
+    private final ContrastSDK sdk;
+
+    public OrganizationScatterGather(ContrastSDK sdk) {
+        this.sdk = sdk;
+    }
+
+    /**
+     * Run the call against every organization returned by getProfileOrganizations.
+     *
+     * @param call     the per-organization call
+     * @param options  how many organizations are queried at once, the per-organization deadline and the executor
+     * @param listener receives each organization's outcome as it arrives, or null
+     * @return the value or failure of every organization, keyed by organization in profile order
+     * @throws IOException           if the organizations could not be listed
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws InterruptedException  if the calling thread is interrupted while waiting
+     */
+    public <V> BulkResult<Organization, V> execute(OrganizationCall<V> call, BulkOptions options,
+                                                   FanOut.Listener<Organization, V> listener)
+            throws IOException, UnauthorizedException, InterruptedException {
+        Organizations organizations = sdk.getProfileOrganizations();
+        List<Organization> list = organizations == null || organizations.getOrganizations() == null
+                ? Collections.<Organization>emptyList() : organizations.getOrganizations();
+        return execute(list, call, options, listener);
+    }
+
+    /**
+     * Run the call against the given organizations. Organizations with the same UUID are queried once.
+     *
+     * @param organizations the organizations to query
+     * @param call          the per-organization call
+     * @param options       how many organizations are queried at once, the per-organization deadline and the executor
+     * @param listener      receives each organization's outcome as it arrives, or null
+     * @return the value or failure of every organization, keyed by organization in the given order
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public <V> BulkResult<Organization, V> execute(List<Organization> organizations, final OrganizationCall<V> call,
+                                                   BulkOptions options, FanOut.Listener<Organization, V> listener)
+            throws InterruptedException {
+        Map<String, Organization> byUuid = new LinkedHashMap<>();
+        for (Organization organization : organizations) {
+            if (!byUuid.containsKey(organization.getOrgUuid())) {
+                byUuid.put(organization.getOrgUuid(), organization);
+            }
+        }
+        return FanOut.execute(new ArrayList<>(byUuid.values()), new FanOut.Task<Organization, V>() {
+            @Override
+            public V call(Organization organization) throws Exception {
+                return call.call(sdk, organization);
+            }
+        }, sdk.bulkOptions(options), listener);
+    }
+}
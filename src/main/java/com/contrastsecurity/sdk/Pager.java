@@ -0,0 +1,171 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.ApplicationFilterForm;
+import com.contrastsecurity.http.ServerFilterForm;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.models.Application;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.Server;
+import com.contrastsecurity.models.Servers;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a listing page by page through its limit and offset parameters, so that only one page
+ * is held in memory however large the organization is. The listing ends once the total reported
+ * with {@link #setTotal(Integer)} has been read, or with the first empty page if no total is known;
+ * a short page does not end it, since the server may cap the limit below the page size.
+ * <p>
+ * The factory methods overwrite the limit and offset of the form they are given; the form
+ * should not be shared while the pager is in use. A pager is not thread-safe.
+ *
+ * @param <T> the type of the listed items
+ */
+public abstract class Pager<T> {
+
+    private final int pageSize;
+    private int offset;
+    private int total = -1;
+    private boolean done;
+
+    protected Pager(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Fetch the next page.
+     *
+     * @return the items of the page, or null once the listing is exhausted
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem
+     */
+    public List<T> next() throws IOException, UnauthorizedException {
+        if (done) {
+            return null;
+        }
+        List<T> page = fetch(offset, pageSize);
+        if (page == null) {
+            page = Collections.emptyList();
+        }
+        offset += page.size();
+        if (page.isEmpty() || total >= 0 && offset >= total) {
+            done = true;
+        }
+        return page.isEmpty() ? null : page;
+    }
+
+    /**
+     * Record the total size of the listing, as reported with a page.
+     *
+     * @param total the number of items in the listing, or null if the server did not report it
+     */
+    protected void setTotal(Integer total) {
+        if (total != null && total >= 0) {
+            this.total = total;
+        }
+    }
+
+    /**
+     * @return the number of items read so far
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Fetch one page of the listing.
+     *
+     * @param offset the number of items to skip
+     * @param limit  the maximum number of items to return
+     * @return the items, null or empty at the end of the listing
+     */
+    protected abstract List<T> fetch(int offset, int limit) throws IOException, UnauthorizedException;
+
+    /**
+     * Page through the vulnerabilities of an organization.
+     *
+     * @param sdk            the SDK to fetch with
+     * @param organizationId the ID of the organization
+     * @param form           the filter, or null for all vulnerabilities
+     * @param pageSize       the number of traces per request
+     * @return a pager over getTracesInOrg
+     */
+    public static Pager<Trace> traces(final ContrastSDK sdk, final String organizationId, TraceFilterForm form, int pageSize) {
+        final TraceFilterForm filter = form == null ? new TraceFilterForm() : form;
+        return new Pager<Trace>(pageSize) {
+            @Override
+            protected List<Trace> fetch(int offset, int limit) throws IOException, UnauthorizedException {
+                filter.setOffset(offset);
+                filter.setLimit(limit);
+                Traces page = sdk.getTracesInOrg(organizationId, filter);
+                if (page == null) {
+                    return null;
+                }
+                setTotal(page.getCount());
+                return page.getTraces();
+            }
+        };
+    }
+
+    /**
+     * Page through the applications of an organization.
+     *
+     * @param sdk            the SDK to fetch with
+     * @param organizationId the ID of the organization
+     * @param form           the filter, or null for all applications
+     * @param pageSize       the number of applications per request
+     * @return a pager over getFilteredApplications
+     */
+    public static Pager<Application> applications(final ContrastSDK sdk, final String organizationId, ApplicationFilterForm form, int pageSize) {
+        final ApplicationFilterForm filter = form == null ? new ApplicationFilterForm() : form;
+        return new Pager<Application>(pageSize) {
+            @Override
+            protected List<Application> fetch(int offset, int limit) throws IOException, UnauthorizedException {
+                filter.setOffset(offset);
+                filter.setLimit(limit);
+                Applications page = sdk.getFilteredApplications(organizationId, filter);
+                if (page == null) {
+                    return null;
+                }
+                setTotal(page.getCount());
+                return page.getApplications();
+            }
+        };
+    }
+
+    /**
+     * Page through the servers of an organization.
+     *
+     * @param sdk            the SDK to fetch with
+     * @param organizationId the ID of the organization
+     * @param form           the filter, or null for all servers
+     * @param pageSize       the number of servers per request
+     * @return a pager over getServers
+     */
+    public static Pager<Server> servers(final ContrastSDK sdk, final String organizationId, ServerFilterForm form, int pageSize) {
+        final ServerFilterForm filter = form == null ? new ServerFilterForm() : form;
+        return new Pager<Server>(pageSize) {
+            @Override
+            protected List<Server> fetch(int offset, int limit) throws IOException, UnauthorizedException {
+                filter.setOffset(offset);
+                filter.setLimit(limit);
+                Servers page = sdk.getServers(organizationId, filter);
+                return page == null ? null : page.getServers();
+            }
+        };
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+}
@@ -0,0 +1,46 @@
+package com.contrastsecurity.sdk;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking rate limiter that spaces requests evenly while allowing a short burst. Callers
+ * reserve a slot under a lock and sleep outside of it, so waiting threads do not block
+ * each other.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private long nextSlotNanos;
+
+    /**
+     * @param permitsPerSecond the sustained request rate
+     * @param burst            the number of requests that may be made back to back after an idle period
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.nextSlotNanos = System.nanoTime();
+    }
+
+    /**
+     * Wait until a request may be made.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve(System.nanoTime());
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private synchronized long reserve(long now) {
+        long slot = Math.max(nextSlotNanos, now);
+        nextSlotNanos = slot + intervalNanos;
+        return slot - toleranceNanos - now;
+    }
+}
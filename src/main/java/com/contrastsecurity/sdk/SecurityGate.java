@@ -0,0 +1,92 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.analytics.JobOutcomePolicyEvaluator;
+import com.contrastsecurity.analytics.VulnerabilityAggregator;
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.SecurityCheckForm;
+import com.contrastsecurity.models.Trace;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides security checks for the builds of many applications, evaluating each application's
+ * job outcome policies locally and calling makeSecurityCheck only when the local data cannot
+ * decide. Policies are fetched once per application and cached until invalidated.
+ */
+public class SecurityGate {
+
+    private final ContrastSDK sdk;
+    private final String organizationId;
+    private final ConcurrentMap<String, JobOutcomePolicyEvaluator> evaluators = new ConcurrentHashMap<>();
+
+    public SecurityGate(ContrastSDK sdk, String organizationId) {
+        this.sdk = sdk;
+        this.organizationId = organizationId;
+    }
+
+    /**
+     * Check an application against the counts of an aggregator.
+     *
+     * @param appId      the application
+     * @param aggregator the aggregator holding the application's traces
+     * @return the local result, or the server's if the counts could not decide it
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem
+     */
+    public JobOutcomePolicyEvaluator.Result check(String appId, VulnerabilityAggregator aggregator) throws IOException, UnauthorizedException {
+        JobOutcomePolicyEvaluator.Result result = evaluator(appId).evaluate(aggregator, appId);
+        return result.getVerdict() == JobOutcomePolicyEvaluator.Verdict.UNDECIDED ? checkOnServer(appId) : result;
+    }
+
+    /**
+     * Check an application against its traces, e.g. streamed from a trace listing.
+     *
+     * @param appId  the application
+     * @param traces every trace of the application
+     * @return the local result
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem
+     */
+    public JobOutcomePolicyEvaluator.Result check(String appId, Iterable<Trace> traces) throws IOException, UnauthorizedException {
+        return evaluator(appId).evaluate(traces);
+    }
+
+    /**
+     * Make the security check on TeamServer.
+     *
+     * @param appId the application
+     * @return the server's result
+     * @throws UnauthorizedException if the Contrast account failed to authorize
+     * @throws IOException           if there was a communication problem
+     */
+    public JobOutcomePolicyEvaluator.Result checkOnServer(String appId) throws IOException, UnauthorizedException {
+        return JobOutcomePolicyEvaluator.Result.of(sdk.makeSecurityCheck(organizationId, new SecurityCheckForm(appId)));
+    }
+
+    /**
+     * Drop the cached policies of an application, e.g. after policies were edited.
+     *
+     * @param appId the application, or null for every application
+     */
+    public void invalidate(String appId) {
+        if (appId == null) {
+            evaluators.clear();
+        } else {
+            evaluators.remove(appId);
+        }
+    }
+
+    private JobOutcomePolicyEvaluator evaluator(String appId) throws IOException, UnauthorizedException {
+        JobOutcomePolicyEvaluator evaluator = evaluators.get(appId);
+        if (evaluator == null) {
+            evaluator = new JobOutcomePolicyEvaluator(sdk.getEnabledJoboutcomePoliciesByApplication(organizationId, appId));
+            JobOutcomePolicyEvaluator existing = evaluators.putIfAbsent(appId, evaluator);
+            if (existing != null) {
+                evaluator = existing;
+            }
+        }
+        return evaluator;
+    }
+}
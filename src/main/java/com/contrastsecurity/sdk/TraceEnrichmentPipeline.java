@@ -0,0 +1,302 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.TraceNotesResponse;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches events, HTTP request and notes for a stream of vulnerabilities with bounded parallelism.
+ * <p>
+ * Keys are pulled from the input iterator only when a slot is free, so the input may be a lazily
+ * paged listing of any size. Events and request are fetched together with one expanded getTrace
+ * call; notes come from getNotes. Records are passed to the listener on the calling thread, either
+ * in completion order or, if ordered, in input order. In ordered mode a record that finished early
+ * keeps its slot until it is emitted, so at most {@code parallelism} records are fetched or buffered
+ * at any time.
+ * <p>
+ * The per-trace deadline runs from the moment a fetch starts executing, not from its submission, so
+ * fetches queued on a busy executor do not expire before they run. An expired fetch is reported as a
+ * {@link TimeoutException} and cancelled, which interrupts its thread; it keeps its slot until it
+ * actually returns.
+ */
+public class TraceEnrichmentPipeline {
+
+    /**
+     * The details to fetch for each trace.
+     */
+    public enum Part {
+        EVENTS, REQUEST, NOTES
+    }
+
+    public static class Builder {
+        private final ContrastSDK sdk;
+        private final String organizationId;
+        private EnumSet<Part> parts = EnumSet.allOf(Part.class);
+        private BulkOptions options = new BulkOptions();
+        private boolean ordered;
+
+        public Builder(ContrastSDK sdk, String organizationId) {
+            this.sdk = sdk;
+            this.organizationId = organizationId;
+        }
+
+        public Builder withParts(EnumSet<Part> parts) {
+            if (parts.isEmpty()) {
+                throw new IllegalArgumentException("At least one part is required");
+            }
+            this.parts = EnumSet.copyOf(parts);
+            return this;
+        }
+
+        /**
+         * @param options parallelism, per-trace deadline and executor
+         * @return this builder
+         */
+        public Builder withOptions(BulkOptions options) {
+            this.options = options;
+            return this;
+        }
+
+        /**
+         * @param ordered true to emit records in input order instead of completion order
+         * @return this builder
+         */
+        public Builder withOrdered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        public TraceEnrichmentPipeline build() {
+            return new TraceEnrichmentPipeline(this);
+        }
+    }
+
+    private final ContrastSDK sdk;
+    private final String organizationId;
+    private final EnumSet<TraceFilterForm.TraceExpandValue> expand;
+    private final boolean fetchNotes;
+    private final BulkOptions options;
+    private final boolean ordered;
+
+    private TraceEnrichmentPipeline(Builder builder) {
+        this.sdk = builder.sdk;
+        this.organizationId = builder.organizationId;
+        this.expand = EnumSet.noneOf(TraceFilterForm.TraceExpandValue.class);
+        if (builder.parts.contains(Part.EVENTS)) {
+            expand.add(TraceFilterForm.TraceExpandValue.EVENTS);
+        }
+        if (builder.parts.contains(Part.REQUEST)) {
+            expand.add(TraceFilterForm.TraceExpandValue.REQUEST);
+        }
+        this.fetchNotes = builder.parts.contains(Part.NOTES);
+        this.options = builder.sdk.bulkOptions(builder.options);
+        this.ordered = builder.ordered;
+    }
+
+    /**
+     * Enrich every key from the input and pass each record or failure to the listener. Returns once
+     * the input is exhausted and every record has been emitted.
+     *
+     * @param keys     the traces to enrich
+     * @param listener receives records and per-trace failures on the calling thread
+     * @throws InterruptedException if the calling thread is interrupted; outstanding fetches are cancelled
+     */
+    public void run(Iterator<TraceKey> keys, FanOut.Listener<TraceKey, EnrichedTrace> listener) throws InterruptedException {
+        ExecutorService executor = options.getExecutor();
+        boolean ownExecutor = executor == null;
+        if (ownExecutor) {
+            executor = Executors.newFixedThreadPool(options.getParallelism(), THREAD_FACTORY);
+        }
+        BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        Map<Long, Pending> pending = new LinkedHashMap<>();
+        Map<Long, Completion> reorderBuffer = new HashMap<>();
+        Set<Long> abandoned = new HashSet<>();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(options.getCallTimeoutMillis());
+        long nextSequence = 0;
+        long nextToEmit = 0;
+        int slots = options.getParallelism();
+        try {
+            while (true) {
+                while (slots > 0 && keys.hasNext()) {
+                    TraceKey key = keys.next();
+                    long sequence = nextSequence++;
+                    Fetch fetch = new Fetch(sequence, key, completions);
+                    pending.put(sequence, new Pending(key, fetch, executor.submit(fetch)));
+                    slots--;
+                }
+                if (pending.isEmpty() && reorderBuffer.isEmpty() && (abandoned.isEmpty() || !keys.hasNext())) {
+                    break;
+                }
+
+                Completion completion;
+                if (timeoutNanos > 0 && !pending.isEmpty()) {
+                    // fetches that have not started yet are rechecked after a full timeout at the latest
+                    long now = System.nanoTime();
+                    long wait = timeoutNanos;
+                    for (Pending p : pending.values()) {
+                        if (p.fetch.started) {
+                            wait = Math.min(wait, p.fetch.startNanos + timeoutNanos - now);
+                        }
+                    }
+                    completion = wait > 0 ? completions.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (completion == null) {
+                        expire(pending, reorderBuffer, abandoned, timeoutNanos);
+                    }
+                } else if (!pending.isEmpty() || !abandoned.isEmpty()) {
+                    completion = completions.take();
+                } else {
+                    completion = null;
+                }
+                if (completion != null) {
+                    if (pending.remove(completion.sequence) != null) {
+                        reorderBuffer.put(completion.sequence, completion);
+                    } else if (abandoned.remove(completion.sequence)) {
+                        // an expired fetch has returned and gives back its slot
+                        slots++;
+                    }
+                }
+
+                if (ordered) {
+                    Completion next;
+                    while ((next = reorderBuffer.remove(nextToEmit)) != null) {
+                        emit(next, listener);
+                        nextToEmit++;
+                        if (!next.expired) {
+                            slots++;
+                        }
+                    }
+                } else {
+                    for (Completion done : reorderBuffer.values()) {
+                        emit(done, listener);
+                        if (!done.expired) {
+                            slots++;
+                        }
+                    }
+                    reorderBuffer.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Pending p : pending.values()) {
+                p.future.cancel(true);
+            }
+            throw e;
+        } finally {
+            if (ownExecutor) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private void expire(Map<Long, Pending> pending, Map<Long, Completion> reorderBuffer, Set<Long> abandoned, long timeoutNanos) {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Long, Pending>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Pending> entry = it.next();
+            Pending expired = entry.getValue();
+            if (expired.fetch.started && now - expired.fetch.startNanos >= timeoutNanos) {
+                it.remove();
+                abandoned.add(entry.getKey());
+                expired.future.cancel(true);
+                reorderBuffer.put(entry.getKey(), new Completion(entry.getKey(), expired.key, null,
+                        new TimeoutException("Enriching " + expired.key + " exceeded " + options.getCallTimeoutMillis() + " ms"), true));
+            }
+        }
+    }
+
+    private static void emit(Completion completion, FanOut.Listener<TraceKey, EnrichedTrace> listener) {
+        if (completion.error != null) {
+            listener.onError(completion.key, completion.error);
+        } else {
+            listener.onResult(completion.key, completion.record);
+        }
+    }
+
+    private final class Fetch implements Callable<Void> {
+        private final long sequence;
+        private final TraceKey key;
+        private final BlockingQueue<Completion> completions;
+        private long startNanos;
+        private volatile boolean started;
+
+        Fetch(long sequence, TraceKey key, BlockingQueue<Completion> completions) {
+            this.sequence = sequence;
+            this.key = key;
+            this.completions = completions;
+        }
+
+        @Override
+        public Void call() {
+            startNanos = System.nanoTime();
+            started = true;
+            Completion completion;
+            try {
+                Trace trace = expand.isEmpty() ? null : sdk.getTrace(organizationId, key.getAppId(), key.getTraceUuid(), expand);
+                TraceNotesResponse notes = fetchNotes ? sdk.getNotes(organizationId, key.getAppId(), key.getTraceUuid(), null) : null;
+                completion = new Completion(sequence, key, new EnrichedTrace(key, trace, notes == null ? null : notes.getNotes()), null, false);
+            } catch (Exception e) {
+                completion = new Completion(sequence, key, null, e, false);
+            } catch (Throwable t) {
+                completion = new Completion(sequence, key, null, new ExecutionException(t), false);
+            }
+            completions.add(completion);
+            return null;
+        }
+    }
+
+    private static final class Pending {
+        private final TraceKey key;
+        private final Fetch fetch;
+        private final Future<?> future;
+
+        Pending(TraceKey key, Fetch fetch, Future<?> future) {
+            this.key = key;
+            this.fetch = fetch;
+            this.future = future;
+        }
+    }
+
+    private static final class Completion {
+        private final long sequence;
+        private final TraceKey key;
+        private final EnrichedTrace record;
+        private final Exception error;
+        private final boolean expired;
+
+        Completion(long sequence, TraceKey key, EnrichedTrace record, Exception error, boolean expired) {
+            this.sequence = sequence;
+            this.key = key;
+            this.record = record;
+            this.error = error;
+            this.expired = expired;
+        }
+    }
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "contrast-sdk-enrichment-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+}
@@ -0,0 +1,62 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.models.Trace;
+
+/**
+ * Identifies a vulnerability by the application it belongs to and its UUID.
+ */
+public final class TraceKey {
+
+    private final String appId;
+    private final String traceUuid;
+
+    public TraceKey(String appId, String traceUuid) {
+        if (appId == null || traceUuid == null) {
+            throw new IllegalArgumentException("Application ID and trace UUID are required");
+        }
+        this.appId = appId;
+        this.traceUuid = traceUuid;
+    }
+
+    /**
+     * Create a key for a trace returned by a trace listing, using its application or, for
+     * merged applications, its parent application.
+     *
+     * @param trace a listed trace
+     * @return the key of the trace
+     */
+    public static TraceKey of(Trace trace) {
+        String appId = trace.getApplication() != null ? trace.getApplication().getId() : trace.getParentApplicationId();
+        return new TraceKey(appId, trace.getUuid());
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getTraceUuid() {
+        return traceUuid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TraceKey)) {
+            return false;
+        }
+        TraceKey other = (TraceKey) o;
+        return appId.equals(other.appId) && traceUuid.equals(other.traceUuid);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * appId.hashCode() + traceUuid.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return appId + "/" + traceUuid;
+    }
+}
@@ -0,0 +1,89 @@
+package com.contrastsecurity.sdk;
+
+import com.contrastsecurity.analytics.TrendSeries;
+import com.contrastsecurity.models.VulnerabilityTrend;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches the yearly vulnerability trend of many applications with bounded concurrency and sums
+ * them into one open and one closed {@link TrendSeries}. Each response is converted to primitive
+ * arrays on the thread that fetched it, so the nested model objects of only a few responses are
+ * alive at once.
+ */
+public class TrendFetcher {
+
+    /**
+     * The summed trends of the applications that could be fetched.
+     */
+    public static class Trends {
+        private final TrendSeries open;
+        private final TrendSeries closed;
+        private final int applicationCount;
+        private final Map<String, Exception> errors;
+
+        Trends(TrendSeries open, TrendSeries closed, int applicationCount, Map<String, Exception> errors) {
+            this.open = open;
+            this.closed = closed;
+            this.applicationCount = applicationCount;
+            this.errors = errors;
+        }
+
+        public TrendSeries getOpen() {
+            return open;
+        }
+
+        public TrendSeries getClosed() {
+            return closed;
+        }
+
+        /**
+         * @return the number of applications included in the sums
+         */
+        public int getApplicationCount() {
+            return applicationCount;
+        }
+
+        /**
+         * @return the failure of every application that is not included, keyed by app ID
+         */
+        public Map<String, Exception> getErrors() {
+            return errors;
+        }
+    }
+
+    private final ContrastSDK sdk;
+
+    public TrendFetcher(ContrastSDK sdk) {
+        this.sdk = sdk;
+    }
+
+    /**
+     * @param organizationId the ID of the organization
+     * @param appIds         the applications; duplicates are fetched once
+     * @param options        parallelism, per-request deadline and executor
+     * @return the summed trends and the per-application failures
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Trends fetch(final String organizationId, Collection<String> appIds, BulkOptions options) throws InterruptedException {
+        BulkResult<String, TrendSeries[]> result = FanOut.execute(appIds, new FanOut.Task<String, TrendSeries[]>() {
+            @Override
+            public TrendSeries[] call(String appId) throws Exception {
+                VulnerabilityTrend trend = sdk.getYearlyVulnTrendForApplication(organizationId, appId);
+                return trend == null ? new TrendSeries[]{TrendSeries.EMPTY, TrendSeries.EMPTY}
+                        : new TrendSeries[]{TrendSeries.of(trend.getOpenTrend()), TrendSeries.of(trend.getClosedTrend())};
+            }
+        }, sdk.bulkOptions(options));
+
+        List<TrendSeries> open = new ArrayList<>(result.getResults().size());
+        List<TrendSeries> closed = new ArrayList<>(result.getResults().size());
+        for (TrendSeries[] series : result.getResults().values()) {
+            open.add(series[0]);
+            closed.add(series[1]);
+        }
+        return new Trends(TrendSeries.sum(open), TrendSeries.sum(closed), open.size(), result.getErrors());
+    }
+}
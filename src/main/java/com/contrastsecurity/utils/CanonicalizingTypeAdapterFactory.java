@@ -0,0 +1,95 @@
+package com.contrastsecurity.utils;
+
+import com.contrastsecurity.models.Application;
+import com.contrastsecurity.models.Library;
+import com.contrastsecurity.models.Server;
+import com.contrastsecurity.models.Trace;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gson factory that routes the low-cardinality String fields of the larger models
+ * (severity, status, rule, environment, ...) through a {@link StringPool} after decoding,
+ * so that large result sets share one instance per distinct value.
+ */
+public class CanonicalizingTypeAdapterFactory implements TypeAdapterFactory {
+
+    private final StringPool pool;
+    private final Map<Class<?>, Field[]> canonicalFields;
+
+    public CanonicalizingTypeAdapterFactory(StringPool pool) {
+        this.pool = pool;
+        this.canonicalFields = new HashMap<>();
+        register(Trace.class, "severity", "status", "subStatus", "language", "rule", "category",
+                "likelihood", "impact", "confidence", "platform");
+        register(Server.class, "environment", "agentVersion", "status", "type", "container", "logLevel");
+        register(Library.class, "grade", "appLanguage");
+        register(Application.class, "language", "status");
+    }
+
+    public StringPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        final Field[] fields = canonicalFields.get(type.getRawType());
+        if (fields == null) {
+            return null;
+        }
+        final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                T value = delegate.read(in);
+                if (value != null) {
+                    canonicalize(value, fields);
+                }
+                return value;
+            }
+        };
+    }
+
+    private void canonicalize(Object target, Field[] fields) {
+        try {
+            for (Field field : fields) {
+                String value = (String) field.get(target);
+                if (value != null) {
+                    field.set(target, pool.intern(value));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to canonicalize " + target.getClass().getName(), e);
+        }
+    }
+
+    private void register(Class<?> type, String... fieldNames) {
+        List<Field> fields = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                fields.add(field);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("Missing field " + type.getName() + "." + fieldName, e);
+            }
+        }
+        canonicalFields.put(type, fields.toArray(new Field[fields.size()]));
+    }
+}
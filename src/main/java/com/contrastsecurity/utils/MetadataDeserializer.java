@@ -8,6 +8,11 @@ import com.google.gson.*;
 
 import java.lang.reflect.Type;
 
+/**
+ * @deprecated builds a JsonElement tree for every entity; register
+ * {@link MetadataEntityTypeAdapter#FACTORY} instead.
+ */
+@Deprecated
 public class MetadataDeserializer implements JsonDeserializer<MetadataEntity> {
     @Override
     public MetadataEntity deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
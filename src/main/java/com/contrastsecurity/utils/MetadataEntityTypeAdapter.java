@@ -0,0 +1,182 @@
+package com.contrastsecurity.utils;
+
+import com.contrastsecurity.models.FreeformMetadata;
+import com.contrastsecurity.models.MetadataEntity;
+import com.contrastsecurity.models.NumericMetadata;
+import com.contrastsecurity.models.PointOfContactMetadata;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Streaming adapter for {@link MetadataEntity} that reads an entry field by field and picks the
+ * concrete type from its "type" field, without building an intermediate JsonElement tree.
+ * Register it with {@link #FACTORY}; entities are written with the adapter of their runtime type.
+ */
+public class MetadataEntityTypeAdapter extends TypeAdapter<MetadataEntity> {
+
+    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            return type.getRawType() == MetadataEntity.class ? (TypeAdapter<T>) new MetadataEntityTypeAdapter(gson) : null;
+        }
+    };
+
+    private final Gson gson;
+
+    public MetadataEntityTypeAdapter(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(JsonWriter out, MetadataEntity value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        TypeAdapter<MetadataEntity> adapter = (TypeAdapter<MetadataEntity>) gson.getAdapter(value.getClass());
+        adapter.write(out, value);
+    }
+
+    @Override
+    public MetadataEntity read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String type = null;
+        String fieldName = null;
+        String fieldValue = null;
+        PointOfContactMetadata contact = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type":
+                    type = nextString(in);
+                    break;
+                case "fieldName":
+                    fieldName = nextString(in);
+                    break;
+                case "fieldValue":
+                    fieldValue = nextString(in);
+                    break;
+                case "subfields":
+                    contact = readSubfields(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "STRING":
+                FreeformMetadata freeform = new FreeformMetadata();
+                freeform.setFieldName(fieldName);
+                freeform.setFieldValue(fieldValue);
+                return freeform;
+            case "NUMERIC":
+                NumericMetadata numeric = new NumericMetadata();
+                numeric.setFieldName(fieldName);
+                numeric.setFieldValue(parseLong(fieldValue));
+                return numeric;
+            case "PERSON_OF_CONTACT":
+                if (contact == null) {
+                    contact = new PointOfContactMetadata();
+                }
+                contact.setFieldName(fieldName);
+                return contact;
+            default:
+                return null;
+        }
+    }
+
+    private static PointOfContactMetadata readSubfields(JsonReader in) throws IOException {
+        PointOfContactMetadata contact = new PointOfContactMetadata();
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return contact;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            String type = null;
+            String fieldValue = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "type":
+                        type = nextString(in);
+                        break;
+                    case "fieldValue":
+                        fieldValue = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            if (type != null) {
+                switch (type) {
+                    case "CONTACT_NAME":
+                        contact.setContactName(fieldValue);
+                        break;
+                    case "EMAIL":
+                        contact.setEmail(fieldValue);
+                        break;
+                    case "PHONE":
+                        contact.setPhoneNo(fieldValue);
+                        break;
+                }
+            }
+        }
+        in.endArray();
+        return contact;
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(in.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return in.nextString();
+            default:
+                throw new JsonSyntaxException("Expected a metadata value but was " + in.peek() + " at " + in.getPath());
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            try {
+                return new BigDecimal(value.trim()).longValueExact();
+            } catch (ArithmeticException | NumberFormatException inner) {
+                throw new JsonSyntaxException("Invalid numeric metadata value: " + value, inner);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.contrastsecurity.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded, thread-safe intern table for low-cardinality strings such as severities,
+ * statuses and rule names. Once the table is full, unseen values are returned as-is
+ * instead of being added, so the pool never grows past its configured size.
+ */
+public class StringPool {
+
+    private final ConcurrentHashMap<String, String> table;
+    private final int maxEntries;
+    private final int maxLength;
+
+    public StringPool() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param maxEntries the maximum number of distinct values held by the pool
+     * @param maxLength  values longer than this are never pooled
+     */
+    public StringPool(int maxEntries, int maxLength) {
+        if (maxEntries <= 0 || maxLength <= 0) {
+            throw new IllegalArgumentException("maxEntries and maxLength must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxLength = maxLength;
+        this.table = new ConcurrentHashMap<>(Math.min(maxEntries, 256));
+    }
+
+    /**
+     * Return the canonical instance equal to the given value.
+     *
+     * @param value the value to canonicalize, may be null
+     * @return the pooled instance, or the value itself if it cannot be pooled
+     */
+    public String intern(String value) {
+        if (value == null || value.length() > maxLength) {
+            return value;
+        }
+        String canonical = table.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (table.size() >= maxEntries) {
+            return value;
+        }
+        canonical = table.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    /**
+     * @return the number of distinct values currently pooled
+     */
+    public int size() {
+        return table.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final int DEFAULT_MAX_LENGTH = 128;
+}
@@ -0,0 +1,171 @@
+package com.contrastsecurity.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Reader that decodes UTF-8 straight from an InputStream through a pooled byte buffer.
+ * <p>
+ * Unlike InputStreamReader it never uses the platform charset, does not lock on every
+ * read and copies runs of ASCII bytes without going through a CharsetDecoder. Malformed
+ * or truncated sequences decode to U+FFFD. The buffer is returned to the pool and the
+ * stream closed when the reader is closed.
+ */
+public class Utf8Reader extends Reader {
+
+    private final InputStream in;
+    private final ByteArrayPool pool;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private char pendingLowSurrogate;
+
+    public Utf8Reader(InputStream in, ByteArrayPool pool) {
+        this.in = in;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+        if (buffer.length < 4) {
+            throw new IllegalArgumentException("Buffer too small for a UTF-8 sequence");
+        }
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (buffer == null) {
+            throw new IOException("Reader closed");
+        }
+        if (offset < 0 || length < 0 || length > chars.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return 0;
+        }
+        int n = offset;
+        int end = offset + length;
+        if (pendingLowSurrogate != 0) {
+            chars[n++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+        while (n < end) {
+            if (position >= limit) {
+                if (n > offset || !fill()) {
+                    break;
+                }
+            }
+            byte[] bytes = buffer;
+            if (bytes[position] >= 0) {
+                int max = position + Math.min(limit - position, end - n);
+                while (position < max && bytes[position] >= 0) {
+                    chars[n++] = (char) bytes[position++];
+                }
+                continue;
+            }
+
+            int lead = bytes[position] & 0xFF;
+            int continuation = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : 1;
+            if (lead < 0xC2 || lead > 0xF4) {
+                position++;
+                chars[n++] = REPLACEMENT;
+                continue;
+            }
+            if (limit - position <= continuation && !require(continuation + 1)) {
+                // the stream ends inside the sequence: replace what there is of it and decode the rest
+                position++;
+                while (position < limit && (buffer[position] & 0xC0) == 0x80) {
+                    position++;
+                }
+                chars[n++] = REPLACEMENT;
+                continue;
+            }
+            int codePoint = lead & (0x3F >> continuation);
+            boolean valid = true;
+            for (int i = 1; i <= continuation; i++) {
+                int b = buffer[position + i];
+                if ((b & 0xC0) != 0x80) {
+                    valid = false;
+                    break;
+                }
+                codePoint = (codePoint << 6) | (b & 0x3F);
+            }
+            if (!valid || !inRange(codePoint, continuation)) {
+                position++;
+                chars[n++] = REPLACEMENT;
+                continue;
+            }
+            position += continuation + 1;
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                chars[n++] = (char) codePoint;
+            } else {
+                chars[n++] = Character.highSurrogate(codePoint);
+                if (n < end) {
+                    chars[n++] = Character.lowSurrogate(codePoint);
+                } else {
+                    pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                }
+            }
+        }
+        return n == offset ? -1 : n - offset;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return buffer != null && (pendingLowSurrogate != 0 || position < limit || in.available() > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+            in.close();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = 0;
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Ensure at least {@code count} unread bytes are buffered, compacting the buffer first.
+     *
+     * @return false if the stream ended before enough bytes were read
+     */
+    private boolean require(int count) throws IOException {
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        while (limit < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private static boolean inRange(int codePoint, int continuation) {
+        switch (continuation) {
+            case 1:
+                return true;
+            case 2:
+                return codePoint >= 0x800 && (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE);
+            default:
+                return codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT && codePoint <= Character.MAX_CODE_POINT;
+        }
+    }
+
+    private static final char REPLACEMENT = '\uFFFD';
+}
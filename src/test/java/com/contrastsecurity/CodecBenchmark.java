@@ -0,0 +1,37 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.codec.JacksonCodec;
+import com.contrastsecurity.codec.JsonCodec;
+import com.contrastsecurity.models.Traces;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Compares decoding throughput of the {@link JsonCodec} implementations on the same
+ * multi-megabyte traces response. Arguments: number of traces.
+ */
+public class CodecBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int traceCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        byte[] json = Utf8DecodingBenchmark.generate(traceCount);
+        JsonCodec[] codecs = {new GsonCodec(), new JacksonCodec()};
+
+        System.out.printf("%d traces, %.1f MB%n", traceCount, json.length / 1e6);
+        for (int iteration = 0; iteration < 10; iteration++) {
+            StringBuilder line = new StringBuilder();
+            for (JsonCodec codec : codecs) {
+                long start = System.nanoTime();
+                Traces traces = codec.decode(new ByteArrayInputStream(json), Traces.class);
+                long nanos = System.nanoTime() - start;
+                if (traces.getTraces().size() != traceCount) {
+                    throw new IllegalStateException();
+                }
+                line.append(String.format("%s: %.1f MB/s  ", codec.getClass().getSimpleName(), json.length * 1e3 / nanos));
+            }
+            System.out.println(line.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.export.ColumnarTraceFile;
+import com.contrastsecurity.export.ColumnarTraceFile.Column;
+import com.contrastsecurity.export.ColumnarTraceFile.Filter;
+import com.contrastsecurity.export.ColumnarTraceWriter;
+import com.contrastsecurity.export.ExportWriter;
+import com.contrastsecurity.export.RecordFormat;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+/**
+ * Compares exporting traces as NDJSON and as a {@link ColumnarTraceFile}: file size, and the
+ * time to count the critical traces seen in a time window by parsing every NDJSON line versus
+ * a filtered columnar scan. Arguments: number of traces.
+ */
+public class ColumnarTraceBenchmark {
+
+    private static final String[] SEVERITIES = {"Critical", "High", "Medium", "Low", "Note"};
+    private static final String[] STATUSES = {"Reported", "Suspicious", "Confirmed", "Remediated", "Fixed"};
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        Path directory = Files.createTempDirectory("columnar-benchmark");
+        Gson gson = new Gson();
+
+        Path columnarFile = directory.resolve("traces.col");
+        ExportWriter<Trace> ndjson = new ExportWriter.Builder<>(directory, "traces", RecordFormat.<Trace>ndjson(new GsonCodec())).build();
+        try (ColumnarTraceWriter columnar = new ColumnarTraceWriter(columnarFile)) {
+            for (int offset = 0; offset < count; offset += 1000) {
+                Traces page = gson.fromJson(generate(offset, Math.min(1000, count - offset)), Traces.class);
+                ndjson.write(page.getTraces());
+                columnar.write(page);
+            }
+        }
+        ndjson.close();
+        Path ndjsonFile = ndjson.getFiles().get(0);
+        System.out.printf("%d traces, ndjson: %.1f MB, columnar: %.1f MB%n", count,
+                Files.size(ndjsonFile) / 1e6, Files.size(columnarFile) / 1e6);
+
+        final long from = 1600000000000L + count / 2 * 1000L;
+        final long to = from + count / 10 * 1000L;
+        for (int iteration = 0; iteration < 5; iteration++) {
+            long start = System.nanoTime();
+            long parsed = 0;
+            try (BufferedReader reader = Files.newBufferedReader(ndjsonFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Trace trace = gson.fromJson(line, Trace.class);
+                    if ("Critical".equals(trace.getSeverity()) && trace.getLastTimeSeen() >= from && trace.getLastTimeSeen() <= to) {
+                        parsed++;
+                    }
+                }
+            }
+            long ndjsonNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long scanned;
+            try (ColumnarTraceFile file = new ColumnarTraceFile(columnarFile)) {
+                scanned = file.scan(EnumSet.noneOf(Column.class),
+                        Filter.and(Filter.between(Column.LAST_TIME_SEEN, from, to), Filter.eq(Column.SEVERITY, "Critical")),
+                        new ColumnarTraceFile.Visitor() {
+                            @Override
+                            public void visit(ColumnarTraceFile.Row row) {
+                            }
+                        });
+            }
+            long columnarNanos = System.nanoTime() - start;
+            if (parsed != scanned) {
+                throw new IllegalStateException(parsed + " != " + scanned);
+            }
+            System.out.printf("ndjson: %.1f ms, columnar: %.1f ms (%d matches)%n", ndjsonNanos / 1e6, columnarNanos / 1e6, scanned);
+        }
+        Files.delete(ndjsonFile);
+        Files.delete(columnarFile);
+        Files.delete(directory);
+    }
+
+    private static String generate(int offset, int size) {
+        StringBuilder json = new StringBuilder("{\"traces\":[");
+        for (int i = offset; i < offset + size; i++) {
+            long seen = 1600000000000L + i * 1000L;
+            json.append(i == offset ? "" : ",")
+                    .append("{\"uuid\":\"").append(Long.toHexString(i * 0x9E3779B97F4A7C15L))
+                    .append("\",\"title\":\"Vulnerability ").append(i % 5000).append(" detected on /api/resource/").append(i % 300)
+                    .append("\",\"rule_name\":\"rule-").append(i % 60)
+                    .append("\",\"severity\":\"").append(SEVERITIES[i % SEVERITIES.length])
+                    .append("\",\"status\":\"").append(STATUSES[i / 7 % STATUSES.length])
+                    .append("\",\"language\":\"Java\",\"category\":\"Injection\"")
+                    .append(",\"first_time_seen\":").append(seen - 86400000L)
+                    .append(",\"last_time_seen\":").append(seen)
+                    .append(",\"total_traces_received\":").append(i % 40)
+                    .append(",\"application\":{\"app_id\":\"app-").append(i % 400).append("\"}}");
+        }
+        return json.append("]}").toString();
+    }
+}
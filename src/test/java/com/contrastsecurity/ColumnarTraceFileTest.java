@@ -0,0 +1,180 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.export.ColumnarTraceFile;
+import com.contrastsecurity.export.ColumnarTraceFile.Column;
+import com.contrastsecurity.export.ColumnarTraceFile.Filter;
+import com.contrastsecurity.export.ColumnarTraceFile.Row;
+import com.contrastsecurity.export.ColumnarTraceWriter;
+import com.contrastsecurity.export.TraceSnapshot;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ColumnarTraceFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+
+    private static final ColumnarTraceFile.Visitor IGNORE = new ColumnarTraceFile.Visitor() {
+        @Override
+        public void visit(Row row) {
+        }
+    };
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = write(5000, 1000);
+        try (ColumnarTraceFile columnar = new ColumnarTraceFile(file)) {
+            assertEquals(5000, columnar.getRowCount());
+            assertEquals(5, columnar.getRowGroups().size());
+            final List<String> uuids = new ArrayList<>();
+            final int[] index = {0};
+            long visited = columnar.scan(EnumSet.allOf(Column.class), Filter.ALL, new ColumnarTraceFile.Visitor() {
+                @Override
+                public void visit(Row row) {
+                    int i = index[0]++;
+                    uuids.add(row.getString(Column.UUID));
+                    assertEquals("XSS on /caf\u00e9/" + i + " \ud83d\ude00", row.getString(Column.TITLE));
+                    assertEquals(i % 2 == 0 ? "xss" : "sql-injection", row.getString(Column.RULE));
+                    assertEquals(severity(i), row.getString(Column.SEVERITY));
+                    assertEquals("app-" + i % 7, row.getString(Column.APPLICATION));
+                    assertNull(row.getString(Column.SUB_STATUS));
+                    assertEquals(1000L + i * 37 % 500, row.getLong(Column.FIRST_TIME_SEEN));
+                    assertEquals(i % 3 == 0 ? 5 : TraceSnapshot.NO_TIME, row.getLong(Column.CLOSED_TIME));
+                }
+            });
+            assertEquals(5000, visited);
+            assertEquals("UUID-4999", uuids.get(4999));
+        }
+    }
+
+    @Test
+    public void testProjectionAndSkipping() throws IOException {
+        Path file = write(5000, 1000);
+        try (ColumnarTraceFile columnar = new ColumnarTraceFile(file)) {
+            Filter critical = Filter.eq(Column.SEVERITY, "Critical");
+            int candidates = 0;
+            for (ColumnarTraceFile.RowGroup group : columnar.getRowGroups()) {
+                candidates += critical.mayMatch(group) ? 1 : 0;
+            }
+            assertEquals(1, candidates);
+            assertFalse(Filter.eq(Column.SEVERITY, "Unknown").mayMatch(columnar.getRowGroups().get(0)));
+
+            final List<String> titles = new ArrayList<>();
+            long visited = columnar.scan(EnumSet.of(Column.UUID), critical, new ColumnarTraceFile.Visitor() {
+                @Override
+                public void visit(Row row) {
+                    assertEquals("Critical", row.getString(Column.SEVERITY));
+                    titles.add(row.getString(Column.TITLE));
+                }
+            });
+            assertEquals(10, visited);
+            assertNull(titles.get(0));
+
+            ColumnarTraceFile.RowGroup first = columnar.getRowGroups().get(0);
+            assertEquals(1000, first.getMin(Column.FIRST_TIME_SEEN));
+            assertEquals(1499, first.getMax(Column.FIRST_TIME_SEEN));
+            assertEquals(TraceSnapshot.NO_TIME, first.getMin(Column.TOTAL_TRACES_RECEIVED));
+            assertEquals(0, columnar.scan(EnumSet.noneOf(Column.class), Filter.between(Column.TOTAL_TRACES_RECEIVED, 0, 10), IGNORE));
+            assertEquals(1667, columnar.scan(EnumSet.noneOf(Column.class),
+                    Filter.and(Filter.between(Column.CLOSED_TIME, 0, 10), Filter.eq(Column.STATUS, "Reported")), IGNORE));
+        }
+    }
+
+    @Test
+    public void testNullValues() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("nulls.col");
+        try (ColumnarTraceWriter writer = new ColumnarTraceWriter(file, 1000)) {
+            writer.write(gson.fromJson("{\"traces\":[{\"uuid\":\"A\",\"severity\":\"High\"},{\"uuid\":\"B\"}]}", Traces.class));
+        }
+        try (ColumnarTraceFile columnar = new ColumnarTraceFile(file)) {
+            final List<String> uuids = new ArrayList<>();
+            long visited = columnar.scan(EnumSet.of(Column.UUID), Filter.eq(Column.SEVERITY, null), new ColumnarTraceFile.Visitor() {
+                @Override
+                public void visit(Row row) {
+                    uuids.add(row.getString(Column.UUID));
+                }
+            });
+            assertEquals(1, visited);
+            assertEquals("B", uuids.get(0));
+        }
+        try (ColumnarTraceFile columnar = new ColumnarTraceFile(write(1000, 1000))) {
+            assertFalse(Filter.eq(Column.SEVERITY, null).mayMatch(columnar.getRowGroups().get(0)));
+            assertTrue(Filter.eq(Column.SUB_STATUS, null).mayMatch(columnar.getRowGroups().get(0)));
+        }
+    }
+
+    @Test
+    public void testAbortDiscardsFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("aborted.col");
+        try (ColumnarTraceWriter writer = new ColumnarTraceWriter(file, 1)) {
+            writer.write(gson.fromJson("{\"traces\":[{\"uuid\":\"A\"},{\"uuid\":\"B\"}]}", Traces.class));
+            writer.abort();
+        }
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testFailedWriteIsNotPublished() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("failed.col");
+        ColumnarTraceWriter writer = new ColumnarTraceWriter(file, 1000);
+        writer.write(gson.fromJson("{\"traces\":[{\"uuid\":\"A\"}]}", Traces.class));
+        try {
+            writer.write(gson.fromJson("{\"traces\":[{\"uuid\":\"B\"},null]}", Traces.class));
+            fail("Expected a null trace to fail");
+        } catch (NullPointerException expected) {
+        }
+        try {
+            writer.close();
+            fail("Expected close to report the failed write");
+        } catch (IOException expected) {
+        }
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("other.bin");
+        Files.write(file, new byte[100]);
+        new ColumnarTraceFile(file).close();
+    }
+
+    private Path write(int count, int rowGroupSize) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("traces.col");
+        try (ColumnarTraceWriter writer = new ColumnarTraceWriter(file, rowGroupSize)) {
+            for (int offset = 0; offset < count; offset += 1000) {
+                StringBuilder json = new StringBuilder("{\"traces\":[");
+                for (int i = offset; i < offset + 1000; i++) {
+                    json.append(i == offset ? "" : ",")
+                            .append("{\"uuid\":\"UUID-").append(i)
+                            .append("\",\"title\":\"XSS on /caf\u00e9/").append(i).append(" \ud83d\ude00")
+                            .append("\",\"rule_name\":\"").append(i % 2 == 0 ? "xss" : "sql-injection")
+                            .append("\",\"severity\":\"").append(severity(i)).append("\",\"status\":\"Reported\"")
+                            .append(",\"first_time_seen\":").append(1000L + i * 37 % 500)
+                            .append(i % 3 == 0 ? ",\"closed_time\":5" : "")
+                            .append(",\"application\":{\"app_id\":\"app-").append(i % 7).append("\"}}");
+                }
+                writer.write(gson.fromJson(json.append("]}").toString(), Traces.class));
+            }
+            assertEquals(count, writer.getCount());
+        }
+        return file;
+    }
+
+    private static String severity(int i) {
+        return i >= 3000 && i < 3010 ? "Critical" : "High";
+    }
+}
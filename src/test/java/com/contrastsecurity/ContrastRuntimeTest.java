@@ -0,0 +1,85 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.models.Organization;
+import com.contrastsecurity.sdk.BulkOptions;
+import com.contrastsecurity.sdk.BulkResult;
+import com.contrastsecurity.sdk.ContrastRuntime;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.OrganizationScatterGather;
+import com.contrastsecurity.sdk.RateLimiter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ContrastRuntimeTest {
+
+    @Test
+    public void testRateLimitersAreIsolatedPerTenant() {
+        try (ContrastRuntime runtime = new ContrastRuntime.Builder().withRateLimit(10, 2).build()) {
+            RateLimiter first = runtime.getRateLimiter("https://a/api", "user", "key-1");
+            assertSame(first, runtime.getRateLimiter("https://a/api", "user", "key-1"));
+            assertNotSame(first, runtime.getRateLimiter("https://a/api", "user", "key-2"));
+            assertNotSame(first, runtime.getRateLimiter("https://b/api", "user", "key-1"));
+        }
+    }
+
+    @Test
+    public void testNoRateLimiterWithoutRateLimit() {
+        try (ContrastRuntime runtime = new ContrastRuntime.Builder().build()) {
+            assertNull(runtime.getRateLimiter("https://a/api", "user", "key"));
+        }
+    }
+
+    @Test
+    public void testRateLimiterAllowsBurstThenSpacesRequests() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20, 3);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(40));
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190));
+    }
+
+    @Test
+    public void testSdkConnectionsWaitOnTheirTenantsLimiter() throws IOException {
+        try (ContrastRuntime runtime = new ContrastRuntime.Builder().withRateLimit(10, 1).build()) {
+            ContrastSDK tenantA = new ContrastSDK.Builder("user", "serviceKey", "key-a").withRuntime(runtime).build();
+            ContrastSDK tenantB = new ContrastSDK.Builder("user", "serviceKey", "key-b").withRuntime(runtime).build();
+            assertSame(runtime, tenantA.getRuntime());
+            new ContrastSDK.Builder("user", "serviceKey", "apiKey").build().makeConnection("http://localhost/", "GET");
+
+            long start = System.nanoTime();
+            tenantA.makeConnection("http://localhost/", "GET");
+            tenantB.makeConnection("http://localhost/", "GET");
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+            tenantA.makeConnection("http://localhost/", "GET");
+            tenantA.makeConnection("http://localhost/", "GET");
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190));
+        }
+    }
+
+    @Test
+    public void testBulkCallsRunOnRuntimeExecutor() throws InterruptedException {
+        try (ContrastRuntime runtime = new ContrastRuntime.Builder().withThreads(2).build()) {
+            ContrastSDK sdk = new ContrastSDK.Builder("user", "serviceKey", "apiKey").withRuntime(runtime).build();
+            Organization organization = new Organization();
+            BulkResult<Organization, String> result = new OrganizationScatterGather(sdk).execute(Collections.singletonList(organization),
+                    new OrganizationScatterGather.OrganizationCall<String>() {
+                        @Override
+                        public String call(ContrastSDK sdk, Organization organization) {
+                            return Thread.currentThread().getName();
+                        }
+                    }, new BulkOptions(), null);
+
+            assertTrue(result.getResults().get(organization).startsWith("contrast-runtime-"));
+        }
+    }
+}
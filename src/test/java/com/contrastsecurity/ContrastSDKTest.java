@@ -10,7 +10,7 @@ import com.contrastsecurity.http.SecurityCheckResponse;
 import com.contrastsecurity.models.*;
 import com.contrastsecurity.sdk.ContrastSDK;
 import com.contrastsecurity.utils.ContrastSDKUtils;
-import com.contrastsecurity.utils.MetadataDeserializer;
+import com.contrastsecurity.utils.MetadataEntityTypeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.hamcrest.core.IsInstanceOf;
@@ -32,7 +32,7 @@ public class ContrastSDKTest extends ContrastSDK {
     public static void setUp() {
         contrastSDK = new ContrastSDK.Builder("test_user", "testApiKey", "testServiceKey").withApiUrl("http://localhost:19080/Contrast/api").build();
         gson = new GsonBuilder()
-                .registerTypeAdapter(MetadataEntity.class, new MetadataDeserializer()).create();;
+                .registerTypeAdapterFactory(MetadataEntityTypeAdapter.FACTORY).create();
     }
 
     @Test
@@ -102,6 +102,32 @@ public class ContrastSDKTest extends ContrastSDK {
         assertThat(metadataEntities[2].getAsNumericMetadata(), new IsInstanceOf(NumericMetadata.class));
     }
 
+    @Test
+    public void testMetadataEntityValues() throws InvalidConversionException {
+
+        String applicationString = "{\"application\":{\"app_id\":\"72358543-bbdb-490c-8e3f-1b5f5e9a0bf7\",\"metadataEntities\": [ { \"type\": \"PERSON_OF_CONTACT\", \"fieldName\": \"Contact\", \"subfields\": [ { \"fieldValue\": \"Contrast User\", \"type\": \"CONTACT_NAME\" }, { \"type\": \"EMAIL\", \"fieldValue\": \"support@contrastsecurity.com\" }, { \"fieldValue\": \"1234567890\", \"type\": \"PHONE\" } ] }, { \"fieldValue\": \"PEDS\", \"fieldName\": \"bU\", \"type\": \"STRING\" }, {\"fieldName\": \"askId\", \"fieldValue\": 123456789, \"type\": \"NUMERIC\", \"unique\": true }, {\"fieldName\": \"other\", \"type\": \"UNKNOWN\" }, null]}}";
+
+        MetadataEntity[] metadataEntities = gson.fromJson(applicationString, Applications.class).getApplication().getMetadataEntities();
+        assertEquals(5, metadataEntities.length);
+
+        PointOfContactMetadata contact = metadataEntities[0].getAsPointOfContactMetadata();
+        assertEquals("Contact", contact.getFieldName());
+        assertEquals("Contrast User", contact.getContactName());
+        assertEquals("support@contrastsecurity.com", contact.getEmail());
+        assertEquals("1234567890", contact.getPhoneNo());
+
+        FreeformMetadata freeform = metadataEntities[1].getAsFreeformMetadata();
+        assertEquals("bU", freeform.getFieldName());
+        assertEquals("PEDS", freeform.getFieldValue());
+
+        NumericMetadata numeric = metadataEntities[2].getAsNumericMetadata();
+        assertEquals("askId", numeric.getFieldName());
+        assertEquals(Long.valueOf(123456789L), numeric.getFieldValue());
+
+        assertNull(metadataEntities[3]);
+        assertNull(metadataEntities[4]);
+    }
+
     @Test
     public void testGetTraces() throws UnauthorizedException, IOException, ResourceNotFoundException {
 
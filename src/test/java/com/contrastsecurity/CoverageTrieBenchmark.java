@@ -0,0 +1,94 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.CoverageTrie;
+import com.contrastsecurity.models.Coverage;
+import com.contrastsecurity.models.URLEntry;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares counting the routes under a prefix across many applications by scanning each
+ * application's URL list and by querying a merged {@link CoverageTrie}, and reports the heap
+ * used by both. Arguments: number of applications, number of URLs per application.
+ */
+public class CoverageTrieBenchmark {
+
+    private static final String[] AREAS = {"admin", "public", "account", "orders", "search", "reports"};
+
+    public static void main(String[] args) {
+        int applicationCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int urlCount = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        Gson gson = new Gson();
+
+        long before = usedMemory();
+        List<List<URLEntry>> lists = new ArrayList<>();
+        for (int i = 0; i < applicationCount; i++) {
+            lists.add(gson.fromJson(generate(i, urlCount), Coverage.class).getUrls());
+        }
+        long listBytes = usedMemory() - before;
+
+        before = usedMemory();
+        CoverageTrie trie = new CoverageTrie();
+        for (List<URLEntry> urls : lists) {
+            CoverageTrie application = new CoverageTrie();
+            application.add(urls);
+            trie.merge(application);
+        }
+        long trieBytes = usedMemory() - before;
+
+        System.out.printf("%d applications x %d URLs, %d trie nodes%n", applicationCount, urlCount, trie.getNodeCount());
+        System.out.printf("lists: %.1f MB, trie: %.1f MB (estimated %.1f MB)%n",
+                listBytes / 1e6, trieBytes / 1e6, trie.sizeInBytes() / 1e6);
+        for (int iteration = 0; iteration < 10; iteration++) {
+            long start = System.nanoTime();
+            int scanned = 0;
+            for (String area : AREAS) {
+                scanned += scan(lists, "/api/" + area + "/");
+            }
+            long scanNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            int found = 0;
+            for (String area : AREAS) {
+                found += trie.countUnder("/api/" + area + "/*");
+            }
+            long trieNanos = System.nanoTime() - start;
+            if (scanned != found) {
+                throw new IllegalStateException(scanned + " != " + found);
+            }
+            System.out.printf("scan: %.2f ms, trie: %.4f ms (%d routes)%n", scanNanos / 1e6, trieNanos / 1e6, found);
+        }
+        lists.clear();
+    }
+
+    private static int scan(List<List<URLEntry>> lists, String prefix) {
+        int count = 0;
+        for (List<URLEntry> urls : lists) {
+            for (URLEntry entry : urls) {
+                if (entry.getUrl().startsWith(prefix)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String generate(int application, int urlCount) {
+        StringBuilder json = new StringBuilder("{\"urls\":[");
+        for (int j = 0; j < urlCount; j++) {
+            json.append(j == 0 ? "" : ",").append("{\"url\":\"/api/").append(AREAS[(application + j) % AREAS.length])
+                    .append("/resource").append(j % 97).append("/action").append(j)
+                    .append("\",\"vulnerable\":").append(j % 13 == 0).append(",\"last_time_seen\":").append(1600000000000L + j).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,97 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.CoverageTrie;
+import com.contrastsecurity.models.Coverage;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class CoverageTrieTest {
+
+    private CoverageTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new CoverageTrie();
+        trie.add(coverage("{\"url\":\"/api/admin/users\",\"vulnerable\":true,\"last_time_seen\":100},"
+                + "{\"url\":\"/api/admin/users?page=2\",\"last_time_seen\":150},"
+                + "{\"url\":\"/api/admin/roles\"},"
+                + "{\"url\":\"/api/public/health\"}"));
+        trie.add(coverage("{\"url\":\"/api/admin/users\",\"last_time_seen\":200},"
+                + "{\"url\":\"/login\",\"vulnerable\":true}"));
+    }
+
+    @Test
+    public void testCounts() {
+        assertEquals(5, trie.countUnder("/"));
+        assertEquals(3, trie.countUnder("/api/admin"));
+        assertEquals(3, trie.countUnder("/api/admin/*"));
+        assertEquals(1, trie.countVulnerableUnder("/api/admin/"));
+        assertEquals(2, trie.countVulnerableUnder("/"));
+        assertEquals(2, trie.getRouteCount("/api/admin/users"));
+        assertEquals(0, trie.getRouteCount("/api/admin"));
+        assertEquals(200, trie.getLastTimeSeen("/api/admin/users"));
+        assertEquals(0, trie.countUnder("/api/unknown"));
+        assertEquals(0, trie.countUnder("/api/adm"));
+    }
+
+    @Test
+    public void testRoutesUnder() {
+        assertEquals(new HashSet<>(Arrays.asList("/api/admin/users", "/api/admin/roles")),
+                new HashSet<>(trie.routesUnder("/api/admin", 10)));
+        assertEquals(1, trie.routesUnder("/api", 1).size());
+        assertEquals(Collections.singletonList("/login"), trie.routesUnder("/login", 10));
+        assertTrue(trie.routesUnder("/missing", 10).isEmpty());
+    }
+
+    @Test
+    public void testMerge() {
+        CoverageTrie other = new CoverageTrie();
+        other.add(coverage("{\"url\":\"/api/admin/users\",\"vulnerable\":true,\"last_time_seen\":300},"
+                + "{\"url\":\"/api/admin/audit\"}"));
+        int nodes = trie.getNodeCount();
+        trie.merge(other);
+        assertEquals(7, trie.countUnder("/"));
+        assertEquals(5, trie.countUnder("/api/admin"));
+        assertEquals(2, trie.countVulnerableUnder("/api/admin"));
+        assertEquals(3, trie.getRouteCount("/api/admin/users"));
+        assertEquals(300, trie.getLastTimeSeen("/api/admin/users"));
+        assertEquals(nodes + 1, trie.getNodeCount());
+    }
+
+    @Test
+    public void testMergeRoot() {
+        CoverageTrie other = new CoverageTrie();
+        other.add(coverage("{\"url\":\"/\",\"vulnerable\":true,\"last_time_seen\":400}"));
+        assertEquals(1, other.getRouteCount("/"));
+        trie.merge(other);
+        assertEquals(1, trie.getRouteCount("/"));
+        assertEquals(6, trie.countUnder("/"));
+        assertEquals(3, trie.countVulnerableUnder("/"));
+        assertEquals(400, trie.getLastTimeSeen("/"));
+    }
+
+    @Test
+    public void testManyRoutes() {
+        CoverageTrie large = new CoverageTrie();
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"url\":\"/svc/").append(i % 50).append("/item/").append(i).append("\"}");
+        }
+        large.add(coverage(json.toString()));
+        assertEquals(5000, large.countUnder("/svc"));
+        assertEquals(100, large.countUnder("/svc/7/item"));
+        assertEquals(1, large.getRouteCount("/svc/7/item/4957"));
+        assertEquals(100, large.routesUnder("/svc/7", 1000).size());
+    }
+
+    private static Coverage coverage(String urls) {
+        return new Gson().fromJson("{\"urls\":[" + urls + "]}", Coverage.class);
+    }
+}
@@ -0,0 +1,234 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.export.CsvFormat;
+import com.contrastsecurity.export.ExportWriter;
+import com.contrastsecurity.export.OrganizationExporter;
+import com.contrastsecurity.export.RecordFormat;
+import com.contrastsecurity.http.ApplicationFilterForm;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.Libraries;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class ExportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCsvQuoting() throws IOException {
+        CsvFormat<String[]> format = new CsvFormat<String[]>()
+                .withColumn("a", new CsvFormat.Column<String[]>() {
+                    @Override
+                    public Object value(String[] row) {
+                        return row[0];
+                    }
+                })
+                .withColumn("b", new CsvFormat.Column<String[]>() {
+                    @Override
+                    public Object value(String[] row) {
+                        return row[1];
+                    }
+                });
+        Path directory = folder.getRoot().toPath();
+        try (ExportWriter<String[]> writer = new ExportWriter.Builder<>(directory, "rows", format).build()) {
+            writer.write(new String[]{"plain", "with,comma"});
+            writer.write(new String[]{"say \"hi\"", null});
+            writer.write(new String[]{"line\nbreak", "caf\u00e9"});
+        }
+        Path file = directory.resolve("rows-00000.csv");
+        assertEquals("a,b\r\nplain,\"with,comma\"\r\n\"say \"\"hi\"\"\",\r\n\"line\nbreak\",caf\u00e9\r\n",
+                new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCsvFormatIsImmutable() {
+        String header = OrganizationExporter.TRACES.getHeader();
+        CsvFormat<Trace> extended = OrganizationExporter.TRACES.withColumn("extra", new CsvFormat.Column<Trace>() {
+            @Override
+            public Object value(Trace trace) {
+                return "x";
+            }
+        });
+        assertEquals(header, OrganizationExporter.TRACES.getHeader());
+        assertTrue(extended.getHeader().endsWith(",extra\r\n"));
+    }
+
+    @Test
+    public void testRotationAndGzip() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ExportWriter<JsonObject> writer = new ExportWriter.Builder<>(directory, "records", RecordFormat.<JsonObject>ndjson(new ContrastSDK.Builder("u", "s", "k").build().getCodec()))
+                .withGzip(true)
+                .withMaxFileSize(10000)
+                .build();
+        for (int i = 0; i < 1000; i++) {
+            JsonObject record = new JsonObject();
+            record.addProperty("id", i);
+            record.addProperty("padding", "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx");
+            writer.write(record);
+        }
+        writer.close();
+        assertEquals(1000, writer.getCount());
+        assertTrue(writer.getFiles().size() > 1);
+        assertEquals(directory.resolve("records-00000.ndjson.gz"), writer.getFiles().get(0));
+
+        int expected = 0;
+        for (Path file : writer.getFiles()) {
+            for (String line : readLines(file, true)) {
+                assertEquals(expected++, new Gson().fromJson(line, JsonObject.class).get("id").getAsInt());
+            }
+        }
+        assertEquals(1000, expected);
+        String[] names = directory.toFile().list();
+        assertEquals(writer.getFiles().size(), names.length);
+    }
+
+    @Test
+    public void testEmptyExportWritesNoFile() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ExportWriter<String> writer = new ExportWriter.Builder<>(directory, "empty", RecordFormat.<String>ndjson(null)).build();
+        writer.close();
+        assertTrue(writer.getFiles().isEmpty());
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    public void testAbortDiscardsCurrentFile() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ExportWriter<String> writer = new ExportWriter.Builder<>(directory, "aborted", RecordFormat.<String>ndjson(new ContrastSDK.Builder("u", "s", "k").build().getCodec()))
+                .withGzip(true)
+                .build();
+        writer.write("partial");
+        writer.abort();
+        writer.close();
+        assertTrue(writer.getFiles().isEmpty());
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    public void testFailedMoveLeavesNoTemporaryFile() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Files.createDirectories(directory.resolve("blocked-00000.ndjson").resolve("child"));
+        ExportWriter<String> writer = new ExportWriter.Builder<>(directory, "blocked", RecordFormat.<String>ndjson(new ContrastSDK.Builder("u", "s", "k").build().getCodec())).build();
+        writer.write("record");
+        try {
+            writer.close();
+            fail("Expected the move onto a non-empty directory to fail");
+        } catch (IOException expected) {
+        }
+        assertEquals(Arrays.asList("blocked-00000.ndjson"), Arrays.asList(directory.toFile().list()));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testFailedExportPublishesNothing() throws IOException, UnauthorizedException {
+        final Gson gson = new Gson();
+        ContrastSDK sdk = new ContrastSDK("user", "serviceKey", "apiKey") {
+            @Override
+            public Traces getTracesInOrg(String organizationId, TraceFilterForm form) throws IOException {
+                if (form.getOffset() > 0) {
+                    throw new IOException("connection reset");
+                }
+                return gson.fromJson("{\"count\":10,\"traces\":[{\"uuid\":\"T0\"}]}", Traces.class);
+            }
+        };
+        Path directory = folder.getRoot().toPath();
+        try {
+            new OrganizationExporter.Builder(sdk, "org", directory).withPageSize(1).build().exportTraces(null);
+            fail("Expected the export to fail");
+        } catch (IOException expected) {
+            assertEquals("connection reset", expected.getMessage());
+        }
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testOrganizationExport() throws IOException, UnauthorizedException {
+        final Gson gson = new Gson();
+        final List<String> requests = new ArrayList<>();
+        ContrastSDK sdk = new ContrastSDK("user", "serviceKey", "apiKey") {
+            @Override
+            public Traces getTracesInOrg(String organizationId, TraceFilterForm form) {
+                requests.add(form.getOffset() + ":" + form.getLimit());
+                // the server caps the limit at 5 and reports the total
+                StringBuilder json = new StringBuilder("{\"count\":25,\"traces\":[");
+                for (int i = form.getOffset(); i < Math.min(form.getOffset() + Math.min(form.getLimit(), 5), 25); i++) {
+                    json.append(i == form.getOffset() ? "" : ",").append("{\"uuid\":\"T").append(i)
+                            .append("\",\"title\":\"SQL, injection\",\"severity\":\"High\",\"application\":{\"app_id\":\"A\"}}");
+                }
+                return gson.fromJson(json.append("]}").toString(), Traces.class);
+            }
+
+            @Override
+            public Applications getFilteredApplications(String organizationId, ApplicationFilterForm form) {
+                if (form.getOffset() > 0) {
+                    return gson.fromJson("{\"applications\":[]}", Applications.class);
+                }
+                return gson.fromJson("{\"applications\":[{\"app_id\":\"A\",\"name\":\"one\"},{\"app_id\":\"B\",\"name\":\"two\"}]}", Applications.class);
+            }
+
+            @Override
+            public Libraries getLibraries(String organizationId, String appId) {
+                return gson.fromJson("{\"libraries\":[{\"hash\":\"h-" + appId + "\",\"file_name\":\"lib.jar\"}]}", Libraries.class);
+            }
+        };
+        Path directory = folder.getRoot().toPath();
+        OrganizationExporter csv = new OrganizationExporter.Builder(sdk, "org", directory)
+                .withFormat(OrganizationExporter.Format.CSV)
+                .withPageSize(10)
+                .build();
+
+        OrganizationExporter.Result traces = csv.exportTraces(null);
+        assertEquals(25, traces.getRecordCount());
+        assertEquals(Arrays.asList("0:10", "5:10", "10:10", "15:10", "20:10"), requests);
+        List<String> lines = readLines(traces.getFiles().get(0), false);
+        assertEquals(26, lines.size());
+        assertEquals("uuid,app_id,title,rule,severity,status,sub_status,language,category,first_time_seen,last_time_seen,closed_time", lines.get(0));
+        assertEquals("T0,A,\"SQL, injection\",,High,,,,,,,", lines.get(1));
+
+        OrganizationExporter.Result libraries = new OrganizationExporter.Builder(sdk, "org", directory)
+                .withGzip(true)
+                .build()
+                .exportLibraries(null);
+        assertEquals(2, libraries.getRecordCount());
+        lines = readLines(libraries.getFiles().get(0), true);
+        JsonObject second = gson.fromJson(lines.get(1), JsonObject.class);
+        assertEquals("B", second.get("appId").getAsString());
+        assertEquals("h-B", second.getAsJsonObject("library").get("hash").getAsString());
+    }
+
+    private static List<String> readLines(Path file, boolean gzip) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(gzip ? new GZIPInputStream(in) : in, StandardCharsets.UTF_8))) {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+}
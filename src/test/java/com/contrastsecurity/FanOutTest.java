@@ -0,0 +1,191 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.FilterForm;
+import com.contrastsecurity.models.Application;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.sdk.BulkOptions;
+import com.contrastsecurity.sdk.BulkResult;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.FanOut;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FanOutTest {
+
+    @Test
+    public void testCollectsResultsAndErrorsInRequestOrder() throws InterruptedException {
+        BulkResult<Integer, String> result = FanOut.execute(Arrays.asList(5, 1, 4, 2, 3, 1), new FanOut.Task<Integer, String>() {
+            @Override
+            public String call(Integer key) throws Exception {
+                Thread.sleep(key * 5);
+                if (key % 2 == 0) {
+                    throw new IOException("failed " + key);
+                }
+                return "value " + key;
+            }
+        }, new BulkOptions().withParallelism(3));
+
+        assertEquals(Arrays.asList(5, 1, 3), new ArrayList<>(result.getResults().keySet()));
+        assertEquals("value 5", result.getResults().get(5));
+        assertEquals(Arrays.asList(4, 2), new ArrayList<>(result.getErrors().keySet()));
+        assertEquals("failed 4", result.getErrors().get(4).getMessage());
+        assertFalse(result.isSuccessful());
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws InterruptedException {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            keys.add(i);
+        }
+
+        BulkResult<Integer, Integer> result = FanOut.execute(keys, new FanOut.Task<Integer, Integer>() {
+            @Override
+            public Integer call(Integer key) throws Exception {
+                int current = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), current));
+                }
+                Thread.sleep(2);
+                inFlight.decrementAndGet();
+                return key;
+            }
+        }, new BulkOptions().withParallelism(4));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(40, result.getResults().size());
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testCallTimeout() throws InterruptedException {
+        long start = System.nanoTime();
+        BulkResult<Integer, Integer> result = FanOut.execute(Arrays.asList(1, 2), new FanOut.Task<Integer, Integer>() {
+            @Override
+            public Integer call(Integer key) throws Exception {
+                if (key == 1) {
+                    Thread.sleep(10000);
+                }
+                return key;
+            }
+        }, new BulkOptions().withCallTimeout(100, TimeUnit.MILLISECONDS));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertTrue(result.getErrors().get(1) instanceof TimeoutException);
+        assertEquals(Integer.valueOf(2), result.getResults().get(2));
+    }
+
+    @Test
+    public void testTimedOutTaskKeepsItsPermitUntilItExits() throws InterruptedException {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BulkResult<Integer, Integer> result = FanOut.execute(Arrays.asList(1, 2), new FanOut.Task<Integer, Integer>() {
+                @Override
+                public Integer call(Integer key) {
+                    int current = inFlight.incrementAndGet();
+                    synchronized (maxInFlight) {
+                        maxInFlight.set(Math.max(maxInFlight.get(), current));
+                    }
+                    if (key == 1) {
+                        // ignores interrupts, like a read blocked in I/O
+                        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                        while (System.nanoTime() < end) {
+                            try {
+                                Thread.sleep(10);
+                            } catch (InterruptedException e) {
+                                // keep going
+                            }
+                        }
+                    }
+                    inFlight.decrementAndGet();
+                    return key;
+                }
+            }, new BulkOptions().withExecutor(executor).withParallelism(1).withCallTimeout(50, TimeUnit.MILLISECONDS));
+
+            assertTrue(result.getErrors().get(1) instanceof TimeoutException);
+            assertEquals(Integer.valueOf(2), result.getResults().get(2));
+            assertEquals(1, maxInFlight.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejectedTasksFail() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        executor.shutdown();
+        BulkResult<String, String> result = FanOut.execute(Arrays.asList("a", "b", "c"), new FanOut.Task<String, String>() {
+            @Override
+            public String call(String key) {
+                return key;
+            }
+        }, new BulkOptions().withExecutor(executor).withParallelism(2));
+
+        assertEquals(3, result.getErrors().size());
+        assertTrue(result.getErrors().get("c") instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void testProvidedExecutorIsNotShutDown() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            FanOut.execute(Arrays.asList("a", "b", "c"), new FanOut.Task<String, String>() {
+                @Override
+                public String call(String key) {
+                    return key;
+                }
+            }, new BulkOptions().withExecutor(executor).withParallelism(2));
+
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testGetApplicationsInBulk() throws InterruptedException {
+        final GsonCodec codec = new GsonCodec();
+        ContrastSDK sdk = new ContrastSDK("user", "serviceKey", "apiKey") {
+            @Override
+            public Applications getApplication(String organizationId, String appId, EnumSet<FilterForm.ApplicationExpandValues> expandValues)
+                    throws IOException, UnauthorizedException {
+                if (appId.equals("missing")) {
+                    throw new UnauthorizedException(404);
+                }
+                assertEquals(EnumSet.of(FilterForm.ApplicationExpandValues.SCORES), expandValues);
+                String json = "{\"application\":{\"app_id\":\"" + appId + "\",\"name\":\"" + organizationId + "\"}}";
+                return codec.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Applications.class);
+            }
+        };
+
+        BulkResult<String, Application> result = sdk.getApplications("org", Arrays.asList("app-1", "missing", "app-2"),
+                EnumSet.of(FilterForm.ApplicationExpandValues.SCORES), new BulkOptions().withParallelism(2));
+
+        assertEquals(2, result.getResults().size());
+        assertEquals("app-2", result.getResults().get("app-2").getId());
+        assertEquals("org", result.getResults().get("app-1").getName());
+        assertTrue(result.getErrors().get("missing") instanceof UnauthorizedException);
+    }
+}
@@ -0,0 +1,94 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.JobOutcomePolicyEvaluator;
+import com.contrastsecurity.analytics.JobOutcomePolicyEvaluator.Verdict;
+import com.contrastsecurity.analytics.VulnerabilityAggregator;
+import com.contrastsecurity.models.JobOutcomePolicy;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JobOutcomePolicyEvaluatorTest {
+
+    private Gson gson;
+    private List<Trace> traces;
+    private VulnerabilityAggregator aggregator;
+
+    @Before
+    public void setUp() {
+        gson = new Gson();
+        traces = gson.fromJson("{\"traces\":["
+                + "{\"uuid\":\"1\",\"rule_name\":\"sql-injection\",\"severity\":\"Critical\",\"status\":\"Remediated\",\"application\":{\"app_id\":\"app\"}},"
+                + "{\"uuid\":\"2\",\"rule_name\":\"xss\",\"severity\":\"High\",\"status\":\"Reported\",\"application\":{\"app_id\":\"app\"}},"
+                + "{\"uuid\":\"3\",\"rule_name\":\"xss\",\"severity\":\"High\",\"status\":\"Confirmed\",\"application\":{\"app_id\":\"app\"}},"
+                + "{\"uuid\":\"4\",\"rule_name\":\"xss\",\"severity\":\"Medium\",\"status\":\"Not a Problem\",\"application\":{\"app_id\":\"app\"}}]}",
+                Traces.class).getTraces();
+        aggregator = new VulnerabilityAggregator();
+        aggregator.applyDelta(traces, Collections.<String>emptyList());
+    }
+
+    @Test
+    public void testPassesWithoutPolicies() {
+        JobOutcomePolicyEvaluator evaluator = new JobOutcomePolicyEvaluator(null);
+        assertEquals(Verdict.PASS, evaluator.evaluate(traces).getVerdict());
+        assertEquals(JobOutcomePolicy.Outcome.SUCCESS, evaluator.evaluate(aggregator, "app").getOutcome());
+    }
+
+    @Test
+    public void testUnfilteredPolicyIsDecidedFromCounts() {
+        JobOutcomePolicyEvaluator evaluator = evaluator("[{\"name\":\"lenient\",\"rules\":{\"xss\":3},\"outcome\":\"FAIL\"},"
+                + "{\"name\":\"strict\",\"all_rules\":true,\"all_rules_threshold\":3,\"outcome\":\"UNSTABLE\"}]");
+
+        JobOutcomePolicyEvaluator.Result result = evaluator.evaluate(aggregator, "app");
+        assertEquals(Verdict.FAIL, result.getVerdict());
+        assertEquals("strict", result.getPolicy().getName());
+        assertEquals(JobOutcomePolicy.Outcome.UNSTABLE, result.getOutcome());
+        assertTrue(result.isLocal());
+        assertEquals("strict", evaluator.evaluate(traces).getPolicy().getName());
+    }
+
+    @Test
+    public void testStatusFilterIsExactOverTraces() {
+        JobOutcomePolicyEvaluator evaluator = evaluator("[{\"name\":\"open highs\",\"severities\":{\"HIGH\":1},"
+                + "\"status_filter\":[\"REPORTED\",\"CONFIRMED\"],\"outcome\":\"FAIL\"}]");
+        assertEquals(Verdict.FAIL, evaluator.evaluate(traces).getVerdict());
+
+        evaluator = evaluator("[{\"name\":\"open criticals\",\"severities\":{\"CRITICAL\":0},"
+                + "\"status_filter\":[\"REPORTED\",\"CONFIRMED\"],\"outcome\":\"FAIL\"}]");
+        assertEquals(Verdict.PASS, evaluator.evaluate(traces).getVerdict());
+    }
+
+    @Test
+    public void testStatusFilterUsesBoundsOverCounts() {
+        // two open traces, so at most two open xss traces and at least 3 - 2 = 1
+        assertEquals(Verdict.PASS, evaluator("[{\"name\":\"p\",\"rules\":{\"xss\":2},\"status_filter\":[\"Reported\",\"Confirmed\"]}]")
+                .evaluate(aggregator, "app").getVerdict());
+        assertEquals(Verdict.FAIL, evaluator("[{\"name\":\"p\",\"rules\":{\"xss\":0},\"status_filter\":[\"Reported\",\"Confirmed\"]}]")
+                .evaluate(aggregator, "app").getVerdict());
+        assertEquals(Verdict.UNDECIDED, evaluator("[{\"name\":\"p\",\"rules\":{\"xss\":1},\"status_filter\":[\"Reported\",\"Confirmed\"]}]")
+                .evaluate(aggregator, "app").getVerdict());
+        assertEquals(Verdict.FAIL, evaluator("[{\"name\":\"p\",\"all_rules\":true,\"all_rules_threshold\":1,\"status_filter\":[\"NotAProblem\",\"Reported\"]}]")
+                .evaluate(aggregator, "app").getVerdict());
+    }
+
+    @Test
+    public void testEarlierUndecidedPolicyLeavesFailureUndecided() {
+        JobOutcomePolicyEvaluator evaluator = evaluator("[{\"name\":\"first\",\"rules\":{\"xss\":1},\"status_filter\":[\"Reported\",\"Confirmed\"]},"
+                + "{\"name\":\"second\",\"all_rules\":true,\"all_rules_threshold\":0}]");
+        assertEquals(Verdict.UNDECIDED, evaluator.evaluate(aggregator, "app").getVerdict());
+        assertEquals("first", evaluator.evaluate(traces).getPolicy().getName());
+    }
+
+    private JobOutcomePolicyEvaluator evaluator(String json) {
+        List<JobOutcomePolicy> policies = gson.fromJson(json, new TypeToken<List<JobOutcomePolicy>>() {}.getType());
+        return new JobOutcomePolicyEvaluator(policies);
+    }
+}
@@ -0,0 +1,124 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.codec.JacksonCodec;
+import com.contrastsecurity.codec.JsonCodec;
+import com.contrastsecurity.http.JobOutcomePolicyListResponse;
+import com.contrastsecurity.http.RuleSeverity;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.FreeformMetadata;
+import com.contrastsecurity.models.JobOutcomePolicy;
+import com.contrastsecurity.models.NumericMetadata;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class JsonCodecTest {
+
+    private static final JsonCodec[] CODECS = {new GsonCodec(), new JacksonCodec()};
+
+    @Test
+    public void testDecodeTraces() throws IOException {
+        String json = "{\"success\":true,\"count\":2,\"traces\":[" +
+                "{\"uuid\":\"A1\",\"title\":\"SQL Injection on caf\u00e9 \ud83d\ude00\",\"rule_name\":\"sql-injection\",\"severity\":\"High\"," +
+                "\"first_time_seen\":1553800000000,\"total_traces_received\":7,\"visible\":true,\"unknown\":{\"nested\":[1,2,{\"a\":null}]}}," +
+                "{\"uuid\":\"B2\",\"severity\":null,\"closed_time\":\"1553900000000\"}]}";
+
+        for (JsonCodec codec : CODECS) {
+            Traces traces = codec.decode(stream(json), Traces.class);
+
+            assertEquals(Integer.valueOf(2), traces.getCount());
+            Trace first = traces.getTraces().get(0);
+            assertEquals("SQL Injection on caf\u00e9 \ud83d\ude00", first.getTitle());
+            assertEquals("sql-injection", first.getRule());
+            assertEquals("High", first.getSeverity());
+            assertEquals(Long.valueOf(1553800000000L), first.getFirstTimeSeen());
+            assertEquals(Long.valueOf(1553900000000L), traces.getTraces().get(1).getClosedTime());
+            assertNull(traces.getTraces().get(1).getSeverity());
+        }
+    }
+
+    @Test
+    public void testDecodeMapsAndMetadata() throws IOException {
+        String policies = "{'policies':[{'name':'policy','outcome':'FAIL','rules':{'sql-injection':1,'xss':3},'severities':{'HIGH':2,'CRITICAL':0}}]}";
+        String applications = "{\"applications\":[{\"app_id\":\"1\",\"metadataEntities\":[" +
+                "{\"fieldName\":\"bU\",\"fieldValue\":\"PEDS\",\"type\":\"STRING\"},{\"fieldName\":\"askId\",\"fieldValue\":\"42\",\"type\":\"NUMERIC\"}]}]}";
+
+        for (JsonCodec codec : CODECS) {
+            JobOutcomePolicy policy = codec.<JobOutcomePolicyListResponse>decode(stream(policies), JobOutcomePolicyListResponse.class).getPolicies().get(0);
+            assertEquals(Long.valueOf(3), policy.getRules().get("xss"));
+            assertEquals(Long.valueOf(2), policy.getSeverities().get(RuleSeverity.HIGH));
+
+            Applications apps = codec.decode(stream(applications), Applications.class);
+            assertEquals("PEDS", ((FreeformMetadata) apps.getApplications().get(0).getMetadataEntities()[0]).getFieldValue());
+            assertEquals(Long.valueOf(42), ((NumericMetadata) apps.getApplications().get(0).getMetadataEntities()[1]).getFieldValue());
+        }
+    }
+
+    @Test
+    public void testDecodeMapSubclasses() throws IOException {
+        for (JsonCodec codec : CODECS) {
+            SeverityCounts counts = codec.decode(stream("{'HIGH':2,'LOW':1}"), SeverityCounts.class);
+            assertEquals(Integer.valueOf(2), counts.get(RuleSeverity.HIGH));
+
+            Scores scores = codec.decode(stream("{'b':1.5,'a':2}"), Scores.class);
+            assertEquals("[a, b]", scores.keySet().toString());
+            assertEquals(Double.valueOf(1.5), scores.get("b"));
+        }
+    }
+
+    @Test
+    public void testDecodeJsonObjectAndEmptyDocument() throws IOException {
+        for (JsonCodec codec : CODECS) {
+            JsonObject json = codec.decode(stream("{\"messages\":\"Application already exists\",\"count\":1.5}"), JsonObject.class);
+            assertEquals("Application already exists", json.get("messages").getAsString());
+            assertEquals(1.5, json.get("count").getAsDouble(), 0);
+
+            assertNull(codec.decode(stream(""), Traces.class));
+        }
+    }
+
+    @Test
+    public void testMalformedJsonThrowsJsonSyntaxException() throws IOException {
+        for (JsonCodec codec : CODECS) {
+            for (String json : new String[]{"{\"count\":\"many\"}", "{\"traces\":[}", "{\"count\":1}}"}) {
+                try {
+                    codec.decode(stream(json), Traces.class);
+                    fail("Expected " + codec.getClass().getSimpleName() + " to reject " + json);
+                } catch (JsonSyntaxException expected) {
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeIsSharedAcrossCodecs() {
+        JobOutcomePolicyListResponse response = new JobOutcomePolicyListResponse();
+
+        assertEquals(CODECS[0].encode(response), CODECS[1].encode(response));
+    }
+
+    public static class SeverityCounts extends LinkedHashMap<RuleSeverity, Integer> {
+    }
+
+    public static class Named<V> extends TreeMap<String, V> {
+    }
+
+    public static class Scores extends Named<Double> {
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
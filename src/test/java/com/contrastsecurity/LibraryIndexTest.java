@@ -0,0 +1,107 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.IntBitmap;
+import com.contrastsecurity.analytics.LibraryIndex;
+import com.contrastsecurity.models.Libraries;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class LibraryIndexTest {
+
+    private LibraryIndex index;
+    private Gson gson;
+
+    @Before
+    public void setUp() {
+        index = new LibraryIndex();
+        gson = new Gson();
+        index.update("app-1", libraries("{\"hash\":\"h1\",\"file_name\":\"commons-collections-3.2.1.jar\",\"file_version\":\"3.2.1\"},"
+                + "{\"hash\":\"h2\",\"file_name\":\"log4j-core.jar\",\"file_version\":\"2.14.1\"}"));
+        index.update("app-2", libraries("{\"hash\":\"h2\",\"file_name\":\"log4j-core.jar\",\"file_version\":\"2.14.1\"}"));
+        index.update("app-3", libraries("{\"hash\":\"h3\",\"file_name\":\"log4j-core.jar\",\"file_version\":\"2.17.1\"}"));
+    }
+
+    @Test
+    public void testLookups() {
+        assertEquals(new HashSet<>(Arrays.asList("app-1", "app-2")), index.findByHash("h2"));
+        assertEquals(new HashSet<>(Arrays.asList("app-1", "app-2", "app-3")), index.findByFileName("log4j-core.jar"));
+        assertEquals(Collections.singleton("app-3"), index.findByFileNameAndVersion("log4j-core.jar", "2.17.1"));
+        assertTrue(index.findByHash("unknown").isEmpty());
+        assertEquals(3, index.getApplicationCount());
+        assertEquals(3, index.getLibraryCount());
+    }
+
+    @Test
+    public void testUpdateReplacesApplication() {
+        index.update("app-2", libraries("{\"hash\":\"h3\",\"file_name\":\"log4j-core.jar\",\"file_version\":\"2.17.1\"}"));
+        assertEquals(Collections.singleton("app-1"), index.findByHash("h2"));
+        assertEquals(new HashSet<>(Arrays.asList("app-2", "app-3")), index.findByHash("h3"));
+
+        assertTrue(index.remove("app-1"));
+        assertFalse(index.remove("app-1"));
+        assertTrue(index.findByHash("h1").isEmpty());
+        assertEquals(1, index.getLibraryCount());
+    }
+
+    @Test
+    public void testIntBitmapMatchesTreeSet() {
+        Random random = new Random(7);
+        IntBitmap bitmap = new IntBitmap();
+        Set<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(i < 10000 ? 2000 : 100000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+        }
+        assertEquals(expected.size(), bitmap.size());
+        int[] values = bitmap.toArray();
+        int n = 0;
+        for (int value : expected) {
+            assertEquals(value, values[n++]);
+            assertTrue(bitmap.contains(value));
+        }
+        assertFalse(bitmap.contains(-1));
+    }
+
+    @Test
+    public void testIntBitmapSetOperations() {
+        IntBitmap evens = new IntBitmap();
+        IntBitmap threes = new IntBitmap();
+        for (int i = 0; i < 600; i++) {
+            if (i % 2 == 0) {
+                evens.add(i);
+            }
+            if (i % 3 == 0) {
+                threes.add(i);
+            }
+        }
+        IntBitmap sixes = evens.and(threes);
+        assertEquals(100, sixes.size());
+        assertTrue(sixes.contains(594));
+        assertEquals(400, evens.or(threes).size());
+
+        IntBitmap sparse = new IntBitmap();
+        sparse.add(6);
+        sparse.add(7);
+        sparse.add(100000);
+        assertArrayEquals(new int[]{6}, sparse.and(sixes).toArray());
+        assertTrue(sparse.sizeInBytes() < 100);
+    }
+
+    private Libraries libraries(String entries) {
+        return gson.fromJson("{\"libraries\":[" + entries + "]}", Libraries.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.MetadataEntity;
+import com.contrastsecurity.utils.MetadataEntityTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Compares decoding Applications with many metadata entities through the tree-based
+ * {@link com.contrastsecurity.utils.MetadataDeserializer} and the streaming
+ * {@link MetadataEntityTypeAdapter}.
+ * Arguments: number of applications, number of metadata entities per application.
+ */
+public class MetadataDeserializationBenchmark {
+
+    @SuppressWarnings("deprecation")
+    public static void main(String[] args) {
+        int applicationCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int entityCount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String json = generate(applicationCount, entityCount);
+
+        Gson tree = new GsonBuilder().registerTypeAdapter(MetadataEntity.class, new com.contrastsecurity.utils.MetadataDeserializer()).create();
+        Gson streaming = new GsonBuilder().registerTypeAdapterFactory(MetadataEntityTypeAdapter.FACTORY).create();
+
+        System.out.printf("%d applications x %d metadata entities, %.1f MB%n", applicationCount, entityCount, json.length() / 1e6);
+        for (int iteration = 0; iteration < 10; iteration++) {
+            long treeNanos = time(tree, json);
+            long streamingNanos = time(streaming, json);
+            System.out.printf("tree: %.1f ms, streaming: %.1f ms%n", treeNanos / 1e6, streamingNanos / 1e6);
+        }
+    }
+
+    private static long time(Gson gson, String json) {
+        long start = System.nanoTime();
+        Applications applications = gson.fromJson(json, Applications.class);
+        if (applications.getApplications().isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String generate(int applicationCount, int entityCount) {
+        StringBuilder json = new StringBuilder("{\"applications\":[");
+        for (int i = 0; i < applicationCount; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"app_id\":\"app-").append(i).append("\",\"name\":\"app\",\"metadataEntities\":[");
+            for (int j = 0; j < entityCount; j++) {
+                json.append(j == 0 ? "" : ",");
+                switch (j % 3) {
+                    case 0:
+                        json.append("{\"fieldName\":\"bU\",\"fieldValue\":\"PEDS\",\"type\":\"STRING\",\"unique\":false}");
+                        break;
+                    case 1:
+                        json.append("{\"fieldName\":\"askId\",\"fieldValue\":\"").append(j).append("\",\"type\":\"NUMERIC\",\"unique\":false}");
+                        break;
+                    default:
+                        json.append("{\"fieldName\":\"Contact\",\"fieldValue\":\"\",\"type\":\"PERSON_OF_CONTACT\",\"unique\":false,\"subfields\":[")
+                                .append("{\"fieldName\":\"Contact Name\",\"fieldValue\":\"Contrast User\",\"type\":\"CONTACT_NAME\"},")
+                                .append("{\"fieldName\":\"Contact Email\",\"fieldValue\":\"support@contrastsecurity.com\",\"type\":\"EMAIL\"},")
+                                .append("{\"fieldName\":\"Contact Phone\",\"fieldValue\":\"1234567890\",\"type\":\"PHONE\"}]}");
+                        break;
+                }
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+}
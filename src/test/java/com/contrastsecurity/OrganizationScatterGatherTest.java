@@ -0,0 +1,82 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.LibraryStats;
+import com.contrastsecurity.models.Organization;
+import com.contrastsecurity.models.Organizations;
+import com.contrastsecurity.sdk.BulkOptions;
+import com.contrastsecurity.sdk.BulkResult;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.FanOut;
+import com.contrastsecurity.sdk.OrganizationScatterGather;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrganizationScatterGatherTest {
+
+    private static final GsonCodec CODEC = new GsonCodec();
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testResultsArriveIncrementallyInCompletionOrder() throws Exception {
+        ContrastSDK sdk = new ContrastSDK("user", "serviceKey", "apiKey") {
+            @Override
+            public Organizations getProfileOrganizations() throws IOException {
+                return decode("{\"organizations\":[" +
+                        "{\"organization_uuid\":\"slow\",\"name\":\"Slow\"}," +
+                        "{\"organization_uuid\":\"fast\",\"name\":\"Fast\"}," +
+                        "{\"organization_uuid\":\"denied\",\"name\":\"Denied\"}," +
+                        "{\"organization_uuid\":\"fast\",\"name\":\"Fast again\"}]}", Organizations.class);
+            }
+
+            @Override
+            public LibraryStats getLibraryStats(String organizationId) throws IOException, UnauthorizedException {
+                if (organizationId.equals("denied")) {
+                    throw new UnauthorizedException(403);
+                }
+                try {
+                    Thread.sleep(organizationId.equals("slow") ? 300 : 10);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return decode("{}", LibraryStats.class);
+            }
+        };
+        final List<String> arrivals = Collections.synchronizedList(new ArrayList<String>());
+
+        BulkResult<Organization, LibraryStats> result = new OrganizationScatterGather(sdk).execute(OrganizationScatterGather.LIBRARY_STATS,
+                new BulkOptions().withParallelism(3), new FanOut.Listener<Organization, LibraryStats>() {
+                    @Override
+                    public void onResult(Organization organization, LibraryStats value) {
+                        assertNotNull(value);
+                        arrivals.add(organization.getOrgUuid());
+                    }
+
+                    @Override
+                    public void onError(Organization organization, Exception error) {
+                        arrivals.add(organization.getOrgUuid() + ":" + error.getMessage());
+                    }
+                });
+
+        assertEquals(3, arrivals.size());
+        assertEquals("slow", arrivals.get(2));
+        assertTrue(arrivals.containsAll(Arrays.asList("fast", "denied:Received response code: 403")));
+        assertEquals(2, result.getResults().size());
+        assertEquals("slow", result.getResults().keySet().iterator().next().getOrgUuid());
+        assertEquals(1, result.getErrors().size());
+    }
+
+    private static <T> T decode(String json, Class<T> type) throws IOException {
+        return CODEC.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), type);
+    }
+}
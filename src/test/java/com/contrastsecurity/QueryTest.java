@@ -0,0 +1,203 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.http.ApplicationFilterForm;
+import com.contrastsecurity.http.Query;
+import com.contrastsecurity.http.RuleSeverity;
+import com.contrastsecurity.http.ServerEnvironment;
+import com.contrastsecurity.http.ServerFilterForm;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.http.TraceFilterKeycode;
+import com.contrastsecurity.http.TraceFilterType;
+import com.contrastsecurity.http.UrlBuilder;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueryTest {
+
+    @Test
+    public void testEncodingIsSortedAndDeduplicated() {
+        Query query = Query.builder()
+                .addAll("vulnTypes", Arrays.asList("xss", "sql-injection", "xss"))
+                .add("limit", 25)
+                .addAll("environments", EnumSet.of(ServerEnvironment.QA, ServerEnvironment.DEVELOPMENT))
+                .build();
+
+        assertEquals("?environments=development,qa&limit=25&vulnTypes=sql-injection,xss", query.encode());
+        assertEquals(query.encode(), query.toString());
+    }
+
+    @Test
+    public void testEquivalentFormsProduceEqualKeys() {
+        TraceFilterForm first = new TraceFilterForm();
+        first.setVulnTypes(Arrays.asList("xss", "sql-injection"));
+        first.setStatus(Arrays.asList("Reported", "Confirmed"));
+        first.setSeverities(EnumSet.of(RuleSeverity.HIGH, RuleSeverity.CRITICAL));
+
+        TraceFilterForm second = new TraceFilterForm();
+        second.setSeverities(EnumSet.of(RuleSeverity.CRITICAL, RuleSeverity.HIGH));
+        second.setStatus(Arrays.asList("Confirmed", "Reported", "Confirmed"));
+        second.setVulnTypes(Arrays.asList("sql-injection", "xss"));
+
+        Query firstQuery = first.freeze();
+        Query secondQuery = second.freeze();
+
+        assertEquals(firstQuery, secondQuery);
+        assertEquals(firstQuery.hashCode(), secondQuery.hashCode());
+        assertEquals(firstQuery.getKey(), secondQuery.getKey());
+
+        second.setVulnTypes(Arrays.asList("sql-injection"));
+        assertEquals(firstQuery, secondQuery);
+        assertNotEquals(firstQuery.getKey(), second.freeze().getKey());
+    }
+
+    @Test
+    public void testKeyIsStable() {
+        assertEquals(0xcbf29ce484222325L, Query.EMPTY.getKey());
+        assertEquals("", Query.EMPTY.encode());
+        assertEquals(Query.builder().add("limit", 10).build().getKey(), Query.builder().add("limit", "10").build().getKey());
+    }
+
+    @Test
+    public void testValuesAreUrlEncoded() {
+        Query query = Query.builder().addAll("appVersionTags", Arrays.asList("release 1.0", "a,b")).build();
+
+        assertEquals("?appVersionTags=a%2Cb,release+1.0", query.encode());
+        assertTrue(query.getValues("appVersionTags").contains("release+1.0"));
+        assertTrue(query.getValues("missing").isEmpty());
+    }
+
+    @Test
+    public void testToBuilderDoesNotModifyOriginal() {
+        Query query = Query.builder().add("limit", 25).add("offset", 0).build();
+
+        Query next = query.toBuilder().set("offset", 25).build();
+
+        assertEquals("?limit=25&offset=0", query.encode());
+        assertEquals("?limit=25&offset=25", next.encode());
+        assertEquals("?limit=25", next.toBuilder().remove("offset").build().encode());
+        try {
+            query.getNames().clear();
+            fail("Expected query parameters to be immutable");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testFreezeKeepsFormParameters() {
+        ApplicationFilterForm applicationForm = new ApplicationFilterForm();
+        applicationForm.setExpand(EnumSet.of(ApplicationFilterForm.ApplicationExpandValues.LICENSE));
+        applicationForm.setFilterTags(Arrays.asList("b", "a"));
+        assertEquals("?expand=license&filterTags=a,b&includeArchived=false&includeMerged=true&includeOnlyLicensed=false",
+                applicationForm.freeze().encode());
+
+        ServerFilterForm serverForm = new ServerFilterForm();
+        serverForm.setExpand(EnumSet.of(ServerFilterForm.ServerExpandValue.APPLICATIONS));
+        serverForm.setLimit(10);
+        assertEquals("?expand=applications&includeArchived=false&limit=10", serverForm.freeze().encode());
+
+        TraceFilterForm traceForm = new TraceFilterForm();
+        traceForm.setFilterText("tracked=true&quickFilter=OPEN");
+        traceForm.setExpand(EnumSet.of(TraceFilterForm.TraceExpandValue.APPLICATION, TraceFilterForm.TraceExpandValue.CARD));
+        traceForm.setOffset(0);
+        assertEquals("?expand=application,card&offset=0&quickFilter=OPEN&tracked=true", traceForm.freeze().encode());
+    }
+
+    @Test
+    public void testUrlBuilderQueryOverloads() {
+        UrlBuilder urlBuilder = UrlBuilder.getInstance();
+        Query query = Query.builder().add("limit", 5).build();
+
+        assertEquals("/ng/org/orgtraces/filter/?limit=5", urlBuilder.getTracesByOrganizationUrl("org", query));
+        assertEquals("/ng/org/traces/app/filter/?limit=5", urlBuilder.getTracesByApplicationUrl("org", "app", query));
+        assertEquals("/ng/org/traces/app/filter/vulntype/00005/search?limit=5",
+                urlBuilder.getTracesWithFilterUrl("org", "app", TraceFilterType.VULNTYPE, TraceFilterKeycode.OPEN_TRACES, query));
+        assertEquals("/ng/org/applications/filter?limit=5", urlBuilder.getApplicationFilterUrl("org", query));
+        assertEquals("/ng/org/servers/filter", urlBuilder.getServersFilterUrl("org", (Query) null));
+    }
+
+    @Test
+    public void testTraceListingsSendFormQuery() throws Exception {
+        final List<String> queries = new ArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Contrast/api/ng/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                synchronized (queries) {
+                    queries.add(exchange.getRequestURI().getRawQuery());
+                }
+                byte[] body = "{\"traces\":[],\"count\":0}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        try {
+            ContrastSDK sdk = new ContrastSDK.Builder("user", "serviceKey", "apiKey")
+                    .withApiUrl("http://localhost:" + server.getAddress().getPort() + "/Contrast/api")
+                    .build();
+
+            TraceFilterForm first = new TraceFilterForm();
+            first.setVulnTypes(Arrays.asList("xss", "sql-injection"));
+            first.setSeverities(EnumSet.of(RuleSeverity.HIGH, RuleSeverity.CRITICAL));
+            first.setLimit(10);
+
+            TraceFilterForm second = new TraceFilterForm();
+            second.setLimit(10);
+            second.setSeverities(EnumSet.of(RuleSeverity.CRITICAL, RuleSeverity.HIGH));
+            second.setVulnTypes(Arrays.asList("sql-injection", "xss", "xss"));
+
+            second.setFilterText("sort=title,-severity&limit=5");
+
+            sdk.getTracesInOrg("org", first);
+            sdk.getTraces("org", "app", second);
+
+            assertEquals("?" + queries.get(0), first.toQuery());
+            assertEquals("?" + queries.get(1), second.toQuery());
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals("severities=HIGH,CRITICAL&vulnTypes=xss,sql-injection&limit=10", queries.get(0));
+        assertEquals("sort=title,-severity&limit=5&severities=HIGH,CRITICAL&vulnTypes=sql-injection,xss,xss&limit=10", queries.get(1));
+    }
+
+    @Test
+    public void testEncodedValuesAreKeptAsWritten() {
+        Query sorted = Query.builder().addEncoded("sort=title,-severity").build();
+        Query reversed = Query.builder().addEncoded("sort=-severity,title").build();
+
+        assertEquals("?sort=title,-severity", sorted.encode());
+        assertNotEquals(sorted, reversed);
+        assertEquals("?limit=10,5", Query.builder().addEncoded("limit=10").add("limit", 5).build().encode());
+        assertEquals("?x", Query.builder().addEncoded("x").build().encode());
+        assertNotEquals(Query.builder().addEncoded("x").build(), Query.builder().addEncoded("x=").build());
+    }
+
+    @Test
+    public void testFreezeIgnoresNullLists() {
+        ApplicationFilterForm form = new ApplicationFilterForm();
+        form.setFilterServers(null);
+        form.setFilterTechs(null);
+        form.setFilterTags(null);
+        form.setFilterCompliance(null);
+        form.setFilterLanguages(null);
+
+        assertEquals("?includeArchived=false&includeMerged=true&includeOnlyLicensed=false", form.freeze().encode());
+    }
+}
@@ -0,0 +1,211 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.http.ApiRequest;
+import com.contrastsecurity.http.ApiResponse;
+import com.contrastsecurity.http.HttpMethod;
+import com.contrastsecurity.http.MediaType;
+import com.contrastsecurity.http.RequestInterceptor;
+import com.contrastsecurity.metrics.CallListener;
+import com.contrastsecurity.metrics.CallTimer;
+import com.contrastsecurity.metrics.SdkMetrics;
+import com.contrastsecurity.models.Servers;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RequestInterceptorTest {
+
+    private HttpServer server;
+    private final List<String> traceParents = new ArrayList<>();
+    private final List<String> requestBodies = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Contrast/api/ng/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                synchronized (traceParents) {
+                    traceParents.add(exchange.getRequestHeaders().getFirst("traceparent"));
+                    requestBodies.add(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+                }
+                String path = exchange.getRequestURI().getPath();
+                int status = path.contains("forbidden") ? 403 : path.contains("missing") ? 404 : path.contains("broken") ? 503 : 200;
+                byte[] body = "{\"servers\":[{\"server_id\":1,\"name\":\"one\"}]}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("X-Request-Id", "abc");
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testTracingSpan() throws Exception {
+        final List<String> spans = new ArrayList<>();
+        ContrastSDK sdk = builder().withInterceptor(new RequestInterceptor() {
+            @Override
+            public ApiResponse intercept(Chain chain) throws IOException {
+                final ApiRequest request = chain.request();
+                request.setHeader("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+                final long start = System.nanoTime();
+                final ApiResponse response = chain.proceed();
+                response.setBody(new FilterInputStream(response.getBody()) {
+                    private boolean closed;
+
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        if (closed) {
+                            return;
+                        }
+                        closed = true;
+                        assertTrue(System.nanoTime() - start > 0);
+                        spans.add(request.getMethod() + " " + request.getPath() + " " + response.getStatus() + " " + response.getHeader("x-request-id"));
+                    }
+                });
+                return response;
+            }
+        }).build();
+
+        Servers servers = sdk.getServers("org", null);
+        assertEquals(1, servers.getServers().size());
+        assertEquals("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01", traceParents.get(0));
+        assertEquals(1, spans.size());
+        assertTrue(spans.get(0), spans.get(0).startsWith("GET /ng/org/servers"));
+        assertTrue(spans.get(0), spans.get(0).endsWith(" 200 abc"));
+    }
+
+    @Test
+    public void testOrderAndBody() throws Exception {
+        final List<String> order = new ArrayList<>();
+        ContrastSDK sdk = builder().withInterceptor(new RequestInterceptor() {
+            @Override
+            public ApiResponse intercept(Chain chain) throws IOException {
+                order.add("first");
+                chain.request().setAttribute("span", "root");
+                return chain.proceed();
+            }
+        }).withInterceptor(new RequestInterceptor() {
+            @Override
+            public ApiResponse intercept(Chain chain) throws IOException {
+                order.add("second " + chain.request().getAttribute("span"));
+                chain.request().setBody("{\"changed\":true}", MediaType.JSON);
+                return chain.proceed();
+            }
+        }).build();
+
+        try (InputStream is = sdk.makeRequestWithBody(HttpMethod.POST, "/ng/org/securityChecks", "{}", MediaType.JSON)) {
+            assertTrue(IOUtils.toString(is, StandardCharsets.UTF_8).contains("servers"));
+        }
+        assertEquals(2, order.size());
+        assertEquals("first", order.get(0));
+        assertEquals("second root", order.get(1));
+        assertEquals("{\"changed\":true}", requestBodies.get(0));
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        ContrastSDK sdk = builder().withInterceptor(new RequestInterceptor() {
+            @Override
+            public ApiResponse intercept(Chain chain) throws IOException {
+                ApiResponse response = chain.proceed();
+                if (response.getStatus() >= 500) {
+                    IOUtils.closeQuietly(response.getBody());
+                    return chain.proceed();
+                }
+                return response;
+            }
+        }).build();
+
+        try {
+            sdk.makeRequest(HttpMethod.GET, "/ng/broken/servers");
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("503"));
+        }
+        assertEquals(2, traceParents.size());
+    }
+
+    @Test
+    public void testClientErrorStatus() throws Exception {
+        final List<Integer> statuses = new ArrayList<>();
+        ContrastSDK sdk = builder().withInterceptor(new RequestInterceptor() {
+            @Override
+            public ApiResponse intercept(Chain chain) throws IOException {
+                ApiResponse response = chain.proceed();
+                statuses.add(response.getStatus());
+                return response;
+            }
+        }).build();
+
+        try {
+            sdk.getServers("forbidden", null);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("403"));
+        }
+        try {
+            sdk.makeRequest(HttpMethod.GET, "/ng/missing/servers");
+            fail();
+        } catch (FileNotFoundException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("/ng/missing/servers"));
+        }
+        assertEquals(403, (int) statuses.get(0));
+        assertEquals(404, (int) statuses.get(1));
+    }
+
+    @Test
+    public void testMetricsWithWrappedBody() throws Exception {
+        final List<CallTimer> calls = new ArrayList<>();
+        SdkMetrics metrics = new SdkMetrics();
+        metrics.addListener(new CallListener() {
+            @Override
+            public void completed(CallTimer call) {
+                calls.add(call);
+            }
+        });
+        ContrastSDK sdk = builder().withMetrics(metrics).withInterceptor(new RequestInterceptor() {
+            @Override
+            public ApiResponse intercept(Chain chain) throws IOException {
+                ApiResponse response = chain.proceed();
+                return response.setBody(new FilterInputStream(response.getBody()) {
+                });
+            }
+        }).build();
+
+        sdk.getServers("org", null);
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0).getDecodeNanos() >= 0);
+        assertEquals(1, metrics.getEndpoint("GET /ng/org/servers").getDecode().getCount());
+    }
+
+    private ContrastSDK.Builder builder() {
+        return new ContrastSDK.Builder("user", "serviceKey", "apiKey")
+                .withApiUrl("http://localhost:" + server.getAddress().getPort() + "/Contrast/api");
+    }
+}
@@ -0,0 +1,103 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.export.SarifWriter;
+import com.contrastsecurity.models.Rules;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.sdk.Pager;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SarifWriterTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void testResultsAndRules() throws Exception {
+        Rules rules = gson.fromJson("{\"rules\":[{\"name\":\"sql-injection\",\"title\":\"SQL Injection\",\"description\":\"Untrusted data in SQL\","
+                + "\"severity\":\"Critical\",\"category\":\"Injection\",\"cwe\":\"https://cwe.mitre.org/data/definitions/89.html\","
+                + "\"references\":[\"https://owasp.org/sqli\"]},{\"name\":\"xss\",\"title\":\"XSS\"},{\"name\":\"unused\",\"title\":\"Unused\"}]}", Rules.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SarifWriter sarif = new SarifWriter(out, rules)) {
+            sarif.write(gson.fromJson("{\"traces\":["
+                    + "{\"uuid\":\"T1\",\"title\":\"SQL Injection from \\\"id\\\"\",\"rule_name\":\"sql-injection\",\"severity\":\"Critical\",\"hash\":\"h1\","
+                    + "\"request\":{\"method\":\"GET\",\"uri\":\"/api/users\"},"
+                    + "\"events\":[{\"type\":\"Creation\",\"codeContext\":\"request.getParameter(\\\"id\\\")\"},{\"type\":\"Trigger\",\"codeContext\":\"stmt.execute(sql)\"}]},"
+                    + "{\"uuid\":\"T2\",\"title\":\"XSS\",\"rule_name\":\"xss\",\"severity\":\"Medium\",\"application\":{\"app_id\":\"A\",\"name\":\"shop\"}},"
+                    + "{\"uuid\":\"T3\",\"title\":\"More SQL\",\"rule_name\":\"sql-injection\",\"severity\":\"Low\"},"
+                    + "{\"uuid\":\"T4\",\"title\":\"Custom\",\"rule_name\":\"custom-rule\",\"severity\":\"Note\"}]}", Traces.class));
+            assertEquals(4, sarif.getCount());
+        }
+
+        JsonObject log = gson.fromJson(new String(out.toByteArray(), StandardCharsets.UTF_8), JsonObject.class);
+        assertEquals("2.1.0", log.get("version").getAsString());
+        JsonObject run = log.getAsJsonArray("runs").get(0).getAsJsonObject();
+        JsonArray ruleTable = run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules");
+        assertEquals(3, ruleTable.size());
+        assertEquals("sql-injection", ruleTable.get(0).getAsJsonObject().get("id").getAsString());
+        assertEquals("Untrusted data in SQL", ruleTable.get(0).getAsJsonObject().getAsJsonObject("fullDescription").get("text").getAsString());
+        assertEquals("error", ruleTable.get(0).getAsJsonObject().getAsJsonObject("defaultConfiguration").get("level").getAsString());
+        assertEquals("custom-rule", ruleTable.get(2).getAsJsonObject().get("id").getAsString());
+
+        JsonArray results = run.getAsJsonArray("results");
+        assertEquals(4, results.size());
+        JsonObject first = results.get(0).getAsJsonObject();
+        assertEquals("SQL Injection from \"id\"", first.getAsJsonObject("message").get("text").getAsString());
+        assertEquals("error", first.get("level").getAsString());
+        assertEquals("/api/users", first.getAsJsonArray("locations").get(0).getAsJsonObject()
+                .getAsJsonArray("logicalLocations").get(0).getAsJsonObject().get("name").getAsString());
+        JsonArray flow = first.getAsJsonArray("codeFlows").get(0).getAsJsonObject()
+                .getAsJsonArray("threadFlows").get(0).getAsJsonObject().getAsJsonArray("locations");
+        assertEquals(2, flow.size());
+        assertEquals("stmt.execute(sql)", flow.get(1).getAsJsonObject().getAsJsonObject("location").getAsJsonObject("message").get("text").getAsString());
+        assertEquals("h1", first.getAsJsonObject("partialFingerprints").get("contrastHash").getAsString());
+
+        assertEquals(1, results.get(1).getAsJsonObject().get("ruleIndex").getAsInt());
+        assertEquals("warning", results.get(1).getAsJsonObject().get("level").getAsString());
+        assertEquals("shop", results.get(1).getAsJsonObject().getAsJsonObject("properties").get("applicationName").getAsString());
+        assertEquals(0, results.get(2).getAsJsonObject().get("ruleIndex").getAsInt());
+        assertEquals("note", results.get(3).getAsJsonObject().get("level").getAsString());
+    }
+
+    @Test
+    public void testPagedStream() throws Exception {
+        final int total = 20000;
+        Pager<Trace> pager = new Pager<Trace>(1000) {
+            @Override
+            protected List<Trace> fetch(int offset, int limit) {
+                StringBuilder json = new StringBuilder("{\"traces\":[");
+                for (int i = offset; i < Math.min(offset + limit, total); i++) {
+                    json.append(i == offset ? "" : ",").append("{\"uuid\":\"T").append(i)
+                            .append("\",\"title\":\"t\",\"rule_name\":\"rule-").append(i % 25).append("\",\"severity\":\"High\"}");
+                }
+                return gson.fromJson(json.append("]}").toString(), Traces.class).getTraces();
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SarifWriter sarif = new SarifWriter(out, null);
+        sarif.write(pager);
+        sarif.close();
+        assertEquals(total, sarif.getCount());
+
+        JsonObject run = gson.fromJson(new String(out.toByteArray(), StandardCharsets.UTF_8), JsonObject.class)
+                .getAsJsonArray("runs").get(0).getAsJsonObject();
+        assertEquals(total, run.getAsJsonArray("results").size());
+        assertEquals(25, run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules").size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteAfterClose() throws IOException {
+        SarifWriter sarif = new SarifWriter(new ByteArrayOutputStream(), null);
+        sarif.close();
+        sarif.write(new Trace());
+    }
+}
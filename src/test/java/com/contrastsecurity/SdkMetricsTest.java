@@ -0,0 +1,234 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.metrics.CallListener;
+import com.contrastsecurity.metrics.CallLogger;
+import com.contrastsecurity.metrics.CallTimer;
+import com.contrastsecurity.metrics.EndpointMetrics;
+import com.contrastsecurity.metrics.LatencyHistogram;
+import com.contrastsecurity.metrics.MetricsExporter;
+import com.contrastsecurity.metrics.SdkMetrics;
+import com.contrastsecurity.models.Servers;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SdkMetricsTest {
+
+    private HttpServer server;
+    private SdkMetrics metrics;
+    private ContrastSDK sdk;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Contrast/api/ng/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                if (path.contains("slow")) {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                int status = path.contains("forbidden") ? 403 : 200;
+                byte[] body = ("{\"servers\":[{\"server_id\":1,\"name\":\"one\"},{\"server_id\":2,\"name\":\"two\"}]}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        metrics = new SdkMetrics();
+        sdk = new ContrastSDK.Builder("user", "serviceKey", "apiKey")
+                .withApiUrl("http://localhost:" + server.getAddress().getPort() + "/Contrast/api")
+                .withMetrics(metrics)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        metrics.unregisterMBeans();
+        server.stop(0);
+    }
+
+    @Test
+    public void testEndpointNames() {
+        assertEquals("GET /ng/{id}/traces/{id}/filter/", SdkMetrics.endpoint("GET",
+                "/ng/0a8b6bc6-7c6f-4c1f-9e6f-2c3d4e5f6a7b/traces/5e1e2f3a-aaaa-bbbb-cccc-111122223333/filter/?expand=events&limit=10"));
+        assertEquals("GET /ng/{id}/servers", SdkMetrics.endpoint("GET", "/ng/ORG-1234-5678/servers"));
+        assertEquals("POST /ng/integrations/organizations/{id}/applications", SdkMetrics.endpoint("POST", "/ng/integrations/organizations/12345/applications"));
+        assertEquals("GET /ng/profile/organizations", SdkMetrics.endpoint("GET", "/ng/profile/organizations"));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), histogram.getMax());
+        assertEquals(500000, histogram.getValueAtPercentile(50), 500000 * 0.035);
+        assertEquals(990000, histogram.getValueAtPercentile(99), 990000 * 0.035);
+        assertEquals(1.0, histogram.getValueAtPercentile(100, TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(500500, histogram.getMean(), 1e-6);
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testRecordsCalls() throws Exception {
+        final List<CallTimer> calls = new ArrayList<>();
+        metrics.addListener(new CallListener() {
+            @Override
+            public void completed(CallTimer call) {
+                calls.add(call);
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            Servers servers = sdk.getServers("0a8b6bc6-7c6f-4c1f-9e6f-2c3d4e5f6a7b", null);
+            assertEquals(2, servers.getServers().size());
+        }
+        try {
+            sdk.getServers("forbidden", null);
+            fail();
+        } catch (IOException | UnauthorizedException e) {
+            // expected
+        }
+
+        EndpointMetrics servers = metrics.getEndpoint("GET /ng/{id}/servers");
+        assertEquals(3, servers.getRequestCount());
+        assertEquals(0, servers.getInFlight());
+        assertEquals(3, servers.getStatusCount(200));
+        assertEquals(0, servers.getErrorCount());
+        assertEquals(3 * 71, servers.getBytesIn());
+        assertEquals(3, servers.getDecode().getCount());
+        assertEquals(3, servers.getConnect().getCount());
+        assertTrue(servers.getTotal().getMax() >= servers.getFirstByte().getMax());
+
+        EndpointMetrics forbidden = metrics.getEndpoint("GET /ng/forbidden/servers");
+        assertEquals(1, forbidden.getRequestCount());
+        assertEquals(1, forbidden.getErrorCount());
+        assertEquals(1, forbidden.getStatusCount(403));
+        assertEquals(0, forbidden.getInFlight());
+
+        assertEquals(4, calls.size());
+        assertEquals(71, calls.get(0).getBytesIn());
+        assertTrue(calls.get(0).getDecodeNanos() >= 0);
+
+        final Map<String, EndpointMetrics>[] exported = new Map[1];
+        metrics.export(new MetricsExporter() {
+            @Override
+            public void export(Map<String, EndpointMetrics> endpoints) {
+                exported[0] = endpoints;
+            }
+        });
+        assertEquals(2, exported[0].size());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        sdk.getServers("0a8b6bc6-7c6f-4c1f-9e6f-2c3d4e5f6a7b", null);
+        metrics.registerMBeans("test");
+        sdk.getProfileOrganizations();
+
+        ObjectName servers = SdkMetrics.objectName("test", "GET /ng/{id}/servers");
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(servers, "RequestCount"));
+        ObjectName organizations = SdkMetrics.objectName("test", "GET /ng/profile/organizations");
+        assertEquals(0, ManagementFactory.getPlatformMBeanServer().getAttribute(organizations, "InFlight"));
+
+        metrics.unregisterMBeans();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(servers));
+    }
+
+    @Test
+    public void testEndpointLimit() {
+        SdkMetrics limited = new SdkMetrics(2);
+        limited.start("GET", "/a").finish();
+        limited.start("GET", "/b").finish();
+        limited.start("GET", "/c").finish();
+        limited.start("GET", "/d").finish();
+        assertEquals(3, limited.getEndpoints().size());
+        assertEquals(2, limited.getEndpoint(SdkMetrics.OTHER).getRequestCount());
+    }
+
+    @Test
+    public void testCallLogger() throws Exception {
+        final List<String> warnings = new ArrayList<>();
+        final List<String> debug = new ArrayList<>();
+        final boolean[] debugEnabled = {true};
+        Logger logger = (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(), new Class<?>[]{Logger.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "isWarnEnabled":
+                        return true;
+                    case "isDebugEnabled":
+                        return debugEnabled[0];
+                    case "warn":
+                        warnings.add(MessageFormatter.arrayFormat((String) args[0], (Object[]) args[1]).getMessage());
+                        return null;
+                    case "debug":
+                        debug.add(MessageFormatter.arrayFormat((String) args[0], (Object[]) args[1]).getMessage());
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+        metrics.addListener(new CallLogger(logger, 50, 64, 2));
+
+        sdk.getServers("slow", null);
+        assertEquals(2, warnings.size());
+        assertTrue(warnings.get(0), warnings.get(0).startsWith("Slow Contrast API call: endpoint=\"GET /ng/slow/servers\" org=- status=200"));
+        assertTrue(warnings.get(1), warnings.get(1).startsWith("Large Contrast API response: endpoint=\"GET /ng/slow/servers\" org=- status=200 bytes=71"));
+
+        warnings.clear();
+        for (int i = 0; i < 3; i++) {
+            sdk.getServers("0a8b6bc6-7c6f-4c1f-9e6f-2c3d4e5f6a7b", null);
+        }
+        // the calls may also be logged as slow on a loaded machine
+        List<String> large = new ArrayList<>();
+        for (String warning : warnings) {
+            if (warning.startsWith("Large")) {
+                large.add(warning);
+            }
+        }
+        assertEquals(3, large.size());
+        assertTrue(large.get(0), large.get(0).contains(" org=0a8b6bc6-7c6f-4c1f-9e6f-2c3d4e5f6a7b "));
+        assertEquals(2, debug.size());
+        assertTrue(debug.get(0), debug.get(0).startsWith("Contrast API call: GET /ng/slow/servers status=200 failed=false"));
+
+        debugEnabled[0] = false;
+        sdk.getServers("0a8b6bc6-7c6f-4c1f-9e6f-2c3d4e5f6a7b", null);
+        assertEquals(2, debug.size());
+    }
+}
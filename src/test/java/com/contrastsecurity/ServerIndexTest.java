@@ -0,0 +1,79 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.ServerIndex;
+import com.contrastsecurity.analytics.ServerIndex.Attribute;
+import com.contrastsecurity.analytics.ServerIndex.ServerQuery;
+import com.contrastsecurity.models.Server;
+import com.contrastsecurity.models.Servers;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static com.contrastsecurity.analytics.ServerIndex.ServerQuery.*;
+import static org.junit.Assert.*;
+
+public class ServerIndexTest {
+
+    private ServerIndex index;
+    private Gson gson;
+
+    @Before
+    public void setUp() {
+        index = new ServerIndex();
+        gson = new Gson();
+        StringBuilder json = new StringBuilder("{\"servers\":[");
+        String[] environments = {"PRODUCTION", "QA", "DEVELOPMENT"};
+        for (int i = 0; i < 300; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"server_id\":").append(i)
+                    .append(",\"environment\":\"").append(environments[i % 3]).append('"')
+                    .append(",\"status\":\"").append(i % 10 == 0 ? "OFFLINE" : "ONLINE").append('"')
+                    .append(",\"agent_version\":\"3.").append(i % 4).append(".0\"")
+                    .append(",\"assess\":").append(i % 2 == 0)
+                    .append(",\"defend\":").append(i % 5 == 0)
+                    .append(",\"logLevel\":\"").append(i < 150 ? "INFO" : "DEBUG").append("\"}");
+        }
+        index.update(gson.fromJson(json.append("]}").toString(), Servers.class));
+    }
+
+    @Test
+    public void testBooleanQueries() {
+        assertEquals(300, index.size());
+        assertEquals(100, index.count(eq(Attribute.ENVIRONMENT, "PRODUCTION")));
+        assertEquals(50, index.count(and(eq(Attribute.ENVIRONMENT, "PRODUCTION"), eq(Attribute.ASSESS, true))));
+        assertEquals(200, index.count(or(eq(Attribute.ENVIRONMENT, "QA"), eq(Attribute.ENVIRONMENT, "DEVELOPMENT"))));
+        assertEquals(200, index.count(not(eq(Attribute.ENVIRONMENT, "PRODUCTION"))));
+        assertEquals(150, index.count(in(Attribute.AGENT_VERSION, "3.0.0", "3.2.0")));
+        assertEquals(0, index.count(eq(Attribute.CONTAINER, "docker")));
+        assertEquals(300, index.count(ServerQuery.all()));
+
+        long[] ids = index.select(and(eq(Attribute.STATUS, "OFFLINE"), eq(Attribute.DEFEND, true), not(eq(Attribute.LOG_LEVEL, "INFO"))));
+        assertArrayEquals(new long[]{150, 160, 170, 180, 190, 200, 210, 220, 230, 240, 250, 260, 270, 280, 290}, ids);
+    }
+
+    @Test
+    public void testCountBy() {
+        Map<String, Integer> byEnvironment = index.countBy(Attribute.ENVIRONMENT, eq(Attribute.STATUS, "OFFLINE"));
+        assertEquals(Integer.valueOf(10), byEnvironment.get("PRODUCTION"));
+        assertEquals(Integer.valueOf(10), byEnvironment.get("QA"));
+        assertEquals(Integer.valueOf(10), byEnvironment.get("DEVELOPMENT"));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        index.update(gson.fromJson("{\"server_id\":0,\"environment\":\"QA\",\"status\":\"ONLINE\"}", Server.class));
+        assertEquals(99, index.count(eq(Attribute.ENVIRONMENT, "PRODUCTION")));
+        assertEquals(101, index.count(eq(Attribute.ENVIRONMENT, "QA")));
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(299, index.count(not(eq(Attribute.ENVIRONMENT, "NONE"))));
+        assertEquals(100, index.count(eq(Attribute.ENVIRONMENT, "QA")));
+
+        index.update(gson.fromJson("{\"server_id\":1000,\"environment\":\"PRODUCTION\"}", Server.class));
+        assertEquals(300, index.size());
+        assertArrayEquals(new long[]{1000}, index.select(and(eq(Attribute.ENVIRONMENT, "PRODUCTION"), eq(Attribute.ASSESS, false),
+                eq(Attribute.DEFEND, false), not(eq(Attribute.STATUS, "ONLINE")), not(eq(Attribute.STATUS, "OFFLINE")))));
+    }
+}
@@ -0,0 +1,128 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.export.ApplicationSnapshot;
+import com.contrastsecurity.export.ApplicationSnapshotWriter;
+import com.contrastsecurity.export.TraceSnapshot;
+import com.contrastsecurity.export.TraceSnapshotWriter;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class SnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void testTraceSnapshotRoundTrip() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("traces.snap");
+        int count = 5000;
+
+        try (TraceSnapshotWriter writer = new TraceSnapshotWriter(file)) {
+            for (int offset = 0; offset < count; offset += 1000) {
+                StringBuilder json = new StringBuilder("{\"traces\":[");
+                for (int i = offset; i < offset + 1000; i++) {
+                    json.append(i == offset ? "" : ",")
+                            .append("{\"uuid\":\"UUID-").append(i)
+                            .append("\",\"title\":\"XSS on /caf\u00e9/").append(i).append(" \ud83d\ude00")
+                            .append("\",\"rule_name\":\"").append(i % 2 == 0 ? "xss" : "sql-injection")
+                            .append("\",\"severity\":\"High\",\"status\":\"Reported\",\"visible\":true")
+                            .append(",\"first_time_seen\":").append(1000L + i)
+                            .append(i % 3 == 0 ? ",\"closed_time\":5" : "")
+                            .append(",\"application\":{\"app_id\":\"app-").append(i % 7).append("\"}}");
+                }
+                writer.write(gson.fromJson(json.append("]}").toString(), Traces.class));
+            }
+            assertEquals(count, writer.getCount());
+        }
+
+        try (TraceSnapshot snapshot = new TraceSnapshot(file)) {
+            assertEquals(count, snapshot.size());
+            TraceSnapshot.TraceView view = snapshot.view();
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                view.moveTo(i);
+                assertTrue(view.uuidEquals("UUID-" + i));
+                assertEquals("UUID-" + i, view.getUuid());
+                builder.setLength(0);
+                assertTrue(view.appendTitle(builder));
+                assertEquals("XSS on /caf\u00e9/" + i + " \ud83d\ude00", builder.toString());
+                assertEquals(i % 2 == 0 ? "xss" : "sql-injection", view.getRule());
+                assertEquals("High", view.getSeverity());
+                assertEquals("app-" + (i % 7), view.getApplicationId());
+                assertNull(view.getSubStatus());
+                assertTrue(view.getVisible());
+                assertEquals(1000L + i, view.getFirstTimeSeen());
+                assertEquals(TraceSnapshot.NO_TIME, view.getLastTimeSeen());
+                assertEquals(i % 3 == 0 ? 5L : TraceSnapshot.NO_TIME, view.getClosedTime());
+            }
+            assertFalse(view.moveTo(0).uuidEquals("UUID-1"));
+            assertSame(view.moveTo(0).getSeverity(), view.moveTo(1).getSeverity());
+        }
+    }
+
+    @Test
+    public void testApplicationSnapshotRoundTrip() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("apps.snap");
+        Applications applications = gson.fromJson("{\"applications\":["
+                + "{\"app_id\":\"app-1\",\"name\":\"WebGoat\",\"path\":\"/WebGoat\",\"language\":\"Java\",\"status\":\"offline\",\"archived\":true,\"created\":1461599820000,\"last_seen\":1461737160000,\"importance\":2},"
+                + "{\"app_id\":\"app-2\",\"name\":\"portal\",\"language\":\"Java\",\"master\":true}]}", Applications.class);
+
+        try (ApplicationSnapshotWriter writer = new ApplicationSnapshotWriter(file)) {
+            writer.write(applications);
+        }
+
+        try (ApplicationSnapshot snapshot = new ApplicationSnapshot(file)) {
+            assertEquals(2, snapshot.size());
+            ApplicationSnapshot.ApplicationView view = snapshot.view().moveTo(0);
+            assertEquals("app-1", view.getId());
+            assertEquals("WebGoat", view.getName());
+            assertEquals("/WebGoat", view.getPath());
+            assertEquals("Java", view.getLanguage());
+            assertTrue(view.getArchived());
+            assertFalse(view.getMaster());
+            assertEquals(2, view.getImportance());
+            assertEquals(1461737160000L, view.getLastSeen());
+
+            view.moveTo(1);
+            assertTrue(view.idEquals("app-2"));
+            assertNull(view.getPath());
+            assertNull(view.getStatus());
+            assertTrue(view.getMaster());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongSnapshotKindIsRejected() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("apps.snap");
+        new ApplicationSnapshotWriter(file).close();
+        new TraceSnapshot(file);
+    }
+
+    @Test
+    public void testFailedCloseLeavesNoTemporaryFiles() throws IOException {
+        // a non-empty directory at the target path makes the final move fail
+        Path file = folder.newFolder("apps.snap").toPath();
+        Files.createFile(file.resolve("occupied"));
+        ApplicationSnapshotWriter writer = new ApplicationSnapshotWriter(file);
+        writer.write(gson.fromJson("{\"applications\":[{\"app_id\":\"A\",\"name\":\"one\"}]}", Applications.class).getApplications().get(0));
+        try {
+            writer.close();
+            fail();
+        } catch (IOException expected) {
+            // the target is in the way
+        }
+        assertArrayEquals(new String[]{"apps.snap"}, folder.getRoot().list());
+    }
+}
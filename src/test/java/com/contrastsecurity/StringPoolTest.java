@@ -0,0 +1,80 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.models.Servers;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.utils.CanonicalizingTypeAdapterFactory;
+import com.contrastsecurity.utils.StringPool;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StringPoolTest {
+
+    private StringPool pool;
+    private Gson gson;
+
+    @Before
+    public void setUp() {
+        pool = new StringPool(8, 32);
+        gson = new GsonBuilder().registerTypeAdapterFactory(new CanonicalizingTypeAdapterFactory(pool)).create();
+    }
+
+    @Test
+    public void testInternReturnsCanonicalInstance() {
+        String first = pool.intern(new String("Medium"));
+        String second = pool.intern(new String("Medium"));
+
+        assertSame(first, second);
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        for (int i = 0; i < 20; i++) {
+            pool.intern("value-" + i);
+        }
+        assertEquals(8, pool.size());
+
+        String unpooled = new String("value-19");
+        assertSame(unpooled, pool.intern(unpooled));
+    }
+
+    @Test
+    public void testLongValuesAreNotPooled() {
+        String longValue = "a value that is clearly longer than thirty-two characters";
+        pool.intern(longValue);
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testTraceFieldsAreCanonicalized() {
+        String tracesString = "{\"count\":2,\"traces\":[{\"title\":\"first\",\"language\":\"Java\",\"status\":\"Reported\",\"uuid\":\"KNBG-XTO9-ED1O-PG2X\",\"rule_name\":\"cookie-flags-missing\",\"severity\":\"Medium\"},"
+                + "{\"title\":\"second\",\"language\":\"Java\",\"status\":\"Reported\",\"uuid\":\"IJ92-WGDU-JCY4-F4EZ\",\"rule_name\":\"cookie-flags-missing\",\"severity\":\"Medium\"}]}";
+
+        Traces traces = gson.fromJson(tracesString, Traces.class);
+        Trace first = traces.getTraces().get(0);
+        Trace second = traces.getTraces().get(1);
+
+        assertSame(first.getSeverity(), second.getSeverity());
+        assertSame(first.getStatus(), second.getStatus());
+        assertSame(first.getRule(), second.getRule());
+        assertSame(first.getLanguage(), second.getLanguage());
+        assertNotSame(first.getUuid(), second.getUuid());
+        assertEquals("IJ92-WGDU-JCY4-F4EZ", second.getUuid());
+    }
+
+    @Test
+    public void testServerFieldsAreCanonicalized() {
+        String serversString = "{\"servers\":[{\"server_id\":1,\"agent_version\":\"3.2.8\",\"environment\":\"DEVELOPMENT\"},{\"server_id\":2,\"agent_version\":\"3.2.8\",\"environment\":\"DEVELOPMENT\"}]}";
+
+        Servers servers = gson.fromJson(serversString, Servers.class);
+
+        assertSame(servers.getServers().get(0).getEnvironment(), servers.getServers().get(1).getEnvironment());
+        assertSame(servers.getServers().get(0).getAgentVersion(), servers.getServers().get(1).getAgentVersion());
+    }
+}
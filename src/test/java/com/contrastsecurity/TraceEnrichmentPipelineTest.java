@@ -0,0 +1,207 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.codec.GsonCodec;
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.TraceNotesResponse;
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.sdk.BulkOptions;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.EnrichedTrace;
+import com.contrastsecurity.sdk.FanOut;
+import com.contrastsecurity.sdk.TraceEnrichmentPipeline;
+import com.contrastsecurity.sdk.TraceKey;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TraceEnrichmentPipelineTest {
+
+    private final GsonCodec codec = new GsonCodec();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger noteCalls = new AtomicInteger();
+
+    @SuppressWarnings("deprecation")
+    private final ContrastSDK sdk = new ContrastSDK("user", "serviceKey", "apiKey") {
+        @Override
+        public Trace getTrace(String organizationId, String appId, String traceId, EnumSet<TraceFilterForm.TraceExpandValue> expandValues)
+                throws IOException, UnauthorizedException {
+            maxInFlight.set(Math.max(maxInFlight.get(), inFlight.incrementAndGet()));
+            try {
+                int delay = Integer.parseInt(traceId);
+                if (delay < 0) {
+                    // ignores interrupts, like a read blocked in I/O
+                    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(-delay);
+                    while (System.nanoTime() < end) {
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            // keep going
+                        }
+                    }
+                }
+                Thread.sleep(Math.max(delay, 0));
+                if (delay == 13) {
+                    throw new UnauthorizedException(404);
+                }
+                if (delay == 17) {
+                    throw new ExceptionInInitializerError("codec");
+                }
+                String json = "{\"trace\":{\"uuid\":\"" + traceId + "\",\"events\":[{\"eventId\":\"1\"}],\"request\":{\"uri\":\"/" + appId + "\"}}}";
+                return codec.<Traces>decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Traces.class).getTrace();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public TraceNotesResponse getNotes(String organizationId, String appId, String traceId, TraceFilterForm form) throws IOException {
+            noteCalls.incrementAndGet();
+            String json = "{\"notes\":[{\"note\":\"note " + traceId + "\"}]}";
+            return codec.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), TraceNotesResponse.class);
+        }
+    };
+
+    @Test
+    public void testEmitsInCompletionOrder() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new TraceEnrichmentPipeline.Builder(sdk, "org").withOptions(new BulkOptions().withParallelism(4)).build()
+                .run(keys(120, 10, 60, 30), recorder);
+
+        assertEquals(Arrays.asList("10", "30", "60", "120"), recorder.order);
+        EnrichedTrace first = recorder.records.get(0);
+        assertEquals("app", first.getKey().getAppId());
+        assertEquals(1, first.getEvents().size());
+        assertEquals("/app", first.getRequest().getUri());
+        assertEquals("note 10", first.getNotes().get(0).getNote());
+    }
+
+    @Test
+    public void testOrderedEmissionWithBoundedParallelism() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new TraceEnrichmentPipeline.Builder(sdk, "org").withOrdered(true).withOptions(new BulkOptions().withParallelism(2)).build()
+                .run(keys(40, 5, 13, 5, 20, 1), recorder);
+
+        assertEquals(Arrays.asList("40", "5", "13", "5", "20", "1"), recorder.order);
+        assertEquals(5, recorder.records.size());
+        assertTrue(recorder.errors.get(0) instanceof UnauthorizedException);
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorsAreReported() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new TraceEnrichmentPipeline.Builder(sdk, "org").withOrdered(true).withOptions(new BulkOptions().withParallelism(1)).build()
+                .run(keys(17, 5), recorder);
+
+        assertEquals(Arrays.asList("17", "5"), recorder.order);
+        assertTrue(recorder.errors.get(0) instanceof ExecutionException);
+        assertTrue(recorder.errors.get(0).getCause() instanceof ExceptionInInitializerError);
+    }
+
+    @Test
+    public void testSlowTraceTimesOut() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new TraceEnrichmentPipeline.Builder(sdk, "org")
+                .withOptions(new BulkOptions().withParallelism(2).withCallTimeout(100, TimeUnit.MILLISECONDS)).build()
+                .run(keys(5000, 10), recorder);
+
+        assertEquals(Arrays.asList("10", "5000"), recorder.order);
+        assertTrue(recorder.errors.get(0) instanceof TimeoutException);
+    }
+
+    @Test
+    public void testDeadlineStartsWhenFetchRuns() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Recorder recorder = new Recorder();
+            new TraceEnrichmentPipeline.Builder(sdk, "org")
+                    .withOptions(new BulkOptions().withParallelism(2).withExecutor(executor).withCallTimeout(150, TimeUnit.MILLISECONDS)).build()
+                    .run(keys(5000, 10), recorder);
+
+            assertEquals(Arrays.asList("5000", "10"), recorder.order);
+            assertEquals(1, recorder.errors.size());
+            assertTrue(recorder.errors.get(0) instanceof TimeoutException);
+            assertEquals("10", recorder.records.get(0).getKey().getTraceUuid());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExpiredFetchKeepsItsSlotUntilItReturns() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Recorder recorder = new Recorder();
+            new TraceEnrichmentPipeline.Builder(sdk, "org")
+                    .withOptions(new BulkOptions().withParallelism(1).withExecutor(executor).withCallTimeout(50, TimeUnit.MILLISECONDS)).build()
+                    .run(keys(-300, 10), recorder);
+
+            assertEquals(Arrays.asList("-300", "10"), recorder.order);
+            assertTrue(recorder.errors.get(0) instanceof TimeoutException);
+            assertEquals(1, maxInFlight.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFetchesOnlyRequestedParts() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new TraceEnrichmentPipeline.Builder(sdk, "org").withParts(EnumSet.of(TraceEnrichmentPipeline.Part.EVENTS)).build()
+                .run(keys(1, 2), recorder);
+
+        assertEquals(2, recorder.records.size());
+        assertEquals(0, noteCalls.get());
+        assertEquals(Collections.emptyList(), recorder.records.get(0).getNotes());
+    }
+
+    private static Iterator<TraceKey> keys(Integer... delays) {
+        List<TraceKey> keys = new ArrayList<>();
+        for (Integer delay : delays) {
+            keys.add(new TraceKey("app", delay.toString()));
+        }
+        return keys.iterator();
+    }
+
+    private static class Recorder implements FanOut.Listener<TraceKey, EnrichedTrace> {
+        private final String thread = Thread.currentThread().getName();
+        private final List<String> order = new ArrayList<>();
+        private final List<EnrichedTrace> records = new ArrayList<>();
+        private final List<Exception> errors = new ArrayList<>();
+
+        @Override
+        public void onResult(TraceKey key, EnrichedTrace record) {
+            assertEquals(thread, Thread.currentThread().getName());
+            order.add(key.getTraceUuid());
+            records.add(record);
+        }
+
+        @Override
+        public void onError(TraceKey key, Exception error) {
+            assertEquals(thread, Thread.currentThread().getName());
+            order.add(key.getTraceUuid());
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.TraceSearchIndex;
+import com.contrastsecurity.analytics.TraceSearchIndex.Field;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class TraceSearchIndexTest {
+
+    private TraceSearchIndex index;
+    private Gson gson;
+
+    @Before
+    public void setUp() {
+        index = new TraceSearchIndex();
+        gson = new Gson();
+        index.update(gson.fromJson("{\"traces\":["
+                + "{\"uuid\":\"T1\",\"title\":\"SQL Injection from \\\"id\\\" Parameter on /api/users\",\"evidence\":\"SELECT * FROM users\","
+                + "\"request\":{\"uri\":\"/api/users?id=1\"}},"
+                + "{\"uuid\":\"T2\",\"title\":\"Cross-Site Scripting from \\\"q\\\" Parameter on /search\",\"request\":{\"uri\":\"/search\"}},"
+                + "{\"uuid\":\"T3\",\"title\":\"Insecure Hash Algorithms\",\"evidence\":\"MessageDigest.getInstance(\\\"MD5\\\")\"}]}",
+                Traces.class));
+    }
+
+    @Test
+    public void testAllTokensMustMatch() {
+        assertEquals(Arrays.asList("T1", "T2"), index.search("parameter", 10));
+        assertEquals(Collections.singletonList("T1"), index.search("Parameter USERS", 10));
+        assertTrue(index.search("parameter md5", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void testLastTokenMatchesAsPrefix() {
+        assertEquals(Collections.singletonList("T3"), index.search("messagedigest getinst", 10));
+        assertEquals(Arrays.asList("T1", "T2"), index.search("s", 10));
+        assertEquals(Collections.singletonList("T1"), index.search("s", 1));
+        assertTrue(index.search("sq injection", 10).isEmpty());
+    }
+
+    @Test
+    public void testFieldRestriction() {
+        assertEquals(Collections.singletonList("T2"), index.search("search", EnumSet.of(Field.URI), 10));
+        assertEquals(Collections.singletonList("T1"), index.search("select", EnumSet.of(Field.EVIDENCE), 10));
+        assertTrue(index.search("select", EnumSet.of(Field.TITLE), 10).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        index.update(gson.fromJson("{\"uuid\":\"T1\",\"title\":\"Path Traversal\"}", Trace.class));
+        assertEquals(Collections.singletonList("T2"), index.search("parameter", 10));
+        assertEquals(Collections.singletonList("T1"), index.search("traversal", 10));
+
+        assertTrue(index.remove("T2"));
+        assertFalse(index.remove("T2"));
+        assertTrue(index.search("parameter", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.FingerprintSnapshotWriter;
+import com.contrastsecurity.analytics.TraceFingerprint;
+import com.contrastsecurity.analytics.TraceSetDiff;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Writes two snapshots of the same traces in random order, with a share of them changed,
+ * and times writing and diffing them. Arguments: number of traces, percentage changed.
+ */
+public class TraceSetDiffBenchmark {
+
+    private static final String[] STATUSES = {"Reported", "Suspicious", "Confirmed", "NotAProblem", "Remediated"};
+    private static final String[] SEVERITIES = {"Note", "Low", "Medium", "High", "Critical"};
+
+    public static void main(String[] args) throws IOException {
+        int traceCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int changedPercent = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        File before = File.createTempFile("before-", ".bin");
+        File after = File.createTempFile("after-", ".bin");
+        before.deleteOnExit();
+        after.deleteOnExit();
+
+        long start = System.nanoTime();
+        Random random = new Random(1);
+        try (FingerprintSnapshotWriter older = new FingerprintSnapshotWriter(before); FingerprintSnapshotWriter newer = new FingerprintSnapshotWriter(after)) {
+            for (int i = 0; i < traceCount; i++) {
+                String uuid = new UUID(random.nextLong(), random.nextLong()).toString();
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                String severity = SEVERITIES[random.nextInt(SEVERITIES.length)];
+                older.add(new TraceFingerprint(uuid, status, severity, false));
+                if (random.nextInt(100) < changedPercent) {
+                    status = STATUSES[random.nextInt(STATUSES.length)];
+                }
+                newer.add(new TraceFingerprint(uuid, status, severity, false));
+            }
+            older.finish();
+            newer.finish();
+        }
+        System.out.printf("%d traces written in %.1f s (%.1f MB each)%n", traceCount, (System.nanoTime() - start) / 1e9, before.length() / 1e6);
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            start = System.nanoTime();
+            Map<TraceSetDiff.Change, Long> counts = TraceSetDiff.diff(before, after, null);
+            System.out.printf("diff: %.1f ms, %s%n", (System.nanoTime() - start) / 1e6, counts);
+        }
+    }
+}
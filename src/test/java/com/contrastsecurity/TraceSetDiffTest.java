@@ -0,0 +1,131 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.FingerprintSnapshotWriter;
+import com.contrastsecurity.analytics.TraceFingerprint;
+import com.contrastsecurity.analytics.TraceSetDiff;
+import com.contrastsecurity.analytics.TraceSetDiff.Change;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TraceSetDiffTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshotIsSortedAndDeduplicatedAcrossRuns() throws IOException {
+        File snapshot = folder.newFile("snapshot.bin");
+        try (FingerprintSnapshotWriter writer = new FingerprintSnapshotWriter(snapshot, 2)) {
+            writer.add(new TraceFingerprint("C", "Reported", "High", false));
+            writer.add(new TraceFingerprint("A", "Reported", "Low", false));
+            writer.add(new TraceFingerprint("B", "Reported", "Low", false));
+            writer.add(new TraceFingerprint("A", "Confirmed", "Low", false));
+            writer.add(new TraceFingerprint("D", "Reported", "Note", false));
+            writer.finish();
+        }
+        File empty = folder.newFile("empty.bin");
+        new FingerprintSnapshotWriter(empty).finish();
+
+        final List<String> added = new ArrayList<>();
+        Map<Change, Long> counts = TraceSetDiff.diff(empty, snapshot, new TraceSetDiff.Listener() {
+            @Override
+            public void onDifference(TraceSetDiff.Difference difference) {
+                added.add(difference.getUuid() + ":" + difference.getAfter().getStatus());
+            }
+        });
+        assertEquals(4L, counts.get(Change.ADDED).longValue());
+        assertEquals("[A:Confirmed, B:Reported, C:Reported, D:Reported]", added.toString());
+        assertEquals(1, folder.getRoot().list().length - 1);
+    }
+
+    @Test
+    public void testDiffReportsChanges() throws IOException {
+        Gson gson = new Gson();
+        File before = snapshot("before.bin", gson.fromJson("{\"traces\":["
+                + "{\"uuid\":\"T1\",\"status\":\"Reported\",\"severity\":\"High\"},"
+                + "{\"uuid\":\"T2\",\"status\":\"Reported\",\"severity\":\"High\"},"
+                + "{\"uuid\":\"T3\",\"status\":\"Confirmed\",\"severity\":\"Low\"},"
+                + "{\"uuid\":\"T4\",\"status\":\"Reported\",\"severity\":\"Medium\"}]}", Traces.class));
+        File after = snapshot("after.bin", gson.fromJson("{\"traces\":["
+                + "{\"uuid\":\"T5\",\"status\":\"Reported\",\"severity\":\"Critical\"},"
+                + "{\"uuid\":\"T3\",\"status\":\"Confirmed\",\"severity\":\"Critical\"},"
+                + "{\"uuid\":\"T2\",\"status\":\"Remediated\",\"severity\":\"High\",\"closed_time\":1000},"
+                + "{\"uuid\":\"T1\",\"status\":\"Reported\",\"severity\":\"High\"}]}", Traces.class));
+
+        final List<TraceSetDiff.Difference> differences = new ArrayList<>();
+        Map<Change, Long> counts = TraceSetDiff.diff(before, after, new TraceSetDiff.Listener() {
+            @Override
+            public void onDifference(TraceSetDiff.Difference difference) {
+                differences.add(difference);
+            }
+        });
+
+        assertEquals(4, differences.size());
+        assertEquals("T2", differences.get(0).getUuid());
+        assertEquals(EnumSet.of(Change.CLOSED, Change.STATUS_CHANGED), differences.get(0).getChanges());
+        assertEquals(EnumSet.of(Change.SEVERITY_CHANGED), differences.get(1).getChanges());
+        assertEquals("T4", differences.get(2).getUuid());
+        assertNull(differences.get(2).getAfter());
+        assertEquals(EnumSet.of(Change.ADDED), differences.get(3).getChanges());
+        assertEquals(1L, counts.get(Change.REMOVED).longValue());
+        assertEquals(0L, counts.get(Change.REOPENED).longValue());
+    }
+
+    @Test
+    public void testTruncatedSnapshotFails() throws IOException {
+        File before = snapshot("before.bin", new Gson().fromJson("{\"traces\":["
+                + "{\"uuid\":\"T1\",\"status\":\"Reported\"},{\"uuid\":\"T2\",\"status\":\"Reported\"}]}", Traces.class));
+        File after = folder.newFile("after.bin");
+        byte[] bytes = Files.readAllBytes(before.toPath());
+        Files.write(after.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        try {
+            TraceSetDiff.diff(before, after, new TraceSetDiff.Listener() {
+                @Override
+                public void onDifference(TraceSetDiff.Difference difference) {
+                    fail("Unexpected difference " + difference.getUuid());
+                }
+            });
+            fail("Expected a truncated snapshot to fail");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("truncated"));
+        }
+    }
+
+    @Test
+    public void testFailedFinishLeavesNoTemporaryFiles() throws IOException {
+        File target = folder.newFolder("snapshot.bin");
+        assertTrue(new File(target, "child").createNewFile());
+        try (FingerprintSnapshotWriter writer = new FingerprintSnapshotWriter(target, 1)) {
+            writer.add(new TraceFingerprint("A", "Reported", "Low", false));
+            writer.add(new TraceFingerprint("B", "Reported", "Low", false));
+            try {
+                writer.finish();
+                fail("Expected the move onto a non-empty directory to fail");
+            } catch (IOException expected) {
+            }
+        }
+        assertEquals(Arrays.asList("snapshot.bin"), Arrays.asList(folder.getRoot().list()));
+    }
+
+    private File snapshot(String name, Traces traces) throws IOException {
+        try (FingerprintSnapshotWriter writer = new FingerprintSnapshotWriter(folder.newFile(name), 3)) {
+            writer.add(traces);
+            return writer.finish();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.TraceStore;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares filter and group-by scans over a {@link TraceStore} with the same scans over a
+ * List of Trace objects. Run with the test classpath, e.g. from the IDE, optionally passing
+ * the number of traces as the first argument.
+ */
+public class TraceStoreBenchmark {
+
+    private static final String[] RULES = {"sql-injection", "xss", "cookie-flags-missing", "path-traversal", "crypto-bad-mac", "hql-injection"};
+    private static final String[] SEVERITIES = {"Note", "Low", "Medium", "High", "Critical"};
+    private static final String[] STATUSES = {"Reported", "Suspicious", "Confirmed", "NotAProblem", "Remediated", "Fixed"};
+
+    public static void main(String[] args) {
+        int traceCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        List<Trace> traces = generate(traceCount);
+
+        long heapBefore = usedHeap();
+        TraceStore store = new TraceStore(traceCount);
+        store.ingest(traces);
+        long storeBytes = usedHeap() - heapBefore;
+
+        System.out.printf("traces: %d, store heap: ~%d bytes/trace%n", traceCount, storeBytes / traceCount);
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            long start = System.nanoTime();
+            int pojoCount = 0;
+            Map<String, Integer> pojoGroups = new HashMap<>();
+            for (Trace trace : traces) {
+                if (("High".equals(trace.getSeverity()) || "Critical".equals(trace.getSeverity())) && !"Fixed".equals(trace.getStatus())) {
+                    pojoCount++;
+                    Integer count = pojoGroups.get(trace.getRule());
+                    pojoGroups.put(trace.getRule(), count == null ? 1 : count + 1);
+                }
+            }
+            long pojoNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            TraceStore.Filter filter = new TraceStore.Filter()
+                    .withSeverities("High", "Critical")
+                    .withStatuses("Reported", "Suspicious", "Confirmed", "NotAProblem", "Remediated");
+            int storeCount = store.count(filter);
+            Map<String, Integer> storeGroups = store.countBy(TraceStore.Column.RULE, filter);
+            long storeNanos = System.nanoTime() - start;
+
+            System.out.printf("pojo: %d matches, %d groups in %.1f ms; store: %d matches, %d groups in %.1f ms%n",
+                    pojoCount, pojoGroups.size(), pojoNanos / 1e6, storeCount, storeGroups.size(), storeNanos / 1e6);
+        }
+    }
+
+    private static List<Trace> generate(int count) {
+        Gson gson = new Gson();
+        List<Trace> traces = new ArrayList<>(count);
+        int pageSize = 10000;
+        for (int offset = 0; offset < count; offset += pageSize) {
+            StringBuilder json = new StringBuilder("{\"traces\":[");
+            for (int i = offset; i < Math.min(count, offset + pageSize); i++) {
+                json.append(i == offset ? "" : ",")
+                        .append("{\"uuid\":\"").append(String.format("%04X-%04X-%04X-%04X", i >>> 16, i & 0xFFFF, i % 97, i % 89))
+                        .append("\",\"rule_name\":\"").append(RULES[i % RULES.length])
+                        .append("\",\"severity\":\"").append(SEVERITIES[i % SEVERITIES.length])
+                        .append("\",\"status\":\"").append(STATUSES[i % STATUSES.length])
+                        .append("\",\"first_time_seen\":").append(1500000000000L + i)
+                        .append(",\"last_time_seen\":").append(1500000000000L + i * 2L)
+                        .append("}");
+            }
+            traces.addAll(gson.fromJson(json.append("]}").toString(), Traces.class).getTraces());
+        }
+        return traces;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
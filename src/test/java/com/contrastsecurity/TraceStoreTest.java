@@ -0,0 +1,81 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.TraceStore;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TraceStoreTest {
+
+    private TraceStore store;
+    private Gson gson;
+
+    @Before
+    public void setUp() {
+        store = new TraceStore(2);
+        gson = new Gson();
+        store.ingest(gson.fromJson("{\"count\":3,\"traces\":["
+                + "{\"uuid\":\"AAAA-0001\",\"rule_name\":\"sql-injection\",\"severity\":\"Critical\",\"status\":\"Reported\",\"last_time_seen\":1000,\"application\":{\"app_id\":\"app-1\"}},"
+                + "{\"uuid\":\"AAAA-0002\",\"rule_name\":\"xss\",\"severity\":\"High\",\"status\":\"Confirmed\",\"last_time_seen\":2000,\"application\":{\"app_id\":\"app-1\"}},"
+                + "{\"uuid\":\"AAAA-0003\",\"rule_name\":\"xss\",\"severity\":\"High\",\"status\":\"Remediated\",\"last_time_seen\":3000,\"closed_time\":3500,\"application\":{\"app_id\":\"app-2\"}}]}",
+                Traces.class));
+    }
+
+    @Test
+    public void testIngestStoresColumns() {
+        assertEquals(3, store.size());
+
+        int row = store.rowOf("AAAA-0002");
+        assertEquals("AAAA-0002", store.getUuid(row));
+        assertEquals("xss", store.getRule(row));
+        assertEquals("High", store.getSeverity(row));
+        assertEquals("Confirmed", store.getStatus(row));
+        assertEquals("app-1", store.getApplicationId(row));
+        assertEquals(2000L, store.getLastTimeSeen(row));
+        assertEquals(TraceStore.NO_TIME, store.getFirstTimeSeen(row));
+        assertEquals(-1, store.rowOf("missing"));
+    }
+
+    @Test
+    public void testReingestUpdatesRow() {
+        store.ingest(gson.fromJson("{\"traces\":[{\"uuid\":\"AAAA-0001\",\"rule_name\":\"sql-injection\",\"severity\":\"Critical\",\"status\":\"Remediated\"}]}", Traces.class));
+
+        assertEquals(3, store.size());
+        assertEquals("Remediated", store.getStatus(store.rowOf("AAAA-0001")));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        StringBuilder json = new StringBuilder("{\"traces\":[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"uuid\":\"BBBB-").append(i).append("\",\"severity\":\"Low\"}");
+        }
+        store.ingest(gson.fromJson(json.append("]}").toString(), Traces.class));
+
+        assertEquals(503, store.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("BBBB-" + i, store.getUuid(store.rowOf("BBBB-" + i)));
+        }
+    }
+
+    @Test
+    public void testFilterAndGroupBy() {
+        TraceStore.Filter high = new TraceStore.Filter().withSeverities("High", "Critical");
+        assertEquals(3, store.count(high));
+        assertEquals(0, store.count(new TraceStore.Filter().withSeverities("Unknown")));
+        assertEquals(2, store.count(new TraceStore.Filter().withClosed(false)));
+        assertArrayEquals(new int[]{1}, store.select(new TraceStore.Filter().withLastSeenBetween(1500, 2500)));
+
+        Map<String, Integer> byRule = store.countBy(TraceStore.Column.RULE, new TraceStore.Filter().withApplications("app-1"));
+        assertEquals(Integer.valueOf(1), byRule.get("sql-injection"));
+        assertEquals(Integer.valueOf(1), byRule.get("xss"));
+
+        Map<String, Integer> bySeverity = store.countBy(TraceStore.Column.SEVERITY, null);
+        assertEquals(Integer.valueOf(2), bySeverity.get("High"));
+    }
+}
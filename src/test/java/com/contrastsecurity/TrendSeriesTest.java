@@ -0,0 +1,75 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.TrendSeries;
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.VulnerabilityTrend;
+import com.contrastsecurity.sdk.BulkOptions;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.TrendFetcher;
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TrendSeriesTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void testConvertsSteps() {
+        TrendSeries series = TrendSeries.of(trend(
+                "{\"open\":[{\"timestamp\":200,\"count\":3,\"statusBreakdown\":[{\"name\":\"Reported\",\"value\":2},{\"name\":\"Confirmed\",\"value\":1}]},"
+                        + "{\"timestamp\":100,\"count\":1,\"statusBreakdown\":[{\"name\":\"Reported\",\"value\":1}]},"
+                        + "{\"timestamp\":200,\"count\":1,\"statusBreakdown\":[{\"name\":\"Reported\",\"value\":1}]}]}").getOpenTrend());
+
+        assertArrayEquals(new long[]{100, 200}, series.getTimestamps());
+        assertArrayEquals(new int[]{1, 4}, series.getCounts());
+        assertEquals(Arrays.asList("Reported", "Confirmed"), series.getStatuses());
+        assertArrayEquals(new int[]{1, 3}, series.getStatusCounts("Reported"));
+        assertEquals(0, series.getStatusCount("Confirmed", 0));
+        assertArrayEquals(new int[]{0, 0}, series.getStatusCounts("Fixed"));
+        assertSame(TrendSeries.EMPTY, TrendSeries.of(null));
+    }
+
+    @Test
+    public void testSumsSeriesWithDifferentSteps() {
+        TrendSeries a = TrendSeries.of(trend("{\"open\":[{\"timestamp\":100,\"count\":1,\"statusBreakdown\":[{\"name\":\"Reported\",\"value\":1}]},"
+                + "{\"timestamp\":300,\"count\":2,\"statusBreakdown\":[{\"name\":\"Reported\",\"value\":2}]}]}").getOpenTrend());
+        TrendSeries b = TrendSeries.of(trend("{\"open\":[{\"timestamp\":200,\"count\":5,\"statusBreakdown\":[{\"name\":\"Fixed\",\"value\":5}]},"
+                + "{\"timestamp\":300,\"count\":1,\"statusBreakdown\":[{\"name\":\"Reported\",\"value\":1}]}]}").getOpenTrend());
+
+        TrendSeries sum = a.plus(b).plus(TrendSeries.EMPTY);
+        assertArrayEquals(new long[]{100, 200, 300}, sum.getTimestamps());
+        assertArrayEquals(new int[]{1, 5, 3}, sum.getCounts());
+        assertArrayEquals(new int[]{1, 0, 3}, sum.getStatusCounts("Reported"));
+        assertArrayEquals(new int[]{0, 5, 0}, sum.getStatusCounts("Fixed"));
+        assertArrayEquals(new int[]{2, 10, 6}, TrendSeries.sum(Arrays.asList(sum, sum)).getCounts());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testFetcherSumsApplications() throws InterruptedException {
+        ContrastSDK sdk = new ContrastSDK("user", "serviceKey", "apiKey") {
+            @Override
+            public VulnerabilityTrend getYearlyVulnTrendForApplication(String organizationId, String appId) throws IOException, UnauthorizedException {
+                if (appId.equals("missing")) {
+                    throw new UnauthorizedException(404);
+                }
+                return trend("{\"open\":[{\"timestamp\":100,\"count\":" + appId.length() + "}],\"closed\":[{\"timestamp\":100,\"count\":1}]}");
+            }
+        };
+
+        TrendFetcher.Trends trends = new TrendFetcher(sdk).fetch("org", Arrays.asList("a", "bb", "missing", "bb"), new BulkOptions().withParallelism(2));
+        assertEquals(2, trends.getApplicationCount());
+        assertArrayEquals(new int[]{3}, trends.getOpen().getCounts());
+        assertArrayEquals(new int[]{2}, trends.getClosed().getCounts());
+        assertTrue(trends.getErrors().get("missing") instanceof UnauthorizedException);
+    }
+
+    private VulnerabilityTrend trend(String json) {
+        return gson.fromJson(json, VulnerabilityTrend.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.utils.ByteArrayPool;
+import com.contrastsecurity.utils.Utf8Reader;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares decoding a multi-megabyte traces response through InputStreamReader with decoding
+ * it through {@link Utf8Reader} and a pooled buffer. Arguments: number of traces.
+ */
+public class Utf8DecodingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int traceCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        byte[] json = generate(traceCount);
+        Gson gson = new Gson();
+        ByteArrayPool pool = new ByteArrayPool(ByteArrayPool.DEFAULT_BUFFER_SIZE, ByteArrayPool.DEFAULT_MAX_POOLED);
+
+        System.out.printf("%d traces, %.1f MB%n", traceCount, json.length / 1e6);
+        for (int iteration = 0; iteration < 10; iteration++) {
+            long start = System.nanoTime();
+            drain(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+            long streamReaderDecodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            drain(new Utf8Reader(new ByteArrayInputStream(json), pool));
+            long utf8ReaderDecodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            decode(gson, new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+            long streamReaderNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            decode(gson, new Utf8Reader(new ByteArrayInputStream(json), pool));
+            long utf8ReaderNanos = System.nanoTime() - start;
+
+            System.out.printf("decode only - InputStreamReader: %.1f MB/s, Utf8Reader: %.1f MB/s; with Gson - InputStreamReader: %.1f MB/s, Utf8Reader: %.1f MB/s%n",
+                    json.length * 1e3 / streamReaderDecodeNanos, json.length * 1e3 / utf8ReaderDecodeNanos,
+                    json.length * 1e3 / streamReaderNanos, json.length * 1e3 / utf8ReaderNanos);
+        }
+    }
+
+    private static void drain(Reader reader) throws IOException {
+        char[] chars = new char[8192];
+        try {
+            while (reader.read(chars, 0, chars.length) != -1) {
+                // decode only
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void decode(Gson gson, Reader reader) throws IOException {
+        try {
+            Traces traces = gson.fromJson(reader, Traces.class);
+            if (traces.getTraces().isEmpty()) {
+                throw new IllegalStateException();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    static byte[] generate(int traceCount) {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"count\":").append(traceCount).append(",\"traces\":[");
+        for (int i = 0; i < traceCount; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"uuid\":\"ABCD-").append(i).append("-EFGH-IJKL\",")
+                    .append("\"title\":\"SQL Injection from \\\"q\\\" Parameter on \\\"/caf\u00e9/").append(i).append("\\\" page\",")
+                    .append("\"rule_name\":\"sql-injection\",\"severity\":\"High\",\"status\":\"Reported\",")
+                    .append("\"language\":\"Java\",\"category\":\"Injection\",\"confidence\":\"High\",\"impact\":\"High\",")
+                    .append("\"likelihood\":\"High\",\"first_time_seen\":1553800000000,\"last_time_seen\":1553900000000,")
+                    .append("\"evidence\":\"SELECT * FROM users WHERE name = '\u65e5\u672c' AND id = ").append(i).append("\",")
+                    .append("\"visible\":true,\"hasParentApp\":true,\"platform\":\"Java\",\"license\":\"Licensed\"}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.utils.ByteArrayPool;
+import com.contrastsecurity.utils.Utf8Reader;
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class Utf8ReaderTest {
+
+    private static final String MIXED = "plain ascii, caf\u00e9, \u20ac100, \u65e5\u672c\u8a9e, emoji \ud83d\ude00\ud83d\udc4d end";
+
+    @Test
+    public void testDecodesMixedText() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(1024, 2);
+        assertEquals(MIXED, readAll(new Utf8Reader(stream(MIXED.getBytes(StandardCharsets.UTF_8)), pool), 64));
+    }
+
+    @Test
+    public void testSequencesSplitAcrossBufferRefills() throws IOException {
+        byte[] bytes = MIXED.getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize = 4; bufferSize <= 9; bufferSize++) {
+            ByteArrayPool pool = new ByteArrayPool(bufferSize, 1);
+            assertEquals(MIXED, readAll(new Utf8Reader(new TrickleInputStream(bytes), pool), 7));
+        }
+    }
+
+    @Test
+    public void testSurrogatePairSplitAcrossReads() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(16, 1);
+        Reader reader = new Utf8Reader(stream("\ud83d\ude00".getBytes(StandardCharsets.UTF_8)), pool);
+        char[] one = new char[1];
+
+        assertEquals(1, reader.read(one, 0, 1));
+        assertEquals('\ud83d', one[0]);
+        assertEquals(1, reader.read(one, 0, 1));
+        assertEquals('\ude00', one[0]);
+        assertEquals(-1, reader.read(one, 0, 1));
+    }
+
+    @Test
+    public void testMalformedInputDecodesToReplacement() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(16, 1);
+        byte[] bytes = {'a', (byte) 0xC0, (byte) 0x80, 'b', (byte) 0xED, (byte) 0xA0, (byte) 0x80, 'c', (byte) 0xE2, (byte) 0x82};
+
+        String decoded = readAll(new Utf8Reader(stream(bytes), pool), 64);
+
+        assertEquals("a\ufffd\ufffdb\ufffd\ufffd\ufffdc\ufffd", decoded);
+    }
+
+    @Test
+    public void testTruncatedSequenceKeepsFollowingBytes() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(16, 1);
+
+        assertEquals("\ufffda", readAll(new Utf8Reader(stream(new byte[]{(byte) 0xE2, 'a'}), pool), 64));
+        assertEquals("\ufffdx", readAll(new Utf8Reader(stream(new byte[]{(byte) 0xF0, (byte) 0x9F, 'x'}), pool), 64));
+    }
+
+    @Test
+    public void testBufferIsReturnedToPoolOnClose() throws IOException {
+        final byte[][] released = new byte[2][];
+        ByteArrayPool pool = new ByteArrayPool(16, 1) {
+            @Override
+            public void release(byte[] buffer) {
+                released[released[0] == null ? 0 : 1] = buffer;
+                super.release(buffer);
+            }
+        };
+        Reader reader = new Utf8Reader(stream(new byte[0]), pool);
+
+        reader.close();
+        reader.close();
+
+        assertNotNull(released[0]);
+        assertNull(released[1]);
+        assertSame(released[0], pool.acquire());
+        try {
+            reader.read();
+            fail("Expected the closed reader to reject reads");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testGsonDecodesThroughReader() throws IOException {
+        String json = "{\"count\":1,\"traces\":[{\"uuid\":\"A1\",\"title\":\"SQL Injection from \\\"na\u00efve\\\" input \ud83d\ude00\"}]}";
+        ByteArrayPool pool = new ByteArrayPool(8, 1);
+
+        Traces traces = new Gson().fromJson(new Utf8Reader(new TrickleInputStream(json.getBytes(StandardCharsets.UTF_8)), pool), Traces.class);
+
+        assertEquals("SQL Injection from \"na\u00efve\" input \ud83d\ude00", traces.getTraces().get(0).getTitle());
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static String readAll(Reader reader, int chunk) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] chars = new char[chunk];
+        int read;
+        while ((read = reader.read(chars, 0, chars.length)) != -1) {
+            builder.append(chars, 0, read);
+        }
+        reader.close();
+        return builder.toString();
+    }
+
+    /**
+     * Returns at most three bytes per read, like a slow network connection.
+     */
+    private static class TrickleInputStream extends FilterInputStream {
+
+        TrickleInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 3));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.contrastsecurity;
+
+import com.contrastsecurity.analytics.VulnerabilityAggregator;
+import com.contrastsecurity.analytics.VulnerabilityAggregator.Dimension;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.TraceBreakdown;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class VulnerabilityAggregatorTest {
+
+    private VulnerabilityAggregator aggregator;
+    private Gson gson;
+
+    @Before
+    public void setUp() {
+        aggregator = new VulnerabilityAggregator();
+        gson = new Gson();
+        aggregator.update(gson.fromJson("{\"count\":3,\"traces\":["
+                + "{\"uuid\":\"AAAA-0001\",\"rule_name\":\"sql-injection\",\"severity\":\"Critical\",\"status\":\"Reported\",\"application\":{\"app_id\":\"app-1\"},"
+                + "\"servers\":[{\"environment\":\"PRODUCTION\"},{\"environment\":\"QA\"},{\"environment\":\"QA\"}]},"
+                + "{\"uuid\":\"AAAA-0002\",\"rule_name\":\"xss\",\"severity\":\"High\",\"status\":\"Confirmed\",\"application\":{\"app_id\":\"app-1\"},"
+                + "\"servers\":[{\"environment\":\"QA\"}]},"
+                + "{\"uuid\":\"AAAA-0003\",\"rule_name\":\"xss\",\"severity\":\"High\",\"status\":\"Remediated\",\"application\":{\"app_id\":\"app-2\"}}]}",
+                Traces.class));
+    }
+
+    @Test
+    public void testCountsPerApplicationAndOrganization() {
+        assertEquals(3, aggregator.getTraceCount(null));
+        assertEquals(2, aggregator.getTraceCount("app-1"));
+        assertEquals(0, aggregator.getTraceCount("unknown"));
+        assertEquals(2, aggregator.count(null, Dimension.RULE, "xss"));
+        assertEquals(1, aggregator.count("app-1", Dimension.RULE, "xss"));
+        assertEquals(0, aggregator.count("app-2", Dimension.SEVERITY, "Critical"));
+    }
+
+    @Test
+    public void testEnvironmentsCountOncePerTrace() {
+        Map<String, Integer> environments = aggregator.countBy("app-1", Dimension.ENVIRONMENT);
+        assertEquals(Integer.valueOf(1), environments.get("PRODUCTION"));
+        assertEquals(Integer.valueOf(2), environments.get("QA"));
+        assertTrue(aggregator.countBy("app-2", Dimension.ENVIRONMENT).isEmpty());
+    }
+
+    @Test
+    public void testUpdateReplacesPreviousContribution() {
+        aggregator.update(trace("{\"uuid\":\"AAAA-0001\",\"rule_name\":\"sql-injection\",\"severity\":\"Critical\",\"status\":\"Fixed\",\"application\":{\"app_id\":\"app-2\"}}"));
+
+        assertEquals(3, aggregator.getTraceCount(null));
+        assertEquals(1, aggregator.getTraceCount("app-1"));
+        assertEquals(2, aggregator.getTraceCount("app-2"));
+        assertEquals(0, aggregator.count(null, Dimension.STATUS, "Reported"));
+        assertEquals(0, aggregator.count("app-1", Dimension.ENVIRONMENT, "PRODUCTION"));
+        assertFalse(aggregator.countBy(null, Dimension.STATUS).containsKey("Reported"));
+    }
+
+    @Test
+    public void testApplyDelta() {
+        aggregator.applyDelta(Collections.singletonList(trace("{\"uuid\":\"AAAA-0004\",\"rule_name\":\"xss\",\"severity\":\"Low\",\"status\":\"Suspicious\",\"application\":{\"app_id\":\"app-3\"}}")),
+                Arrays.asList("AAAA-0002", "missing"));
+
+        assertEquals(3, aggregator.size());
+        assertEquals(1, aggregator.getTraceCount("app-1"));
+        assertEquals(1, aggregator.count("app-3", Dimension.STATUS, "Suspicious"));
+        assertFalse(aggregator.remove("AAAA-0002"));
+        assertTrue(aggregator.remove("AAAA-0004"));
+        assertEquals(0, aggregator.getTraceCount("app-3"));
+    }
+
+    @Test
+    public void testRejectedDeltaChangesNothing() {
+        int size = aggregator.size();
+        int appCount = aggregator.getTraceCount("app-1");
+        try {
+            aggregator.applyDelta(Arrays.asList(
+                    trace("{\"uuid\":\"AAAA-0005\",\"severity\":\"Low\",\"application\":{\"app_id\":\"app-1\"}}"),
+                    trace("{\"severity\":\"Low\",\"application\":{\"app_id\":\"app-1\"}}")),
+                    Collections.singletonList("AAAA-0001"));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // no uuid
+        }
+        assertEquals(size, aggregator.size());
+        assertEquals(appCount, aggregator.getTraceCount("app-1"));
+        assertEquals(0, aggregator.count("app-1", Dimension.SEVERITY, "Low"));
+    }
+
+    @Test
+    public void testBreakdown() {
+        TraceBreakdown app = aggregator.getBreakdown("app-1");
+        assertEquals(2, app.getTraceCount());
+        assertEquals(1, app.getCriticals());
+        assertEquals(1, app.getHighs());
+        assertEquals(1, app.getReported());
+        assertEquals(1, app.getConfirmed());
+        assertEquals(1, app.getTriaged());
+
+        TraceBreakdown organization = aggregator.getBreakdown(null);
+        assertEquals(3, organization.getTraceCount());
+        assertEquals(2, organization.getHighs());
+        assertEquals(1, organization.getRemediated());
+    }
+
+    private Trace trace(String json) {
+        return gson.fromJson(json, Trace.class);
+    }
+}